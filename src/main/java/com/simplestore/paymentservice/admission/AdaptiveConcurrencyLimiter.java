@@ -0,0 +1,109 @@
+package com.simplestore.paymentservice.admission;
+
+import com.simplestore.paymentservice.config.AdmissionProperties;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Concurrency limit that follows the service's latency (gradient algorithm).
+ *
+ * Each payment latency is compared with a long-term average. While latency stays within the tolerance the
+ * limit grows by about sqrt(limit); once requests start queueing, latency rises and the limit shrinks in
+ * proportion. No fixed latency threshold is needed, so it adapts when the gateway itself slows down.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    public enum Priority {
+        /** Payment writes; may use the whole limit */
+        WRITE,
+        /** Reads; capped at a share of the limit */
+        READ
+    }
+
+    private final AdmissionProperties properties;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private volatile double limit;
+    private double longRttNanos;
+    private long samples;
+
+    public AdaptiveConcurrencyLimiter(AdmissionProperties properties) {
+        this.properties = properties;
+        this.limit = properties.getInitialLimit();
+    }
+
+    /**
+     * Take a slot, or return false if the request should be rejected
+     */
+    public boolean tryAcquire(Priority priority) {
+        int allowed = allowed(priority);
+        while (true) {
+            int current = inFlight.get();
+            if (current >= allowed) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Give back a slot without a latency sample (reads, failed requests)
+     */
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    /**
+     * Give back a slot and feed the request's latency into the limit
+     */
+    public void release(long rttNanos) {
+        int inFlightAtCompletion = inFlight.getAndDecrement();
+        onSample(rttNanos, inFlightAtCompletion);
+    }
+
+    synchronized void onSample(long rttNanos, int inFlightAtCompletion) {
+        if (rttNanos <= 0) {
+            return;
+        }
+        samples++;
+        // Plain average until the long window has filled, then an exponential one
+        double weight = 1.0 / Math.min(samples, properties.getLongWindow());
+        longRttNanos += (rttNanos - longRttNanos) * weight;
+        if (longRttNanos / rttNanos > 2) {
+            // Latency has recovered well below the average; forget the overload faster
+            longRttNanos *= 0.95;
+        }
+
+        // Not using half the limit: latency says nothing about whether more would fit
+        if (inFlightAtCompletion < limit / 2) {
+            return;
+        }
+
+        double gradient = Math.max(0.5, Math.min(1.0, properties.getTolerance() * longRttNanos / rttNanos));
+        double newLimit = limit * gradient + Math.sqrt(limit);
+        newLimit = limit * (1 - properties.getSmoothing()) + newLimit * properties.getSmoothing();
+        limit = Math.max(properties.getMinLimit(), Math.min(properties.getMaxLimit(), newLimit));
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * Long-term average latency, used to tell rejected clients when to come back
+     */
+    public synchronized long getAverageLatencyNanos() {
+        return (long) longRttNanos;
+    }
+
+    private int allowed(Priority priority) {
+        int current = getLimit();
+        return priority == Priority.WRITE ? current : Math.max(1, (int) (current * properties.getReadShare()));
+    }
+}
@@ -0,0 +1,132 @@
+package com.simplestore.paymentservice.admission;
+
+import com.simplestore.paymentservice.cluster.ClusterProtocol;
+import com.simplestore.paymentservice.config.AdmissionProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Admission control for /api/payments and payments forwarded by other cluster nodes: requests over the
+ * adaptive concurrency limit are rejected immediately with 503 and Retry-After instead of queueing on
+ * Tomcat threads.
+ *
+ * Payment processing may use the whole limit and is what the limit learns from; reads are capped at a
+ * share of it. The health endpoint is never shed. A forwarded payment is shed like a local one, and the
+ * forwarding node relays the 503 to its client.
+ */
+@Component
+@Profile("!reactive") // Servlet filter; the reactive stack does not block threads while waiting
+public class AdmissionFilter extends OncePerRequestFilter {
+    
+    private static final Logger logger = LoggerFactory.getLogger(AdmissionFilter.class);
+    
+    // Checkout calls: one gateway round trip each, so they share a latency profile
+    private static final Set<String> PAYMENT_PATHS = Set.of("/api/payments/process", "/api/payments/authorize",
+                                                            ClusterProtocol.PROCESS_PATH,
+                                                            ClusterProtocol.AUTHORIZE_PATH);
+    private static final String HEALTH_PATH = "/api/payments/health";
+    
+    private final AdmissionProperties properties;
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final Counter rejectedWrites;
+    private final Counter rejectedReads;
+    
+    public AdmissionFilter(AdmissionProperties properties, ObjectProvider<MeterRegistry> meterRegistry) {
+        this.properties = properties;
+        this.limiter = new AdaptiveConcurrencyLimiter(properties);
+        
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        if (registry != null) {
+            Gauge.builder("payment.admission.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+                .description("Current adaptive concurrency limit")
+                .register(registry);
+            Gauge.builder("payment.admission.inflight", limiter, AdaptiveConcurrencyLimiter::getInFlight)
+                .register(registry);
+            rejectedWrites = registry.counter("payment.admission.rejected", "priority", "write");
+            rejectedReads = registry.counter("payment.admission.rejected", "priority", "read");
+        } else {
+            rejectedWrites = null;
+            rejectedReads = null;
+        }
+    }
+    
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return !properties.isEnabled()
+            || !(path.startsWith("/api/payments") || PAYMENT_PATHS.contains(path))
+            || path.equals(HEALTH_PATH);
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        boolean payment = "POST".equals(request.getMethod()) && PAYMENT_PATHS.contains(path);
+        AdaptiveConcurrencyLimiter.Priority priority = payment
+            ? AdaptiveConcurrencyLimiter.Priority.WRITE
+            : AdaptiveConcurrencyLimiter.Priority.READ;
+        
+        if (!limiter.tryAcquire(priority)) {
+            reject(response, priority);
+            return;
+        }
+        
+        long start = System.nanoTime();
+        boolean completed = false;
+        try {
+            chain.doFilter(request, response);
+            completed = true;
+        } finally {
+            if (payment && completed) {
+                limiter.release(System.nanoTime() - start);
+            } else {
+                limiter.release();
+            }
+        }
+    }
+    
+    AdaptiveConcurrencyLimiter getLimiter() {
+        return limiter;
+    }
+    
+    /**
+     * Whether live requests occupy more than the given share of the current limit
+     */
+    public boolean isBusy(double share) {
+        return properties.isEnabled() && limiter.getInFlight() > limiter.getLimit() * share;
+    }
+    
+    private void reject(HttpServletResponse response, AdaptiveConcurrencyLimiter.Priority priority) throws IOException {
+        Counter counter = priority == AdaptiveConcurrencyLimiter.Priority.WRITE ? rejectedWrites : rejectedReads;
+        if (counter != null) {
+            counter.increment();
+        }
+        logger.debug("⚠️ Shedding {} request, limit {} reached", priority, limiter.getLimit());
+        
+        // Come back after about one average payment latency, when slots should have freed up
+        long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(limiter.getAverageLatencyNanos()) + 1);
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write("{\"status\":\"FAILED\",\"message\":\"Service overloaded, retry later\"}");
+    }
+}
@@ -0,0 +1,99 @@
+package com.simplestore.paymentservice.cluster;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.simplestore.paymentservice.config.ClusterProperties;
+import com.simplestore.paymentservice.dto.PaymentRequest;
+import com.simplestore.paymentservice.dto.PaymentResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpConnectTimeoutException;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+/**
+ * Sends a payment to the node that owns it and returns that node's response
+ */
+@Component
+@ConditionalOnProperty(prefix = "payment.cluster", name = "enabled", havingValue = "true")
+public class ClusterForwarder {
+
+    private final ClusterProperties properties;
+    private final ObjectMapper objectMapper;
+    private final HttpClient httpClient = HttpClient.newBuilder()
+        .connectTimeout(Duration.ofSeconds(1))
+        .build();
+
+    public ClusterForwarder(ClusterProperties properties, ObjectMapper objectMapper) {
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Forward to the given node's path, {@link ClusterProtocol#PROCESS_PATH} or {@link ClusterProtocol#AUTHORIZE_PATH}.
+     *
+     * Throws {@link UnreachableException} if no connection could be made, so the node never saw the
+     * payment; {@link RejectedException} if it answered with an error status; and any other IOException
+     * if the request may have reached it without an answer coming back.
+     */
+    public PaymentResponse forward(ClusterProperties.Node owner, String path, PaymentRequest request,
+                                   String idempotencyKey) throws IOException, InterruptedException {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(owner.getUrl() + path))
+            .timeout(Duration.ofMillis(properties.getForwardTimeoutMs()))
+            .header("Content-Type", "application/json")
+            .header(ClusterProtocol.FORWARDED_BY_HEADER, properties.getNodeId())
+            .header(ClusterProtocol.SECRET_HEADER, properties.getSecret())
+            .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(request)));
+        if (idempotencyKey != null) {
+            builder.header(ClusterProtocol.IDEMPOTENCY_KEY_HEADER, idempotencyKey);
+        }
+
+        HttpResponse<byte[]> response;
+        try {
+            response = httpClient.send(builder.build(), HttpResponse.BodyHandlers.ofByteArray());
+        } catch (ConnectException | HttpConnectTimeoutException e) {
+            throw new UnreachableException("Node " + owner.getId() + " cannot be reached: " + e.getMessage(), e);
+        }
+        int status = response.statusCode();
+        if (status == 503 || (status >= 400 && status < 500)) {
+            throw new RejectedException(status, "Node " + owner.getId() + " answered " + status);
+        }
+        if (status != 200) {
+            // Any other answer, e.g. a 500 halfway through the payment, leaves its outcome unknown
+            throw new IOException("Node " + owner.getId() + " answered " + status);
+        }
+        return objectMapper.readValue(response.body(), PaymentResponse.class);
+    }
+
+    /**
+     * The node could not be connected to, so the payment was never sent and may go to another node
+     */
+    public static class UnreachableException extends IOException {
+
+        public UnreachableException(String message, Throwable cause) {
+            super(message, cause);
+        }
+    }
+
+    /**
+     * The node answered with a 4xx or a 503 and did not process the payment; it is not down
+     */
+    public static class RejectedException extends IOException {
+
+        private final int status;
+
+        public RejectedException(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+
+        public int getStatus() {
+            return status;
+        }
+    }
+}
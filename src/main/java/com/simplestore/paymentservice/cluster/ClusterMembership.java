@@ -0,0 +1,160 @@
+package com.simplestore.paymentservice.cluster;
+
+import com.simplestore.paymentservice.config.ClusterProperties;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Cluster view of this node: the statically configured peers, which of them answer pings, and the
+ * hash ring built from the live ones. Keys owned by a node that stops answering move to the next
+ * live node on the ring until it comes back.
+ */
+@Component
+@ConditionalOnProperty(prefix = "payment.cluster", name = "enabled", havingValue = "true")
+public class ClusterMembership {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ClusterMembership.class);
+    
+    private final ClusterProperties properties;
+    private final Map<String, ClusterProperties.Node> nodes = new LinkedHashMap<>();
+    private final Map<String, Integer> failedPings = new ConcurrentHashMap<>();
+    private final AtomicReference<ConsistentHashRing> ring = new AtomicReference<>();
+    private final HttpClient httpClient;
+    
+    public ClusterMembership(ClusterProperties properties) {
+        this.properties = properties;
+        this.httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofMillis(properties.getPingIntervalMs()))
+            .build();
+    }
+    
+    @PostConstruct
+    public void init() {
+        for (ClusterProperties.Node node : properties.getNodes()) {
+            nodes.put(node.getId(), node);
+        }
+        if (!nodes.containsKey(properties.getNodeId())) {
+            throw new IllegalArgumentException("payment.cluster.node-id '" + properties.getNodeId() +
+                                               "' is not listed in payment.cluster.nodes");
+        }
+        if (properties.getSecret() == null || properties.getSecret().isBlank()) {
+            throw new IllegalArgumentException("payment.cluster.secret must be set when clustering is enabled");
+        }
+        // Start optimistic: every configured node is on the ring until it fails its pings
+        rebuildRing();
+        logger.info("🔵 Cluster node {} started with peers {}", properties.getNodeId(), nodes.keySet());
+    }
+    
+    public String localNodeId() {
+        return properties.getNodeId();
+    }
+    
+    /**
+     * Live node that owns the key
+     */
+    public String ownerOf(String key) {
+        return ring.get().ownerOf(key);
+    }
+    
+    public boolean isLocal(String key) {
+        return localNodeId().equals(ownerOf(key));
+    }
+    
+    public ClusterProperties.Node node(String nodeId) {
+        return nodes.get(nodeId);
+    }
+    
+    /**
+     * Whether a node-to-node request comes from another configured node that knows the cluster secret.
+     * The secret is compared in constant time.
+     */
+    public boolean isPeer(String nodeId, String secret) {
+        if (nodeId == null || secret == null || !nodes.containsKey(nodeId) || nodeId.equals(localNodeId())) {
+            return false;
+        }
+        return MessageDigest.isEqual(secret.getBytes(StandardCharsets.UTF_8),
+                                     properties.getSecret().getBytes(StandardCharsets.UTF_8));
+    }
+    
+    /**
+     * Take a node off the ring right away, e.g. after a failed forward; pings bring it back
+     */
+    public void markDown(String nodeId) {
+        if (!nodeId.equals(localNodeId())) {
+            failedPings.put(nodeId, properties.getFailuresBeforeDown());
+            rebuildRing();
+        }
+    }
+    
+    @Scheduled(fixedDelayString = "${payment.cluster.ping-interval-ms:2000}")
+    public void pingPeers() {
+        boolean changed = false;
+        for (ClusterProperties.Node node : nodes.values()) {
+            if (node.getId().equals(localNodeId())) {
+                continue;
+            }
+            boolean wasUp = isUp(node.getId());
+            if (ping(node)) {
+                failedPings.remove(node.getId());
+            } else {
+                failedPings.merge(node.getId(), 1, Integer::sum);
+            }
+            if (wasUp != isUp(node.getId())) {
+                logger.warn("⚠️ Cluster node {} is now {}", node.getId(), isUp(node.getId()) ? "up" : "down");
+                changed = true;
+            }
+        }
+        if (changed) {
+            rebuildRing();
+        }
+    }
+    
+    /**
+     * IDs of nodes currently on the ring
+     */
+    public List<String> liveNodes() {
+        return nodes.keySet().stream().filter(this::isUp).toList();
+    }
+    
+    private boolean isUp(String nodeId) {
+        return failedPings.getOrDefault(nodeId, 0) < properties.getFailuresBeforeDown();
+    }
+    
+    private boolean ping(ClusterProperties.Node node) {
+        try {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(node.getUrl() + ClusterProtocol.PING_PATH))
+                .timeout(Duration.ofMillis(properties.getPingIntervalMs()))
+                .header(ClusterProtocol.FORWARDED_BY_HEADER, localNodeId())
+                .header(ClusterProtocol.SECRET_HEADER, properties.getSecret())
+                .GET()
+                .build();
+            return httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+    
+    private synchronized void rebuildRing() {
+        ring.set(new ConsistentHashRing(liveNodes(), properties.getVirtualNodes()));
+    }
+}
@@ -0,0 +1,28 @@
+package com.simplestore.paymentservice.cluster;
+
+/**
+ * Node-to-node protocol: plain HTTP/1.1 with JSON bodies on internal paths
+ */
+public final class ClusterProtocol {
+
+    public static final String BASE_PATH = "/internal/cluster";
+    public static final String PING_PATH = BASE_PATH + "/ping";
+    public static final String PROCESS_PATH = BASE_PATH + "/process";
+    public static final String AUTHORIZE_PATH = BASE_PATH + "/authorize";
+
+    /**
+     * ID of the calling node, set on every node-to-node request; a forwarded payment is always handled by
+     * the node receiving it
+     */
+    public static final String FORWARDED_BY_HEADER = "X-Cluster-Forwarded-By";
+
+    /**
+     * The shared payment.cluster.secret, set on every node-to-node request
+     */
+    public static final String SECRET_HEADER = "X-Cluster-Secret";
+
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
+    private ClusterProtocol() {
+    }
+}
@@ -0,0 +1,104 @@
+package com.simplestore.paymentservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Adaptive concurrency limit for the payment API (payment.admission.*)
+ */
+@Component
+@ConfigurationProperties(prefix = "payment.admission")
+public class AdmissionProperties {
+
+    private boolean enabled = true;
+
+    private int initialLimit = 20;
+
+    private int minLimit = 2;
+
+    private int maxLimit = 500;
+
+    /**
+     * How much latency may grow over its long-term average before the limit shrinks
+     */
+    private double tolerance = 1.5;
+
+    /**
+     * Weight of each new limit estimate; lower reacts more slowly but oscillates less
+     */
+    private double smoothing = 0.2;
+
+    /**
+     * Samples in the long-term latency average
+     */
+    private int longWindow = 600;
+
+    /**
+     * Share of the limit reads may occupy, so reporting traffic cannot crowd out payments
+     */
+    private double readShare = 0.5;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getInitialLimit() {
+        return initialLimit;
+    }
+
+    public void setInitialLimit(int initialLimit) {
+        this.initialLimit = initialLimit;
+    }
+
+    public int getMinLimit() {
+        return minLimit;
+    }
+
+    public void setMinLimit(int minLimit) {
+        this.minLimit = minLimit;
+    }
+
+    public int getMaxLimit() {
+        return maxLimit;
+    }
+
+    public void setMaxLimit(int maxLimit) {
+        this.maxLimit = maxLimit;
+    }
+
+    public double getTolerance() {
+        return tolerance;
+    }
+
+    public void setTolerance(double tolerance) {
+        this.tolerance = tolerance;
+    }
+
+    public double getSmoothing() {
+        return smoothing;
+    }
+
+    public void setSmoothing(double smoothing) {
+        this.smoothing = smoothing;
+    }
+
+    public int getLongWindow() {
+        return longWindow;
+    }
+
+    public void setLongWindow(int longWindow) {
+        this.longWindow = longWindow;
+    }
+
+    public double getReadShare() {
+        return readShare;
+    }
+
+    public void setReadShare(double readShare) {
+        this.readShare = readShare;
+    }
+}
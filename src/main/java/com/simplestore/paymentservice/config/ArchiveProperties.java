@@ -0,0 +1,74 @@
+package com.simplestore.paymentservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Settings for moving old terminal-state payments to the archive table (payment.archive.*)
+ */
+@Component
+@ConfigurationProperties(prefix = "payment.archive")
+public class ArchiveProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Terminal-state payments created more than this many days ago are archived
+     */
+    private int retentionDays = 90;
+
+    /**
+     * Payments moved per transaction
+     */
+    private int chunkSize = 500;
+
+    /**
+     * Pause between chunks so archival never hogs the database
+     */
+    private long pauseBetweenChunksMs = 50;
+
+    /**
+     * Directory for compressed columnar exports of newly archived payments; unset disables export
+     */
+    private String exportDir;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getRetentionDays() {
+        return retentionDays;
+    }
+
+    public void setRetentionDays(int retentionDays) {
+        this.retentionDays = retentionDays;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    public void setChunkSize(int chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+
+    public long getPauseBetweenChunksMs() {
+        return pauseBetweenChunksMs;
+    }
+
+    public void setPauseBetweenChunksMs(long pauseBetweenChunksMs) {
+        this.pauseBetweenChunksMs = pauseBetweenChunksMs;
+    }
+
+    public String getExportDir() {
+        return exportDir;
+    }
+
+    public void setExportDir(String exportDir) {
+        this.exportDir = exportDir;
+    }
+}
@@ -0,0 +1,51 @@
+package com.simplestore.paymentservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Settings for authorization holds and captures (payment.authorization.*)
+ */
+@Component
+@ConfigurationProperties(prefix = "payment.authorization")
+public class AuthorizationProperties {
+
+    /**
+     * How long an uncaptured authorization is held before it is voided automatically
+     */
+    private long expirySeconds = 7 * 24 * 3600;
+
+    /**
+     * Most captures accepted in one batch request
+     */
+    private int maxCaptureBatch = 5000;
+
+    /**
+     * Most expired authorizations voided per auto-void run
+     */
+    private int autoVoidBatch = 500;
+
+    public long getExpirySeconds() {
+        return expirySeconds;
+    }
+
+    public void setExpirySeconds(long expirySeconds) {
+        this.expirySeconds = expirySeconds;
+    }
+
+    public int getMaxCaptureBatch() {
+        return maxCaptureBatch;
+    }
+
+    public void setMaxCaptureBatch(int maxCaptureBatch) {
+        this.maxCaptureBatch = maxCaptureBatch;
+    }
+
+    public int getAutoVoidBatch() {
+        return autoVoidBatch;
+    }
+
+    public void setAutoVoidBatch(int autoVoidBatch) {
+        this.autoVoidBatch = autoVoidBatch;
+    }
+}
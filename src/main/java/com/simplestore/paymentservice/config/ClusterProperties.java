@@ -0,0 +1,141 @@
+package com.simplestore.paymentservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Static cluster membership (payment.cluster.*); every node lists all nodes, itself included
+ */
+@Component
+@ConfigurationProperties(prefix = "payment.cluster")
+public class ClusterProperties {
+
+    private boolean enabled = false;
+
+    /**
+     * ID of this node; must match one of the entries in nodes
+     */
+    private String nodeId;
+
+    private List<Node> nodes = new ArrayList<>();
+
+    /**
+     * Shared secret every node sends on node-to-node requests; required, and the same on all nodes
+     */
+    private String secret;
+
+    /**
+     * Points per node on the hash ring; more points spread keys more evenly
+     */
+    private int virtualNodes = 128;
+
+    private long pingIntervalMs = 2000;
+
+    /**
+     * Consecutive failed pings before a node is taken off the ring
+     */
+    private int failuresBeforeDown = 2;
+
+    private long forwardTimeoutMs = 10_000;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public void setNodeId(String nodeId) {
+        this.nodeId = nodeId;
+    }
+
+    public String getSecret() {
+        return secret;
+    }
+
+    public void setSecret(String secret) {
+        this.secret = secret;
+    }
+
+    public List<Node> getNodes() {
+        return nodes;
+    }
+
+    public void setNodes(List<Node> nodes) {
+        this.nodes = nodes;
+    }
+
+    public int getVirtualNodes() {
+        return virtualNodes;
+    }
+
+    public void setVirtualNodes(int virtualNodes) {
+        this.virtualNodes = virtualNodes;
+    }
+
+    public long getPingIntervalMs() {
+        return pingIntervalMs;
+    }
+
+    public void setPingIntervalMs(long pingIntervalMs) {
+        this.pingIntervalMs = pingIntervalMs;
+    }
+
+    public int getFailuresBeforeDown() {
+        return failuresBeforeDown;
+    }
+
+    public void setFailuresBeforeDown(int failuresBeforeDown) {
+        this.failuresBeforeDown = failuresBeforeDown;
+    }
+
+    public long getForwardTimeoutMs() {
+        return forwardTimeoutMs;
+    }
+
+    public void setForwardTimeoutMs(long forwardTimeoutMs) {
+        this.forwardTimeoutMs = forwardTimeoutMs;
+    }
+
+    public static class Node {
+
+        private String id;
+
+        /**
+         * Base URL of the node, e.g. http://10.0.0.5:8080
+         */
+        private String url;
+
+        public Node() {
+        }
+
+        public Node(String id, String url) {
+            this.id = id;
+            this.url = url;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public void setId(String id) {
+            this.id = id;
+        }
+
+        public String getUrl() {
+            return url;
+        }
+
+        public void setUrl(String url) {
+            this.url = url;
+        }
+    }
+}
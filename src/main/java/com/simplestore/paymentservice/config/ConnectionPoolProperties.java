@@ -0,0 +1,95 @@
+package com.simplestore.paymentservice.config;
+
+/**
+ * Inputs for deriving the JDBC pool size from gateway concurrency (payment.datasource.pool.*)
+ *
+ * By Little's law the connections busy at once are the payment rate times the database time per
+ * payment. With gatewayConcurrency payments in flight, each taking gatewayLatencyMs at the gateway
+ * plus dbTimePerPaymentMs in the database, that is
+ * gatewayConcurrency * dbTimePerPaymentMs / (gatewayLatencyMs + dbTimePerPaymentMs).
+ * Connections are not held during the gateway call, so this is far below gatewayConcurrency.
+ */
+public class ConnectionPoolProperties {
+
+    private boolean derive = false;
+
+    private int gatewayConcurrency = 200;
+
+    private long gatewayLatencyMs = 2000;
+
+    private long dbTimePerPaymentMs = 10;
+
+    /**
+     * Multiplier over the steady-state estimate to absorb bursts
+     */
+    private double headroom = 2.0;
+
+    private int minSize = 4;
+
+    private int maxSize = 50;
+
+    /**
+     * Pool size for the configured workload, clamped to [minSize, maxSize]
+     */
+    public int poolSize() {
+        double busy = (double) gatewayConcurrency * dbTimePerPaymentMs / (gatewayLatencyMs + dbTimePerPaymentMs);
+        int size = (int) Math.ceil(busy * headroom);
+        return Math.max(minSize, Math.min(maxSize, size));
+    }
+
+    public boolean isDerive() {
+        return derive;
+    }
+
+    public void setDerive(boolean derive) {
+        this.derive = derive;
+    }
+
+    public int getGatewayConcurrency() {
+        return gatewayConcurrency;
+    }
+
+    public void setGatewayConcurrency(int gatewayConcurrency) {
+        this.gatewayConcurrency = gatewayConcurrency;
+    }
+
+    public long getGatewayLatencyMs() {
+        return gatewayLatencyMs;
+    }
+
+    public void setGatewayLatencyMs(long gatewayLatencyMs) {
+        this.gatewayLatencyMs = gatewayLatencyMs;
+    }
+
+    public long getDbTimePerPaymentMs() {
+        return dbTimePerPaymentMs;
+    }
+
+    public void setDbTimePerPaymentMs(long dbTimePerPaymentMs) {
+        this.dbTimePerPaymentMs = dbTimePerPaymentMs;
+    }
+
+    public double getHeadroom() {
+        return headroom;
+    }
+
+    public void setHeadroom(double headroom) {
+        this.headroom = headroom;
+    }
+
+    public int getMinSize() {
+        return minSize;
+    }
+
+    public void setMinSize(int minSize) {
+        this.minSize = minSize;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public void setMaxSize(int maxSize) {
+        this.maxSize = maxSize;
+    }
+}
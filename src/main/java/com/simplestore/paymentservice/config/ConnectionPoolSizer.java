@@ -0,0 +1,51 @@
+package com.simplestore.paymentservice.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+
+/**
+ * Sizes the Hikari pool from gateway concurrency when payment.datasource.pool.derive=true.
+ *
+ * Runs after Spring Boot has bound spring.datasource.hikari.*, so the derived size replaces
+ * maximum-pool-size; leave derive off to size the pool by hand. Only the primary pool is sized: the
+ * replica serves reads that never wait on the gateway, and keeps payment.datasource.replica.hikari.*.
+ */
+@Component
+public class ConnectionPoolSizer implements BeanPostProcessor, EnvironmentAware {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConnectionPoolSizer.class);
+
+    // Spring Boot's own pool, or the primary of ReplicaDataSourceConfig
+    static final Set<String> PRIMARY_BEAN_NAMES = Set.of("dataSource", "primaryDataSource");
+
+    private ConnectionPoolProperties properties = new ConnectionPoolProperties();
+
+    @Override
+    public void setEnvironment(Environment environment) {
+        // Bound by hand: post-processors are created before @ConfigurationProperties beans
+        properties = Binder.get(environment)
+            .bind("payment.datasource.pool", ConnectionPoolProperties.class)
+            .orElseGet(ConnectionPoolProperties::new);
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof HikariDataSource dataSource && properties.isDerive()
+                && PRIMARY_BEAN_NAMES.contains(beanName)) {
+            int size = properties.poolSize();
+            dataSource.setMaximumPoolSize(size);
+            dataSource.setMinimumIdle(size);
+            logger.info("🔵 Connection pool sized to {} for gateway concurrency {} at {} ms",
+                       size, properties.getGatewayConcurrency(), properties.getGatewayLatencyMs());
+        }
+        return bean;
+    }
+}
@@ -0,0 +1,78 @@
+package com.simplestore.paymentservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Settings for on-demand JFR recordings (payment.diagnostics.*)
+ */
+@Component
+@ConfigurationProperties(prefix = "payment.diagnostics")
+public class DiagnosticsProperties {
+
+    /**
+     * Whether the recording endpoints are mapped; the payment JFR events are emitted either way and
+     * cost nothing unless a recording enables them
+     */
+    private boolean enabled = true;
+
+    /**
+     * Where finished recordings are written; empty for a directory under java.io.tmpdir
+     */
+    private String directory = "";
+
+    /**
+     * Recordings stop on their own after this long, so a forgotten one does not run forever
+     */
+    private long maxDurationSeconds = 900;
+
+    /**
+     * Disk space a recording may use before its oldest data is dropped
+     */
+    private long maxSizeMb = 256;
+
+    /**
+     * Finished recordings kept on disk; starting another deletes the oldest
+     */
+    private int maxRecordings = 5;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getDirectory() {
+        return directory;
+    }
+
+    public void setDirectory(String directory) {
+        this.directory = directory;
+    }
+
+    public long getMaxDurationSeconds() {
+        return maxDurationSeconds;
+    }
+
+    public void setMaxDurationSeconds(long maxDurationSeconds) {
+        this.maxDurationSeconds = maxDurationSeconds;
+    }
+
+    public long getMaxSizeMb() {
+        return maxSizeMb;
+    }
+
+    public void setMaxSizeMb(long maxSizeMb) {
+        this.maxSizeMb = maxSizeMb;
+    }
+
+    public int getMaxRecordings() {
+        return maxRecordings;
+    }
+
+    public void setMaxRecordings(int maxRecordings) {
+        this.maxRecordings = maxRecordings;
+    }
+}
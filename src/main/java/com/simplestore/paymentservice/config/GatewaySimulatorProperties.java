@@ -0,0 +1,185 @@
+package com.simplestore.paymentservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Settings for the simulated payment gateway (payment.gateway.simulator.*)
+ */
+@Component
+@ConfigurationProperties(prefix = "payment.gateway.simulator")
+public class GatewaySimulatorProperties {
+
+    /**
+     * Seed for the simulator's random outcomes and latencies; unset means non-deterministic
+     */
+    private Long seed;
+
+    private double networkErrorRate = 0.05;
+    private double declineRate = 0.15;
+    private double highAmountFailureRate = 0.3;
+    private double insufficientFundsRate = 0.2;
+    private double refundFailureRate = 0.05;
+
+    private final Latency latency = new Latency();
+
+    // Getters and Setters
+    public Long getSeed() {
+        return seed;
+    }
+
+    public void setSeed(Long seed) {
+        this.seed = seed;
+    }
+
+    public double getNetworkErrorRate() {
+        return networkErrorRate;
+    }
+
+    public void setNetworkErrorRate(double networkErrorRate) {
+        this.networkErrorRate = networkErrorRate;
+    }
+
+    public double getDeclineRate() {
+        return declineRate;
+    }
+
+    public void setDeclineRate(double declineRate) {
+        this.declineRate = declineRate;
+    }
+
+    public double getHighAmountFailureRate() {
+        return highAmountFailureRate;
+    }
+
+    public void setHighAmountFailureRate(double highAmountFailureRate) {
+        this.highAmountFailureRate = highAmountFailureRate;
+    }
+
+    public double getInsufficientFundsRate() {
+        return insufficientFundsRate;
+    }
+
+    public void setInsufficientFundsRate(double insufficientFundsRate) {
+        this.insufficientFundsRate = insufficientFundsRate;
+    }
+
+    public double getRefundFailureRate() {
+        return refundFailureRate;
+    }
+
+    public void setRefundFailureRate(double refundFailureRate) {
+        this.refundFailureRate = refundFailureRate;
+    }
+
+    public Latency getLatency() {
+        return latency;
+    }
+
+    /**
+     * Latency distribution of simulated gateway calls
+     */
+    public static class Latency {
+
+        private LatencyMode mode = LatencyMode.UNIFORM;
+
+        // FIXED
+        private long fixedMs = 1000;
+
+        // UNIFORM and BURSTY base
+        private long minMs = 1000;
+        private long maxMs = 3000;
+
+        // LOGNORMAL
+        private long medianMs = 1500;
+        private double sigma = 0.5;
+
+        // BURSTY: extra delay added with the given probability
+        private double burstProbability = 0.05;
+        private long burstMs = 5000;
+
+        // REPLAY: file with one latency in milliseconds per line
+        private String traceFile;
+
+        public LatencyMode getMode() {
+            return mode;
+        }
+
+        public void setMode(LatencyMode mode) {
+            this.mode = mode;
+        }
+
+        public long getFixedMs() {
+            return fixedMs;
+        }
+
+        public void setFixedMs(long fixedMs) {
+            this.fixedMs = fixedMs;
+        }
+
+        public long getMinMs() {
+            return minMs;
+        }
+
+        public void setMinMs(long minMs) {
+            this.minMs = minMs;
+        }
+
+        public long getMaxMs() {
+            return maxMs;
+        }
+
+        public void setMaxMs(long maxMs) {
+            this.maxMs = maxMs;
+        }
+
+        public long getMedianMs() {
+            return medianMs;
+        }
+
+        public void setMedianMs(long medianMs) {
+            this.medianMs = medianMs;
+        }
+
+        public double getSigma() {
+            return sigma;
+        }
+
+        public void setSigma(double sigma) {
+            this.sigma = sigma;
+        }
+
+        public double getBurstProbability() {
+            return burstProbability;
+        }
+
+        public void setBurstProbability(double burstProbability) {
+            this.burstProbability = burstProbability;
+        }
+
+        public long getBurstMs() {
+            return burstMs;
+        }
+
+        public void setBurstMs(long burstMs) {
+            this.burstMs = burstMs;
+        }
+
+        public String getTraceFile() {
+            return traceFile;
+        }
+
+        public void setTraceFile(String traceFile) {
+            this.traceFile = traceFile;
+        }
+    }
+
+    public enum LatencyMode {
+        ZERO,
+        FIXED,
+        UNIFORM,
+        LOGNORMAL,
+        BURSTY,
+        REPLAY
+    }
+}
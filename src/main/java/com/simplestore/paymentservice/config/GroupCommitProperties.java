@@ -0,0 +1,61 @@
+package com.simplestore.paymentservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Settings for group-committing final payment status updates (payment.group-commit.*)
+ */
+@Component
+@ConfigurationProperties(prefix = "payment.group-commit")
+public class GroupCommitProperties {
+
+    private boolean enabled = false;
+
+    /**
+     * Most updates written in one batched UPDATE and commit
+     */
+    private int maxBatchSize = 200;
+
+    /**
+     * Longest an update waits for others to join its batch
+     */
+    private long maxDelayMs = 5;
+
+    /**
+     * Pending updates held before submitters block
+     */
+    private int queueCapacity = 10_000;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    public void setMaxBatchSize(int maxBatchSize) {
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    public long getMaxDelayMs() {
+        return maxDelayMs;
+    }
+
+    public void setMaxDelayMs(long maxDelayMs) {
+        this.maxDelayMs = maxDelayMs;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+}
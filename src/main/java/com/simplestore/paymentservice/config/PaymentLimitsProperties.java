@@ -0,0 +1,30 @@
+package com.simplestore.paymentservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Per-currency payment limits (payment.limits.*); only currencies listed here are accepted
+ */
+@Component
+@ConfigurationProperties(prefix = "payment.limits")
+public class PaymentLimitsProperties {
+
+    private Map<String, BigDecimal> maxAmount = new LinkedHashMap<>(Map.of(
+        "USD", new BigDecimal("999999.99"),
+        "EUR", new BigDecimal("999999.99"),
+        "GBP", new BigDecimal("999999.99"),
+        "JPY", new BigDecimal("99999999")));
+
+    public Map<String, BigDecimal> getMaxAmount() {
+        return maxAmount;
+    }
+
+    public void setMaxAmount(Map<String, BigDecimal> maxAmount) {
+        this.maxAmount = maxAmount;
+    }
+}
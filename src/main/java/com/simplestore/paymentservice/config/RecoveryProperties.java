@@ -0,0 +1,87 @@
+package com.simplestore.paymentservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Settings for reconciling payments left in flight by a crash (payment.recovery.*)
+ */
+@Component
+@ConfigurationProperties(prefix = "payment.recovery")
+public class RecoveryProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * PROCESSING payments older than this are considered abandoned; must exceed the slowest gateway call
+     */
+    private long staleAfterSeconds = 300;
+
+    /**
+     * Payments read per query
+     */
+    private int chunkSize = 100;
+
+    /**
+     * Gateway status queries in flight at once
+     */
+    private int parallelism = 4;
+
+    /**
+     * Upper bound on payments reconciled per second
+     */
+    private double maxPerSecond = 20;
+
+    /**
+     * Pause while live payments occupy more than this share of the admission limit
+     */
+    private double yieldAboveLoad = 0.5;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getStaleAfterSeconds() {
+        return staleAfterSeconds;
+    }
+
+    public void setStaleAfterSeconds(long staleAfterSeconds) {
+        this.staleAfterSeconds = staleAfterSeconds;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    public void setChunkSize(int chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    public double getMaxPerSecond() {
+        return maxPerSecond;
+    }
+
+    public void setMaxPerSecond(double maxPerSecond) {
+        this.maxPerSecond = maxPerSecond;
+    }
+
+    public double getYieldAboveLoad() {
+        return yieldAboveLoad;
+    }
+
+    public void setYieldAboveLoad(double yieldAboveLoad) {
+        this.yieldAboveLoad = yieldAboveLoad;
+    }
+}
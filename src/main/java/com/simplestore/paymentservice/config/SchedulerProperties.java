@@ -0,0 +1,100 @@
+package com.simplestore.paymentservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Settings for delayed payment actions (payment.scheduler.*)
+ */
+@Component
+@ConfigurationProperties(prefix = "payment.scheduler")
+public class SchedulerProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Timing wheel resolution; actions run at most this late
+     */
+    private long tickMillis = 10;
+
+    /**
+     * Buckets per timing wheel level
+     */
+    private int wheelSize = 512;
+
+    /**
+     * Actions due within this window are kept in memory; later ones stay in the database until they come closer
+     */
+    private long horizonSeconds = 300;
+
+    /**
+     * How often the database is scanned for actions entering the horizon; must be shorter than the horizon
+     */
+    private long loadIntervalMs = 60_000;
+
+    /**
+     * Actions read per query while loading
+     */
+    private int loadChunkSize = 1000;
+
+    /**
+     * Threads running due actions (each one waits on the gateway)
+     */
+    private int executorThreads = 8;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getTickMillis() {
+        return tickMillis;
+    }
+
+    public void setTickMillis(long tickMillis) {
+        this.tickMillis = tickMillis;
+    }
+
+    public int getWheelSize() {
+        return wheelSize;
+    }
+
+    public void setWheelSize(int wheelSize) {
+        this.wheelSize = wheelSize;
+    }
+
+    public long getHorizonSeconds() {
+        return horizonSeconds;
+    }
+
+    public void setHorizonSeconds(long horizonSeconds) {
+        this.horizonSeconds = horizonSeconds;
+    }
+
+    public long getLoadIntervalMs() {
+        return loadIntervalMs;
+    }
+
+    public void setLoadIntervalMs(long loadIntervalMs) {
+        this.loadIntervalMs = loadIntervalMs;
+    }
+
+    public int getLoadChunkSize() {
+        return loadChunkSize;
+    }
+
+    public void setLoadChunkSize(int loadChunkSize) {
+        this.loadChunkSize = loadChunkSize;
+    }
+
+    public int getExecutorThreads() {
+        return executorThreads;
+    }
+
+    public void setExecutorThreads(int executorThreads) {
+        this.executorThreads = executorThreads;
+    }
+}
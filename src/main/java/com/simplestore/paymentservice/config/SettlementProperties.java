@@ -0,0 +1,79 @@
+package com.simplestore.paymentservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Settings for settlement reconciliation and ledger export (payment.settlement.*)
+ */
+@Component
+@ConfigurationProperties(prefix = "payment.settlement")
+public class SettlementProperties {
+
+    /**
+     * Where settlement files are read from and ledgers and discrepancy reports are written to;
+     * reconciliation only opens files inside it
+     */
+    private String directory = "settlements";
+
+    /**
+     * Bytes of the settlement file mapped at a time; no single line may be longer
+     */
+    private int windowMb = 64;
+
+    /**
+     * Settlement lines matched against the database with one query
+     */
+    private int chunkSize = 1_000;
+
+    /**
+     * Transaction IDs sorted in memory before they are spilled to a temporary file while looking for
+     * payments the gateway did not settle
+     */
+    private int spillRunSize = 100_000;
+
+    /**
+     * Finished jobs kept for progress queries; older ones are forgotten (their reports stay on disk)
+     */
+    private int retainedJobs = 20;
+
+    public String getDirectory() {
+        return directory;
+    }
+
+    public void setDirectory(String directory) {
+        this.directory = directory;
+    }
+
+    public int getWindowMb() {
+        return windowMb;
+    }
+
+    public void setWindowMb(int windowMb) {
+        this.windowMb = windowMb;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    public void setChunkSize(int chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+
+    public int getSpillRunSize() {
+        return spillRunSize;
+    }
+
+    public void setSpillRunSize(int spillRunSize) {
+        this.spillRunSize = spillRunSize;
+    }
+
+    public int getRetainedJobs() {
+        return retainedJobs;
+    }
+
+    public void setRetainedJobs(int retainedJobs) {
+        this.retainedJobs = retainedJobs;
+    }
+}
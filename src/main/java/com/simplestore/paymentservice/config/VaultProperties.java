@@ -0,0 +1,64 @@
+package com.simplestore.paymentservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Settings for the card vault (payment.vault.*)
+ */
+@Component
+@ConfigurationProperties(prefix = "payment.vault")
+public class VaultProperties {
+
+    /**
+     * Base64 AES key (16, 24 or 32 bytes) for card data, from which card fingerprints are also keyed
+     */
+    private String encryptionKey = "";
+
+    /**
+     * Start with a random key when none is set, so tokens do not survive a restart; development only
+     */
+    private boolean allowRandomKey = false;
+
+    /**
+     * How long a decrypted, validated card stays in memory after it was loaded
+     */
+    private long cacheTtlSeconds = 900;
+
+    /**
+     * Most cards held in memory; lookups beyond it decrypt from the database every time
+     */
+    private int cacheMaxEntries = 100_000;
+
+    public String getEncryptionKey() {
+        return encryptionKey;
+    }
+
+    public void setEncryptionKey(String encryptionKey) {
+        this.encryptionKey = encryptionKey;
+    }
+
+    public boolean isAllowRandomKey() {
+        return allowRandomKey;
+    }
+
+    public void setAllowRandomKey(boolean allowRandomKey) {
+        this.allowRandomKey = allowRandomKey;
+    }
+
+    public long getCacheTtlSeconds() {
+        return cacheTtlSeconds;
+    }
+
+    public void setCacheTtlSeconds(long cacheTtlSeconds) {
+        this.cacheTtlSeconds = cacheTtlSeconds;
+    }
+
+    public int getCacheMaxEntries() {
+        return cacheMaxEntries;
+    }
+
+    public void setCacheMaxEntries(int cacheMaxEntries) {
+        this.cacheMaxEntries = cacheMaxEntries;
+    }
+}
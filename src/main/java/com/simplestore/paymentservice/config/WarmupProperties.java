@@ -0,0 +1,65 @@
+package com.simplestore.paymentservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Settings for the startup warm-up that runs before the service reports ready (payment.warmup.*)
+ */
+@Component
+@ConfigurationProperties(prefix = "payment.warmup")
+public class WarmupProperties {
+
+    /**
+     * Whether to exercise the hot paths before readiness turns to ACCEPTING_TRAFFIC
+     */
+    private boolean enabled = true;
+
+    /**
+     * Synthetic requests bound from JSON, validated and answered; enough for the JIT to compile
+     * the hot methods with its optimizing compiler
+     */
+    private int iterations = 10_000;
+
+    /**
+     * Synthetic payments inserted, updated and looked up, each in a transaction that is rolled back
+     */
+    private int queryIterations = 200;
+
+    /**
+     * Readiness is never held longer than this, whatever is left of the warm-up
+     */
+    private long maxSeconds = 30;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getIterations() {
+        return iterations;
+    }
+
+    public void setIterations(int iterations) {
+        this.iterations = iterations;
+    }
+
+    public int getQueryIterations() {
+        return queryIterations;
+    }
+
+    public void setQueryIterations(int queryIterations) {
+        this.queryIterations = queryIterations;
+    }
+
+    public long getMaxSeconds() {
+        return maxSeconds;
+    }
+
+    public void setMaxSeconds(long maxSeconds) {
+        this.maxSeconds = maxSeconds;
+    }
+}
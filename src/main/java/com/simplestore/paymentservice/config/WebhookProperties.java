@@ -0,0 +1,134 @@
+package com.simplestore.paymentservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Settings for webhook delivery (payment.webhook.*)
+ */
+@Component
+@ConfigurationProperties(prefix = "payment.webhook")
+public class WebhookProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Longest the dispatcher waits before looking for due deliveries when nothing woke it
+     */
+    private long pollIntervalMs = 200;
+
+    /**
+     * Most deliveries read per endpoint and poll
+     */
+    private int pollBatchSize = 500;
+
+    /**
+     * Requests in flight per endpoint, unless the endpoint sets its own limit
+     */
+    private int maxConcurrencyPerEndpoint = 8;
+
+    /**
+     * Events per request for endpoints in batch mode
+     */
+    private int batchSize = 100;
+
+    private long connectTimeoutMs = 2000;
+
+    /**
+     * A delivery not answered within this time counts as failed; it is retried at the earliest after
+     * twice this time, so a slow endpoint is not sent the same event twice at once
+     */
+    private long requestTimeoutMs = 5000;
+
+    /**
+     * Delay before the first retry; doubled for every further attempt
+     */
+    private long initialBackoffMs = 1000;
+
+    private long maxBackoffMs = 3_600_000;
+
+    /**
+     * Attempts before a delivery is given up and marked FAILED
+     */
+    private int maxAttempts = 10;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getPollIntervalMs() {
+        return pollIntervalMs;
+    }
+
+    public void setPollIntervalMs(long pollIntervalMs) {
+        this.pollIntervalMs = pollIntervalMs;
+    }
+
+    public int getPollBatchSize() {
+        return pollBatchSize;
+    }
+
+    public void setPollBatchSize(int pollBatchSize) {
+        this.pollBatchSize = pollBatchSize;
+    }
+
+    public int getMaxConcurrencyPerEndpoint() {
+        return maxConcurrencyPerEndpoint;
+    }
+
+    public void setMaxConcurrencyPerEndpoint(int maxConcurrencyPerEndpoint) {
+        this.maxConcurrencyPerEndpoint = maxConcurrencyPerEndpoint;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public long getConnectTimeoutMs() {
+        return connectTimeoutMs;
+    }
+
+    public void setConnectTimeoutMs(long connectTimeoutMs) {
+        this.connectTimeoutMs = connectTimeoutMs;
+    }
+
+    public long getRequestTimeoutMs() {
+        return requestTimeoutMs;
+    }
+
+    public void setRequestTimeoutMs(long requestTimeoutMs) {
+        this.requestTimeoutMs = requestTimeoutMs;
+    }
+
+    public long getInitialBackoffMs() {
+        return initialBackoffMs;
+    }
+
+    public void setInitialBackoffMs(long initialBackoffMs) {
+        this.initialBackoffMs = initialBackoffMs;
+    }
+
+    public long getMaxBackoffMs() {
+        return maxBackoffMs;
+    }
+
+    public void setMaxBackoffMs(long maxBackoffMs) {
+        this.maxBackoffMs = maxBackoffMs;
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public void setMaxAttempts(int maxAttempts) {
+        this.maxAttempts = maxAttempts;
+    }
+}
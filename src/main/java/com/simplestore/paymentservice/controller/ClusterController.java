@@ -0,0 +1,86 @@
+package com.simplestore.paymentservice.controller;
+
+import com.simplestore.paymentservice.cluster.ClusterMembership;
+import com.simplestore.paymentservice.cluster.ClusterProtocol;
+import com.simplestore.paymentservice.dto.PaymentRequest;
+import com.simplestore.paymentservice.dto.PaymentResponse;
+import com.simplestore.paymentservice.service.PaymentCoordinator;
+import jakarta.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Node-to-node endpoints; only mapped when clustering is enabled. They share the public port, so every
+ * request must name another configured node and carry the cluster secret, or it is refused with 403.
+ */
+@RestController
+@RequestMapping(ClusterProtocol.BASE_PATH)
+@ConditionalOnProperty(prefix = "payment.cluster", name = "enabled", havingValue = "true")
+public class ClusterController {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ClusterController.class);
+    
+    @Autowired
+    private PaymentCoordinator coordinator;
+    
+    @Autowired
+    private ClusterMembership membership;
+    
+    /**
+     * Process a payment forwarded by another node; always handled here, as the peer routed it to us
+     */
+    @PostMapping("/process")
+    public ResponseEntity<PaymentResponse> processForwarded(
+            @Valid @RequestBody PaymentRequest request,
+            @RequestHeader(value = ClusterProtocol.FORWARDED_BY_HEADER, required = false) String forwardedBy,
+            @RequestHeader(value = ClusterProtocol.SECRET_HEADER, required = false) String secret,
+            @RequestHeader(value = ClusterProtocol.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        if (!membership.isPeer(forwardedBy, secret)) {
+            // Anyone else would skip owner routing and have the payment handled on a node that may not own the card
+            logger.warn("⚠️ Refused forwarded payment claiming to come from node {}", forwardedBy);
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        logger.info("🔵 Forwarded payment received from node {}", forwardedBy);
+        // The caller relays our response as-is, so the status code only signals whether we answered
+        return ResponseEntity.ok(coordinator.processLocally(request, idempotencyKey));
+    }
+    
+    /**
+     * Place a hold forwarded by another node; always handled here, as the peer routed it to us
+     */
+    @PostMapping("/authorize")
+    public ResponseEntity<PaymentResponse> authorizeForwarded(
+            @Valid @RequestBody PaymentRequest request,
+            @RequestHeader(value = ClusterProtocol.FORWARDED_BY_HEADER, required = false) String forwardedBy,
+            @RequestHeader(value = ClusterProtocol.SECRET_HEADER, required = false) String secret,
+            @RequestHeader(value = ClusterProtocol.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        if (!membership.isPeer(forwardedBy, secret)) {
+            logger.warn("⚠️ Refused forwarded authorization claiming to come from node {}", forwardedBy);
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        logger.info("🔵 Forwarded authorization received from node {}", forwardedBy);
+        return ResponseEntity.ok(coordinator.authorizeLocally(request, idempotencyKey));
+    }
+    
+    /**
+     * Liveness probe used by peers
+     */
+    @GetMapping("/ping")
+    public ResponseEntity<Map<String, Object>> ping(
+            @RequestHeader(value = ClusterProtocol.FORWARDED_BY_HEADER, required = false) String caller,
+            @RequestHeader(value = ClusterProtocol.SECRET_HEADER, required = false) String secret) {
+        if (!membership.isPeer(caller, secret)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        List<String> liveNodes = membership.liveNodes();
+        return ResponseEntity.ok(Map.of("nodeId", membership.localNodeId(), "liveNodes", liveNodes));
+    }
+}
@@ -0,0 +1,117 @@
+package com.simplestore.paymentservice.controller;
+
+import com.simplestore.paymentservice.diagnostics.JfrRecordingService;
+import com.simplestore.paymentservice.dto.ProfileSummary;
+import com.simplestore.paymentservice.dto.RecordingInfo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Admin endpoints for on-demand JFR recordings; only mapped when diagnostics are enabled
+ */
+@RestController
+@RequestMapping("/api/admin/diagnostics")
+@ConditionalOnProperty(prefix = "payment.diagnostics", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class DiagnosticsController {
+    
+    private static final Logger logger = LoggerFactory.getLogger(DiagnosticsController.class);
+    
+    @Autowired
+    private JfrRecordingService recordingService;
+    
+    /**
+     * Start a recording; 409 if one is already running
+     */
+    @PostMapping("/recordings")
+    public ResponseEntity<RecordingInfo> startRecording(
+            @RequestParam(defaultValue = "profile") String settings,
+            @RequestParam(required = false) Long durationSeconds) {
+        try {
+            return ResponseEntity.status(HttpStatus.CREATED).body(recordingService.start(settings, durationSeconds));
+        } catch (IllegalArgumentException e) {
+            logger.warn("⚠️ Recording not started: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (IllegalStateException e) {
+            logger.warn("⚠️ Recording not started: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+    
+    @GetMapping("/recordings")
+    public ResponseEntity<List<RecordingInfo>> getRecordings() {
+        return ResponseEntity.ok(recordingService.getRecordings());
+    }
+    
+    /**
+     * Stop a recording and write it to disk
+     */
+    @PostMapping("/recordings/{id}/stop")
+    public ResponseEntity<RecordingInfo> stopRecording(@PathVariable long id) {
+        return recordingService.stop(id)
+            .map(ResponseEntity::ok)
+            .orElse(ResponseEntity.notFound().build());
+    }
+    
+    /**
+     * Top allocation and lock-contention sites and payment event durations, so far for a running recording
+     */
+    @GetMapping("/recordings/{id}/summary")
+    public ResponseEntity<ProfileSummary> getSummary(@PathVariable long id,
+                                                     @RequestParam(defaultValue = "10") int top) {
+        if (top <= 0) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            return recordingService.summarize(id, top)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+        } catch (IllegalStateException e) {
+            logger.warn("⚠️ No summary for recording {}: {}", id, e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+    
+    /**
+     * Download a stopped recording for JDK Mission Control; 409 while it is still running
+     */
+    @GetMapping("/recordings/{id}/file")
+    public ResponseEntity<Resource> downloadRecording(@PathVariable long id) {
+        Optional<Path> file;
+        try {
+            file = recordingService.getFile(id);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+        return file
+            .map(path -> ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(path.getFileName().toString()).build().toString())
+                .<Resource>body(new FileSystemResource(path)))
+            .orElse(ResponseEntity.notFound().build());
+    }
+    
+    /**
+     * Stop if needed and delete a recording and its file
+     */
+    @DeleteMapping("/recordings/{id}")
+    public ResponseEntity<Void> deleteRecording(@PathVariable long id) {
+        return recordingService.delete(id)
+            ? ResponseEntity.noContent().build()
+            : ResponseEntity.notFound().build();
+    }
+}
@@ -1,42 +1,97 @@
 package com.simplestore.paymentservice.controller;
 
+import com.simplestore.paymentservice.dto.AuthorizationSummary;
+import com.simplestore.paymentservice.dto.CaptureRequest;
+import com.simplestore.paymentservice.dto.CaptureResult;
+import com.simplestore.paymentservice.dto.CardRequest;
+import com.simplestore.paymentservice.dto.CardToken;
+import com.simplestore.paymentservice.dto.CurrencyTotal;
 import com.simplestore.paymentservice.dto.PaymentRequest;
 import com.simplestore.paymentservice.dto.PaymentResponse;
+import com.simplestore.paymentservice.dto.PaymentSearchCriteria;
+import com.simplestore.paymentservice.dto.PaymentSearchPage;
+import com.simplestore.paymentservice.dto.PaymentSummary;
 import com.simplestore.paymentservice.entity.Payment;
 import com.simplestore.paymentservice.entity.PaymentStatus;
+import com.simplestore.paymentservice.entity.ScheduledAction;
+import com.simplestore.paymentservice.money.Money;
+import com.simplestore.paymentservice.scheduling.PaymentScheduler;
+import com.simplestore.paymentservice.service.AuthorizationService;
+import com.simplestore.paymentservice.service.CardVault;
+import com.simplestore.paymentservice.service.ExportEncoding;
+import com.simplestore.paymentservice.service.ExportFormat;
+import com.simplestore.paymentservice.service.FxRateService;
+import com.simplestore.paymentservice.service.PaymentCoordinator;
+import com.simplestore.paymentservice.service.PaymentExportService;
 import com.simplestore.paymentservice.service.PaymentService;
+import com.simplestore.paymentservice.service.VaultedCard;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.OutputStream;
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/api/payments")
 @CrossOrigin(origins = "*") // Allow CORS for frontend integration
+@Profile("!reactive") // Replaced by ReactivePaymentController on the reactive stack
 public class PaymentController {
     
     private static final Logger logger = LoggerFactory.getLogger(PaymentController.class);
     
+    private static final int MAX_SEARCH_PAGE_SIZE = 100;
+    
     @Autowired
     private PaymentService paymentService;
     
+    @Autowired
+    private PaymentCoordinator coordinator;
+    
+    @Autowired
+    private AuthorizationService authorizationService;
+    
+    @Autowired
+    private CardVault cardVault;
+    
+    @Autowired
+    private PaymentExportService exportService;
+    
+    @Autowired
+    private FxRateService fxRateService;
+    
+    // Present unless payment.scheduler.enabled=false
+    @Autowired(required = false)
+    private PaymentScheduler scheduler;
+    
     /**
-     * Process a payment
+     * Process a payment; retries carrying the same Idempotency-Key get the original response
      */
     @PostMapping("/process")
-    public ResponseEntity<PaymentResponse> processPayment(@Valid @RequestBody PaymentRequest request) {
+    public ResponseEntity<PaymentResponse> processPayment(
+            @Valid @RequestBody PaymentRequest request,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
         logger.info("🔵 Payment request received - Amount: ${}, Cardholder: {}, Items: {}", 
                    request.getAmount(), request.getCardholderName(), request.getOrderItems().size());
         
         try {
-            PaymentResponse response = paymentService.processPayment(request);
+            PaymentResponse response = coordinator.process(request, idempotencyKey);
             
             if (response.getStatus() == PaymentStatus.COMPLETED) {
                 logger.info("✅ Payment successful - Transaction ID: {}, Amount: ${}", 
@@ -58,6 +113,118 @@ public class PaymentController {
         }
     }
     
+    /**
+     * Hold the amount on the card without capturing it; retries carrying the same Idempotency-Key get the
+     * original hold
+     */
+    @PostMapping("/authorize")
+    public ResponseEntity<PaymentResponse> authorizePayment(
+            @Valid @RequestBody PaymentRequest request,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        PaymentResponse response = coordinator.authorize(request, idempotencyKey);
+        
+        if (response.getStatus() == PaymentStatus.AUTHORIZED) {
+            logger.info("✅ Payment authorized - Transaction ID: {}, Amount: ${}",
+                       response.getTransactionId(), response.getAmount());
+            return ResponseEntity.ok(response);
+        } else {
+            logger.warn("⚠️ Authorization failed - Status: {}, Error: {}",
+                       response.getStatus(), response.getErrorMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+        }
+    }
+    
+    /**
+     * Capture an authorization, in full or (with amount) partially
+     */
+    @PostMapping("/{id}/capture")
+    public ResponseEntity<CaptureResult> capturePayment(@PathVariable Long id,
+                                                        @RequestParam(required = false) BigDecimal amount) {
+        CaptureResult result;
+        try {
+            result = authorizationService.capture(id, amount);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (result.status() == PaymentStatus.COMPLETED) {
+            return ResponseEntity.ok(result);
+        } else if (result.status() == null && AuthorizationService.PAYMENT_NOT_FOUND.equals(result.message())) {
+            return ResponseEntity.notFound().build();
+        } else {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(result);
+        }
+    }
+    
+    /**
+     * Capture many authorizations in one call; per-payment results in request order
+     */
+    @PostMapping("/capture")
+    public ResponseEntity<List<CaptureResult>> capturePayments(@RequestBody List<CaptureRequest> requests) {
+        try {
+            return ResponseEntity.ok(authorizationService.captureAll(requests));
+        } catch (IllegalArgumentException e) {
+            logger.warn("⚠️ Capture batch rejected: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    /**
+     * Release an open authorization
+     */
+    @PostMapping("/{id}/void")
+    public ResponseEntity<Payment> voidAuthorization(@PathVariable Long id) {
+        try {
+            return authorizationService.voidAuthorization(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+        } catch (IllegalStateException e) {
+            logger.warn("⚠️ Payment {} not voided: {}", id, e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+    
+    /**
+     * Open authorization holds
+     */
+    @GetMapping("/authorizations")
+    public ResponseEntity<AuthorizationSummary> getAuthorizationSummary() {
+        return ResponseEntity.ok(authorizationService.getSummary());
+    }
+    
+    /**
+     * Store a card in the vault; payments can then send its token instead of the card
+     */
+    @PostMapping("/cards")
+    public ResponseEntity<CardToken> storeCard(@Valid @RequestBody CardRequest request) {
+        try {
+            VaultedCard card = cardVault.tokenize(request.cardholderName(), request.cardNumber(), request.expiryDate());
+            return ResponseEntity.status(HttpStatus.CREATED).body(toCardToken(card));
+        } catch (IllegalArgumentException e) {
+            logger.warn("⚠️ Card not stored: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    /**
+     * Displayable details of a vaulted card
+     */
+    @GetMapping("/cards/{token}")
+    public ResponseEntity<CardToken> getCard(@PathVariable String token) {
+        return cardVault.find(token)
+            .map(card -> ResponseEntity.ok(toCardToken(card)))
+            .orElse(ResponseEntity.notFound().build());
+    }
+    
+    /**
+     * Remove a card from the vault
+     */
+    @DeleteMapping("/cards/{token}")
+    public ResponseEntity<Void> deleteCard(@PathVariable String token) {
+        return cardVault.delete(token)
+            ? ResponseEntity.noContent().build()
+            : ResponseEntity.notFound().build();
+    }
+    
     /**
      * Get payment by ID
      */
@@ -86,49 +253,213 @@ public class PaymentController {
         }
     }
     
+    /**
+     * Cancel a payment not yet sent to the gateway, or void a completed one
+     */
+    @PostMapping("/{id}/cancel")
+    public ResponseEntity<Payment> cancelPayment(@PathVariable Long id) {
+        try {
+            Optional<Payment> payment = paymentService.cancelPayment(id);
+            
+            if (payment.isPresent()) {
+                if (scheduler != null) {
+                    scheduler.cancel(id);
+                }
+                logger.info("✅ Payment {} cancelled", id);
+                return ResponseEntity.ok(payment.get());
+            } else {
+                return ResponseEntity.notFound().build();
+            }
+        } catch (IllegalStateException e) {
+            logger.warn("⚠️ Payment {} not cancelled: {}", id, e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+    
+    /**
+     * Store a payment now and charge it at the given time; retries carrying the same Idempotency-Key get
+     * the action already scheduled
+     */
+    @PostMapping("/schedule")
+    public ResponseEntity<ScheduledAction> schedulePayment(
+            @Valid @RequestBody PaymentRequest request,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime executeAt,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        if (scheduler == null) {
+            return ResponseEntity.status(HttpStatus.NOT_IMPLEMENTED).build();
+        }
+        try {
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(coordinator.scheduleCharge(request, executeAt, idempotencyKey));
+        } catch (IllegalArgumentException e) {
+            logger.warn("⚠️ Payment not scheduled: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    /**
+     * Charge a declined or failed payment again, as a new payment, at the given time
+     */
+    @PostMapping("/{id}/retry")
+    public ResponseEntity<ScheduledAction> scheduleRetry(
+            @PathVariable Long id,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime at) {
+        if (scheduler == null) {
+            return ResponseEntity.status(HttpStatus.NOT_IMPLEMENTED).build();
+        }
+        try {
+            return scheduler.scheduleRetry(id, at)
+                .map(action -> ResponseEntity.status(HttpStatus.ACCEPTED).body(action))
+                .orElse(ResponseEntity.notFound().build());
+        } catch (IllegalStateException e) {
+            logger.warn("⚠️ Retry of payment {} not scheduled: {}", id, e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+    
+    /**
+     * Actions scheduled for a payment
+     */
+    @GetMapping("/{id}/scheduled")
+    public ResponseEntity<List<ScheduledAction>> getScheduledActions(@PathVariable Long id) {
+        if (scheduler == null) {
+            return ResponseEntity.status(HttpStatus.NOT_IMPLEMENTED).build();
+        }
+        return ResponseEntity.ok(scheduler.getActions(id));
+    }
+    
     /**
      * Get all payments
+     *
+     * Listing endpoints accept an optional "fields" parameter: "summary" returns {@link PaymentSummary}
+     * rows, a comma separated list (e.g. "id,status,amount") returns only those fields, and no
+     * parameter returns full payments.
      */
     @GetMapping
-    public ResponseEntity<List<Payment>> getAllPayments() {
-        List<Payment> payments = paymentService.getAllPayments();
-        return ResponseEntity.ok(payments);
+    public ResponseEntity<List<?>> getAllPayments(@RequestParam(required = false) String fields) {
+        return listPayments(fields, null, false, paymentService::getAllPayments);
     }
     
     /**
      * Get payments by status
      */
     @GetMapping("/status/{status}")
-    public ResponseEntity<List<Payment>> getPaymentsByStatus(@PathVariable PaymentStatus status) {
-        List<Payment> payments = paymentService.getPaymentsByStatus(status);
-        return ResponseEntity.ok(payments);
+    public ResponseEntity<List<?>> getPaymentsByStatus(@PathVariable PaymentStatus status,
+                                                       @RequestParam(required = false) String fields) {
+        return listPayments(fields, Set.of(status), false, () -> paymentService.getPaymentsByStatus(status));
     }
     
     /**
      * Get successful payments
      */
     @GetMapping("/successful")
-    public ResponseEntity<List<Payment>> getSuccessfulPayments() {
-        List<Payment> payments = paymentService.getSuccessfulPayments();
-        return ResponseEntity.ok(payments);
+    public ResponseEntity<List<?>> getSuccessfulPayments(@RequestParam(required = false) String fields) {
+        return listPayments(fields, Set.of(PaymentStatus.COMPLETED), false, paymentService::getSuccessfulPayments);
     }
     
     /**
      * Get failed payments
      */
     @GetMapping("/failed")
-    public ResponseEntity<List<Payment>> getFailedPayments() {
-        List<Payment> payments = paymentService.getFailedPayments();
-        return ResponseEntity.ok(payments);
+    public ResponseEntity<List<?>> getFailedPayments(@RequestParam(required = false) String fields) {
+        return listPayments(fields, Set.of(PaymentStatus.FAILED, PaymentStatus.DECLINED), false,
+                            paymentService::getFailedPayments);
     }
     
     /**
      * Get recent payments
      */
     @GetMapping("/recent")
-    public ResponseEntity<List<Payment>> getRecentPayments() {
-        List<Payment> payments = paymentService.getRecentPayments();
-        return ResponseEntity.ok(payments);
+    public ResponseEntity<List<?>> getRecentPayments(@RequestParam(required = false) String fields) {
+        return listPayments(fields, null, true, paymentService::getRecentPayments);
+    }
+    
+    /**
+     * Get payments created in a time range (ISO date-times), including archived ones for old ranges
+     */
+    @GetMapping("/created")
+    public ResponseEntity<List<Payment>> getPaymentsCreatedBetween(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        try {
+            return ResponseEntity.ok(paymentService.getPaymentsCreatedBetween(from, to));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    /**
+     * Search payments by cardholder name (token prefixes, e.g. "jan do") and/or card last four digits,
+     * optionally filtered by currency, amount (needs the currency) and creation time, newest first
+     */
+    @GetMapping("/search")
+    public ResponseEntity<PaymentSearchPage> searchPayments(
+            @RequestParam(required = false) String name,
+            @RequestParam(required = false) String last4,
+            @RequestParam(required = false) String currency,
+            @RequestParam(required = false) BigDecimal minAmount,
+            @RequestParam(required = false) BigDecimal maxAmount,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        if (size > MAX_SEARCH_PAGE_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+        PaymentSearchCriteria criteria = new PaymentSearchCriteria(name, last4, currency, minAmount, maxAmount, from, to);
+        try {
+            return ResponseEntity.ok(paymentService.searchPayments(criteria, page, size));
+        } catch (IllegalArgumentException e) {
+            logger.warn("⚠️ Invalid search: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "5").build();
+        }
+    }
+    
+    /**
+     * Export all payments as a stream (NDJSON, Smile or CBOR by Accept; gzip or zstd by Accept-Encoding)
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportPayments(
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        ExportFormat format = ExportFormat.fromAccept(accept);
+        ExportEncoding encoding = ExportEncoding.fromAcceptEncoding(acceptEncoding);
+        
+        StreamingResponseBody body = out -> {
+            try (OutputStream encoded = encoding.wrap(out)) {
+                long count = exportService.exportAll(format, encoded);
+                logger.info("📦 Exported {} payments as {} ({})", count, format, encoding);
+            }
+        };
+        
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+            .contentType(format.getMediaType())
+            .header(HttpHeaders.VARY, HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING);
+        if (encoding.getContentEncoding() != null) {
+            response.header(HttpHeaders.CONTENT_ENCODING, encoding.getContentEncoding());
+        }
+        return response.body(body);
+    }
+    
+    /**
+     * Serve a listing as full payments, summaries or selected fields
+     */
+    private ResponseEntity<List<?>> listPayments(String fields, Collection<PaymentStatus> statuses,
+                                                 boolean newestFirst, Supplier<List<Payment>> fullPayments) {
+        if (fields == null || fields.isBlank()) {
+            return ResponseEntity.ok(fullPayments.get());
+        }
+        if ("summary".equals(fields)) {
+            return ResponseEntity.ok(paymentService.getPaymentSummaries(statuses, newestFirst));
+        }
+        try {
+            return ResponseEntity.ok(paymentService.getPaymentFields(fields, statuses, newestFirst));
+        } catch (IllegalArgumentException e) {
+            logger.warn("⚠️ Invalid field selection: {}", fields);
+            return ResponseEntity.badRequest().build();
+        }
     }
     
     /**
@@ -141,7 +472,12 @@ public class PaymentController {
         stats.setTotalCompleted(paymentService.getPaymentCountByStatus(PaymentStatus.COMPLETED));
         stats.setTotalFailed(paymentService.getPaymentCountByStatus(PaymentStatus.FAILED) + 
                            paymentService.getPaymentCountByStatus(PaymentStatus.DECLINED));
-        stats.setTotalAmount(paymentService.getTotalAmountByStatus(PaymentStatus.COMPLETED));
+        
+        List<CurrencyTotal> completedByCurrency = paymentService.getTotalsByCurrency(PaymentStatus.COMPLETED);
+        Money normalizedTotal = fxRateService.normalizedTotal(completedByCurrency);
+        stats.setBaseCurrency(normalizedTotal.getCurrency().getCurrencyCode());
+        stats.setTotalAmount(normalizedTotal.toBigDecimal());
+        stats.setAmountByCurrency(PaymentStats.byCurrency(completedByCurrency));
         
         return ResponseEntity.ok(stats);
     }
@@ -155,6 +491,10 @@ public class PaymentController {
         return ResponseEntity.ok("Payment Service is running!");
     }
     
+    private static CardToken toCardToken(VaultedCard card) {
+        return new CardToken(card.token(), card.cardholderName(), card.lastFour(), card.expiryDate());
+    }
+    
     /**
      * Payment statistics DTO
      */
@@ -162,6 +502,19 @@ public class PaymentController {
         private Long totalCompleted;
         private Long totalFailed;
         private BigDecimal totalAmount;
+        private String baseCurrency;
+        private Map<String, BigDecimal> amountByCurrency;
+        
+        /**
+         * Completed amount per currency, in the payment's own currency
+         */
+        public static Map<String, BigDecimal> byCurrency(List<CurrencyTotal> totals) {
+            Map<String, BigDecimal> amounts = new LinkedHashMap<>();
+            for (CurrencyTotal total : totals) {
+                amounts.put(total.currency(), total.total() != null ? total.total() : BigDecimal.ZERO);
+            }
+            return amounts;
+        }
         
         // Getters and Setters
         public Long getTotalCompleted() {
@@ -187,5 +540,21 @@ public class PaymentController {
         public void setTotalAmount(BigDecimal totalAmount) {
             this.totalAmount = totalAmount;
         }
+        
+        public String getBaseCurrency() {
+            return baseCurrency;
+        }
+        
+        public void setBaseCurrency(String baseCurrency) {
+            this.baseCurrency = baseCurrency;
+        }
+        
+        public Map<String, BigDecimal> getAmountByCurrency() {
+            return amountByCurrency;
+        }
+        
+        public void setAmountByCurrency(Map<String, BigDecimal> amountByCurrency) {
+            this.amountByCurrency = amountByCurrency;
+        }
     }
 }
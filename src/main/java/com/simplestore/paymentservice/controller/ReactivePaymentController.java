@@ -0,0 +1,149 @@
+package com.simplestore.paymentservice.controller;
+
+import com.simplestore.paymentservice.dto.PaymentRequest;
+import com.simplestore.paymentservice.dto.PaymentResponse;
+import com.simplestore.paymentservice.entity.Payment;
+import com.simplestore.paymentservice.entity.PaymentStatus;
+import com.simplestore.paymentservice.money.Money;
+import com.simplestore.paymentservice.service.FxRateService;
+import com.simplestore.paymentservice.service.ReactivePaymentService;
+import jakarta.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking variant of {@link PaymentController}, served on the same paths when the "reactive" profile is active
+ */
+@RestController
+@RequestMapping("/api/payments")
+@CrossOrigin(origins = "*") // Allow CORS for frontend integration
+@Profile("reactive")
+public class ReactivePaymentController {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ReactivePaymentController.class);
+    
+    @Autowired
+    private ReactivePaymentService paymentService;
+    
+    @Autowired
+    private FxRateService fxRateService;
+    
+    /**
+     * Process a payment
+     */
+    @PostMapping("/process")
+    public Mono<ResponseEntity<PaymentResponse>> processPayment(@Valid @RequestBody PaymentRequest request) {
+        logger.info("🔵 Payment request received - Amount: ${}, Cardholder: {}, Items: {}", 
+                   request.getAmount(), request.getCardholderName(), request.getOrderItems().size());
+        
+        return paymentService.processPayment(request)
+            .map(response -> {
+                if (response.getStatus() == PaymentStatus.COMPLETED) {
+                    logger.info("✅ Payment successful - Transaction ID: {}, Amount: ${}", 
+                               response.getTransactionId(), response.getAmount());
+                    return ResponseEntity.ok(response);
+                }
+                logger.warn("⚠️ Payment failed - Status: {}, Error: {}", 
+                           response.getStatus(), response.getErrorMessage());
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+            });
+    }
+    
+    /**
+     * Get payment by ID
+     */
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<Payment>> getPaymentById(@PathVariable Long id) {
+        return paymentService.getPaymentById(id)
+            .map(ResponseEntity::ok)
+            .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+    
+    /**
+     * Get payment by transaction ID
+     */
+    @GetMapping("/transaction/{transactionId}")
+    public Mono<ResponseEntity<Payment>> getPaymentByTransactionId(@PathVariable String transactionId) {
+        return paymentService.getPaymentByTransactionId(transactionId)
+            .map(ResponseEntity::ok)
+            .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+    
+    /**
+     * Get all payments
+     */
+    @GetMapping
+    public Flux<Payment> getAllPayments() {
+        return paymentService.getAllPayments();
+    }
+    
+    /**
+     * Get payments by status
+     */
+    @GetMapping("/status/{status}")
+    public Flux<Payment> getPaymentsByStatus(@PathVariable PaymentStatus status) {
+        return paymentService.getPaymentsByStatus(status);
+    }
+    
+    /**
+     * Get successful payments
+     */
+    @GetMapping("/successful")
+    public Flux<Payment> getSuccessfulPayments() {
+        return paymentService.getSuccessfulPayments();
+    }
+    
+    /**
+     * Get failed payments
+     */
+    @GetMapping("/failed")
+    public Flux<Payment> getFailedPayments() {
+        return paymentService.getFailedPayments();
+    }
+    
+    /**
+     * Get recent payments
+     */
+    @GetMapping("/recent")
+    public Flux<Payment> getRecentPayments() {
+        return paymentService.getRecentPayments();
+    }
+    
+    /**
+     * Get payment statistics
+     */
+    @GetMapping("/stats")
+    public Mono<PaymentController.PaymentStats> getPaymentStats() {
+        return Mono.zip(
+                paymentService.getPaymentCountByStatus(PaymentStatus.COMPLETED),
+                paymentService.getPaymentCountByStatus(PaymentStatus.FAILED),
+                paymentService.getPaymentCountByStatus(PaymentStatus.DECLINED),
+                paymentService.getTotalsByCurrency(PaymentStatus.COMPLETED))
+            .map(tuple -> {
+                PaymentController.PaymentStats stats = new PaymentController.PaymentStats();
+                stats.setTotalCompleted(tuple.getT1());
+                stats.setTotalFailed(tuple.getT2() + tuple.getT3());
+                // Normalization only reads the in-memory FX snapshot, so it is safe on the event loop
+                Money normalizedTotal = fxRateService.normalizedTotal(tuple.getT4());
+                stats.setBaseCurrency(normalizedTotal.getCurrency().getCurrencyCode());
+                stats.setTotalAmount(normalizedTotal.toBigDecimal());
+                stats.setAmountByCurrency(PaymentController.PaymentStats.byCurrency(tuple.getT4()));
+                return stats;
+            });
+    }
+    
+    /**
+     * Health check endpoint
+     */
+    @GetMapping("/health")
+    public Mono<String> healthCheck() {
+        return Mono.just("Payment Service is running (reactive)!");
+    }
+}
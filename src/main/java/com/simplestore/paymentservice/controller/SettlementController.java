@@ -0,0 +1,89 @@
+package com.simplestore.paymentservice.controller;
+
+import com.simplestore.paymentservice.dto.LedgerExport;
+import com.simplestore.paymentservice.dto.ReconciliationProgress;
+import com.simplestore.paymentservice.settlement.SettlementService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Settlement reconciliation and ledger export; files live in payment.settlement.directory
+ */
+@RestController
+@RequestMapping("/api/settlements")
+public class SettlementController {
+    
+    private static final Logger logger = LoggerFactory.getLogger(SettlementController.class);
+    
+    @Autowired
+    private SettlementService settlementService;
+    
+    /**
+     * Queue a reconciliation of a settlement file; poll the returned job for progress
+     */
+    @PostMapping("/reconciliations")
+    public ResponseEntity<ReconciliationProgress> startReconciliation(@RequestParam String file) {
+        try {
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(settlementService.startReconciliation(file));
+        } catch (IllegalArgumentException e) {
+            logger.warn("⚠️ Reconciliation not started: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    @GetMapping("/reconciliations")
+    public ResponseEntity<List<ReconciliationProgress>> getReconciliations() {
+        return ResponseEntity.ok(settlementService.getJobs());
+    }
+    
+    @GetMapping("/reconciliations/{id}")
+    public ResponseEntity<ReconciliationProgress> getReconciliation(@PathVariable long id) {
+        return settlementService.getProgress(id)
+            .map(ResponseEntity::ok)
+            .orElse(ResponseEntity.notFound().build());
+    }
+    
+    /**
+     * Download the discrepancy report; 409 until the reconciliation has completed
+     */
+    @GetMapping("/reconciliations/{id}/report")
+    public ResponseEntity<Resource> downloadReport(@PathVariable long id) {
+        Optional<Path> report;
+        try {
+            report = settlementService.getReport(id);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+        return report
+            .map(path -> ResponseEntity.ok()
+                .contentType(new MediaType("text", "csv"))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(path.getFileName().toString()).build().toString())
+                .<Resource>body(new FileSystemResource(path)))
+            .orElse(ResponseEntity.notFound().build());
+    }
+    
+    /**
+     * Export the payments completed on a day in the settlement file format
+     */
+    @PostMapping("/ledger")
+    public ResponseEntity<LedgerExport> exportLedger(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(settlementService.exportLedger(date));
+    }
+}
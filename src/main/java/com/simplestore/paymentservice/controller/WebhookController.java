@@ -0,0 +1,73 @@
+package com.simplestore.paymentservice.controller;
+
+import com.simplestore.paymentservice.dto.WebhookEndpointRequest;
+import com.simplestore.paymentservice.dto.WebhookStats;
+import com.simplestore.paymentservice.entity.WebhookDelivery;
+import com.simplestore.paymentservice.entity.WebhookEndpoint;
+import com.simplestore.paymentservice.webhook.WebhookService;
+import jakarta.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * Webhook endpoint registration and delivery status; only mapped when webhooks are enabled
+ */
+@RestController
+@RequestMapping("/api/webhooks")
+@CrossOrigin(origins = "*")
+@ConditionalOnProperty(prefix = "payment.webhook", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class WebhookController {
+    
+    private static final Logger logger = LoggerFactory.getLogger(WebhookController.class);
+    
+    @Autowired
+    private WebhookService webhookService;
+    
+    /**
+     * Register an endpoint for payment status changes
+     */
+    @PostMapping("/endpoints")
+    public ResponseEntity<WebhookEndpoint> registerEndpoint(@Valid @RequestBody WebhookEndpointRequest request) {
+        try {
+            return ResponseEntity.status(HttpStatus.CREATED).body(webhookService.register(request));
+        } catch (IllegalArgumentException e) {
+            logger.warn("⚠️ Webhook endpoint not registered: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    @GetMapping("/endpoints")
+    public ResponseEntity<List<WebhookEndpoint>> getEndpoints() {
+        return ResponseEntity.ok(webhookService.getEndpoints());
+    }
+    
+    /**
+     * Remove an endpoint; its pending deliveries are dropped
+     */
+    @DeleteMapping("/endpoints/{id}")
+    public ResponseEntity<Void> removeEndpoint(@PathVariable Long id) {
+        return webhookService.remove(id)
+            ? ResponseEntity.noContent().build()
+            : ResponseEntity.notFound().build();
+    }
+    
+    /**
+     * Deliveries of a payment's events, with attempts and last error
+     */
+    @GetMapping("/deliveries")
+    public ResponseEntity<List<WebhookDelivery>> getDeliveries(@RequestParam Long paymentId) {
+        return ResponseEntity.ok(webhookService.getDeliveries(paymentId));
+    }
+    
+    @GetMapping("/stats")
+    public ResponseEntity<WebhookStats> getStats() {
+        return ResponseEntity.ok(webhookService.getStats());
+    }
+}
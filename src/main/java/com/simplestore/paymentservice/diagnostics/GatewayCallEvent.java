@@ -0,0 +1,33 @@
+package com.simplestore.paymentservice.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event timing one call to the payment gateway
+ */
+@Name(GatewayCallEvent.NAME)
+@Label("Gateway Call")
+@Category("Payment Service")
+@Description("Round trip to the payment gateway, including simulated latency")
+@StackTrace(false)
+public final class GatewayCallEvent extends jdk.jfr.Event {
+
+    public static final String NAME = "com.simplestore.payment.GatewayCall";
+
+    @Label("Transaction ID")
+    @Description("Transaction of the payment; the first one for batch calls")
+    public String transactionId;
+
+    @Label("Operation")
+    public String operation;
+
+    @Label("Payments")
+    public int payments;
+
+    @Label("Status")
+    public String status;
+}
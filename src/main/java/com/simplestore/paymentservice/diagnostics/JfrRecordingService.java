@@ -0,0 +1,244 @@
+package com.simplestore.paymentservice.diagnostics;
+
+import com.simplestore.paymentservice.config.DiagnosticsProperties;
+import com.simplestore.paymentservice.dto.ProfileSummary;
+import com.simplestore.paymentservice.dto.RecordingInfo;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Starts and stops JFR recordings on demand and summarizes them.
+ *
+ * Only one recording runs at a time. Besides the JDK's own events, every recording enables the
+ * payment events (validation, gateway and repository durations with the transaction ID). While nothing
+ * records, those events are disabled and the JIT reduces them to nothing, so leaving this on costs
+ * the payment path nothing. A recording stops by itself after payment.diagnostics.max-duration-seconds.
+ */
+@Service
+@ConditionalOnProperty(prefix = "payment.diagnostics", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class JfrRecordingService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(JfrRecordingService.class);
+    
+    private static final DateTimeFormatter FILE_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+    
+    private final DiagnosticsProperties properties;
+    private final Path directory;
+    
+    // By ID, oldest first, so the oldest finished recording is the one dropped
+    private final Map<Long, Tracked> recordings = new ConcurrentSkipListMap<>();
+    
+    public JfrRecordingService(DiagnosticsProperties properties) {
+        this.properties = properties;
+        this.directory = properties.getDirectory().isBlank()
+            ? Path.of(System.getProperty("java.io.tmpdir"), "payment-jfr")
+            : Path.of(properties.getDirectory());
+    }
+    
+    /**
+     * Start a recording with the JDK's "default" (about 1% overhead) or "profile" settings
+     *
+     * @throws IllegalArgumentException if the settings or duration are not valid
+     * @throws IllegalStateException if a recording is already running
+     */
+    public synchronized RecordingInfo start(String settings, Long durationSeconds) {
+        Configuration configuration = configuration(settings);
+        long maxSeconds = properties.getMaxDurationSeconds();
+        long seconds = durationSeconds != null ? durationSeconds : maxSeconds;
+        if (seconds <= 0 || seconds > maxSeconds) {
+            throw new IllegalArgumentException("Duration must be between 1 and " + maxSeconds + " seconds");
+        }
+        boolean running = recordings.values().stream()
+            .anyMatch(tracked -> tracked.recording().getState() == RecordingState.RUNNING);
+        if (running) {
+            throw new IllegalStateException("A recording is already running");
+        }
+        dropOldRecordings();
+        
+        Recording recording = new Recording(configuration);
+        try {
+            Files.createDirectories(directory);
+            recording.setName("payment-" + LocalDateTime.now().format(FILE_TIMESTAMP));
+            recording.setDestination(directory.resolve(recording.getName() + "-" + recording.getId() + ".jfr"));
+        } catch (IOException e) {
+            recording.close();
+            throw new UncheckedIOException("Cannot write recordings to " + directory, e);
+        }
+        recording.setToDisk(true);
+        recording.setMaxSize(properties.getMaxSizeMb() * 1024 * 1024);
+        recording.setDuration(Duration.ofSeconds(seconds));
+        recording.enable(ValidationEvent.class);
+        recording.enable(GatewayCallEvent.class);
+        recording.enable(RepositoryCallEvent.class);
+        recording.start();
+        Tracked tracked = new Tracked(recording, settings);
+        recordings.put(recording.getId(), tracked);
+        
+        logger.info("🔍 JFR recording {} started with '{}' settings for up to {}s", recording.getId(), settings, seconds);
+        return tracked.toInfo();
+    }
+    
+    /**
+     * Stop a running recording and write it to disk; empty if it does not exist
+     */
+    public synchronized Optional<RecordingInfo> stop(long id) {
+        Tracked tracked = recordings.get(id);
+        if (tracked == null) {
+            return Optional.empty();
+        }
+        Recording recording = tracked.recording();
+        if (recording.getState() == RecordingState.RUNNING) {
+            recording.stop();
+            logger.info("💾 JFR recording {} written to {}", id, recording.getDestination());
+        }
+        return Optional.of(tracked.toInfo());
+    }
+    
+    public List<RecordingInfo> getRecordings() {
+        return recordings.values().stream().map(Tracked::toInfo).toList();
+    }
+    
+    /**
+     * Top allocation and lock sites and payment event durations; a running recording is summarized
+     * up to now without stopping it. Empty if the recording does not exist.
+     */
+    public Optional<ProfileSummary> summarize(long id, int topSites) {
+        Tracked tracked = recordings.get(id);
+        if (tracked == null) {
+            return Optional.empty();
+        }
+        Recording recording = tracked.recording();
+        try {
+            if (recording.getState() == RecordingState.RUNNING) {
+                Path snapshot = Files.createTempFile(directory, "snapshot-" + id + "-", ".jfr");
+                try {
+                    recording.dump(snapshot);
+                    return Optional.of(RecordingAnalyzer.analyze(id, snapshot, topSites));
+                } finally {
+                    Files.deleteIfExists(snapshot);
+                }
+            }
+            return Optional.of(RecordingAnalyzer.analyze(id, file(recording), topSites));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read recording " + id, e);
+        }
+    }
+    
+    /**
+     * File of a stopped recording, for download into JDK Mission Control; empty if it does not exist
+     *
+     * @throws IllegalStateException if the recording is still running
+     */
+    public Optional<Path> getFile(long id) {
+        Tracked tracked = recordings.get(id);
+        if (tracked == null) {
+            return Optional.empty();
+        }
+        // Once written to its destination a stopped recording is CLOSED
+        if (tracked.recording().getState() == RecordingState.RUNNING) {
+            throw new IllegalStateException("Recording " + id + " is still running");
+        }
+        return Optional.of(file(tracked.recording()));
+    }
+    
+    /**
+     * Stop (if needed) and remove a recording with its file; false if it does not exist
+     */
+    public synchronized boolean delete(long id) {
+        Tracked tracked = recordings.remove(id);
+        if (tracked == null) {
+            return false;
+        }
+        discard(tracked.recording());
+        return true;
+    }
+    
+    @PreDestroy
+    public synchronized void closeAll() {
+        recordings.values().forEach(tracked -> tracked.recording().close());
+        recordings.clear();
+    }
+    
+    private void dropOldRecordings() {
+        while (recordings.size() >= properties.getMaxRecordings()) {
+            Long oldest = recordings.keySet().iterator().next();
+            discard(recordings.remove(oldest).recording());
+            logger.info("📦 JFR recording {} dropped to make room", oldest);
+        }
+    }
+    
+    private void discard(Recording recording) {
+        Path destination = recording.getDestination();
+        recording.close();
+        try {
+            if (destination != null) {
+                Files.deleteIfExists(destination);
+            }
+        } catch (IOException e) {
+            logger.warn("⚠️ Could not delete {}: {}", destination, e.getMessage());
+        }
+    }
+    
+    private static Path file(Recording recording) {
+        Path destination = recording.getDestination();
+        if (destination == null || !Files.exists(destination)) {
+            throw new IllegalStateException("Recording " + recording.getId() + " has no data on disk");
+        }
+        return destination;
+    }
+    
+    private static Configuration configuration(String settings) {
+        try {
+            return Configuration.getConfiguration(settings);
+        } catch (IOException | ParseException e) {
+            throw new IllegalArgumentException("Unknown JFR settings '" + settings + "', use 'default' or 'profile'");
+        }
+    }
+    
+    private record Tracked(Recording recording, String settings) {
+        
+        RecordingInfo toInfo() {
+            return new RecordingInfo(
+                recording.getId(),
+                recording.getName(),
+                recording.getState() == RecordingState.CLOSED ? RecordingState.STOPPED.name() : recording.getState().name(),
+                settings,
+                recording.getStartTime(),
+                recording.getStopTime(),
+                sizeOf());
+        }
+        
+        // A written recording no longer knows its size, but its file does
+        private long sizeOf() {
+            Path destination = recording.getDestination();
+            if (recording.getState() == RecordingState.RUNNING || destination == null) {
+                return recording.getSize();
+            }
+            try {
+                return Files.exists(destination) ? Files.size(destination) : 0;
+            } catch (IOException e) {
+                return 0;
+            }
+        }
+    }
+}
+    
\ No newline at end of file
@@ -0,0 +1,232 @@
+package com.simplestore.paymentservice.diagnostics;
+
+import com.simplestore.paymentservice.dto.ProfileSummary;
+import jdk.jfr.consumer.RecordedClass;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Reads a JFR file once and boils it down to a {@link ProfileSummary}.
+ *
+ * A site is the first stack frame outside the JDK, so allocations inside ArrayList or HashMap are
+ * charged to the code that grew the collection. Allocation weight comes from jdk.ObjectAllocationSample,
+ * lock time from jdk.JavaMonitorEnter (synchronized) and jdk.ThreadPark (java.util.concurrent locks).
+ * Payment event percentiles come from a log-scale histogram, so memory stays flat however long the
+ * recording ran.
+ */
+public final class RecordingAnalyzer {
+
+    static final String ALLOCATION_SAMPLE = "jdk.ObjectAllocationSample";
+    static final String MONITOR_ENTER = "jdk.JavaMonitorEnter";
+    static final String THREAD_PARK = "jdk.ThreadPark";
+
+    private static final String[] JDK_PACKAGES = {"java.", "javax.", "jdk.", "sun.", "com.sun."};
+    private static final int SLOWEST_TRANSACTIONS = 5;
+
+    private RecordingAnalyzer() {
+    }
+
+    public static ProfileSummary analyze(long recordingId, Path file, int topSites) throws IOException {
+        Map<String, Site> allocations = new HashMap<>();
+        Map<String, Site> locks = new HashMap<>();
+        Map<String, EventDurations> paymentEvents = new LinkedHashMap<>();
+        paymentEvents.put(ValidationEvent.NAME, new EventDurations());
+        paymentEvents.put(GatewayCallEvent.NAME, new EventDurations());
+        paymentEvents.put(RepositoryCallEvent.NAME, new EventDurations());
+        Instant first = null;
+        Instant last = null;
+
+        try (RecordingFile recording = new RecordingFile(file)) {
+            while (recording.hasMoreEvents()) {
+                RecordedEvent event = recording.readEvent();
+                if (first == null || event.getStartTime().isBefore(first)) {
+                    first = event.getStartTime();
+                }
+                if (last == null || event.getEndTime().isAfter(last)) {
+                    last = event.getEndTime();
+                }
+                String type = event.getEventType().getName();
+                switch (type) {
+                    case ALLOCATION_SAMPLE -> allocations
+                        .computeIfAbsent(siteOf(event.getStackTrace()), Site::new)
+                        .add(event.getLong("weight"));
+                    case MONITOR_ENTER -> locks
+                        .computeIfAbsent(lockSiteOf(event, "monitorClass"), Site::new)
+                        .add(event.getDuration().toNanos());
+                    case THREAD_PARK -> locks
+                        .computeIfAbsent(lockSiteOf(event, "parkedClass"), Site::new)
+                        .add(event.getDuration().toNanos());
+                    default -> {
+                        EventDurations durations = paymentEvents.get(type);
+                        if (durations != null) {
+                            durations.add(event.getDuration().toNanos(), event.getString("transactionId"));
+                        }
+                    }
+                }
+            }
+        }
+
+        double seconds = first != null ? (last.toEpochMilli() - first.toEpochMilli()) / 1000.0 : 0;
+        List<ProfileSummary.PaymentEventStats> eventStats = new ArrayList<>();
+        paymentEvents.forEach((name, durations) -> eventStats.add(durations.toStats(name)));
+        return new ProfileSummary(recordingId, seconds,
+                                  top(allocations, topSites, 1),
+                                  top(locks, topSites, 1_000_000),
+                                  eventStats);
+    }
+
+    private static List<ProfileSummary.HotSite> top(Map<String, Site> sites, int limit, long divisor) {
+        return sites.values().stream()
+            .sorted(Comparator.comparingLong(Site::weight).reversed())
+            .limit(limit)
+            .map(site -> new ProfileSummary.HotSite(site.name, site.events, site.weight / divisor))
+            .toList();
+    }
+
+    /**
+     * First frame outside the JDK, or the top frame if the whole stack is JDK code
+     */
+    static String siteOf(RecordedStackTrace stackTrace) {
+        if (stackTrace == null || stackTrace.getFrames().isEmpty()) {
+            return "<no stack trace>";
+        }
+        List<RecordedFrame> frames = stackTrace.getFrames();
+        for (RecordedFrame frame : frames) {
+            if (frame.isJavaFrame() && !isJdk(frame.getMethod().getType().getName())) {
+                return describe(frame);
+            }
+        }
+        return describe(frames.get(0));
+    }
+
+    private static String lockSiteOf(RecordedEvent event, String classField) {
+        String site = siteOf(event.getStackTrace());
+        RecordedClass lockClass = event.hasField(classField) ? event.getClass(classField) : null;
+        return lockClass != null ? site + " on " + lockClass.getName() : site;
+    }
+
+    private static boolean isJdk(String className) {
+        for (String prefix : JDK_PACKAGES) {
+            if (className.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String describe(RecordedFrame frame) {
+        String method = frame.getMethod().getType().getName() + "." + frame.getMethod().getName();
+        return frame.getLineNumber() > 0 ? method + ":" + frame.getLineNumber() : method;
+    }
+
+    private static final class Site {
+
+        private final String name;
+        private long events;
+        private long weight;
+
+        private Site(String name) {
+            this.name = name;
+        }
+
+        private void add(long amount) {
+            events++;
+            weight += amount;
+        }
+
+        private long weight() {
+            return weight;
+        }
+    }
+
+    /**
+     * Duration histogram with buckets 5% apart, plus the slowest few occurrences
+     */
+    static final class EventDurations {
+
+        private static final double GROWTH = 1.05;
+        // 1 microsecond up to well past an hour
+        private static final int BUCKETS = 500;
+
+        private final long[] buckets = new long[BUCKETS];
+        private final PriorityQueue<Slow> slowest = new PriorityQueue<>(Comparator.comparingLong(Slow::nanos));
+        private long count;
+        private long totalNanos;
+        private long maxNanos;
+
+        void add(long nanos, String transactionId) {
+            buckets[bucketOf(nanos)]++;
+            count++;
+            totalNanos += nanos;
+            maxNanos = Math.max(maxNanos, nanos);
+            if (transactionId != null) {
+                slowest.add(new Slow(nanos, transactionId));
+                if (slowest.size() > SLOWEST_TRANSACTIONS) {
+                    slowest.poll();
+                }
+            }
+        }
+
+        /**
+         * Upper bound of the bucket holding the given quantile, never above the true maximum
+         */
+        long percentileNanos(double quantile) {
+            if (count == 0) {
+                return 0;
+            }
+            long rank = (long) Math.ceil(quantile * count);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += buckets[i];
+                if (seen >= rank) {
+                    return Math.min(upperBoundNanos(i), maxNanos);
+                }
+            }
+            return maxNanos;
+        }
+
+        ProfileSummary.PaymentEventStats toStats(String name) {
+            List<String> transactions = slowest.stream()
+                .sorted(Comparator.comparingLong(Slow::nanos).reversed())
+                .map(Slow::transactionId)
+                .toList();
+            return new ProfileSummary.PaymentEventStats(name, count,
+                                                        count > 0 ? millis(totalNanos / count) : 0,
+                                                        millis(percentileNanos(0.99)),
+                                                        millis(maxNanos),
+                                                        transactions);
+        }
+
+        private static int bucketOf(long nanos) {
+            if (nanos < 1_000) {
+                return 0;
+            }
+            int bucket = 1 + (int) (Math.log(nanos / 1_000.0) / Math.log(GROWTH));
+            return Math.min(bucket, BUCKETS - 1);
+        }
+
+        private static long upperBoundNanos(int bucket) {
+            return (long) (1_000 * Math.pow(GROWTH, bucket));
+        }
+
+        private static double millis(long nanos) {
+            return nanos / 1_000_000.0;
+        }
+
+        private record Slow(long nanos, String transactionId) {
+        }
+    }
+}
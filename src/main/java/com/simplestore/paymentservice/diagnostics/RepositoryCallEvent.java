@@ -0,0 +1,26 @@
+package com.simplestore.paymentservice.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event timing a database write on the payment path
+ */
+@Name(RepositoryCallEvent.NAME)
+@Label("Repository Call")
+@Category("Payment Service")
+@Description("Insert of a new payment or the write of its gateway outcome, including the commit")
+@StackTrace(false)
+public final class RepositoryCallEvent extends jdk.jfr.Event {
+
+    public static final String NAME = "com.simplestore.payment.RepositoryCall";
+
+    @Label("Transaction ID")
+    public String transactionId;
+
+    @Label("Operation")
+    public String operation;
+}
@@ -0,0 +1,30 @@
+package com.simplestore.paymentservice.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event timing the validation of one payment request
+ */
+@Name(ValidationEvent.NAME)
+@Label("Payment Validation")
+@Category("Payment Service")
+@Description("Validation of a payment request, or of a token payment against its vaulted card")
+@StackTrace(false)
+public final class ValidationEvent extends jdk.jfr.Event {
+
+    public static final String NAME = "com.simplestore.payment.Validation";
+
+    @Label("Transaction ID")
+    public String transactionId;
+
+    @Label("Card Token")
+    @Description("Whether the request paid with a vaulted card")
+    public boolean cardToken;
+
+    @Label("Valid")
+    public boolean valid;
+}
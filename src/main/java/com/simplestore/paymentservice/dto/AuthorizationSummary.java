@@ -0,0 +1,14 @@
+package com.simplestore.paymentservice.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Open authorization holds: how many, how much per currency, and when the next one expires
+ */
+public record AuthorizationSummary(
+        int open,
+        Map<String, BigDecimal> heldByCurrency,
+        LocalDateTime nextExpiry) {
+}
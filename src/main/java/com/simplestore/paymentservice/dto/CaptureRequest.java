@@ -0,0 +1,11 @@
+package com.simplestore.paymentservice.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * One capture in a batch; a null amount captures the full authorization
+ */
+public record CaptureRequest(
+        Long paymentId,
+        BigDecimal amount) {
+}
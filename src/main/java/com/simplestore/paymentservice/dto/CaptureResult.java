@@ -0,0 +1,15 @@
+package com.simplestore.paymentservice.dto;
+
+import com.simplestore.paymentservice.entity.PaymentStatus;
+
+import java.math.BigDecimal;
+
+/**
+ * Outcome of one capture; status is the payment's status afterwards (null if it does not exist)
+ */
+public record CaptureResult(
+        Long paymentId,
+        PaymentStatus status,
+        BigDecimal capturedAmount,
+        String message) {
+}
@@ -0,0 +1,26 @@
+package com.simplestore.paymentservice.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Pattern;
+
+/**
+ * A card to store in the vault; no CVV, since it is never stored
+ */
+public record CardRequest(
+        @NotBlank(message = "Cardholder name is required")
+        String cardholderName,
+
+        @NotBlank(message = "Card number is required")
+        @Pattern(regexp = "^[0-9]{13,19}$", message = "Card number must be 13-19 digits")
+        String cardNumber,
+
+        @NotBlank(message = "Expiry date is required")
+        @Pattern(regexp = "^(0[1-9]|1[0-2])/([0-9]{2})$", message = "Expiry date must be in MM/YY format")
+        String expiryDate) {
+
+    // Keep the card number out of logs
+    @Override
+    public String toString() {
+        return "CardRequest[cardholderName=" + cardholderName + "]";
+    }
+}
@@ -0,0 +1,11 @@
+package com.simplestore.paymentservice.dto;
+
+/**
+ * A vaulted card as shown to clients: its token and what is safe to display
+ */
+public record CardToken(
+        String token,
+        String cardholderName,
+        String lastFour,
+        String expiryDate) {
+}
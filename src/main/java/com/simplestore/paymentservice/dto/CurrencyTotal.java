@@ -0,0 +1,12 @@
+package com.simplestore.paymentservice.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Count and sum of payments in one currency
+ */
+public record CurrencyTotal(
+        String currency,
+        Long count,
+        BigDecimal total) {
+}
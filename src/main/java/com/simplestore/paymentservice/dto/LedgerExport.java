@@ -0,0 +1,12 @@
+package com.simplestore.paymentservice.dto;
+
+import java.time.LocalDate;
+
+/**
+ * A daily ledger written in the settlement file format
+ */
+public record LedgerExport(
+        LocalDate date,
+        String file,
+        long rows) {
+}
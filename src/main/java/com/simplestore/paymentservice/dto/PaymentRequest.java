@@ -1,30 +1,35 @@
 package com.simplestore.paymentservice.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.validation.constraints.*;
 import java.math.BigDecimal;
 import java.util.List;
 
 public class PaymentRequest {
     
-    @NotBlank(message = "Cardholder name is required")
+    // Card fields are required unless the card is referenced by a vault token
     private String cardholderName;
     
-    @NotBlank(message = "Card number is required")
     @Pattern(regexp = "^[0-9]{13,19}$", message = "Card number must be 13-19 digits")
     private String cardNumber;
     
-    @NotBlank(message = "Expiry date is required")
     @Pattern(regexp = "^(0[1-9]|1[0-2])/([0-9]{2})$", message = "Expiry date must be in MM/YY format")
     private String expiryDate;
     
-    @NotBlank(message = "CVV is required")
     @Pattern(regexp = "^[0-9]{3,4}$", message = "CVV must be 3-4 digits")
     private String cvv;
     
+    // Token issued by the card vault, in place of the card fields
+    @Pattern(regexp = "^tok_[A-Za-z0-9_-]{1,60}$", message = "Card token is malformed")
+    private String cardToken;
+    
     @NotNull(message = "Amount is required")
     @DecimalMin(value = "0.01", message = "Amount must be greater than 0")
     private BigDecimal amount;
     
+    @Pattern(regexp = "^[A-Z]{3}$", message = "Currency must be a 3-letter ISO 4217 code")
+    private String currency = "USD";
+    
     @NotEmpty(message = "Order items are required")
     private List<OrderItem> orderItems;
     
@@ -74,6 +79,27 @@ public class PaymentRequest {
         this.cvv = cvv;
     }
     
+    public String getCardToken() {
+        return cardToken;
+    }
+    
+    public void setCardToken(String cardToken) {
+        this.cardToken = cardToken;
+    }
+    
+    @JsonIgnore
+    @AssertTrue(message = "Either a card token or cardholder name, card number, expiry date and CVV are required")
+    public boolean isCardOrTokenPresent() {
+        if (cardToken != null) {
+            return true;
+        }
+        return isPresent(cardholderName) && isPresent(cardNumber) && isPresent(expiryDate) && isPresent(cvv);
+    }
+    
+    private static boolean isPresent(String value) {
+        return value != null && !value.isBlank();
+    }
+    
     public BigDecimal getAmount() {
         return amount;
     }
@@ -82,6 +108,14 @@ public class PaymentRequest {
         this.amount = amount;
     }
     
+    public String getCurrency() {
+        return currency;
+    }
+    
+    public void setCurrency(String currency) {
+        this.currency = currency;
+    }
+    
     public List<OrderItem> getOrderItems() {
         return orderItems;
     }
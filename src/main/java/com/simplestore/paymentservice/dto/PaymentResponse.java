@@ -10,6 +10,7 @@ public class PaymentResponse {
     private PaymentStatus status;
     private String message;
     private BigDecimal amount;
+    private String currency;
     private LocalDateTime processedAt;
     private String errorMessage;
     
@@ -37,6 +38,11 @@ public class PaymentResponse {
                                  "Payment processed successfully", amount);
     }
     
+    public static PaymentResponse authorized(String transactionId, BigDecimal amount) {
+        return new PaymentResponse(transactionId, PaymentStatus.AUTHORIZED, 
+                                 "Payment authorized", amount);
+    }
+    
     public static PaymentResponse failure(String transactionId, String errorMessage) {
         return new PaymentResponse(transactionId, PaymentStatus.FAILED, 
                                  "Payment processing failed", null, errorMessage);
@@ -75,6 +81,14 @@ public class PaymentResponse {
         this.amount = amount;
     }
     
+    public String getCurrency() {
+        return currency;
+    }
+    
+    public void setCurrency(String currency) {
+        this.currency = currency;
+    }
+    
     public LocalDateTime getProcessedAt() {
         return processedAt;
     }
@@ -0,0 +1,18 @@
+package com.simplestore.paymentservice.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Support search filters; null fields are ignored, name or lastFour must be given, and minAmount or
+ * maxAmount only together with a currency
+ */
+public record PaymentSearchCriteria(
+        String name,
+        String lastFour,
+        String currency,
+        BigDecimal minAmount,
+        BigDecimal maxAmount,
+        LocalDateTime from,
+        LocalDateTime to) {
+}
@@ -0,0 +1,15 @@
+package com.simplestore.paymentservice.dto;
+
+import com.simplestore.paymentservice.entity.Payment;
+
+import java.util.List;
+
+/**
+ * One page of search results, newest first
+ */
+public record PaymentSearchPage(
+        List<Payment> payments,
+        long total,
+        int page,
+        int size) {
+}
@@ -0,0 +1,18 @@
+package com.simplestore.paymentservice.dto;
+
+import com.simplestore.paymentservice.entity.PaymentStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Slim read model for payment listings, loaded with a constructor projection so only these columns are read
+ */
+public record PaymentSummary(
+        Long id,
+        String transactionId,
+        PaymentStatus status,
+        BigDecimal amount,
+        String currency,
+        LocalDateTime createdAt) {
+}
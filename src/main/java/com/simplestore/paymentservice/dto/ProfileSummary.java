@@ -0,0 +1,33 @@
+package com.simplestore.paymentservice.dto;
+
+import java.util.List;
+
+/**
+ * What a JFR recording says about the payment path: the code that allocates the most, the code that
+ * waits longest for locks, and how long validation, gateway and repository calls took
+ */
+public record ProfileSummary(
+        long recordingId,
+        double durationSeconds,
+        List<HotSite> allocationSites,
+        List<HotSite> lockSites,
+        List<PaymentEventStats> paymentEvents) {
+
+    /**
+     * A code location: weight is sampled bytes for allocation sites and milliseconds blocked for lock sites
+     */
+    public record HotSite(String site, long events, long weight) {
+    }
+
+    /**
+     * Durations of one payment event type, with the transactions of the slowest occurrences
+     */
+    public record PaymentEventStats(
+            String event,
+            long count,
+            double avgMillis,
+            double p99Millis,
+            double maxMillis,
+            List<String> slowestTransactionIds) {
+    }
+}
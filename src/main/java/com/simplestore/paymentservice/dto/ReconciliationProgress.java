@@ -0,0 +1,24 @@
+package com.simplestore.paymentservice.dto;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Where a settlement reconciliation stands; counts are final once the status is COMPLETED or FAILED
+ */
+public record ReconciliationProgress(
+        long id,
+        String file,
+        String status,
+        long totalBytes,
+        long bytesRead,
+        double percentComplete,
+        long linesRead,
+        long matched,
+        Map<String, Long> discrepancies,
+        double linesPerSecond,
+        Instant startedAt,
+        Instant finishedAt,
+        String report,
+        String error) {
+}
@@ -0,0 +1,16 @@
+package com.simplestore.paymentservice.dto;
+
+import java.time.Instant;
+
+/**
+ * A JFR recording started through the diagnostics endpoint
+ */
+public record RecordingInfo(
+        long id,
+        String name,
+        String state,
+        String settings,
+        Instant startTime,
+        Instant stopTime,
+        long sizeBytes) {
+}
@@ -0,0 +1,30 @@
+package com.simplestore.paymentservice.dto;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+
+/**
+ * Registration of a webhook endpoint; batch and maxConcurrency are optional
+ */
+public record WebhookEndpointRequest(
+        @NotBlank(message = "URL is required")
+        String url,
+
+        @NotBlank(message = "Secret is required")
+        @Size(min = 16, message = "Secret must be at least 16 characters")
+        String secret,
+
+        Boolean batch,
+
+        @Min(value = 1, message = "Max concurrency must be at least 1")
+        @Max(value = 256, message = "Max concurrency must be at most 256")
+        Integer maxConcurrency) {
+
+    // Keep the secret out of logs
+    @Override
+    public String toString() {
+        return "WebhookEndpointRequest[url=" + url + ", batch=" + batch + ", maxConcurrency=" + maxConcurrency + "]";
+    }
+}
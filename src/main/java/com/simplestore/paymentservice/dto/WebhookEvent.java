@@ -0,0 +1,38 @@
+package com.simplestore.paymentservice.dto;
+
+import com.simplestore.paymentservice.entity.Payment;
+import com.simplestore.paymentservice.entity.PaymentStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Locale;
+import java.util.UUID;
+
+/**
+ * A payment status change as sent to webhook endpoints; every endpoint gets the same id for the same change
+ */
+public record WebhookEvent(
+        String id,
+        String type,
+        Long paymentId,
+        String transactionId,
+        PaymentStatus status,
+        BigDecimal amount,
+        String currency,
+        LocalDateTime occurredAt) {
+
+    /**
+     * Event for a payment that has just moved to the given status
+     */
+    public static WebhookEvent of(Payment payment, PaymentStatus status) {
+        return new WebhookEvent(
+                "evt_" + UUID.randomUUID().toString().replace("-", ""),
+                "payment." + status.name().toLowerCase(Locale.ROOT),
+                payment.getId(),
+                payment.getTransactionId(),
+                status,
+                payment.getAmount(),
+                payment.getCurrency(),
+                LocalDateTime.now());
+    }
+}
@@ -0,0 +1,13 @@
+package com.simplestore.paymentservice.dto;
+
+/**
+ * Webhook deliveries by status, plus what this node is sending right now and has sent since it started
+ */
+public record WebhookStats(
+        long pending,
+        long delivered,
+        long failed,
+        int inFlight,
+        long deliveredSinceStart,
+        long retriesSinceStart) {
+}
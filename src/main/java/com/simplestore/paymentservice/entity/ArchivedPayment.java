@@ -0,0 +1,141 @@
+package com.simplestore.paymentservice.entity;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Terminal-state payment moved out of the hot payments table by the archival job.
+ * Keeps the original ID so lookups by ID or transaction ID still resolve.
+ */
+@Entity
+@Table(name = "payments_archive", indexes = {
+    @Index(name = "idx_payments_archive_created_at", columnList = "created_at"),
+    @Index(name = "idx_payments_archive_archived_at", columnList = "archived_at")
+})
+public class ArchivedPayment {
+    
+    @Id
+    private Long id;
+    
+    @Column(name = "cardholder_name", nullable = false)
+    private String cardholderName;
+    
+    @Column(name = "card_number", nullable = false)
+    private String cardNumber;
+    
+    @Column(name = "expiry_date", nullable = false)
+    private String expiryDate;
+    
+    @Column(name = "amount", nullable = false, precision = 10, scale = 2)
+    private BigDecimal amount;
+    
+    @Column(name = "currency", nullable = false, length = 3)
+    private String currency;
+    
+    @Enumerated(EnumType.STRING)
+    @JdbcTypeCode(SqlTypes.VARCHAR) // Plain VARCHAR on every database so the migrated schema validates
+    @Column(name = "status", nullable = false)
+    private PaymentStatus status;
+    
+    @Column(name = "transaction_id", unique = true)
+    private String transactionId;
+    
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+    
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+    
+    @Column(name = "error_message")
+    private String errorMessage;
+    
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+    
+    // Constructors
+    public ArchivedPayment() {}
+    
+    public static ArchivedPayment from(Payment payment, LocalDateTime archivedAt) {
+        ArchivedPayment archived = new ArchivedPayment();
+        archived.id = payment.getId();
+        archived.cardholderName = payment.getCardholderName();
+        archived.cardNumber = payment.getCardNumber();
+        archived.expiryDate = payment.getExpiryDate();
+        archived.amount = payment.getAmount();
+        archived.currency = payment.getCurrency();
+        archived.status = payment.getStatus();
+        archived.transactionId = payment.getTransactionId();
+        archived.createdAt = payment.getCreatedAt();
+        archived.updatedAt = payment.getUpdatedAt();
+        archived.errorMessage = payment.getErrorMessage();
+        archived.archivedAt = archivedAt;
+        return archived;
+    }
+    
+    /**
+     * Detached Payment view for read paths that serve hot and archived payments alike
+     */
+    public Payment toPayment() {
+        Payment payment = new Payment(cardholderName, cardNumber, expiryDate, "***", amount);
+        payment.setId(id);
+        payment.setCurrency(currency);
+        payment.setStatus(status);
+        payment.setTransactionId(transactionId);
+        payment.setCreatedAt(createdAt);
+        payment.setUpdatedAt(updatedAt);
+        payment.setErrorMessage(errorMessage);
+        return payment;
+    }
+    
+    // Getters
+    public Long getId() {
+        return id;
+    }
+    
+    public String getCardholderName() {
+        return cardholderName;
+    }
+    
+    public String getCardNumber() {
+        return cardNumber;
+    }
+    
+    public String getExpiryDate() {
+        return expiryDate;
+    }
+    
+    public BigDecimal getAmount() {
+        return amount;
+    }
+    
+    public String getCurrency() {
+        return currency;
+    }
+    
+    public PaymentStatus getStatus() {
+        return status;
+    }
+    
+    public String getTransactionId() {
+        return transactionId;
+    }
+    
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+    
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+    
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+    
+    public LocalDateTime getArchivedAt() {
+        return archivedAt;
+    }
+}
@@ -1,12 +1,19 @@
 package com.simplestore.paymentservice.entity;
 
+import com.simplestore.paymentservice.search.PaymentIndexListener;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "payments")
+@EntityListeners(PaymentIndexListener.class)
+@Table(name = "payments", indexes = {
+    @Index(name = "idx_payments_status_created_at", columnList = "status, created_at"),
+    @Index(name = "idx_payments_created_at", columnList = "created_at")
+})
 public class Payment {
     
     @Id
@@ -34,7 +41,11 @@ public class Payment {
     @Column(name = "amount", nullable = false, precision = 10, scale = 2)
     private BigDecimal amount;
     
+    @Column(name = "currency", nullable = false, length = 3)
+    private String currency = "USD";
+    
     @Enumerated(EnumType.STRING)
+    @JdbcTypeCode(SqlTypes.VARCHAR) // Plain VARCHAR on every database so the migrated schema validates
     @Column(name = "status", nullable = false)
     private PaymentStatus status;
     
@@ -50,6 +61,19 @@ public class Payment {
     @Column(name = "error_message")
     private String errorMessage;
     
+    // Amount held by an authorization; amount itself becomes the captured amount
+    @Column(name = "authorized_amount", precision = 10, scale = 2)
+    private BigDecimal authorizedAmount;
+    
+    // When an uncaptured authorization is voided automatically
+    @Column(name = "authorization_expires_at")
+    private LocalDateTime authorizationExpiresAt;
+    
+    // Optimistic lock; status transitions also bump it in their conditional UPDATE
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+    
     // Constructors
     public Payment() {
         this.createdAt = LocalDateTime.now();
@@ -115,6 +139,14 @@ public class Payment {
         this.amount = amount;
     }
     
+    public String getCurrency() {
+        return currency;
+    }
+    
+    public void setCurrency(String currency) {
+        this.currency = currency;
+    }
+    
     public PaymentStatus getStatus() {
         return status;
     }
@@ -156,6 +188,30 @@ public class Payment {
         this.errorMessage = errorMessage;
     }
     
+    public BigDecimal getAuthorizedAmount() {
+        return authorizedAmount;
+    }
+    
+    public void setAuthorizedAmount(BigDecimal authorizedAmount) {
+        this.authorizedAmount = authorizedAmount;
+    }
+    
+    public LocalDateTime getAuthorizationExpiresAt() {
+        return authorizationExpiresAt;
+    }
+    
+    public void setAuthorizationExpiresAt(LocalDateTime authorizationExpiresAt) {
+        this.authorizationExpiresAt = authorizationExpiresAt;
+    }
+    
+    public Long getVersion() {
+        return version;
+    }
+    
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+    
     @PreUpdate
     protected void onUpdate() {
         this.updatedAt = LocalDateTime.now();
@@ -6,5 +6,30 @@ public enum PaymentStatus {
     COMPLETED,
     FAILED,
     DECLINED,
-    CANCELLED
+    CANCELLED,
+    // Funds held on the card, not yet captured
+    AUTHORIZED,
+    // Capture sent to the gateway
+    CAPTURING,
+    // Hold released without capture
+    VOIDED;
+    
+    /**
+     * Transition table: whether a payment in this status may move to the next one
+     */
+    public boolean canTransitionTo(PaymentStatus next) {
+        return switch (this) {
+            // Created but not yet sent to the gateway
+            case PENDING -> next == PROCESSING || next == CANCELLED;
+            // Sent to the gateway; only its outcome can finish it
+            case PROCESSING -> next == COMPLETED || next == FAILED || next == DECLINED || next == AUTHORIZED;
+            // An open hold is either captured or released
+            case AUTHORIZED -> next == CAPTURING || next == VOIDED;
+            // A failed capture leaves the hold in place
+            case CAPTURING -> next == COMPLETED || next == AUTHORIZED;
+            // A completed payment can still be voided
+            case COMPLETED -> next == CANCELLED;
+            case FAILED, DECLINED, CANCELLED, VOIDED -> false;
+        };
+    }
 }
@@ -0,0 +1,160 @@
+package com.simplestore.paymentservice.entity;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDateTime;
+
+/**
+ * A payment action to run at a later time; the durable record behind the in-memory timing wheel
+ */
+@Entity
+@Table(name = "scheduled_actions", indexes = {
+    @Index(name = "idx_scheduled_actions_status_due_at", columnList = "status, due_at"),
+    @Index(name = "idx_scheduled_actions_payment_id", columnList = "payment_id"),
+    @Index(name = "idx_scheduled_actions_idempotency_key", columnList = "idempotency_key", unique = true)
+})
+public class ScheduledAction {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "payment_id", nullable = false)
+    private Long paymentId;
+    
+    @Enumerated(EnumType.STRING)
+    @JdbcTypeCode(SqlTypes.VARCHAR)
+    @Column(name = "type", nullable = false)
+    private ScheduledActionType type;
+    
+    @Enumerated(EnumType.STRING)
+    @JdbcTypeCode(SqlTypes.VARCHAR)
+    @Column(name = "status", nullable = false)
+    private ScheduledActionStatus status;
+    
+    @Column(name = "due_at", nullable = false)
+    private LocalDateTime dueAt;
+    
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+    
+    @Column(name = "executed_at")
+    private LocalDateTime executedAt;
+    
+    // Payment created by a RETRY
+    @Column(name = "result_payment_id")
+    private Long resultPaymentId;
+    
+    @Column(name = "error_message")
+    private String errorMessage;
+    
+    // Idempotency-Key of the request that scheduled a CHARGE, so a retried request finds this action
+    @Column(name = "idempotency_key")
+    private String idempotencyKey;
+    
+    // Card of a CHARGE, for the velocity limit when it runs; the stored payment only keeps a masked number
+    @Column(name = "card_fingerprint", length = 64)
+    private String cardFingerprint;
+    
+    public ScheduledAction() {
+        this.createdAt = LocalDateTime.now();
+        this.status = ScheduledActionStatus.SCHEDULED;
+    }
+    
+    public ScheduledAction(Long paymentId, ScheduledActionType type, LocalDateTime dueAt) {
+        this();
+        this.paymentId = paymentId;
+        this.type = type;
+        this.dueAt = dueAt;
+    }
+    
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public Long getPaymentId() {
+        return paymentId;
+    }
+    
+    public void setPaymentId(Long paymentId) {
+        this.paymentId = paymentId;
+    }
+    
+    public ScheduledActionType getType() {
+        return type;
+    }
+    
+    public void setType(ScheduledActionType type) {
+        this.type = type;
+    }
+    
+    public ScheduledActionStatus getStatus() {
+        return status;
+    }
+    
+    public void setStatus(ScheduledActionStatus status) {
+        this.status = status;
+    }
+    
+    public LocalDateTime getDueAt() {
+        return dueAt;
+    }
+    
+    public void setDueAt(LocalDateTime dueAt) {
+        this.dueAt = dueAt;
+    }
+    
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+    
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+    
+    public LocalDateTime getExecutedAt() {
+        return executedAt;
+    }
+    
+    public void setExecutedAt(LocalDateTime executedAt) {
+        this.executedAt = executedAt;
+    }
+    
+    public Long getResultPaymentId() {
+        return resultPaymentId;
+    }
+    
+    public void setResultPaymentId(Long resultPaymentId) {
+        this.resultPaymentId = resultPaymentId;
+    }
+    
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+    
+    public void setErrorMessage(String errorMessage) {
+        this.errorMessage = errorMessage;
+    }
+    
+    public String getIdempotencyKey() {
+        return idempotencyKey;
+    }
+    
+    public void setIdempotencyKey(String idempotencyKey) {
+        this.idempotencyKey = idempotencyKey;
+    }
+    
+    public String getCardFingerprint() {
+        return cardFingerprint;
+    }
+    
+    public void setCardFingerprint(String cardFingerprint) {
+        this.cardFingerprint = cardFingerprint;
+    }
+}
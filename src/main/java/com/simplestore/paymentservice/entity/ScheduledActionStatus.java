@@ -0,0 +1,10 @@
+package com.simplestore.paymentservice.entity;
+
+public enum ScheduledActionStatus {
+    SCHEDULED,
+    // Claimed by a node; the payment it started is covered by payment recovery if that node dies
+    RUNNING,
+    DONE,
+    FAILED,
+    CANCELLED
+}
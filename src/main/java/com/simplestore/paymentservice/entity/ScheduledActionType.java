@@ -0,0 +1,8 @@
+package com.simplestore.paymentservice.entity;
+
+public enum ScheduledActionType {
+    // Send a PENDING payment to the gateway
+    CHARGE,
+    // Charge a declined or failed payment again, as a new payment
+    RETRY
+}
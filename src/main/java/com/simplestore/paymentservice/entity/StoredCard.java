@@ -0,0 +1,86 @@
+package com.simplestore.paymentservice.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * A card in the vault: the card number, expiry and cardholder are stored only encrypted.
+ * The CVV is never stored; token payments are card-on-file charges without it.
+ */
+@Entity
+@Table(name = "stored_cards", indexes = {
+    @Index(name = "idx_stored_cards_fingerprint", columnList = "fingerprint", unique = true)
+})
+public class StoredCard {
+    
+    @Id
+    @Column(name = "token", length = 64)
+    private String token;
+    
+    // SHA-256 of the card number, so the same card always maps to the same token
+    @Column(name = "fingerprint", nullable = false, length = 64)
+    private String fingerprint;
+    
+    @Column(name = "last_four", nullable = false, length = 4)
+    private String lastFour;
+    
+    // IV followed by the AES-GCM ciphertext
+    @Column(name = "encrypted_data", nullable = false, length = 512)
+    private byte[] encryptedData;
+    
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+    
+    public StoredCard() {
+        this.createdAt = LocalDateTime.now();
+    }
+    
+    public StoredCard(String token, String fingerprint, String lastFour, byte[] encryptedData) {
+        this();
+        this.token = token;
+        this.fingerprint = fingerprint;
+        this.lastFour = lastFour;
+        this.encryptedData = encryptedData;
+    }
+    
+    public String getToken() {
+        return token;
+    }
+    
+    public void setToken(String token) {
+        this.token = token;
+    }
+    
+    public String getFingerprint() {
+        return fingerprint;
+    }
+    
+    public void setFingerprint(String fingerprint) {
+        this.fingerprint = fingerprint;
+    }
+    
+    public String getLastFour() {
+        return lastFour;
+    }
+    
+    public void setLastFour(String lastFour) {
+        this.lastFour = lastFour;
+    }
+    
+    public byte[] getEncryptedData() {
+        return encryptedData;
+    }
+    
+    public void setEncryptedData(byte[] encryptedData) {
+        this.encryptedData = encryptedData;
+    }
+    
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+    
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
@@ -0,0 +1,151 @@
+package com.simplestore.paymentservice.entity;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDateTime;
+
+/**
+ * One event for one endpoint; PENDING rows are the persistent retry queue of the webhook dispatcher
+ */
+@Entity
+@Table(name = "webhook_deliveries", indexes = {
+    @Index(name = "idx_webhook_deliveries_due", columnList = "endpoint_id, status, next_attempt_at"),
+    @Index(name = "idx_webhook_deliveries_payment_id", columnList = "payment_id")
+})
+public class WebhookDelivery {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "endpoint_id", nullable = false)
+    private Long endpointId;
+    
+    @Column(name = "payment_id", nullable = false)
+    private Long paymentId;
+    
+    @Column(name = "event_type", nullable = false)
+    private String eventType;
+    
+    // The event as sent, serialized when the status changed
+    @Column(name = "payload", nullable = false, length = 2000)
+    private String payload;
+    
+    @Enumerated(EnumType.STRING)
+    @JdbcTypeCode(SqlTypes.VARCHAR)
+    @Column(name = "status", nullable = false)
+    private WebhookDeliveryStatus status;
+    
+    // Attempts started so far
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+    
+    // When PENDING: the earliest time of the next attempt (pushed ahead while an attempt is in flight)
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+    
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+    
+    @Column(name = "delivered_at")
+    private LocalDateTime deliveredAt;
+    
+    @Column(name = "last_error")
+    private String lastError;
+    
+    public WebhookDelivery() {
+        this.createdAt = LocalDateTime.now();
+        this.nextAttemptAt = this.createdAt;
+        this.status = WebhookDeliveryStatus.PENDING;
+    }
+    
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public Long getEndpointId() {
+        return endpointId;
+    }
+    
+    public void setEndpointId(Long endpointId) {
+        this.endpointId = endpointId;
+    }
+    
+    public Long getPaymentId() {
+        return paymentId;
+    }
+    
+    public void setPaymentId(Long paymentId) {
+        this.paymentId = paymentId;
+    }
+    
+    public String getEventType() {
+        return eventType;
+    }
+    
+    public void setEventType(String eventType) {
+        this.eventType = eventType;
+    }
+    
+    public String getPayload() {
+        return payload;
+    }
+    
+    public void setPayload(String payload) {
+        this.payload = payload;
+    }
+    
+    public WebhookDeliveryStatus getStatus() {
+        return status;
+    }
+    
+    public void setStatus(WebhookDeliveryStatus status) {
+        this.status = status;
+    }
+    
+    public int getAttempts() {
+        return attempts;
+    }
+    
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+    
+    public LocalDateTime getNextAttemptAt() {
+        return nextAttemptAt;
+    }
+    
+    public void setNextAttemptAt(LocalDateTime nextAttemptAt) {
+        this.nextAttemptAt = nextAttemptAt;
+    }
+    
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+    
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+    
+    public LocalDateTime getDeliveredAt() {
+        return deliveredAt;
+    }
+    
+    public void setDeliveredAt(LocalDateTime deliveredAt) {
+        this.deliveredAt = deliveredAt;
+    }
+    
+    public String getLastError() {
+        return lastError;
+    }
+    
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+}
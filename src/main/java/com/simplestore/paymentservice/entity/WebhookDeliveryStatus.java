@@ -0,0 +1,9 @@
+package com.simplestore.paymentservice.entity;
+
+public enum WebhookDeliveryStatus {
+    // Waiting for its first attempt or a retry
+    PENDING,
+    DELIVERED,
+    // Given up after the last attempt, or its endpoint was removed
+    FAILED
+}
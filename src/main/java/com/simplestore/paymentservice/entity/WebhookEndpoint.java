@@ -0,0 +1,97 @@
+package com.simplestore.paymentservice.entity;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * A merchant URL that receives payment status changes
+ */
+@Entity
+@Table(name = "webhook_endpoints")
+public class WebhookEndpoint {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "url", nullable = false, length = 2048)
+    private String url;
+    
+    // Signs every request; never returned by the API
+    @JsonIgnore
+    @Column(name = "secret", nullable = false)
+    private String secret;
+    
+    // Send events in JSON arrays of up to payment.webhook.batch-size instead of one per request
+    @Column(name = "batch", nullable = false)
+    private boolean batch;
+    
+    // Requests in flight at once; null uses payment.webhook.max-concurrency-per-endpoint
+    @Column(name = "max_concurrency")
+    private Integer maxConcurrency;
+    
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+    
+    public WebhookEndpoint() {
+        this.createdAt = LocalDateTime.now();
+    }
+    
+    public WebhookEndpoint(String url, String secret, boolean batch, Integer maxConcurrency) {
+        this();
+        this.url = url;
+        this.secret = secret;
+        this.batch = batch;
+        this.maxConcurrency = maxConcurrency;
+    }
+    
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public String getUrl() {
+        return url;
+    }
+    
+    public void setUrl(String url) {
+        this.url = url;
+    }
+    
+    public String getSecret() {
+        return secret;
+    }
+    
+    public void setSecret(String secret) {
+        this.secret = secret;
+    }
+    
+    public boolean isBatch() {
+        return batch;
+    }
+    
+    public void setBatch(boolean batch) {
+        this.batch = batch;
+    }
+    
+    public Integer getMaxConcurrency() {
+        return maxConcurrency;
+    }
+    
+    public void setMaxConcurrency(Integer maxConcurrency) {
+        this.maxConcurrency = maxConcurrency;
+    }
+    
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+    
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
@@ -0,0 +1,83 @@
+package com.simplestore.paymentservice.money;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Currency;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Immutable table of exchange rates into a base currency.
+ *
+ * Snapshots are never modified after construction, so readers can use one without locking
+ * while a newer snapshot is being loaded.
+ */
+public final class FxRateSnapshot {
+    
+    private final Currency baseCurrency;
+    private final Map<Currency, BigDecimal> ratesToBase;
+    
+    public FxRateSnapshot(Currency baseCurrency, Map<Currency, BigDecimal> ratesToBase) {
+        Map<Currency, BigDecimal> rates = new HashMap<>(ratesToBase);
+        rates.put(baseCurrency, BigDecimal.ONE);
+        this.baseCurrency = baseCurrency;
+        this.ratesToBase = Map.copyOf(rates);
+    }
+    
+    /**
+     * Snapshot that only knows the base currency
+     */
+    public static FxRateSnapshot baseOnly(Currency baseCurrency) {
+        return new FxRateSnapshot(baseCurrency, Map.of());
+    }
+    
+    /**
+     * Parse a rate table: "base=USD" plus one "CCY=rate" line per currency, where rate is
+     * the value of one unit of CCY in the base currency
+     */
+    public static FxRateSnapshot fromProperties(Properties properties) {
+        String base = properties.getProperty("base");
+        if (base == null) {
+            throw new IllegalArgumentException("FX rate table must define base");
+        }
+        Map<Currency, BigDecimal> rates = new HashMap<>();
+        for (String key : properties.stringPropertyNames()) {
+            if (key.equals("base")) {
+                continue;
+            }
+            BigDecimal rate = new BigDecimal(properties.getProperty(key).trim());
+            if (rate.signum() <= 0) {
+                throw new IllegalArgumentException("FX rate for " + key + " must be positive");
+            }
+            rates.put(Currency.getInstance(key.trim()), rate);
+        }
+        return new FxRateSnapshot(Currency.getInstance(base.trim()), rates);
+    }
+    
+    public Currency getBaseCurrency() {
+        return baseCurrency;
+    }
+    
+    public boolean supports(Currency currency) {
+        return ratesToBase.containsKey(currency);
+    }
+    
+    /**
+     * Convert an amount into the base currency, rounding half-even to the base currency's minor unit
+     *
+     * @throws IllegalArgumentException if the currency has no rate
+     */
+    public Money toBase(Money money) {
+        if (money.getCurrency().equals(baseCurrency)) {
+            return money;
+        }
+        BigDecimal rate = ratesToBase.get(money.getCurrency());
+        if (rate == null) {
+            throw new IllegalArgumentException("No FX rate for " + money.getCurrency());
+        }
+        BigDecimal converted = money.toBigDecimal().multiply(rate)
+            .setScale(Math.max(0, baseCurrency.getDefaultFractionDigits()), RoundingMode.HALF_EVEN);
+        return Money.of(converted, baseCurrency);
+    }
+}
@@ -0,0 +1,121 @@
+package com.simplestore.paymentservice.money;
+
+import java.math.BigDecimal;
+import java.util.Currency;
+import java.util.Objects;
+
+/**
+ * Fixed-point amount in minor units (e.g. cents) of a currency.
+ *
+ * Used internally for validation, risk checks and statistics so the hot path works on longs;
+ * BigDecimal only appears at the API and JPA boundary, where conversion is exact (amounts with
+ * more fraction digits than the currency allows are rejected rather than rounded).
+ */
+public final class Money implements Comparable<Money> {
+    
+    public static final Currency DEFAULT_CURRENCY = Currency.getInstance("USD");
+    
+    private final long minorUnits;
+    private final Currency currency;
+    
+    private Money(long minorUnits, Currency currency) {
+        this.minorUnits = minorUnits;
+        this.currency = Objects.requireNonNull(currency, "currency");
+    }
+    
+    public static Money ofMinor(long minorUnits, Currency currency) {
+        return new Money(minorUnits, currency);
+    }
+    
+    /**
+     * Exact conversion from a decimal amount
+     *
+     * @throws ArithmeticException if the amount has more fraction digits than the currency or overflows a long
+     */
+    public static Money of(BigDecimal amount, Currency currency) {
+        return new Money(toMinorUnits(amount, currency), currency);
+    }
+    
+    /**
+     * Exact conversion of a decimal amount to minor units, without creating a Money instance
+     *
+     * @throws ArithmeticException if the amount has more fraction digits than the currency or overflows a long
+     */
+    public static long toMinorUnits(BigDecimal amount, Currency currency) {
+        return amount.movePointRight(fractionDigits(currency)).longValueExact();
+    }
+    
+    /**
+     * Exact conversion of minor units back to a decimal amount with the currency's scale
+     */
+    public static BigDecimal toDecimal(long minorUnits, Currency currency) {
+        return BigDecimal.valueOf(minorUnits, fractionDigits(currency));
+    }
+    
+    private static int fractionDigits(Currency currency) {
+        return Math.max(0, currency.getDefaultFractionDigits());
+    }
+    
+    public long getMinorUnits() {
+        return minorUnits;
+    }
+    
+    public Currency getCurrency() {
+        return currency;
+    }
+    
+    public BigDecimal toBigDecimal() {
+        return toDecimal(minorUnits, currency);
+    }
+    
+    public Money plus(Money other) {
+        checkSameCurrency(other);
+        return new Money(Math.addExact(minorUnits, other.minorUnits), currency);
+    }
+    
+    public Money times(long multiplier) {
+        return new Money(Math.multiplyExact(minorUnits, multiplier), currency);
+    }
+    
+    public boolean isPositive() {
+        return minorUnits > 0;
+    }
+    
+    public boolean isGreaterThan(Money other) {
+        return compareTo(other) > 0;
+    }
+    
+    @Override
+    public int compareTo(Money other) {
+        checkSameCurrency(other);
+        return Long.compare(minorUnits, other.minorUnits);
+    }
+    
+    private void checkSameCurrency(Money other) {
+        if (!currency.equals(other.currency)) {
+            throw new IllegalArgumentException("Currency mismatch: " + currency + " vs " + other.currency);
+        }
+    }
+    
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Money)) {
+            return false;
+        }
+        Money other = (Money) o;
+        return minorUnits == other.minorUnits && currency.equals(other.currency);
+    }
+    
+    @Override
+    public int hashCode() {
+        return Long.hashCode(minorUnits) * 31 + currency.hashCode();
+    }
+    
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString() + " " + currency.getCurrencyCode();
+    }
+}
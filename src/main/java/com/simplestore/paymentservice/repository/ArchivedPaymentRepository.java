@@ -0,0 +1,30 @@
+package com.simplestore.paymentservice.repository;
+
+import com.simplestore.paymentservice.entity.ArchivedPayment;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+@Repository
+public interface ArchivedPaymentRepository extends JpaRepository<ArchivedPayment, Long> {
+    
+    // Find by transaction ID
+    Optional<ArchivedPayment> findByTransactionId(String transactionId);
+    
+    // Find by date range
+    List<ArchivedPayment> findByCreatedAtBetween(LocalDateTime startDate, LocalDateTime endDate);
+    
+    // Stream payments archived in a time window, for export (must be consumed inside a transaction)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT a FROM ArchivedPayment a WHERE a.archivedAt >= :from AND a.archivedAt < :to ORDER BY a.id")
+    Stream<ArchivedPayment> streamArchivedBetween(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+}
@@ -0,0 +1,39 @@
+package com.simplestore.paymentservice.repository;
+
+import java.sql.Statement;
+
+/**
+ * Per-statement update counts of a JDBC batch of conditional updates.
+ *
+ * Callers read a count of 0 as "the row had changed meanwhile" (another node or recovery got there
+ * first). A driver that answers {@link Statement#SUCCESS_NO_INFO} does not say which, and taking it as
+ * applied would complete a payment or claim a delivery twice, so such counts are rejected instead.
+ */
+public final class BatchUpdateCounts {
+
+    private BatchUpdateCounts() {
+    }
+
+    /**
+     * The counts, once every one of them is known; check inside the transaction so a rejection rolls it back
+     */
+    public static int[] require(int[] counts) {
+        for (int count : counts) {
+            applied(count);
+        }
+        return counts;
+    }
+
+    /**
+     * Whether the statement changed a row
+     *
+     * @throws IllegalStateException if the driver did not report a count (e.g. MySQL with rewriteBatchedStatements)
+     */
+    public static boolean applied(int count) {
+        if (count == Statement.SUCCESS_NO_INFO) {
+            throw new IllegalStateException(
+                "JDBC driver did not report update counts for a batch; disable batch rewriting for this datasource");
+        }
+        return count > 0;
+    }
+}
@@ -0,0 +1,41 @@
+package com.simplestore.paymentservice.repository;
+
+import com.simplestore.paymentservice.entity.PaymentStatus;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Field-selective payment queries (custom fragment of {@link PaymentRepository})
+ */
+public interface PaymentProjectionRepository {
+
+    /**
+     * Allowed field names, in the order they are returned
+     */
+    List<String> SELECTABLE_FIELDS = List.of(
+        "id", "transactionId", "status", "amount", "currency", "cardholderName", "cardNumber",
+        "createdAt", "updatedAt", "errorMessage");
+
+    /**
+     * The given fields, once checked to be a non-empty subset of {@link #SELECTABLE_FIELDS}.
+     * Callers outside the repository check first: through the repository proxy the rejection
+     * surfaces as InvalidDataAccessApiUsageException rather than IllegalArgumentException.
+     */
+    static List<String> requireSelectable(List<String> fields) {
+        if (fields.isEmpty() || !SELECTABLE_FIELDS.containsAll(fields)) {
+            throw new IllegalArgumentException("Fields must be a non-empty subset of " + SELECTABLE_FIELDS);
+        }
+        return fields;
+    }
+
+    /**
+     * Read only the given fields of matching payments
+     *
+     * @param fields      subset of {@link #SELECTABLE_FIELDS}
+     * @param statuses    statuses to include, or null for all payments
+     * @param newestFirst order by creation time descending
+     */
+    List<Map<String, Object>> findFields(List<String> fields, Collection<PaymentStatus> statuses, boolean newestFirst);
+}
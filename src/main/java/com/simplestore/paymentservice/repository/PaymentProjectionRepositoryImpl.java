@@ -0,0 +1,53 @@
+package com.simplestore.paymentservice.repository;
+
+import com.simplestore.paymentservice.entity.PaymentStatus;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+public class PaymentProjectionRepositoryImpl implements PaymentProjectionRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Map<String, Object>> findFields(List<String> fields, Collection<PaymentStatus> statuses,
+                                                boolean newestFirst) {
+        PaymentProjectionRepository.requireSelectable(fields);
+
+        // Field names are checked against the whitelist above, so they are safe to inline
+        StringBuilder jpql = new StringBuilder("SELECT ")
+            .append(fields.stream().map(field -> "p." + field + " AS " + field).collect(Collectors.joining(", ")))
+            .append(" FROM Payment p");
+        if (statuses != null) {
+            jpql.append(" WHERE p.status IN :statuses");
+        }
+        if (newestFirst) {
+            jpql.append(" ORDER BY p.createdAt DESC");
+        }
+
+        TypedQuery<Tuple> query = entityManager.createQuery(jpql.toString(), Tuple.class);
+        if (statuses != null) {
+            query.setParameter("statuses", statuses);
+        }
+
+        List<Tuple> tuples = query.getResultList();
+        List<Map<String, Object>> rows = new ArrayList<>(tuples.size());
+        for (Tuple tuple : tuples) {
+            Map<String, Object> row = new LinkedHashMap<>(fields.size() * 2);
+            for (String field : fields) {
+                row.put(field, tuple.get(field));
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+}
@@ -1,19 +1,28 @@
 package com.simplestore.paymentservice.repository;
 
+import com.simplestore.paymentservice.dto.CurrencyTotal;
+import com.simplestore.paymentservice.dto.PaymentSummary;
 import com.simplestore.paymentservice.entity.Payment;
 import com.simplestore.paymentservice.entity.PaymentStatus;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface PaymentRepository extends JpaRepository<Payment, Long> {
+public interface PaymentRepository extends JpaRepository<Payment, Long>, PaymentProjectionRepository {
     
     // Find by transaction ID
     Optional<Payment> findByTransactionId(String transactionId);
@@ -42,6 +51,10 @@ public interface PaymentRepository extends JpaRepository<Payment, Long> {
     @Query("SELECT SUM(p.amount) FROM Payment p WHERE p.status = :status")
     BigDecimal getTotalAmountByStatus(@Param("status") PaymentStatus status);
     
+    // Get count and total amount per currency by status
+    @Query("SELECT new com.simplestore.paymentservice.dto.CurrencyTotal(p.currency, COUNT(p), SUM(p.amount)) FROM Payment p WHERE p.status = :status GROUP BY p.currency")
+    List<CurrencyTotal> getTotalsByCurrency(@Param("status") PaymentStatus status);
+    
     // Get payment count by status
     @Query("SELECT COUNT(p) FROM Payment p WHERE p.status = :status")
     Long getPaymentCountByStatus(@Param("status") PaymentStatus status);
@@ -53,4 +66,46 @@ public interface PaymentRepository extends JpaRepository<Payment, Long> {
     // Get recent payments
     @Query("SELECT p FROM Payment p ORDER BY p.createdAt DESC")
     List<Payment> findRecentPayments();
+    
+    // Summary projections (read only the summary columns)
+    @Query("SELECT new com.simplestore.paymentservice.dto.PaymentSummary(p.id, p.transactionId, p.status, p.amount, p.currency, p.createdAt) FROM Payment p")
+    List<PaymentSummary> findAllSummaries();
+    
+    @Query("SELECT new com.simplestore.paymentservice.dto.PaymentSummary(p.id, p.transactionId, p.status, p.amount, p.currency, p.createdAt) FROM Payment p WHERE p.status IN :statuses")
+    List<PaymentSummary> findSummariesByStatusIn(@Param("statuses") Collection<PaymentStatus> statuses);
+    
+    @Query("SELECT new com.simplestore.paymentservice.dto.PaymentSummary(p.id, p.transactionId, p.status, p.amount, p.currency, p.createdAt) FROM Payment p ORDER BY p.createdAt DESC")
+    List<PaymentSummary> findRecentSummaries();
+    
+    // Stream all payments for export (must be consumed inside a transaction)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT p FROM Payment p ORDER BY p.id")
+    Stream<Payment> streamAll();
+    
+    // IDs of payments eligible for archival, oldest first (uses the status/created_at index)
+    @Query("SELECT p.id FROM Payment p WHERE p.status IN :statuses AND p.createdAt < :cutoff ORDER BY p.createdAt")
+    List<Long> findArchivableIds(@Param("statuses") Collection<PaymentStatus> statuses,
+                                 @Param("cutoff") LocalDateTime cutoff,
+                                 Pageable pageable);
+    
+    // Payments unchanged in a status since before the cutoff, in (created_at, id) order after the given position
+    @Query("SELECT p FROM Payment p WHERE p.status = :status AND COALESCE(p.updatedAt, p.createdAt) < :cutoff " +
+           "AND (p.createdAt > :afterCreatedAt OR (p.createdAt = :afterCreatedAt AND p.id > :afterId)) " +
+           "ORDER BY p.createdAt, p.id")
+    List<Payment> findStale(@Param("status") PaymentStatus status,
+                            @Param("cutoff") LocalDateTime cutoff,
+                            @Param("afterCreatedAt") LocalDateTime afterCreatedAt,
+                            @Param("afterId") Long afterId,
+                            Pageable pageable);
+    
+    // Move a payment from one status to another; 0 rows means another path changed it first
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Payment p SET p.status = :to, p.transactionId = :transactionId, p.errorMessage = :errorMessage, " +
+           "p.updatedAt = :updatedAt, p.version = p.version + 1 WHERE p.id = :id AND p.status = :from")
+    int transition(@Param("id") Long id,
+                   @Param("from") PaymentStatus from,
+                   @Param("to") PaymentStatus to,
+                   @Param("transactionId") String transactionId,
+                   @Param("errorMessage") String errorMessage,
+                   @Param("updatedAt") LocalDateTime updatedAt);
 }
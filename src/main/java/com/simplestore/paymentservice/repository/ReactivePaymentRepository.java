@@ -0,0 +1,185 @@
+package com.simplestore.paymentservice.repository;
+
+import com.simplestore.paymentservice.dto.CurrencyTotal;
+import com.simplestore.paymentservice.entity.Payment;
+import com.simplestore.paymentservice.entity.PaymentStatus;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import io.r2dbc.spi.Readable;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Non-blocking access to the payments table over R2DBC.
+ *
+ * The connection factory is deliberately not exposed as a bean: Spring Boot backs off the JDBC
+ * DataSource when it sees one, and the JPA repository still serves the rest of the application.
+ * Credentials default to the JDBC datasource's, since both connect to the same database.
+ */
+@Repository
+@Profile("reactive")
+public class ReactivePaymentRepository {
+
+    private static final String COLUMNS =
+        "id, cardholder_name, card_number, expiry_date, cvv, amount, currency, status, transaction_id, " +
+        "created_at, updated_at, error_message";
+
+    private final DatabaseClient databaseClient;
+    private final int recentLimit;
+
+    public ReactivePaymentRepository(@Value("${payment.reactive.r2dbc-url}") String r2dbcUrl,
+                                     @Value("${payment.reactive.r2dbc-username:${spring.datasource.username:}}") String username,
+                                     @Value("${payment.reactive.r2dbc-password:${spring.datasource.password:}}") String password,
+                                     @Value("${payment.reactive.recent-limit:100}") int recentLimit) {
+        ConnectionFactoryOptions options = ConnectionFactoryOptions.parse(r2dbcUrl).mutate()
+            .option(ConnectionFactoryOptions.USER, username)
+            .option(ConnectionFactoryOptions.PASSWORD, password)
+            .build();
+        this.databaseClient = DatabaseClient.create(ConnectionFactories.get(options));
+        this.recentLimit = recentLimit;
+    }
+
+    // Insert a new payment and return it with its generated ID
+    public Mono<Payment> insert(Payment payment) {
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(
+                "INSERT INTO payments (cardholder_name, card_number, expiry_date, cvv, amount, currency, status, " +
+                "transaction_id, created_at, updated_at, version) " +
+                "VALUES (:cardholderName, :cardNumber, :expiryDate, :cvv, :amount, :currency, :status, " +
+                ":transactionId, :createdAt, :updatedAt, 0)")
+            .filter(statement -> statement.returnGeneratedValues("id"))
+            .bind("cardholderName", payment.getCardholderName())
+            .bind("cardNumber", payment.getCardNumber())
+            .bind("expiryDate", payment.getExpiryDate())
+            .bind("cvv", payment.getCvv())
+            .bind("amount", payment.getAmount())
+            .bind("currency", payment.getCurrency())
+            .bind("status", payment.getStatus().name())
+            .bind("transactionId", payment.getTransactionId())
+            .bind("createdAt", payment.getCreatedAt());
+        spec = payment.getUpdatedAt() != null
+            ? spec.bind("updatedAt", payment.getUpdatedAt())
+            : spec.bindNull("updatedAt", LocalDateTime.class);
+
+        return spec.map(row -> row.get("id", Long.class))
+            .one()
+            .map(id -> {
+                payment.setId(id);
+                return payment;
+            });
+    }
+
+    // Persist the gateway outcome of an in-flight payment; a payment that is no longer PROCESSING is left alone
+    public Mono<Payment> updateOutcome(Payment payment) {
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(
+                "UPDATE payments SET status = :status, transaction_id = :transactionId, " +
+                "error_message = :errorMessage, updated_at = :updatedAt, version = version + 1 " +
+                "WHERE id = :id AND status = 'PROCESSING'")
+            .bind("status", payment.getStatus().name())
+            .bind("transactionId", payment.getTransactionId())
+            .bind("updatedAt", LocalDateTime.now())
+            .bind("id", payment.getId());
+        spec = payment.getErrorMessage() != null
+            ? spec.bind("errorMessage", payment.getErrorMessage())
+            : spec.bindNull("errorMessage", String.class);
+
+        return spec.fetch().rowsUpdated().thenReturn(payment);
+    }
+
+    // Find by ID
+    public Mono<Payment> findById(Long id) {
+        return databaseClient.sql("SELECT " + COLUMNS + " FROM payments WHERE id = :id")
+            .bind("id", id)
+            .map(ReactivePaymentRepository::toPayment)
+            .one();
+    }
+
+    // Find by transaction ID
+    public Mono<Payment> findByTransactionId(String transactionId) {
+        return databaseClient.sql("SELECT " + COLUMNS + " FROM payments WHERE transaction_id = :transactionId")
+            .bind("transactionId", transactionId)
+            .map(ReactivePaymentRepository::toPayment)
+            .one();
+    }
+
+    // Find all payments
+    public Flux<Payment> findAll() {
+        return databaseClient.sql("SELECT " + COLUMNS + " FROM payments")
+            .map(ReactivePaymentRepository::toPayment)
+            .all();
+    }
+
+    // Find by status
+    public Flux<Payment> findByStatus(PaymentStatus status) {
+        return databaseClient.sql("SELECT " + COLUMNS + " FROM payments WHERE status = :status")
+            .bind("status", status.name())
+            .map(ReactivePaymentRepository::toPayment)
+            .all();
+    }
+
+    // Find failed payments
+    public Flux<Payment> findFailedPayments() {
+        return databaseClient.sql("SELECT " + COLUMNS + " FROM payments WHERE status IN ('FAILED', 'DECLINED')")
+            .map(ReactivePaymentRepository::toPayment)
+            .all();
+    }
+
+    // Get the newest payments, at most payment.reactive.recent-limit of them
+    public Flux<Payment> findRecentPayments() {
+        return databaseClient.sql("SELECT " + COLUMNS + " FROM payments ORDER BY created_at DESC, id DESC LIMIT :limit")
+            .bind("limit", recentLimit)
+            .map(ReactivePaymentRepository::toPayment)
+            .all();
+    }
+
+    // Get total amount by status
+    public Mono<BigDecimal> getTotalAmountByStatus(PaymentStatus status) {
+        return databaseClient.sql("SELECT COALESCE(SUM(amount), 0) AS total FROM payments WHERE status = :status")
+            .bind("status", status.name())
+            .map(row -> row.get("total", BigDecimal.class))
+            .one();
+    }
+
+    // Get count and total amount per currency by status
+    public Flux<CurrencyTotal> getTotalsByCurrency(PaymentStatus status) {
+        return databaseClient.sql("SELECT currency, COUNT(*) AS cnt, SUM(amount) AS total FROM payments " +
+                "WHERE status = :status GROUP BY currency")
+            .bind("status", status.name())
+            .map(row -> new CurrencyTotal(
+                row.get("currency", String.class),
+                row.get("cnt", Long.class),
+                row.get("total", BigDecimal.class)))
+            .all();
+    }
+
+    // Get payment count by status
+    public Mono<Long> getPaymentCountByStatus(PaymentStatus status) {
+        return databaseClient.sql("SELECT COUNT(*) AS total FROM payments WHERE status = :status")
+            .bind("status", status.name())
+            .map(row -> row.get("total", Long.class))
+            .one();
+    }
+
+    private static Payment toPayment(Readable row) {
+        Payment payment = new Payment();
+        payment.setId(row.get("id", Long.class));
+        payment.setCardholderName(row.get("cardholder_name", String.class));
+        payment.setCardNumber(row.get("card_number", String.class));
+        payment.setExpiryDate(row.get("expiry_date", String.class));
+        payment.setCvv(row.get("cvv", String.class));
+        payment.setAmount(row.get("amount", BigDecimal.class));
+        payment.setCurrency(row.get("currency", String.class));
+        payment.setStatus(PaymentStatus.valueOf(row.get("status", String.class)));
+        payment.setTransactionId(row.get("transaction_id", String.class));
+        payment.setCreatedAt(row.get("created_at", LocalDateTime.class));
+        payment.setUpdatedAt(row.get("updated_at", LocalDateTime.class));
+        payment.setErrorMessage(row.get("error_message", String.class));
+        return payment;
+    }
+}
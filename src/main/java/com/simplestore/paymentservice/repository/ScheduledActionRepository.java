@@ -0,0 +1,49 @@
+package com.simplestore.paymentservice.repository;
+
+import com.simplestore.paymentservice.entity.ScheduledAction;
+import com.simplestore.paymentservice.entity.ScheduledActionStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ScheduledActionRepository extends JpaRepository<ScheduledAction, Long> {
+    
+    // Find all actions for a payment
+    List<ScheduledAction> findByPaymentIdOrderByDueAt(Long paymentId);
+    
+    // Action scheduled by a request carrying this Idempotency-Key
+    Optional<ScheduledAction> findByIdempotencyKey(String idempotencyKey);
+    
+    // Actions due before the horizon, in (due_at, id) order after the given position
+    @Query("SELECT a FROM ScheduledAction a WHERE a.status = :status AND a.dueAt < :horizon " +
+           "AND (a.dueAt > :afterDueAt OR (a.dueAt = :afterDueAt AND a.id > :afterId)) " +
+           "ORDER BY a.dueAt, a.id")
+    List<ScheduledAction> findDue(@Param("status") ScheduledActionStatus status,
+                                  @Param("horizon") LocalDateTime horizon,
+                                  @Param("afterDueAt") LocalDateTime afterDueAt,
+                                  @Param("afterId") Long afterId,
+                                  Pageable pageable);
+    
+    // Move an action from one status to another; 0 rows means another node or a cancel got there first
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE ScheduledAction a SET a.status = :to, a.executedAt = :executedAt, a.errorMessage = :errorMessage " +
+           "WHERE a.id = :id AND a.status = :from")
+    int transition(@Param("id") Long id,
+                   @Param("from") ScheduledActionStatus from,
+                   @Param("to") ScheduledActionStatus to,
+                   @Param("executedAt") LocalDateTime executedAt,
+                   @Param("errorMessage") String errorMessage);
+    
+    // Cancel everything still scheduled for a payment
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE ScheduledAction a SET a.status = 'CANCELLED' WHERE a.paymentId = :paymentId AND a.status = 'SCHEDULED'")
+    int cancelScheduled(@Param("paymentId") Long paymentId);
+}
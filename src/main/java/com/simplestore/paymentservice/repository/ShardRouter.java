@@ -0,0 +1,131 @@
+package com.simplestore.paymentservice.repository;
+
+import com.simplestore.paymentservice.config.ShardingProperties;
+import com.zaxxer.hikari.HikariDataSource;
+import org.flywaydb.core.Flyway;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+/**
+ * Maps payments to shard databases and runs scatter-gather queries across them.
+ *
+ * A payment lives on the shard chosen by the hash of its transaction ID. Its ID carries the shard
+ * index in the bits above {@link #SHARD_SHIFT}, so lookups by ID also hit a single shard. Each
+ * shard gets the Flyway schema on startup.
+ */
+@Component
+@Profile("sharded")
+public class ShardRouter implements DisposableBean {
+
+    static final int SHARD_SHIFT = 48;
+    private static final long LOCAL_ID_MASK = (1L << SHARD_SHIFT) - 1;
+
+    private final List<HikariDataSource> dataSources = new ArrayList<>();
+    private final List<JdbcTemplate> shards = new ArrayList<>();
+    private final ExecutorService executor;
+
+    public ShardRouter(ShardingProperties properties) {
+        if (properties.getShards().isEmpty()) {
+            throw new IllegalArgumentException("payment.sharding.shards must list at least one shard");
+        }
+        for (ShardingProperties.Shard shard : properties.getShards()) {
+            HikariDataSource dataSource = new HikariDataSource();
+            dataSource.setPoolName("payment-shard-" + dataSources.size());
+            dataSource.setJdbcUrl(shard.getUrl());
+            dataSource.setUsername(shard.getUsername());
+            dataSource.setPassword(shard.getPassword());
+            dataSource.setMaximumPoolSize(properties.getPoolSize());
+            Flyway.configure().dataSource(dataSource).load().migrate();
+            dataSources.add(dataSource);
+            shards.add(new JdbcTemplate(dataSource));
+        }
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(Math.max(2, shards.size() * 2), runnable -> {
+            Thread thread = new Thread(runnable, "payment-shard-query-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public int shardCount() {
+        return shards.size();
+    }
+
+    public JdbcTemplate shard(int index) {
+        return shards.get(index);
+    }
+
+    /**
+     * Shard that owns a transaction ID
+     */
+    public int shardForTransactionId(String transactionId) {
+        return Math.floorMod(transactionId.hashCode(), shards.size());
+    }
+
+    /**
+     * Shard that owns a payment ID
+     */
+    public int shardForId(long id) {
+        int shard = (int) (id >>> SHARD_SHIFT);
+        if (shard >= shards.size()) {
+            throw new IllegalArgumentException("Payment ID " + id + " belongs to unknown shard " + shard);
+        }
+        return shard;
+    }
+
+    /**
+     * Global payment ID from a shard-local identity value
+     */
+    public static long globalId(int shard, long localId) {
+        return ((long) shard << SHARD_SHIFT) | localId;
+    }
+
+    /**
+     * Shard-local identity value of a global payment ID
+     */
+    public static long localId(long id) {
+        return id & LOCAL_ID_MASK;
+    }
+
+    /**
+     * Run a query on every shard in parallel and concatenate the results in shard order
+     */
+    public <T> List<T> scatterGather(IntFunction<List<T>> perShard) {
+        List<CompletableFuture<List<T>>> futures = new ArrayList<>(shards.size());
+        for (int i = 0; i < shards.size(); i++) {
+            int shard = i;
+            futures.add(CompletableFuture.supplyAsync(() -> perShard.apply(shard), executor));
+        }
+
+        List<T> results = new ArrayList<>();
+        for (CompletableFuture<List<T>> future : futures) {
+            try {
+                results.addAll(future.join());
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw e;
+            }
+        }
+        return results;
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+        dataSources.forEach(HikariDataSource::close);
+    }
+}
@@ -0,0 +1,312 @@
+package com.simplestore.paymentservice.repository;
+
+import com.simplestore.paymentservice.dto.CurrencyTotal;
+import com.simplestore.paymentservice.dto.PaymentSummary;
+import com.simplestore.paymentservice.entity.Payment;
+import com.simplestore.paymentservice.entity.PaymentStatus;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Payment storage spread over the shards of a {@link ShardRouter}.
+ *
+ * Single-payment operations go to the owning shard; listings and stats run on every shard in
+ * parallel and are merged here.
+ */
+@Repository
+@Profile("sharded")
+public class ShardedPaymentRepository {
+
+    private static final String COLUMNS =
+        "id, cardholder_name, card_number, expiry_date, cvv, amount, currency, status, transaction_id, " +
+        "created_at, updated_at, error_message";
+
+    private static final Comparator<Payment> NEWEST_FIRST =
+        Comparator.comparing(Payment::getCreatedAt).reversed();
+
+    // Column of each field in PaymentProjectionRepository.SELECTABLE_FIELDS
+    private static final Map<String, String> FIELD_COLUMNS = Map.of(
+        "id", "id", "transactionId", "transaction_id", "status", "status", "amount", "amount",
+        "currency", "currency", "cardholderName", "cardholder_name", "cardNumber", "card_number",
+        "createdAt", "created_at", "updatedAt", "updated_at", "errorMessage", "error_message");
+
+    private static final int STREAM_FETCH_SIZE = 1_000;
+
+    private final ShardRouter router;
+
+    public ShardedPaymentRepository(ShardRouter router) {
+        this.router = router;
+    }
+
+    // Insert a new payment on the shard owning its transaction ID and return it with its global ID
+    public Payment insert(Payment payment) {
+        int shard = router.shardForTransactionId(payment.getTransactionId());
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        router.shard(shard).update(connection -> {
+            PreparedStatement ps = connection.prepareStatement(
+                "INSERT INTO payments (cardholder_name, card_number, expiry_date, cvv, amount, currency, status, " +
+                "transaction_id, created_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)", new String[] {"id"});
+            ps.setString(1, payment.getCardholderName());
+            ps.setString(2, payment.getCardNumber());
+            ps.setString(3, payment.getExpiryDate());
+            ps.setString(4, payment.getCvv());
+            ps.setBigDecimal(5, payment.getAmount());
+            ps.setString(6, payment.getCurrency());
+            ps.setString(7, payment.getStatus().name());
+            ps.setString(8, payment.getTransactionId());
+            ps.setTimestamp(9, Timestamp.valueOf(payment.getCreatedAt()));
+            return ps;
+        }, keyHolder);
+        payment.setId(ShardRouter.globalId(shard, keyHolder.getKey().longValue()));
+        return payment;
+    }
+
+    // Persist the gateway outcome of an in-flight payment; false if it is no longer PROCESSING
+    public boolean updateOutcome(Payment payment) {
+        payment.setUpdatedAt(LocalDateTime.now());
+        int updated = router.shard(router.shardForId(payment.getId())).update(
+            "UPDATE payments SET status = ?, transaction_id = ?, error_message = ?, updated_at = ?, " +
+            "version = version + 1 WHERE id = ? AND status = ?",
+            payment.getStatus().name(), payment.getTransactionId(), payment.getErrorMessage(),
+            Timestamp.valueOf(payment.getUpdatedAt()), ShardRouter.localId(payment.getId()),
+            PaymentStatus.PROCESSING.name());
+        return updated > 0;
+    }
+
+    // Move a payment from its current status to another; false if it was changed concurrently
+    public boolean transition(Long id, PaymentStatus from, PaymentStatus to, LocalDateTime now) {
+        int updated = router.shard(router.shardForId(id)).update(
+            "UPDATE payments SET status = ?, updated_at = ?, version = version + 1 WHERE id = ? AND status = ?",
+            to.name(), Timestamp.valueOf(now), ShardRouter.localId(id), from.name());
+        return updated > 0;
+    }
+
+    // Find by ID
+    public Optional<Payment> findById(Long id) {
+        int shard = router.shardForId(id);
+        return router.shard(shard)
+            .query("SELECT " + COLUMNS + " FROM payments WHERE id = ?", mapper(shard), ShardRouter.localId(id))
+            .stream()
+            .findFirst();
+    }
+
+    // Find by transaction ID
+    public Optional<Payment> findByTransactionId(String transactionId) {
+        int shard = router.shardForTransactionId(transactionId);
+        return router.shard(shard)
+            .query("SELECT " + COLUMNS + " FROM payments WHERE transaction_id = ?", mapper(shard), transactionId)
+            .stream()
+            .findFirst();
+    }
+
+    // Find by IDs, one query per shard holding any of them; unknown IDs are skipped
+    public List<Payment> findAllById(Collection<Long> ids) {
+        Map<Integer, List<Long>> byShard = ids.stream()
+            .collect(Collectors.groupingBy(id -> router.shardForId(id),
+                                           Collectors.mapping(ShardRouter::localId, Collectors.toList())));
+        return router.scatterGather(shard -> {
+            List<Long> localIds = byShard.get(shard);
+            if (localIds == null) {
+                return List.of();
+            }
+            String placeholders = String.join(",", Collections.nCopies(localIds.size(), "?"));
+            return router.shard(shard).query("SELECT " + COLUMNS + " FROM payments WHERE id IN (" + placeholders + ")",
+                                             mapper(shard), localIds.toArray());
+        });
+    }
+
+    // Stream every payment, one shard after another, without holding a shard's rows in memory
+    public void forEach(Consumer<Payment> action) {
+        for (int shard = 0; shard < router.shardCount(); shard++) {
+            RowMapper<Payment> mapper = mapper(shard);
+            router.shard(shard).query(connection -> {
+                PreparedStatement ps = connection.prepareStatement("SELECT " + COLUMNS + " FROM payments");
+                ps.setFetchSize(STREAM_FETCH_SIZE);
+                return ps;
+            }, (RowCallbackHandler) rs -> action.accept(mapper.mapRow(rs, 0)));
+        }
+    }
+
+    // Find all payments
+    public List<Payment> findAll() {
+        return router.scatterGather(shard -> router.shard(shard)
+            .query("SELECT " + COLUMNS + " FROM payments", mapper(shard)));
+    }
+
+    // Find by status
+    public List<Payment> findByStatus(PaymentStatus status) {
+        return router.scatterGather(shard -> router.shard(shard)
+            .query("SELECT " + COLUMNS + " FROM payments WHERE status = ?", mapper(shard), status.name()));
+    }
+
+    // Find failed payments
+    public List<Payment> findFailedPayments() {
+        return router.scatterGather(shard -> router.shard(shard)
+            .query("SELECT " + COLUMNS + " FROM payments WHERE status IN ('FAILED', 'DECLINED')", mapper(shard)));
+    }
+
+    // Get recent payments, newest first across all shards
+    public List<Payment> findRecentPayments() {
+        List<Payment> payments = router.scatterGather(shard -> router.shard(shard)
+            .query("SELECT " + COLUMNS + " FROM payments ORDER BY created_at DESC", mapper(shard)));
+        return payments.stream().sorted(NEWEST_FIRST).toList();
+    }
+
+    // Find by date range, oldest first
+    public List<Payment> findByCreatedAtBetween(LocalDateTime from, LocalDateTime to) {
+        List<Payment> payments = router.scatterGather(shard -> router.shard(shard)
+            .query("SELECT " + COLUMNS + " FROM payments WHERE created_at BETWEEN ? AND ?", mapper(shard),
+                   Timestamp.valueOf(from), Timestamp.valueOf(to)));
+        return payments.stream().sorted(Comparator.comparing(Payment::getCreatedAt)).toList();
+    }
+
+    // Summary columns only, optionally filtered by status (null for all), newest first if asked
+    public List<PaymentSummary> findSummaries(Collection<PaymentStatus> statuses, boolean newestFirst) {
+        List<PaymentSummary> summaries = router.scatterGather(shard -> router.shard(shard)
+            .query("SELECT id, transaction_id, status, amount, currency, created_at FROM payments" + statusFilter(statuses),
+                   (rs, rowNum) -> new PaymentSummary(
+                       ShardRouter.globalId(shard, rs.getLong("id")),
+                       rs.getString("transaction_id"),
+                       PaymentStatus.valueOf(rs.getString("status")),
+                       rs.getBigDecimal("amount"),
+                       rs.getString("currency"),
+                       rs.getObject("created_at", LocalDateTime.class)),
+                   statusNames(statuses)));
+        return newestFirst
+            ? summaries.stream().sorted(Comparator.comparing(PaymentSummary::createdAt).reversed()).toList()
+            : summaries;
+    }
+
+    /**
+     * Read only the given fields of matching payments, merged across shards
+     *
+     * @param fields subset of {@link PaymentProjectionRepository#SELECTABLE_FIELDS}
+     */
+    public List<Map<String, Object>> findFields(List<String> fields, Collection<PaymentStatus> statuses,
+                                                boolean newestFirst) {
+        PaymentProjectionRepository.requireSelectable(fields);
+        // Merging newest first needs created_at from every shard even when it was not asked for
+        boolean sortOnly = newestFirst && !fields.contains("createdAt");
+        List<String> selected = sortOnly ? Stream.concat(fields.stream(), Stream.of("createdAt")).toList() : fields;
+        // Field names are checked against the whitelist above, so their columns are safe to inline
+        String sql = "SELECT " + selected.stream().map(FIELD_COLUMNS::get).collect(Collectors.joining(", ")) +
+            " FROM payments" + statusFilter(statuses);
+
+        List<Map<String, Object>> rows = router.scatterGather(shard -> router.shard(shard).query(sql, (rs, rowNum) -> {
+            Map<String, Object> row = new LinkedHashMap<>(selected.size() * 2);
+            for (String field : selected) {
+                row.put(field, fieldValue(rs, shard, field));
+            }
+            return row;
+        }, statusNames(statuses)));
+        if (!newestFirst) {
+            return rows;
+        }
+        rows.sort(Comparator.comparing((Map<String, Object> row) -> (LocalDateTime) row.get("createdAt")).reversed());
+        if (sortOnly) {
+            rows.forEach(row -> row.remove("createdAt"));
+        }
+        return rows;
+    }
+
+    // Get total amount by status
+    public BigDecimal getTotalAmountByStatus(PaymentStatus status) {
+        return router.scatterGather(shard -> router.shard(shard)
+                .queryForList("SELECT COALESCE(SUM(amount), 0) FROM payments WHERE status = ?",
+                              BigDecimal.class, status.name()))
+            .stream()
+            .reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+    // Get count and total amount per currency by status, merged across shards
+    public List<CurrencyTotal> getTotalsByCurrency(PaymentStatus status) {
+        List<CurrencyTotal> perShard = router.scatterGather(shard -> router.shard(shard)
+            .query("SELECT currency, COUNT(*) AS cnt, SUM(amount) AS total FROM payments " +
+                   "WHERE status = ? GROUP BY currency",
+                   (rs, rowNum) -> new CurrencyTotal(rs.getString("currency"), rs.getLong("cnt"),
+                                                     rs.getBigDecimal("total")),
+                   status.name()));
+
+        Map<String, CurrencyTotal> merged = new LinkedHashMap<>();
+        for (CurrencyTotal total : perShard) {
+            merged.merge(total.currency(), total, (a, b) ->
+                new CurrencyTotal(a.currency(), a.count() + b.count(), a.total().add(b.total())));
+        }
+        return List.copyOf(merged.values());
+    }
+
+    // Get payment count by status
+    public Long getPaymentCountByStatus(PaymentStatus status) {
+        return router.scatterGather(shard -> router.shard(shard)
+                .queryForList("SELECT COUNT(*) FROM payments WHERE status = ?", Long.class, status.name()))
+            .stream()
+            .mapToLong(Long::longValue)
+            .sum();
+    }
+
+    private static String statusFilter(Collection<PaymentStatus> statuses) {
+        if (statuses == null) {
+            return "";
+        }
+        if (statuses.isEmpty()) {
+            return " WHERE 1 = 0";
+        }
+        return " WHERE status IN (" + String.join(",", Collections.nCopies(statuses.size(), "?")) + ")";
+    }
+
+    private static Object[] statusNames(Collection<PaymentStatus> statuses) {
+        return statuses == null ? new Object[0] : statuses.stream().map(PaymentStatus::name).toArray();
+    }
+
+    // Same Java types as the JPA projection returns
+    private static Object fieldValue(ResultSet rs, int shard, String field) throws SQLException {
+        String column = FIELD_COLUMNS.get(field);
+        return switch (field) {
+            case "id" -> ShardRouter.globalId(shard, rs.getLong(column));
+            case "status" -> PaymentStatus.valueOf(rs.getString(column));
+            case "amount" -> rs.getBigDecimal(column);
+            case "createdAt", "updatedAt" -> rs.getObject(column, LocalDateTime.class);
+            default -> rs.getString(column);
+        };
+    }
+
+    private static RowMapper<Payment> mapper(int shard) {
+        return (rs, rowNum) -> {
+            Payment payment = new Payment();
+            payment.setId(ShardRouter.globalId(shard, rs.getLong("id")));
+            payment.setCardholderName(rs.getString("cardholder_name"));
+            payment.setCardNumber(rs.getString("card_number"));
+            payment.setExpiryDate(rs.getString("expiry_date"));
+            payment.setCvv(rs.getString("cvv"));
+            payment.setAmount(rs.getBigDecimal("amount"));
+            payment.setCurrency(rs.getString("currency"));
+            payment.setStatus(PaymentStatus.valueOf(rs.getString("status")));
+            payment.setTransactionId(rs.getString("transaction_id"));
+            payment.setCreatedAt(rs.getObject("created_at", LocalDateTime.class));
+            payment.setUpdatedAt(rs.getObject("updated_at", LocalDateTime.class));
+            payment.setErrorMessage(rs.getString("error_message"));
+            return payment;
+        };
+    }
+}
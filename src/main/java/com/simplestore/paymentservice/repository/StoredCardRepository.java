@@ -0,0 +1,14 @@
+package com.simplestore.paymentservice.repository;
+
+import com.simplestore.paymentservice.entity.StoredCard;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface StoredCardRepository extends JpaRepository<StoredCard, String> {
+    
+    // Find the token already issued for a card
+    Optional<StoredCard> findByFingerprint(String fingerprint);
+}
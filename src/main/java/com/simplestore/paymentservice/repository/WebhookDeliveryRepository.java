@@ -0,0 +1,27 @@
+package com.simplestore.paymentservice.repository;
+
+import com.simplestore.paymentservice.entity.WebhookDelivery;
+import com.simplestore.paymentservice.entity.WebhookDeliveryStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface WebhookDeliveryRepository extends JpaRepository<WebhookDelivery, Long> {
+    
+    // Find all deliveries for a payment
+    List<WebhookDelivery> findByPaymentIdOrderById(Long paymentId);
+    
+    // Count deliveries by status
+    long countByStatus(WebhookDeliveryStatus status);
+    
+    // Give up everything still pending for an endpoint that is being removed
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE WebhookDelivery d SET d.status = 'FAILED', d.lastError = 'Endpoint removed' " +
+           "WHERE d.endpointId = :endpointId AND d.status = 'PENDING'")
+    int failPending(@Param("endpointId") Long endpointId);
+}
@@ -0,0 +1,9 @@
+package com.simplestore.paymentservice.repository;
+
+import com.simplestore.paymentservice.entity.WebhookEndpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface WebhookEndpointRepository extends JpaRepository<WebhookEndpoint, Long> {
+}
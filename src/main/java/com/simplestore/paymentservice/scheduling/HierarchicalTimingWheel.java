@@ -0,0 +1,194 @@
+package com.simplestore.paymentservice.scheduling;
+
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel holding timers for the near-term horizon.
+ *
+ * Level 0 has {@code wheelSize} buckets of one tick each; every higher level has buckets as wide as
+ * the whole level below it. A timer goes into the lowest level whose span covers its delay, and when
+ * time reaches a higher-level bucket its timers are moved down. Scheduling and cancelling are O(1)
+ * (each bucket is a doubly linked list); advancing costs one bucket per tick plus the timers that fire
+ * or move. Timers fire on the first tick at or after their deadline, never early.
+ *
+ * Not thread safe on its own: callers guard it with a single lock.
+ */
+public class HierarchicalTimingWheel<T> {
+
+    private final long tickMillis;
+    private final int wheelSize;
+    private final int levels;
+    // Ticks per bucket at each level: wheelSize^level
+    private final long[] bucketTicks;
+    private final Timer<T>[][] buckets;
+
+    private long currentTick;
+    // The instant the wheel was last advanced to; currentTick is this rounded down
+    private long currentMillis;
+    private int size;
+
+    @SuppressWarnings("unchecked")
+    public HierarchicalTimingWheel(long tickMillis, int wheelSize, int levels, long startMillis) {
+        if (tickMillis <= 0 || wheelSize < 2 || levels <= 0) {
+            throw new IllegalArgumentException("Tick, wheel size and levels must be positive (wheel size at least 2)");
+        }
+        this.tickMillis = tickMillis;
+        this.wheelSize = wheelSize;
+        this.levels = levels;
+        this.bucketTicks = new long[levels + 1];
+        bucketTicks[0] = 1;
+        for (int level = 1; level <= levels; level++) {
+            bucketTicks[level] = Math.multiplyExact(bucketTicks[level - 1], wheelSize);
+        }
+        this.buckets = new Timer[levels][wheelSize];
+        for (int level = 0; level < levels; level++) {
+            for (int slot = 0; slot < wheelSize; slot++) {
+                buckets[level][slot] = Timer.sentinel();
+            }
+        }
+        this.currentMillis = startMillis;
+        this.currentTick = Math.floorDiv(startMillis, tickMillis);
+    }
+
+    /**
+     * Add a timer; returns null if the deadline has already passed, in which case the caller runs it now
+     */
+    public Timer<T> schedule(long deadlineMillis, T payload) {
+        // Compared in millis: the current tick starts before now, so a deadline inside it may already be past
+        if (deadlineMillis <= currentMillis) {
+            return null;
+        }
+        // Round up so a timer never fires before its deadline
+        long deadlineTick = Math.floorDiv(deadlineMillis + tickMillis - 1, tickMillis);
+        if (deadlineTick - currentTick >= bucketTicks[levels]) {
+            throw new IllegalArgumentException("Deadline is beyond the wheel horizon of " + getHorizonMillis() + " ms");
+        }
+        Timer<T> timer = new Timer<>(deadlineTick, payload);
+        return place(timer) ? timer : null;
+    }
+
+    /**
+     * Remove a timer that has not fired yet; false if it already fired or was cancelled
+     */
+    public boolean cancel(Timer<T> timer) {
+        if (timer.prev == null) {
+            return false;
+        }
+        timer.unlink();
+        size--;
+        return true;
+    }
+
+    /**
+     * Move time forward to the given instant, handing every timer that comes due to the consumer, tick by tick
+     */
+    public void advanceTo(long nowMillis, Consumer<T> expired) {
+        long targetTick = Math.floorDiv(nowMillis, tickMillis);
+        currentMillis = Math.max(currentMillis, nowMillis);
+        if (size == 0) {
+            // Nothing to fire or move down, so idle stretches cost nothing
+            currentTick = Math.max(currentTick, targetTick);
+            return;
+        }
+        while (currentTick < targetTick) {
+            currentTick++;
+            // Move timers down from the highest level whose bucket boundary this tick crosses
+            for (int level = levels - 1; level > 0; level--) {
+                if (currentTick % bucketTicks[level] == 0) {
+                    Timer<T> sentinel = buckets[level][slot(currentTick, level)];
+                    while (sentinel.next != sentinel) {
+                        Timer<T> timer = sentinel.next;
+                        timer.unlink();
+                        size--;
+                        if (!place(timer)) {
+                            expired.accept(timer.payload);
+                        }
+                    }
+                }
+            }
+            Timer<T> sentinel = buckets[0][slot(currentTick, 0)];
+            while (sentinel.next != sentinel) {
+                Timer<T> timer = sentinel.next;
+                timer.unlink();
+                size--;
+                expired.accept(timer.payload);
+            }
+            if (size == 0) {
+                currentTick = targetTick;
+            }
+        }
+    }
+
+    /**
+     * Number of pending timers
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Furthest deadline, relative to now, that the wheel can hold
+     */
+    public long getHorizonMillis() {
+        return (bucketTicks[levels] - 1) * tickMillis;
+    }
+
+    private boolean place(Timer<T> timer) {
+        long delay = timer.deadlineTick - currentTick;
+        if (delay <= 0) {
+            return false;
+        }
+        int level = 0;
+        while (delay >= bucketTicks[level + 1]) {
+            level++;
+        }
+        buckets[level][slot(timer.deadlineTick, level)].append(timer);
+        size++;
+        return true;
+    }
+
+    private int slot(long tick, int level) {
+        return (int) ((tick / bucketTicks[level]) % wheelSize);
+    }
+
+    /**
+     * Handle to a scheduled timer
+     */
+    public static final class Timer<T> {
+
+        private final long deadlineTick;
+        private final T payload;
+        private Timer<T> prev;
+        private Timer<T> next;
+
+        private Timer(long deadlineTick, T payload) {
+            this.deadlineTick = deadlineTick;
+            this.payload = payload;
+        }
+
+        private static <T> Timer<T> sentinel() {
+            Timer<T> sentinel = new Timer<>(0, null);
+            sentinel.prev = sentinel;
+            sentinel.next = sentinel;
+            return sentinel;
+        }
+
+        public T getPayload() {
+            return payload;
+        }
+
+        private void append(Timer<T> timer) {
+            timer.prev = prev;
+            timer.next = this;
+            prev.next = timer;
+            prev = timer;
+        }
+
+        private void unlink() {
+            prev.next = next;
+            next.prev = prev;
+            prev = null;
+            next = null;
+        }
+    }
+}
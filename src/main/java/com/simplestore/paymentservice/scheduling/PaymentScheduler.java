@@ -0,0 +1,399 @@
+package com.simplestore.paymentservice.scheduling;
+
+import com.simplestore.paymentservice.config.SchedulerProperties;
+import com.simplestore.paymentservice.dto.PaymentRequest;
+import com.simplestore.paymentservice.entity.Payment;
+import com.simplestore.paymentservice.entity.PaymentStatus;
+import com.simplestore.paymentservice.entity.ScheduledAction;
+import com.simplestore.paymentservice.entity.ScheduledActionStatus;
+import com.simplestore.paymentservice.entity.ScheduledActionType;
+import com.simplestore.paymentservice.repository.PaymentRepository;
+import com.simplestore.paymentservice.repository.ScheduledActionRepository;
+import com.simplestore.paymentservice.service.PaymentCoordinator;
+import com.simplestore.paymentservice.service.PaymentMapper;
+import com.simplestore.paymentservice.service.PaymentService;
+import com.simplestore.paymentservice.service.PaymentStateMachine;
+import com.simplestore.paymentservice.service.PaymentValidationService;
+import com.simplestore.paymentservice.service.RecentWriteTracker;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs payment actions at a later time: deferred charges and retries of declined payments.
+ *
+ * Every action is stored in scheduled_actions first. Actions due within the horizon are also kept in a
+ * {@link HierarchicalTimingWheel}, so scheduling, cancelling and firing cost O(1) no matter how many are
+ * pending; later ones are picked up by a periodic scan as they come within the horizon. When an action
+ * fires it is claimed with a conditional update and, in the same transaction, its payment is moved to
+ * PROCESSING, so every node can load the same actions and each still runs once. A node dying after the
+ * claim leaves a PROCESSING payment for {@code PaymentRecoveryService}.
+ *
+ * New charges are scheduled through {@link PaymentCoordinator}, which applies the Idempotency-Key and the
+ * velocity limit; a charge is checked against the velocity limit again when it runs.
+ */
+@Service
+@ConditionalOnProperty(prefix = "payment.scheduler", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class PaymentScheduler {
+    
+    private static final Logger logger = LoggerFactory.getLogger(PaymentScheduler.class);
+    
+    // Payments a retry may be scheduled for
+    static final Set<PaymentStatus> RETRYABLE_STATUSES = EnumSet.of(PaymentStatus.FAILED, PaymentStatus.DECLINED);
+    
+    private static final int WHEEL_LEVELS = 3;
+    private static final LocalDateTime BEGINNING = LocalDateTime.of(1970, 1, 1, 0, 0);
+    
+    private final ScheduledActionRepository actionRepository;
+    private final PaymentRepository paymentRepository;
+    private final PaymentService paymentService;
+    private final PaymentCoordinator coordinator;
+    private final PaymentStateMachine stateMachine;
+    private final PaymentValidationService validationService;
+    private final TransactionTemplate transactionTemplate;
+    private final SchedulerProperties properties;
+    
+    // Guarded by its own monitor
+    private final HierarchicalTimingWheel<Long> wheel;
+    // Timers in the wheel by action ID, so an action is never armed twice and can be cancelled
+    private final Map<Long, HierarchicalTimingWheel.Timer<Long>> armed = new ConcurrentHashMap<>();
+    private final AtomicLong executed = new AtomicLong();
+    
+    // Present only when a read replica is configured
+    @Autowired(required = false)
+    private RecentWriteTracker recentWrites;
+    
+    private ExecutorService executor;
+    private volatile boolean running;
+    private Thread tickerThread;
+    
+    public PaymentScheduler(ScheduledActionRepository actionRepository, PaymentRepository paymentRepository,
+                            PaymentService paymentService, PaymentCoordinator coordinator,
+                            PaymentStateMachine stateMachine, PaymentValidationService validationService,
+                            TransactionTemplate transactionTemplate, SchedulerProperties properties) {
+        this.actionRepository = actionRepository;
+        this.paymentRepository = paymentRepository;
+        this.paymentService = paymentService;
+        this.coordinator = coordinator;
+        this.stateMachine = stateMachine;
+        this.validationService = validationService;
+        this.transactionTemplate = transactionTemplate;
+        this.properties = properties;
+        this.wheel = new HierarchicalTimingWheel<>(properties.getTickMillis(), properties.getWheelSize(),
+                                                   WHEEL_LEVELS, System.currentTimeMillis());
+    }
+    
+    @PostConstruct
+    public void start() {
+        if (TimeUnit.SECONDS.toMillis(properties.getHorizonSeconds()) > wheel.getHorizonMillis()) {
+            throw new IllegalStateException("payment.scheduler.horizon-seconds exceeds the timing wheel span of "
+                                            + wheel.getHorizonMillis() + " ms");
+        }
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(properties.getExecutorThreads(), runnable -> {
+            Thread thread = new Thread(runnable, "payment-scheduler-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        running = true;
+        tickerThread = new Thread(this::runTicker, "payment-scheduler-tick");
+        tickerThread.setDaemon(true);
+        tickerThread.start();
+        logger.info("🔵 Payment scheduler started - tick {} ms, horizon {} s",
+                   properties.getTickMillis(), properties.getHorizonSeconds());
+    }
+    
+    /**
+     * Stop firing; actions not yet run stay scheduled in the database for the next start
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        tickerThread.interrupt();
+        tickerThread.join();
+        executor.shutdown();
+        if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+            logger.warn("⚠️ Scheduled actions still running at shutdown; their payments are left to recovery");
+        }
+    }
+    
+    /**
+     * Validate and store a payment now, and charge it at the given time. A request carrying an
+     * Idempotency-Key that already scheduled a charge gets that action back instead of a second one.
+     */
+    public ScheduledAction scheduleCharge(PaymentRequest request, LocalDateTime executeAt, String idempotencyKey,
+                                          String cardFingerprint) {
+        validationService.validatePaymentRequest(request);
+        ScheduledAction action;
+        try {
+            action = transactionTemplate.execute(status -> {
+                Payment payment = PaymentMapper.fromRequest(request);
+                // Not sent to the gateway until the action fires
+                payment.setStatus(PaymentStatus.PENDING);
+                payment = paymentRepository.save(payment);
+                recordWrite(payment);
+                ScheduledAction charge = new ScheduledAction(payment.getId(), ScheduledActionType.CHARGE, executeAt);
+                charge.setIdempotencyKey(idempotencyKey);
+                charge.setCardFingerprint(cardFingerprint);
+                return actionRepository.save(charge);
+            });
+        } catch (DataIntegrityViolationException e) {
+            // The key scheduled a charge already, e.g. a concurrent retry; that one stands and ours rolled back
+            if (idempotencyKey == null) {
+                throw e;
+            }
+            return actionRepository.findByIdempotencyKey(idempotencyKey).orElseThrow(() -> e);
+        }
+        arm(action);
+        logger.info("📦 Payment {} scheduled for {}", action.getPaymentId(), executeAt);
+        return action;
+    }
+    
+    /**
+     * Action scheduled by a request carrying the given Idempotency-Key
+     */
+    public Optional<ScheduledAction> findByIdempotencyKey(String idempotencyKey) {
+        return actionRepository.findByIdempotencyKey(idempotencyKey);
+    }
+    
+    /**
+     * Charge a declined or failed payment again at the given time; empty if the payment does not exist
+     *
+     * @throws IllegalStateException if the payment did not decline or fail
+     */
+    public Optional<ScheduledAction> scheduleRetry(Long paymentId, LocalDateTime retryAt) {
+        Optional<Payment> payment = paymentRepository.findById(paymentId);
+        if (payment.isEmpty()) {
+            return Optional.empty();
+        }
+        requireRetryable(payment.get());
+        ScheduledAction action = actionRepository.save(new ScheduledAction(paymentId, ScheduledActionType.RETRY, retryAt));
+        arm(action);
+        logger.info("📦 Retry of payment {} scheduled for {}", paymentId, retryAt);
+        return Optional.of(action);
+    }
+    
+    /**
+     * Cancel every action still scheduled for a payment
+     */
+    public int cancel(Long paymentId) {
+        Integer cancelled = transactionTemplate.execute(status -> actionRepository.cancelScheduled(paymentId));
+        for (ScheduledAction action : actionRepository.findByPaymentIdOrderByDueAt(paymentId)) {
+            disarm(action.getId());
+        }
+        return cancelled != null ? cancelled : 0;
+    }
+    
+    /**
+     * Actions scheduled for a payment, in due order
+     */
+    public List<ScheduledAction> getActions(Long paymentId) {
+        return actionRepository.findByPaymentIdOrderByDueAt(paymentId);
+    }
+    
+    /**
+     * Arm every stored action that has come within the horizon; runs at startup and then periodically
+     */
+    @Scheduled(fixedDelayString = "${payment.scheduler.load-interval-ms:60000}")
+    public int loadUpcoming() {
+        LocalDateTime horizon = LocalDateTime.now().plusSeconds(properties.getHorizonSeconds());
+        LocalDateTime afterDueAt = BEGINNING;
+        Long afterId = 0L;
+        int loaded = 0;
+        List<ScheduledAction> chunk;
+        do {
+            chunk = actionRepository.findDue(ScheduledActionStatus.SCHEDULED, horizon, afterDueAt, afterId,
+                                             PageRequest.of(0, properties.getLoadChunkSize()));
+            for (ScheduledAction action : chunk) {
+                if (arm(action)) {
+                    loaded++;
+                }
+            }
+            if (!chunk.isEmpty()) {
+                ScheduledAction last = chunk.get(chunk.size() - 1);
+                afterDueAt = last.getDueAt();
+                afterId = last.getId();
+            }
+        } while (chunk.size() == properties.getLoadChunkSize());
+        
+        if (loaded > 0) {
+            logger.info("🔍 Loaded {} scheduled actions due before {}", loaded, horizon);
+        }
+        return loaded;
+    }
+    
+    /**
+     * Number of actions waiting in memory
+     */
+    public int getArmedCount() {
+        return armed.size();
+    }
+    
+    /**
+     * Number of actions run to completion since startup
+     */
+    public long getExecutedCount() {
+        return executed.get();
+    }
+    
+    /**
+     * Put an action in the wheel if it is due within the horizon; due ones are dispatched right away
+     */
+    boolean arm(ScheduledAction action) {
+        long dueMillis = toEpochMillis(action.getDueAt());
+        if (dueMillis - System.currentTimeMillis() > TimeUnit.SECONDS.toMillis(properties.getHorizonSeconds())) {
+            // Picked up by a later scan
+            return false;
+        }
+        Long id = action.getId();
+        synchronized (wheel) {
+            if (armed.containsKey(id)) {
+                return false;
+            }
+            HierarchicalTimingWheel.Timer<Long> timer = wheel.schedule(dueMillis, id);
+            if (timer != null) {
+                armed.put(id, timer);
+                return true;
+            }
+        }
+        dispatch(id);
+        return true;
+    }
+    
+    private void disarm(Long actionId) {
+        synchronized (wheel) {
+            HierarchicalTimingWheel.Timer<Long> timer = armed.remove(actionId);
+            if (timer != null) {
+                wheel.cancel(timer);
+            }
+        }
+    }
+    
+    private void runTicker() {
+        List<Long> due = new ArrayList<>();
+        while (running) {
+            try {
+                Thread.sleep(properties.getTickMillis());
+            } catch (InterruptedException e) {
+                return;
+            }
+            synchronized (wheel) {
+                wheel.advanceTo(System.currentTimeMillis(), due::add);
+                due.forEach(armed::remove);
+            }
+            due.forEach(this::dispatch);
+            due.clear();
+        }
+    }
+    
+    private void dispatch(Long actionId) {
+        if (running) {
+            executor.execute(() -> execute(actionId));
+        }
+    }
+    
+    /**
+     * Claim a due action and run it; a cancelled or already claimed action is skipped
+     */
+    void execute(Long actionId) {
+        LocalDateTime now = LocalDateTime.now();
+        boolean claimed = false;
+        try {
+            Payment started = transactionTemplate.execute(status -> {
+                if (actionRepository.transition(actionId, ScheduledActionStatus.SCHEDULED,
+                                                ScheduledActionStatus.RUNNING, now, null) == 0) {
+                    return null;
+                }
+                ScheduledAction action = actionRepository.findById(actionId).orElseThrow();
+                Payment payment = paymentRepository.findById(action.getPaymentId())
+                    .orElseThrow(() -> new IllegalStateException("Payment " + action.getPaymentId() + " no longer exists"));
+                return switch (action.getType()) {
+                    case CHARGE -> startCharge(action, payment, now);
+                    case RETRY -> startRetry(action, payment);
+                };
+            });
+            if (started == null) {
+                return;
+            }
+            claimed = true;
+            
+            paymentService.executePayment(started);
+            transactionTemplate.executeWithoutResult(status -> actionRepository.transition(
+                actionId, ScheduledActionStatus.RUNNING, ScheduledActionStatus.DONE, LocalDateTime.now(), null));
+            executed.incrementAndGet();
+        } catch (RuntimeException e) {
+            logger.warn("⚠️ Scheduled action {} failed: {}", actionId, e.getMessage());
+            // A failed start rolled the claim back along with it
+            ScheduledActionStatus from = claimed ? ScheduledActionStatus.RUNNING : ScheduledActionStatus.SCHEDULED;
+            transactionTemplate.executeWithoutResult(status -> actionRepository.transition(
+                actionId, from, ScheduledActionStatus.FAILED, LocalDateTime.now(), e.getMessage()));
+        }
+    }
+    
+    /**
+     * Move the payment to PROCESSING, or decline it without a gateway call when its card is over the
+     * velocity limit; null when declined
+     */
+    private Payment startCharge(ScheduledAction action, Payment payment, LocalDateTime now) {
+        if (!stateMachine.transition(payment, PaymentStatus.PROCESSING)) {
+            throw new IllegalStateException("Payment " + payment.getId() + " is no longer pending");
+        }
+        if (!coordinator.admitScheduledCharge(action.getCardFingerprint())) {
+            payment.setErrorMessage(PaymentCoordinator.VELOCITY_DECLINED);
+            stateMachine.transition(payment, PaymentStatus.DECLINED);
+            actionRepository.transition(action.getId(), ScheduledActionStatus.RUNNING, ScheduledActionStatus.DONE,
+                                        now, PaymentCoordinator.VELOCITY_DECLINED);
+            logger.warn("⚠️ Scheduled payment {} declined: {}", payment.getId(), PaymentCoordinator.VELOCITY_DECLINED);
+            return null;
+        }
+        return payment;
+    }
+    
+    private Payment startRetry(ScheduledAction action, Payment original) {
+        requireRetryable(original);
+        Payment retry = paymentRepository.save(PaymentMapper.retryOf(original));
+        recordWrite(retry);
+        action.setResultPaymentId(retry.getId());
+        return retry;
+    }
+    
+    private void recordWrite(Payment payment) {
+        if (recentWrites != null) {
+            recentWrites.record(payment);
+        }
+    }
+    
+    private static void requireRetryable(Payment payment) {
+        if (!RETRYABLE_STATUSES.contains(payment.getStatus())) {
+            throw new IllegalStateException("Only declined or failed payments can be retried, payment "
+                                            + payment.getId() + " is " + payment.getStatus());
+        }
+    }
+    
+    private static long toEpochMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,33 @@
+package com.simplestore.paymentservice.search;
+
+import com.simplestore.paymentservice.entity.Payment;
+import jakarta.persistence.PostPersist;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * JPA listener that adds new payments to the search index once their insert has committed.
+ * Indexed fields never change after insert, so updates need no handling.
+ */
+@Component
+public class PaymentIndexListener {
+
+    @Autowired
+    private PaymentSearchIndex searchIndex;
+
+    @PostPersist
+    public void onPersist(Payment payment) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    searchIndex.add(payment);
+                }
+            });
+        } else {
+            searchIndex.add(payment);
+        }
+    }
+}
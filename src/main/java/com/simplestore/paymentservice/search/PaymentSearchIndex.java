@@ -0,0 +1,261 @@
+package com.simplestore.paymentservice.search;
+
+import com.simplestore.paymentservice.dto.PaymentSearchCriteria;
+import com.simplestore.paymentservice.entity.Payment;
+import com.simplestore.paymentservice.money.Money;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.text.Normalizer;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Currency;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory inverted index over payments for support search.
+ *
+ * Cardholder names are split into normalized tokens kept in a sorted map, so a query term matches
+ * every token it is a prefix of ("jan" finds "Jane" and "Janet"). Card numbers are indexed by
+ * their last four digits. Currency, amount (in minor units of that currency) and creation time are
+ * kept per payment for filtering, so a search never touches the database until the page of results
+ * is loaded.
+ */
+@Component
+public class PaymentSearchIndex {
+
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+
+    // Per-payment filter fields, plus the keys needed to remove the payment again
+    private record Entry(Currency currency, long amountMinor, long createdAtMillis, String[] tokens, String lastFour) {
+    }
+
+    private final NavigableMap<String, PostingList> nameTokens = new ConcurrentSkipListMap<>();
+    private final Map<String, PostingList> lastFourDigits = new ConcurrentHashMap<>();
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+
+    private volatile boolean ready;
+
+    /**
+     * Result of a search: matching IDs for the requested page (newest first) and the total match count
+     */
+    public record Hits(List<Long> ids, long total) {
+    }
+
+    /**
+     * Add a payment; adding the same payment twice has no effect
+     */
+    public void add(Payment payment) {
+        String[] tokens = tokenize(payment.getCardholderName());
+        String lastFour = lastFour(payment.getCardNumber());
+        Currency currency = payment.getCurrency() != null
+                ? Currency.getInstance(payment.getCurrency()) : Money.DEFAULT_CURRENCY;
+        Entry entry = new Entry(currency, Money.toMinorUnits(payment.getAmount(), currency),
+                toMillis(payment.getCreatedAt()), tokens, lastFour);
+        if (entries.putIfAbsent(payment.getId(), entry) != null) {
+            return;
+        }
+        for (int i = 0; i < tokens.length; i++) {
+            nameTokens.computeIfAbsent(tokens[i], t -> new PostingList()).add(payment.getId());
+            // Share the map's key instance instead of keeping a copy per payment
+            tokens[i] = nameTokens.ceilingKey(tokens[i]);
+        }
+        if (lastFour != null) {
+            lastFourDigits.computeIfAbsent(lastFour, l -> new PostingList()).add(payment.getId());
+        }
+    }
+
+    /**
+     * Drop payments that left the payments table (e.g. archived)
+     */
+    public void removeAll(Collection<Long> ids) {
+        for (Long id : ids) {
+            Entry entry = entries.remove(id);
+            if (entry == null) {
+                continue;
+            }
+            for (String token : entry.tokens()) {
+                PostingList postings = nameTokens.get(token);
+                if (postings != null) {
+                    postings.remove(id);
+                }
+            }
+            if (entry.lastFour() != null) {
+                PostingList postings = lastFourDigits.get(entry.lastFour());
+                if (postings != null) {
+                    postings.remove(id);
+                }
+            }
+        }
+    }
+
+    /**
+     * Find payments matching every given criterion, newest first; name or last four is required, and
+     * amount bounds need a currency since minor units of different currencies do not compare
+     */
+    public Hits search(PaymentSearchCriteria criteria, int page, int size) {
+        if (page < 0 || size < 1) {
+            throw new IllegalArgumentException("Page must be >= 0 and size >= 1");
+        }
+        List<long[]> candidateSets = new ArrayList<>();
+        if (criteria.name() != null && !criteria.name().isBlank()) {
+            for (String term : tokenize(criteria.name())) {
+                candidateSets.add(prefixMatches(term));
+            }
+        }
+        if (criteria.lastFour() != null && !criteria.lastFour().isBlank()) {
+            PostingList postings = lastFourDigits.get(criteria.lastFour());
+            candidateSets.add(postings != null ? postings.snapshot() : new long[0]);
+        }
+        if (candidateSets.isEmpty()) {
+            throw new IllegalArgumentException("Search needs a cardholder name or card last four digits");
+        }
+
+        // Intersect the most selective sets first
+        candidateSets.sort((a, b) -> Integer.compare(a.length, b.length));
+        long[] candidates = candidateSets.get(0);
+        for (int i = 1; i < candidateSets.size() && candidates.length > 0; i++) {
+            candidates = intersect(candidates, candidateSets.get(i));
+        }
+
+        Currency currency = criteria.currency() != null && !criteria.currency().isBlank()
+                ? Currency.getInstance(criteria.currency().toUpperCase(Locale.ROOT)) : null;
+        if (currency == null && (criteria.minAmount() != null || criteria.maxAmount() != null)) {
+            throw new IllegalArgumentException("Amount filters need a currency");
+        }
+        long minMinor = criteria.minAmount() != null
+                ? toMinorUnits(criteria.minAmount(), currency, RoundingMode.CEILING) : Long.MIN_VALUE;
+        long maxMinor = criteria.maxAmount() != null
+                ? toMinorUnits(criteria.maxAmount(), currency, RoundingMode.FLOOR) : Long.MAX_VALUE;
+        long fromMillis = criteria.from() != null ? toMillis(criteria.from()) : Long.MIN_VALUE;
+        long toMillis = criteria.to() != null ? toMillis(criteria.to()) : Long.MAX_VALUE;
+
+        // Walk from the highest ID (newest) down, collecting only the requested page
+        long skip = (long) page * size;
+        long total = 0;
+        List<Long> pageIds = new ArrayList<>(size);
+        for (int i = candidates.length - 1; i >= 0; i--) {
+            Entry entry = entries.get(candidates[i]);
+            if (entry == null
+                    || (currency != null && !currency.equals(entry.currency()))
+                    || entry.amountMinor() < minMinor || entry.amountMinor() > maxMinor
+                    || entry.createdAtMillis() < fromMillis || entry.createdAtMillis() > toMillis) {
+                continue;
+            }
+            if (total >= skip && pageIds.size() < size) {
+                pageIds.add(candidates[i]);
+            }
+            total++;
+        }
+        return new Hits(pageIds, total);
+    }
+
+    /**
+     * Number of indexed payments
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Whether the startup rebuild has finished; until then results may be incomplete
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    void markReady() {
+        ready = true;
+    }
+
+    private long[] prefixMatches(String prefix) {
+        Collection<PostingList> lists = nameTokens.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values();
+        if (lists.size() == 1) {
+            return lists.iterator().next().snapshot();
+        }
+        int total = 0;
+        List<long[]> snapshots = new ArrayList<>(lists.size());
+        for (PostingList list : lists) {
+            long[] snapshot = list.snapshot();
+            snapshots.add(snapshot);
+            total += snapshot.length;
+        }
+        long[] merged = new long[total];
+        int pos = 0;
+        for (long[] snapshot : snapshots) {
+            System.arraycopy(snapshot, 0, merged, pos, snapshot.length);
+            pos += snapshot.length;
+        }
+        Arrays.sort(merged);
+        return dedupe(merged);
+    }
+
+    private static long[] intersect(long[] a, long[] b) {
+        long[] result = new long[Math.min(a.length, b.length)];
+        int i = 0, j = 0, n = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                result[n++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, n);
+    }
+
+    private static long[] dedupe(long[] sorted) {
+        if (sorted.length == 0) {
+            return sorted;
+        }
+        int n = 1;
+        for (int i = 1; i < sorted.length; i++) {
+            if (sorted[i] != sorted[n - 1]) {
+                sorted[n++] = sorted[i];
+            }
+        }
+        return Arrays.copyOf(sorted, n);
+    }
+
+    static String[] tokenize(String text) {
+        if (text == null) {
+            return new String[0];
+        }
+        String normalized = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("")
+            .toLowerCase(Locale.ROOT);
+        return Arrays.stream(TOKEN_SEPARATOR.split(normalized))
+            .filter(token -> !token.isEmpty())
+            .distinct()
+            .toArray(String[]::new);
+    }
+
+    private static String lastFour(String cardNumber) {
+        if (cardNumber == null || cardNumber.length() < 4) {
+            return null;
+        }
+        return cardNumber.substring(cardNumber.length() - 4);
+    }
+
+    // A bound finer than the currency allows is rounded inwards, so it still only admits amounts within it
+    private static long toMinorUnits(BigDecimal bound, Currency currency, RoundingMode rounding) {
+        return Money.toMinorUnits(bound.setScale(Math.max(0, currency.getDefaultFractionDigits()), rounding), currency);
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+}
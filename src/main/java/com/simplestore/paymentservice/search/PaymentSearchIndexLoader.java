@@ -0,0 +1,82 @@
+package com.simplestore.paymentservice.search;
+
+import com.simplestore.paymentservice.config.ReplicaRoutingDataSource;
+import com.simplestore.paymentservice.entity.Payment;
+import com.simplestore.paymentservice.repository.PaymentRepository;
+import com.simplestore.paymentservice.repository.ShardedPaymentRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.stream.Stream;
+
+/**
+ * Rebuilds the search index from the payments table after startup, on a background thread.
+ * Payments saved meanwhile are indexed by {@link PaymentIndexListener} (or, on sharded storage, by
+ * the sharded service); duplicates are ignored.
+ */
+@Component
+public class PaymentSearchIndexLoader {
+
+    private static final Logger logger = LoggerFactory.getLogger(PaymentSearchIndexLoader.class);
+
+    @Autowired
+    private PaymentSearchIndex searchIndex;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // Present only under the sharded profile, where payments live on the shards instead
+    @Autowired(required = false)
+    private ShardedPaymentRepository shardedRepository;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildInBackground() {
+        Thread loader = new Thread(this::rebuild, "payment-search-index-loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    void rebuild() {
+        long started = System.nanoTime();
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        try {
+            if (shardedRepository != null) {
+                shardedRepository.forEach(searchIndex::add);
+            } else {
+                // From the primary: a lagging replica would leave out payments committed just before startup
+                ReplicaRoutingDataSource.onPrimary(() -> {
+                    readOnly.executeWithoutResult(status -> {
+                        try (Stream<Payment> payments = paymentRepository.streamAll()) {
+                            payments.forEach(payment -> {
+                                searchIndex.add(payment);
+                                // Keep the persistence context from growing with the table
+                                entityManager.detach(payment);
+                            });
+                        }
+                    });
+                    return null;
+                });
+            }
+            searchIndex.markReady();
+            logger.info("🔍 Search index built with {} payments in {} ms",
+                       searchIndex.size(), (System.nanoTime() - started) / 1_000_000);
+        } catch (RuntimeException e) {
+            logger.error("❌ Failed to build search index: {}", e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.simplestore.paymentservice.search;
+
+import java.util.Arrays;
+
+/**
+ * Sorted, duplicate-free list of payment IDs backed by a primitive array (8 bytes per entry).
+ *
+ * Payment IDs mostly arrive in increasing order, so adds are usually appends.
+ */
+final class PostingList {
+
+    private long[] ids = new long[4];
+    private int size;
+
+    synchronized void add(long id) {
+        if (size > 0 && ids[size - 1] >= id) {
+            int pos = Arrays.binarySearch(ids, 0, size, id);
+            if (pos >= 0) {
+                return;
+            }
+            insertAt(-pos - 1, id);
+            return;
+        }
+        ensureCapacity();
+        ids[size++] = id;
+    }
+
+    synchronized void remove(long id) {
+        int pos = Arrays.binarySearch(ids, 0, size, id);
+        if (pos >= 0) {
+            System.arraycopy(ids, pos + 1, ids, pos, size - pos - 1);
+            size--;
+        }
+    }
+
+    synchronized long[] snapshot() {
+        return Arrays.copyOf(ids, size);
+    }
+
+    synchronized int size() {
+        return size;
+    }
+
+    private void insertAt(int pos, long id) {
+        ensureCapacity();
+        System.arraycopy(ids, pos, ids, pos + 1, size - pos);
+        ids[pos] = id;
+        size++;
+    }
+
+    private void ensureCapacity() {
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, ids.length + (ids.length >> 1) + 1);
+        }
+    }
+}
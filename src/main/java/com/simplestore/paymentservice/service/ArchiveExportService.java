@@ -0,0 +1,142 @@
+package com.simplestore.paymentservice.service;
+
+import com.github.luben.zstd.ZstdOutputStream;
+import com.simplestore.paymentservice.entity.ArchivedPayment;
+import com.simplestore.paymentservice.money.Money;
+import com.simplestore.paymentservice.repository.ArchivedPaymentRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Currency;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.stream.Stream;
+
+/**
+ * Exports archived payments to local disk in a simple compressed columnar layout.
+ *
+ * Each export is a directory holding one zstd-compressed file per column plus a manifest.
+ * Values of a column are stored together (DataOutput encoding), which compresses far better
+ * than row-oriented dumps and lets readers load only the columns they need.
+ */
+@Service
+public class ArchiveExportService {
+    
+    private static final DateTimeFormatter DIR_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+    
+    // Column name -> encoding, in file order
+    static final Map<String, String> COLUMNS = new LinkedHashMap<>();
+    static {
+        COLUMNS.put("id", "int64");
+        COLUMNS.put("transaction_id", "utf8?");
+        COLUMNS.put("status", "utf8");
+        COLUMNS.put("amount_minor", "int64");
+        COLUMNS.put("currency", "utf8");
+        COLUMNS.put("cardholder_name", "utf8");
+        COLUMNS.put("card_number", "utf8");
+        COLUMNS.put("created_at", "epoch-millis");
+        COLUMNS.put("updated_at", "epoch-millis?");
+        COLUMNS.put("archived_at", "epoch-millis");
+        COLUMNS.put("error_message", "utf8?");
+    }
+    
+    @Autowired
+    private ArchivedPaymentRepository archivedPaymentRepository;
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    /**
+     * Export payments archived in [from, to) into a new directory under baseDir
+     */
+    @Transactional(readOnly = true)
+    public Path exportArchivedBetween(LocalDateTime from, LocalDateTime to, Path baseDir) throws IOException {
+        Path dir = baseDir.resolve("payments-archive-" + DIR_FORMAT.format(to));
+        try (Stream<ArchivedPayment> payments = archivedPaymentRepository.streamArchivedBetween(from, to)) {
+            long rows = write(payments.peek(entityManager::detach), dir);
+            Properties manifest = new Properties();
+            manifest.setProperty("rows", String.valueOf(rows));
+            manifest.setProperty("archivedFrom", from.toString());
+            manifest.setProperty("archivedTo", to.toString());
+            manifest.setProperty("compression", "zstd");
+            manifest.setProperty("encoding", "java.io.DataOutput; '?' columns prefix each value with a presence boolean");
+            COLUMNS.forEach((name, type) -> manifest.setProperty("column." + name, type));
+            try (OutputStream out = Files.newOutputStream(dir.resolve("_manifest.properties"))) {
+                manifest.store(out, "Archived payments export");
+            }
+        }
+        return dir;
+    }
+    
+    /**
+     * Write payments column by column into dir, returning the row count
+     */
+    public long write(Stream<ArchivedPayment> payments, Path dir) throws IOException {
+        Files.createDirectories(dir);
+        Map<String, DataOutputStream> columns = new LinkedHashMap<>();
+        try {
+            for (String name : COLUMNS.keySet()) {
+                OutputStream file = Files.newOutputStream(dir.resolve(name + ".zst"));
+                columns.put(name, new DataOutputStream(new BufferedOutputStream(new ZstdOutputStream(file, 6), 64 * 1024)));
+            }
+            
+            long rows = 0;
+            Iterator<ArchivedPayment> iterator = payments.iterator();
+            while (iterator.hasNext()) {
+                ArchivedPayment payment = iterator.next();
+                columns.get("id").writeLong(payment.getId());
+                writeNullable(columns.get("transaction_id"), payment.getTransactionId());
+                columns.get("status").writeUTF(payment.getStatus().name());
+                // Minor units of the payment's own currency: cents for USD, yen for JPY
+                columns.get("amount_minor").writeLong(
+                    Money.toMinorUnits(payment.getAmount(), Currency.getInstance(payment.getCurrency())));
+                columns.get("currency").writeUTF(payment.getCurrency());
+                columns.get("cardholder_name").writeUTF(payment.getCardholderName());
+                columns.get("card_number").writeUTF(payment.getCardNumber());
+                columns.get("created_at").writeLong(toEpochMillis(payment.getCreatedAt()));
+                writeNullable(columns.get("updated_at"), payment.getUpdatedAt());
+                columns.get("archived_at").writeLong(toEpochMillis(payment.getArchivedAt()));
+                writeNullable(columns.get("error_message"), payment.getErrorMessage());
+                rows++;
+            }
+            return rows;
+        } finally {
+            for (DataOutputStream column : columns.values()) {
+                column.close();
+            }
+        }
+    }
+    
+    private static void writeNullable(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+    
+    private static void writeNullable(DataOutputStream out, LocalDateTime value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeLong(toEpochMillis(value));
+        }
+    }
+    
+    // Timestamps are stored as the server's local time, as everywhere else in the service
+    private static long toEpochMillis(LocalDateTime value) {
+        return value.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,404 @@
+package com.simplestore.paymentservice.service;
+
+import com.simplestore.paymentservice.config.AuthorizationProperties;
+import com.simplestore.paymentservice.config.ReplicaRoutingDataSource;
+import com.simplestore.paymentservice.dto.AuthorizationSummary;
+import com.simplestore.paymentservice.dto.CaptureRequest;
+import com.simplestore.paymentservice.dto.CaptureResult;
+import com.simplestore.paymentservice.dto.PaymentRequest;
+import com.simplestore.paymentservice.dto.PaymentResponse;
+import com.simplestore.paymentservice.dto.WebhookEvent;
+import com.simplestore.paymentservice.entity.Payment;
+import com.simplestore.paymentservice.entity.PaymentStatus;
+import com.simplestore.paymentservice.repository.BatchUpdateCounts;
+import com.simplestore.paymentservice.repository.PaymentRepository;
+import com.simplestore.paymentservice.webhook.WebhookOutbox;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Authorize now, capture (fully or partially) or void later.
+ *
+ * An authorization is stored as PROCESSING like a charge and moves to AUTHORIZED with its hold amount
+ * and expiry. Captures are claimed AUTHORIZED -> CAPTURING and finished CAPTURING -> COMPLETED (or back
+ * to AUTHORIZED if the gateway fails them) with conditional batched UPDATEs, so a batch of thousands
+ * costs two batched statements and one gateway call, and a capture can never race a void. Open holds
+ * are tracked in {@link OpenAuthorizationIndex}, which drives the auto-void of expired ones.
+ */
+@Service
+public class AuthorizationService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(AuthorizationService.class);
+    
+    static final String CLAIM_SQL =
+        "UPDATE payments SET status = 'CAPTURING', updated_at = ?, version = version + 1 " +
+        "WHERE id = ? AND status = 'AUTHORIZED'";
+    
+    static final String CAPTURED_SQL =
+        "UPDATE payments SET status = 'COMPLETED', amount = ?, error_message = NULL, updated_at = ?, " +
+        "version = version + 1 WHERE id = ? AND status = 'CAPTURING'";
+    
+    static final String RELEASED_SQL =
+        "UPDATE payments SET status = 'AUTHORIZED', error_message = ?, updated_at = ?, version = version + 1 " +
+        "WHERE id = ? AND status = 'CAPTURING'";
+    
+    public static final String PAYMENT_NOT_FOUND = "Payment not found";
+    
+    static final String CAPTURE_NOT_RECEIVED = "Capture never received by the gateway";
+    
+    @Autowired
+    private PaymentRepository paymentRepository;
+    
+    @Autowired
+    private PaymentValidationService validationService;
+    
+    @Autowired
+    private PaymentProcessingService processingService;
+    
+    @Autowired
+    private PaymentStateMachine stateMachine;
+    
+    @Autowired
+    private CardVault cardVault;
+    
+    @Autowired
+    private OpenAuthorizationIndex openAuthorizations;
+    
+    @Autowired
+    private AuthorizationProperties properties;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    // Present unless payment.webhook.enabled=false
+    @Autowired(required = false)
+    private WebhookOutbox webhookOutbox;
+    
+    // Present only when a read replica is configured
+    @Autowired(required = false)
+    private RecentWriteTracker recentWrites;
+    
+    /**
+     * Track the holds that were open when the service last stopped
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOpenAuthorizations() {
+        List<Payment> open = paymentRepository.findByStatus(PaymentStatus.AUTHORIZED);
+        open.forEach(openAuthorizations::add);
+        if (!open.isEmpty()) {
+            logger.info("🔍 Tracking {} open authorizations", open.size());
+        }
+    }
+    
+    /**
+     * Place a hold for the requested amount
+     */
+    public PaymentResponse authorize(PaymentRequest request) {
+        try {
+            Payment payment;
+            if (request.getCardToken() != null) {
+                VaultedCard card = cardVault.resolve(request.getCardToken());
+                validationService.validateTokenPayment(request);
+                payment = PaymentMapper.fromVaultedCard(request, card);
+            } else {
+                validationService.validatePaymentRequest(request);
+                payment = PaymentMapper.fromRequest(request);
+            }
+            payment.setAuthorizedAmount(payment.getAmount());
+            payment.setAuthorizationExpiresAt(LocalDateTime.now().plusSeconds(properties.getExpirySeconds()));
+            payment = paymentRepository.save(payment);
+            recordWrite(payment);
+            
+            PaymentResponse response = processingService.authorizePayment(payment);
+            payment.setTransactionId(response.getTransactionId());
+            if (response.getStatus() == PaymentStatus.FAILED) {
+                payment.setErrorMessage(response.getErrorMessage());
+            }
+            
+            if (!stateMachine.transition(payment, response.getStatus())) {
+                // Recovery finalized it first; its outcome stands
+                Long id = payment.getId();
+                return ReplicaRoutingDataSource.onPrimary(() -> paymentRepository.findById(id))
+                    .map(current -> new PaymentResponse(current.getTransactionId(), current.getStatus(),
+                                                        "Payment already finalized", current.getAmount()))
+                    .orElse(response);
+            }
+            if (response.getStatus() == PaymentStatus.AUTHORIZED) {
+                openAuthorizations.add(payment);
+            }
+            return response;
+            
+        } catch (Exception e) {
+            return PaymentResponse.failure(PaymentMapper.generateTransactionId(), e.getMessage());
+        }
+    }
+    
+    /**
+     * Capture one authorization; a null amount captures all of it
+     */
+    public CaptureResult capture(Long paymentId, BigDecimal amount) {
+        return captureAll(List.of(new CaptureRequest(paymentId, amount))).get(0);
+    }
+    
+    /**
+     * Capture many authorizations with one gateway call; results are in request order.
+     * A partial capture releases the rest of the hold.
+     */
+    public List<CaptureResult> captureAll(List<CaptureRequest> requests) {
+        if (requests.size() > properties.getMaxCaptureBatch()) {
+            throw new IllegalArgumentException("At most " + properties.getMaxCaptureBatch() + " captures per batch");
+        }
+        for (CaptureRequest request : requests) {
+            if (request.paymentId() == null) {
+                throw new IllegalArgumentException("Payment ID is required");
+            }
+            if (request.amount() != null && request.amount().signum() <= 0) {
+                throw new IllegalArgumentException("Capture amount must be greater than 0");
+            }
+        }
+        List<Long> ids = requests.stream().map(CaptureRequest::paymentId).distinct().toList();
+        // Read from the primary: a hold placed moments ago may not have reached the replica
+        Map<Long, Payment> payments = ReplicaRoutingDataSource.onPrimary(() -> paymentRepository.findAllById(ids))
+            .stream()
+            .collect(Collectors.toMap(Payment::getId, Function.identity()));
+        
+        CaptureResult[] results = new CaptureResult[requests.size()];
+        List<Integer> pending = new ArrayList<>();
+        List<Payment> capturing = new ArrayList<>();
+        for (int i = 0; i < requests.size(); i++) {
+            CaptureRequest request = requests.get(i);
+            Payment payment = payments.get(request.paymentId());
+            if (payment == null) {
+                results[i] = new CaptureResult(request.paymentId(), null, null, PAYMENT_NOT_FOUND);
+                continue;
+            }
+            if (payment.getStatus() != PaymentStatus.AUTHORIZED) {
+                results[i] = new CaptureResult(payment.getId(), payment.getStatus(), null, "Payment is not authorized");
+                continue;
+            }
+            BigDecimal amount = request.amount() != null ? request.amount() : payment.getAuthorizedAmount();
+            if (amount.compareTo(payment.getAuthorizedAmount()) > 0) {
+                results[i] = new CaptureResult(payment.getId(), payment.getStatus(), null,
+                                               "Capture exceeds the authorized amount");
+                continue;
+            }
+            pending.add(i);
+            // A copy, so a duplicate request for the same payment does not share state
+            Payment copy = copyForCapture(payment);
+            copy.setAmount(amount);
+            capturing.add(copy);
+        }
+        if (capturing.isEmpty()) {
+            return Arrays.asList(results);
+        }
+        
+        // Claim every hold first, so no void or second capture can start while the gateway works
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        int[] claimed = update(CLAIM_SQL, capturing.stream()
+            .map(payment -> new Object[] {now, payment.getId()})
+            .toList());
+        List<Integer> claimedIndexes = new ArrayList<>();
+        List<Payment> claimedPayments = new ArrayList<>();
+        for (int j = 0; j < capturing.size(); j++) {
+            Payment payment = capturing.get(j);
+            if (BatchUpdateCounts.applied(claimed[j])) {
+                recordWrite(payment);
+                openAuthorizations.remove(payment.getId());
+                claimedIndexes.add(pending.get(j));
+                claimedPayments.add(payment);
+            } else {
+                results[pending.get(j)] = new CaptureResult(payment.getId(), null, null, "Payment was changed concurrently");
+            }
+        }
+        if (claimedPayments.isEmpty()) {
+            return Arrays.asList(results);
+        }
+        
+        List<PaymentResponse> responses = processingService.capturePayments(claimedPayments);
+        
+        List<Object[]> captured = new ArrayList<>();
+        List<Object[]> released = new ArrayList<>();
+        Timestamp finishedAt = Timestamp.valueOf(LocalDateTime.now());
+        for (int j = 0; j < claimedPayments.size(); j++) {
+            Payment payment = claimedPayments.get(j);
+            if (responses.get(j).getStatus() == PaymentStatus.COMPLETED) {
+                captured.add(new Object[] {payment.getAmount(), finishedAt, payment.getId()});
+            } else {
+                released.add(new Object[] {responses.get(j).getErrorMessage(), finishedAt, payment.getId()});
+            }
+        }
+        int[][] finished = transactionTemplate.execute(status -> {
+            int[][] rows = new int[][] {
+                captured.isEmpty() ? new int[0]
+                    : BatchUpdateCounts.require(jdbcTemplate.batchUpdate(CAPTURED_SQL, captured)),
+                released.isEmpty() ? new int[0]
+                    : BatchUpdateCounts.require(jdbcTemplate.batchUpdate(RELEASED_SQL, released))
+            };
+            if (webhookOutbox != null) {
+                // A capture handed back to AUTHORIZED was already announced as authorized
+                List<WebhookEvent> events = new ArrayList<>();
+                int capturedRow = 0;
+                for (int j = 0; j < claimedPayments.size(); j++) {
+                    if (responses.get(j).getStatus() == PaymentStatus.COMPLETED && BatchUpdateCounts.applied(rows[0][capturedRow++])) {
+                        events.add(WebhookEvent.of(claimedPayments.get(j), PaymentStatus.COMPLETED));
+                    }
+                }
+                webhookOutbox.enqueue(events);
+            }
+            return rows;
+        });
+        
+        int capturedIndex = 0;
+        int releasedIndex = 0;
+        for (int j = 0; j < claimedPayments.size(); j++) {
+            Payment payment = claimedPayments.get(j);
+            PaymentResponse response = responses.get(j);
+            int i = claimedIndexes.get(j);
+            recordWrite(payment);
+            if (response.getStatus() == PaymentStatus.COMPLETED) {
+                results[i] = BatchUpdateCounts.applied(finished[0][capturedIndex++])
+                    ? new CaptureResult(payment.getId(), PaymentStatus.COMPLETED, payment.getAmount(), "Captured")
+                    : new CaptureResult(payment.getId(), null, null, "Payment was finalized by recovery");
+            } else if (BatchUpdateCounts.applied(finished[1][releasedIndex++])) {
+                payment.setAmount(payment.getAuthorizedAmount());
+                openAuthorizations.add(payment);
+                results[i] = new CaptureResult(payment.getId(), PaymentStatus.AUTHORIZED, null, response.getErrorMessage());
+            } else {
+                results[i] = new CaptureResult(payment.getId(), null, null, "Payment was finalized by recovery");
+            }
+        }
+        logger.info("✅ Captured {} of {} authorizations in one batch", captured.size(), requests.size());
+        return Arrays.asList(results);
+    }
+    
+    /**
+     * Release an open hold; empty if the payment does not exist
+     *
+     * @throws IllegalStateException if the payment is not an open authorization or changed concurrently
+     */
+    public Optional<Payment> voidAuthorization(Long id) {
+        Optional<Payment> payment = ReplicaRoutingDataSource.onPrimary(() -> paymentRepository.findById(id));
+        payment.ifPresent(current -> {
+            if (!stateMachine.transition(current, PaymentStatus.VOIDED)) {
+                throw new IllegalStateException("Payment " + id + " was changed concurrently");
+            }
+            openAuthorizations.remove(id);
+            // The hold is released on our side either way; the issuer drops it when it expires
+            PaymentResponse response = processingService.voidAuthorization(current);
+            if (response.getStatus() != PaymentStatus.VOIDED) {
+                logger.warn("⚠️ Gateway did not confirm void of payment {}: {}", id, response.getErrorMessage());
+            }
+        });
+        return payment;
+    }
+    
+    /**
+     * Void authorizations that were never captured before their expiry
+     */
+    @Scheduled(fixedDelayString = "${payment.authorization.auto-void-interval-ms:60000}")
+    public int voidExpiredAuthorizations() {
+        int voided = 0;
+        List<Long> expired;
+        do {
+            expired = openAuthorizations.expiredAt(LocalDateTime.now(), properties.getAutoVoidBatch());
+            for (Long id : expired) {
+                try {
+                    if (voidAuthorization(id).isPresent()) {
+                        voided++;
+                    }
+                } catch (IllegalStateException e) {
+                    // Captured or voided meanwhile
+                    logger.debug("Expired authorization {} not voided: {}", id, e.getMessage());
+                }
+                openAuthorizations.remove(id);
+            }
+        } while (expired.size() == properties.getAutoVoidBatch());
+        
+        if (voided > 0) {
+            logger.info("📦 Voided {} expired authorizations", voided);
+        }
+        return voided;
+    }
+    
+    /**
+     * Finish a capture left CAPTURING by a crash, from the gateway's record of it; null if it changed meanwhile
+     */
+    public PaymentStatus reconcileCapture(Payment payment) {
+        Optional<PaymentResponse> outcome = processingService.queryCaptureOutcome(payment);
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        if (outcome.isPresent() && outcome.get().getStatus() == PaymentStatus.COMPLETED) {
+            BigDecimal amount = outcome.get().getAmount();
+            Boolean captured = transactionTemplate.execute(status -> {
+                if (jdbcTemplate.update(CAPTURED_SQL, amount, now, payment.getId()) == 0) {
+                    return false;
+                }
+                recordWrite(payment);
+                if (webhookOutbox != null) {
+                    Payment completed = copyForCapture(payment);
+                    completed.setAmount(amount);
+                    webhookOutbox.enqueue(List.of(WebhookEvent.of(completed, PaymentStatus.COMPLETED)));
+                }
+                return true;
+            });
+            return Boolean.TRUE.equals(captured) ? PaymentStatus.COMPLETED : null;
+        }
+        int rows = jdbcTemplate.update(RELEASED_SQL, CAPTURE_NOT_RECEIVED, now, payment.getId());
+        if (rows == 0) {
+            return null;
+        }
+        recordWrite(payment);
+        openAuthorizations.add(payment);
+        return PaymentStatus.AUTHORIZED;
+    }
+    
+    /**
+     * Count, held amounts and next expiry of open authorizations
+     */
+    public AuthorizationSummary getSummary() {
+        return openAuthorizations.summary();
+    }
+    
+    // The JDBC updates here bypass the state machine, so they mark the payment as just written themselves
+    private void recordWrite(Payment payment) {
+        if (recentWrites != null) {
+            recentWrites.record(payment);
+        }
+    }
+    
+    private int[] update(String sql, List<Object[]> rows) {
+        return transactionTemplate.execute(status -> BatchUpdateCounts.require(jdbcTemplate.batchUpdate(sql, rows)));
+    }
+    
+    private static Payment copyForCapture(Payment payment) {
+        Payment copy = new Payment(payment.getCardholderName(), payment.getCardNumber(), payment.getExpiryDate(),
+                                   payment.getCvv(), payment.getAmount());
+        copy.setId(payment.getId());
+        copy.setCurrency(payment.getCurrency());
+        copy.setStatus(payment.getStatus());
+        copy.setTransactionId(payment.getTransactionId());
+        copy.setAuthorizedAmount(payment.getAuthorizedAmount());
+        copy.setAuthorizationExpiresAt(payment.getAuthorizationExpiresAt());
+        return copy;
+    }
+}
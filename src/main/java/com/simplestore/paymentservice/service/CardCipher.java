@@ -0,0 +1,67 @@
+package com.simplestore.paymentservice.service;
+
+import javax.crypto.AEADBadTagException;
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Arrays;
+
+/**
+ * AES-GCM encryption of vaulted card data. The token is bound in as associated data, so an
+ * encrypted card copied to another token's row fails to decrypt.
+ */
+public final class CardCipher {
+
+    private static final String TRANSFORMATION = "AES/GCM/NoPadding";
+    private static final int IV_BYTES = 12;
+    private static final int TAG_BITS = 128;
+
+    private final SecretKey key;
+    private final SecureRandom random = new SecureRandom();
+
+    public CardCipher(SecretKey key) {
+        this.key = key;
+    }
+
+    /**
+     * Encrypt with a fresh IV; returns IV followed by ciphertext
+     */
+    public byte[] encrypt(String token, String plaintext) {
+        byte[] iv = new byte[IV_BYTES];
+        random.nextBytes(iv);
+        try {
+            Cipher cipher = Cipher.getInstance(TRANSFORMATION);
+            cipher.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(TAG_BITS, iv));
+            cipher.updateAAD(token.getBytes(StandardCharsets.UTF_8));
+            byte[] ciphertext = cipher.doFinal(plaintext.getBytes(StandardCharsets.UTF_8));
+            return ByteBuffer.allocate(iv.length + ciphertext.length).put(iv).put(ciphertext).array();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Card encryption failed", e);
+        }
+    }
+
+    /**
+     * Decrypt what {@link #encrypt} produced for the same token
+     *
+     * @throws IllegalStateException if the data was tampered with or encrypted under another key or token
+     */
+    public String decrypt(String token, byte[] data) {
+        try {
+            Cipher cipher = Cipher.getInstance(TRANSFORMATION);
+            cipher.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(TAG_BITS, data, 0, IV_BYTES));
+            cipher.updateAAD(token.getBytes(StandardCharsets.UTF_8));
+            byte[] plaintext = cipher.doFinal(data, IV_BYTES, data.length - IV_BYTES);
+            String result = new String(plaintext, StandardCharsets.UTF_8);
+            Arrays.fill(plaintext, (byte) 0);
+            return result;
+        } catch (AEADBadTagException e) {
+            throw new IllegalStateException("Stored card for token failed authentication", e);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Card decryption failed", e);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.simplestore.paymentservice.service;
+
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.HexFormat;
+
+/**
+ * Stable per-card key for routing, velocity limits and finding a stored card that never exposes the card number.
+ *
+ * An HMAC-SHA256 under a key derived from the vault key rather than a plain hash: card numbers are a
+ * few billion candidates per BIN, so an unkeyed hash of one is reversed by hashing them all. Nodes
+ * must share the vault key to agree on fingerprints.
+ */
+public final class CardFingerprint {
+
+    private static final String ALGORITHM = "HmacSHA256";
+
+    // Derivation label, so the MAC key is never the encryption key itself
+    private static final byte[] LABEL = "card-fingerprint".getBytes(StandardCharsets.US_ASCII);
+
+    private final SecretKey key;
+
+    public CardFingerprint(SecretKey vaultKey) {
+        this.key = new SecretKeySpec(mac(new SecretKeySpec(vaultKey.getEncoded(), ALGORITHM), LABEL), ALGORITHM);
+    }
+
+    /**
+     * HMAC over the card digits, ignoring spaces and dashes
+     */
+    public String of(String cardNumber) {
+        String digits = cardNumber == null ? "" : cardNumber.replaceAll("[\\s-]", "");
+        return HexFormat.of().formatHex(mac(key, digits.getBytes(StandardCharsets.US_ASCII)));
+    }
+
+    private static byte[] mac(SecretKey key, byte[] data) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac.doFinal(data);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(ALGORITHM + " not available", e);
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package com.simplestore.paymentservice.service;
+
+import com.simplestore.paymentservice.config.VaultProperties;
+import com.simplestore.paymentservice.entity.StoredCard;
+import com.simplestore.paymentservice.repository.StoredCardRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.KeyGenerator;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.YearMonth;
+import java.util.Base64;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Issues opaque tokens for cards and stores the card data AES-GCM encrypted, so returning customers
+ * pay with a token instead of sending the card again.
+ *
+ * Cards are validated (Luhn, expiry, name) once, when they are stored. Resolved cards are kept
+ * decrypted in memory for {@code cache-ttl-seconds}, so a token payment on the hot path costs a map
+ * lookup and an expiry comparison instead of a database read, a decryption and a validation pass.
+ * The same card always gets the same token; storing it again (e.g. with a new expiry) updates it.
+ */
+@Service
+public class CardVault {
+    
+    private static final Logger logger = LoggerFactory.getLogger(CardVault.class);
+    
+    static final String TOKEN_PREFIX = "tok_";
+    static final String UNKNOWN_TOKEN = "Unknown card token";
+    
+    private static final int TOKEN_BYTES = 24;
+    private static final char FIELD_SEPARATOR = '|';
+    
+    private final StoredCardRepository repository;
+    private final PaymentValidationService validationService;
+    private final CardCipher cipher;
+    private final CardFingerprint fingerprints;
+    private final long ttlMillis;
+    private final int maxEntries;
+    
+    private final Map<String, CacheEntry> cache = new ConcurrentHashMap<>();
+    private final SecureRandom random = new SecureRandom();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    
+    @Autowired
+    public CardVault(StoredCardRepository repository, PaymentValidationService validationService,
+                     VaultProperties properties) {
+        this.repository = repository;
+        this.validationService = validationService;
+        SecretKey key = loadKey(properties);
+        this.cipher = new CardCipher(key);
+        this.fingerprints = new CardFingerprint(key);
+        this.ttlMillis = properties.getCacheTtlSeconds() * 1000;
+        this.maxEntries = properties.getCacheMaxEntries();
+    }
+    
+    /**
+     * Validate and store a card, returning its token
+     *
+     * @throws IllegalArgumentException if the card is invalid
+     */
+    public VaultedCard tokenize(String cardholderName, String cardNumber, String expiryDate) {
+        validationService.validateCard(cardholderName, cardNumber, expiryDate);
+        String digits = cardNumber.replaceAll("[\\s-]", "");
+        String fingerprint = fingerprints.of(digits);
+        
+        StoredCard stored;
+        try {
+            stored = store(fingerprint, cardholderName.trim(), digits, expiryDate);
+        } catch (DataIntegrityViolationException e) {
+            // The same card was stored concurrently; it now has a token to update
+            stored = store(fingerprint, cardholderName.trim(), digits, expiryDate);
+        }
+        
+        VaultedCard card = new VaultedCard(stored.getToken(), cardholderName.trim(), digits, expiryDate,
+                                           fingerprint, parseExpiry(expiryDate));
+        cache(card);
+        logger.info("💾 Card ending {} stored in vault", stored.getLastFour());
+        return card;
+    }
+    
+    /**
+     * The card behind a token, from memory when it was resolved recently
+     *
+     * @throws IllegalArgumentException if the token is unknown or the card has expired
+     */
+    public VaultedCard resolve(String token) {
+        VaultedCard card = find(token).orElseThrow(() -> new IllegalArgumentException(UNKNOWN_TOKEN));
+        if (card.isExpired(YearMonth.now())) {
+            throw new IllegalArgumentException("Card has expired");
+        }
+        return card;
+    }
+    
+    /**
+     * The card behind a token, expired or not; empty if the token is unknown
+     */
+    public Optional<VaultedCard> find(String token) {
+        CacheEntry entry = cache.get(token);
+        if (entry != null && !entry.isExpired()) {
+            hits.incrementAndGet();
+            return Optional.of(entry.card());
+        }
+        misses.incrementAndGet();
+        Optional<VaultedCard> card = repository.findById(token).map(this::decrypt);
+        card.ifPresent(this::cache);
+        return card;
+    }
+    
+    /**
+     * Keyed fingerprint of a card number, the same one its stored card and resolved token carry
+     */
+    public String fingerprint(String cardNumber) {
+        return fingerprints.of(cardNumber);
+    }
+    
+    /**
+     * Remove a card from the vault; false if the token is unknown
+     */
+    public boolean delete(String token) {
+        cache.remove(token);
+        if (!repository.existsById(token)) {
+            return false;
+        }
+        repository.deleteById(token);
+        logger.info("📦 Card token {} deleted from vault", token);
+        return true;
+    }
+    
+    public int getCacheSize() {
+        return cache.size();
+    }
+    
+    public long getCacheHits() {
+        return hits.get();
+    }
+    
+    public long getCacheMisses() {
+        return misses.get();
+    }
+    
+    @Scheduled(fixedDelayString = "${payment.vault.purge-interval-ms:60000}")
+    public void purgeExpired() {
+        cache.values().removeIf(CacheEntry::isExpired);
+    }
+    
+    private StoredCard store(String fingerprint, String cardholderName, String digits, String expiryDate) {
+        StoredCard stored = repository.findByFingerprint(fingerprint)
+            .orElseGet(() -> new StoredCard(newToken(), fingerprint, digits.substring(digits.length() - 4), null));
+        stored.setEncryptedData(cipher.encrypt(stored.getToken(), encode(cardholderName, digits, expiryDate)));
+        return repository.save(stored);
+    }
+    
+    private VaultedCard decrypt(StoredCard stored) {
+        String[] fields = cipher.decrypt(stored.getToken(), stored.getEncryptedData()).split("\\|", -1);
+        if (fields.length != 3) {
+            throw new IllegalStateException("Stored card for token " + stored.getToken() + " is malformed");
+        }
+        return new VaultedCard(stored.getToken(), fields[0], fields[1], fields[2], stored.getFingerprint(),
+                               parseExpiry(fields[2]));
+    }
+    
+    private void cache(VaultedCard card) {
+        // Past the bound, lookups still work; they just decrypt every time until the purge makes room
+        if (ttlMillis > 0 && (cache.size() < maxEntries || cache.containsKey(card.token()))) {
+            cache.put(card.token(), new CacheEntry(card, System.currentTimeMillis() + ttlMillis));
+        }
+    }
+    
+    private String newToken() {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        return TOKEN_PREFIX + Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+    
+    // Cardholder names are letters and spaces, so the separator cannot occur in a field
+    static String encode(String cardholderName, String cardNumber, String expiryDate) {
+        return cardholderName + FIELD_SEPARATOR + cardNumber + FIELD_SEPARATOR + expiryDate;
+    }
+    
+    // MM/YY, already validated
+    private static YearMonth parseExpiry(String expiryDate) {
+        return YearMonth.of(2000 + Integer.parseInt(expiryDate.substring(3, 5)),
+                            Integer.parseInt(expiryDate.substring(0, 2)));
+    }
+    
+    private static SecretKey loadKey(VaultProperties properties) {
+        String encodedKey = properties.getEncryptionKey();
+        if (encodedKey == null || encodedKey.isBlank()) {
+            if (!properties.isAllowRandomKey()) {
+                throw new IllegalStateException(
+                    "payment.vault.encryption-key is not set; set PAYMENT_VAULT_KEY to a Base64 AES key");
+            }
+            logger.warn("⚠️ payment.vault.encryption-key is not set; using a random key, stored cards will not survive a restart");
+            try {
+                KeyGenerator generator = KeyGenerator.getInstance("AES");
+                generator.init(256);
+                return generator.generateKey();
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("AES not available", e);
+            }
+        }
+        byte[] key = Base64.getDecoder().decode(encodedKey.trim());
+        if (key.length != 16 && key.length != 24 && key.length != 32) {
+            throw new IllegalArgumentException("payment.vault.encryption-key must be a Base64 AES key of 16, 24 or 32 bytes");
+        }
+        return new SecretKeySpec(key, "AES");
+    }
+    
+    private record CacheEntry(VaultedCard card, long expiresAt) {
+        
+        boolean isExpired() {
+            return System.currentTimeMillis() > expiresAt;
+        }
+    }
+}
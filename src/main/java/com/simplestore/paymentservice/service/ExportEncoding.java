@@ -0,0 +1,67 @@
+package com.simplestore.paymentservice.service;
+
+import com.github.luben.zstd.ZstdOutputStream;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Content encodings for bulk payment export
+ */
+public enum ExportEncoding {
+    IDENTITY(null),
+    GZIP("gzip"),
+    ZSTD("zstd");
+    
+    private final String contentEncoding;
+    
+    ExportEncoding(String contentEncoding) {
+        this.contentEncoding = contentEncoding;
+    }
+    
+    /**
+     * Value for the Content-Encoding header, or null for identity
+     */
+    public String getContentEncoding() {
+        return contentEncoding;
+    }
+    
+    /**
+     * Wrap the response stream in the matching compressor; closing the wrapper finishes the frame
+     */
+    public OutputStream wrap(OutputStream out) throws IOException {
+        switch (this) {
+            case GZIP:
+                return new GZIPOutputStream(out, 64 * 1024);
+            case ZSTD:
+                return new ZstdOutputStream(out, 3);
+            default:
+                return out;
+        }
+    }
+    
+    /**
+     * Pick the preferred encoding the client accepts (zstd over gzip), defaulting to identity
+     */
+    public static ExportEncoding fromAcceptEncoding(String acceptEncodingHeader) {
+        if (acceptEncodingHeader == null) {
+            return IDENTITY;
+        }
+        boolean gzip = false;
+        for (String part : acceptEncodingHeader.split(",")) {
+            String[] tokens = part.trim().split(";");
+            String coding = tokens[0].trim().toLowerCase();
+            if (tokens.length > 1 && tokens[1].trim().replace(" ", "").matches("q=0(\\.0*)?")) {
+                continue;
+            }
+            if (coding.equals("zstd")) {
+                return ZSTD;
+            }
+            if (coding.equals("gzip")) {
+                gzip = true;
+            }
+        }
+        return gzip ? GZIP : IDENTITY;
+    }
+}
@@ -0,0 +1,45 @@
+package com.simplestore.paymentservice.service;
+
+import org.springframework.http.MediaType;
+
+import java.util.List;
+
+/**
+ * Wire formats for bulk payment export, each written as a stream of root-level values
+ */
+public enum ExportFormat {
+    NDJSON(MediaType.parseMediaType("application/x-ndjson")),
+    SMILE(MediaType.parseMediaType("application/x-jackson-smile")),
+    CBOR(MediaType.parseMediaType("application/cbor"));
+    
+    private final MediaType mediaType;
+    
+    ExportFormat(MediaType mediaType) {
+        this.mediaType = mediaType;
+    }
+    
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+    
+    /**
+     * Pick the first format the client lists in its Accept header, defaulting to NDJSON
+     */
+    public static ExportFormat fromAccept(String acceptHeader) {
+        if (acceptHeader == null || acceptHeader.isBlank()) {
+            return NDJSON;
+        }
+        List<MediaType> accepted = MediaType.parseMediaTypes(acceptHeader);
+        for (MediaType mediaType : accepted) {
+            if (mediaType.getQualityValue() == 0) {
+                continue;
+            }
+            for (ExportFormat format : values()) {
+                if (mediaType.includes(format.mediaType) && !mediaType.isWildcardType()) {
+                    return format;
+                }
+            }
+        }
+        return NDJSON;
+    }
+}
@@ -0,0 +1,110 @@
+package com.simplestore.paymentservice.service;
+
+import com.simplestore.paymentservice.dto.CurrencyTotal;
+import com.simplestore.paymentservice.money.FxRateSnapshot;
+import com.simplestore.paymentservice.money.Money;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Currency;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Holds the current FX rate table, loaded from a local file and swapped atomically on change.
+ *
+ * Conversions read the current snapshot without locks or database access.
+ */
+@Service
+public class FxRateService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(FxRateService.class);
+    
+    private final AtomicReference<FxRateSnapshot> snapshot =
+        new AtomicReference<>(FxRateSnapshot.baseOnly(Money.DEFAULT_CURRENCY));
+    
+    private final Resource ratesLocation;
+    private volatile long lastModified = -1;
+    
+    public FxRateService() {
+        this.ratesLocation = null;
+    }
+    
+    @Autowired
+    public FxRateService(@Value("${payment.fx.rates-location:classpath:fx-rates.properties}") Resource ratesLocation) {
+        this.ratesLocation = ratesLocation;
+    }
+    
+    @PostConstruct
+    void load() throws IOException {
+        if (ratesLocation != null && ratesLocation.exists()) {
+            reload();
+        }
+    }
+    
+    /**
+     * Current rate table
+     */
+    public FxRateSnapshot getSnapshot() {
+        return snapshot.get();
+    }
+    
+    /**
+     * Convert an amount into the base currency using the current table
+     */
+    public Money toBase(Money money) {
+        return snapshot.get().toBase(money);
+    }
+    
+    /**
+     * Sum per-currency totals in the base currency of a single snapshot
+     */
+    public Money normalizedTotal(List<CurrencyTotal> totals) {
+        FxRateSnapshot rates = snapshot.get();
+        Money sum = Money.ofMinor(0, rates.getBaseCurrency());
+        for (CurrencyTotal total : totals) {
+            if (total.total() != null) {
+                Currency currency = Currency.getInstance(total.currency());
+                sum = sum.plus(rates.toBase(Money.of(total.total(), currency)));
+            }
+        }
+        return sum;
+    }
+    
+    /**
+     * Reload the rate table if the file changed since the last load; a bad file keeps the previous table
+     */
+    @Scheduled(fixedDelayString = "${payment.fx.reload-interval-ms:60000}")
+    public void reloadIfChanged() {
+        if (ratesLocation == null) {
+            return;
+        }
+        try {
+            if (ratesLocation.lastModified() != lastModified) {
+                reload();
+            }
+        } catch (IOException | RuntimeException e) {
+            logger.warn("⚠️ Keeping previous FX rates, reload from {} failed: {}", ratesLocation, e.getMessage());
+        }
+    }
+    
+    private void reload() throws IOException {
+        long modified = ratesLocation.lastModified();
+        Properties properties = new Properties();
+        try (InputStream in = ratesLocation.getInputStream()) {
+            properties.load(in);
+        }
+        snapshot.set(FxRateSnapshot.fromProperties(properties));
+        lastModified = modified;
+        logger.info("💱 Loaded FX rates from {} (base {})", ratesLocation, snapshot.get().getBaseCurrency());
+    }
+}
@@ -0,0 +1,232 @@
+package com.simplestore.paymentservice.service;
+
+import com.simplestore.paymentservice.config.GroupCommitProperties;
+import com.simplestore.paymentservice.dto.WebhookEvent;
+import com.simplestore.paymentservice.entity.Payment;
+import com.simplestore.paymentservice.entity.PaymentStatus;
+import com.simplestore.paymentservice.repository.BatchUpdateCounts;
+import com.simplestore.paymentservice.webhook.WebhookOutbox;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Coalesces final payment status updates from many request threads into batched UPDATEs.
+ *
+ * A single writer thread collects updates for up to maxDelayMs (or maxBatchSize updates), writes
+ * them with one JDBC batch and commits once. Callers of {@link #write(Payment, PaymentStatus)} block until the
+ * commit covering their update has succeeded, so a status is never acknowledged before it is
+ * durable: on a crash, updates not yet committed were never acknowledged and the payment is
+ * still PROCESSING in the database.
+ *
+ * Like {@link PaymentStateMachine}, each update only applies if the payment still has the status it
+ * was read with; callers learn per payment whether their transition won.
+ */
+@Service
+@ConditionalOnProperty(prefix = "payment.group-commit", name = "enabled", havingValue = "true")
+public class GroupCommitStatusWriter {
+    
+    private static final Logger logger = LoggerFactory.getLogger(GroupCommitStatusWriter.class);
+    
+    static final String UPDATE_SQL =
+        "UPDATE payments SET status = ?, transaction_id = ?, error_message = ?, updated_at = ?, version = version + 1 " +
+        "WHERE id = ? AND status = ?";
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final GroupCommitProperties properties;
+    private final BlockingQueue<PendingUpdate> queue;
+    private final AtomicLong batchesCommitted = new AtomicLong();
+    
+    // Present unless payment.webhook.enabled=false
+    @Autowired(required = false)
+    private WebhookOutbox webhookOutbox;
+    
+    // Present only when a read replica is configured
+    @Autowired(required = false)
+    private RecentWriteTracker recentWrites;
+    
+    private volatile boolean running;
+    private Thread writerThread;
+    
+    public GroupCommitStatusWriter(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                                   GroupCommitProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.properties = properties;
+        this.queue = new ArrayBlockingQueue<>(properties.getQueueCapacity());
+    }
+    
+    @PostConstruct
+    public void start() {
+        running = true;
+        writerThread = new Thread(this::runWriter, "payment-group-commit");
+        writerThread.start();
+        logger.info("🔵 Group commit enabled - batch size {}, max delay {} ms",
+                   properties.getMaxBatchSize(), properties.getMaxDelayMs());
+    }
+    
+    /**
+     * Stop accepting updates, then flush everything already queued
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        writerThread.join();
+        // Anything that slipped in after the final flush is failed, never silently dropped
+        List<PendingUpdate> leftovers = new ArrayList<>();
+        queue.drainTo(leftovers);
+        leftovers.forEach(update -> update.committed().completeExceptionally(
+            new IllegalStateException("Status writer is shut down")));
+    }
+    
+    /**
+     * Move the payment to its final status, returning only once the change has been committed;
+     * false if the payment had left its current status in the meantime. On success the payment object
+     * reflects the stored row, as after {@link PaymentStateMachine#transition}.
+     */
+    public boolean write(Payment payment, PaymentStatus to) {
+        if (!running) {
+            throw new IllegalStateException("Status writer is shut down");
+        }
+        PaymentStateMachine.requireAllowed(payment.getStatus(), to);
+        PendingUpdate update = new PendingUpdate(payment, payment.getStatus(), to, new CompletableFuture<>());
+        try {
+            queue.put(update);
+            LocalDateTime committedAt = update.committed().get();
+            if (committedAt == null) {
+                return false;
+            }
+            payment.setStatus(to);
+            payment.setUpdatedAt(committedAt);
+            if (payment.getVersion() != null) {
+                payment.setVersion(payment.getVersion() + 1);
+            }
+            if (recentWrites != null) {
+                recentWrites.record(payment);
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for payment status commit", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Failed to persist payment status: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+    
+    /**
+     * Number of batches committed so far
+     */
+    public long getBatchesCommitted() {
+        return batchesCommitted.get();
+    }
+    
+    private void runWriter() {
+        List<PendingUpdate> batch = new ArrayList<>(properties.getMaxBatchSize());
+        long maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(properties.getMaxDelayMs());
+        
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingUpdate first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                
+                // Give concurrent payments a short window to join this commit
+                long deadline = System.nanoTime() + maxDelayNanos;
+                while (batch.size() < properties.getMaxBatchSize()) {
+                    queue.drainTo(batch, properties.getMaxBatchSize() - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= properties.getMaxBatchSize() || remaining <= 0) {
+                        break;
+                    }
+                    PendingUpdate next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                
+                flush(batch);
+            } catch (InterruptedException e) {
+                // Only stop() ends the loop, so queued updates are never abandoned
+                logger.warn("⚠️ Group commit writer interrupted, continuing until stopped");
+                if (!batch.isEmpty()) {
+                    flush(batch);
+                }
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+    
+    void flush(List<PendingUpdate> batch) {
+        // Microseconds, the precision of updated_at, so the acknowledged payment matches the row exactly
+        LocalDateTime committedAt = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        Timestamp now = Timestamp.valueOf(committedAt);
+        int[][] counts;
+        try {
+            counts = transactionTemplate.execute(status -> {
+                int[][] updated = jdbcTemplate.batchUpdate(UPDATE_SQL, batch, batch.size(), (ps, update) -> {
+                    Payment payment = update.payment();
+                    ps.setString(1, update.to().name());
+                    ps.setString(2, payment.getTransactionId());
+                    if (payment.getErrorMessage() != null) {
+                        ps.setString(3, payment.getErrorMessage());
+                    } else {
+                        ps.setNull(3, Types.VARCHAR);
+                    }
+                    ps.setTimestamp(4, now);
+                    ps.setLong(5, payment.getId());
+                    ps.setString(6, update.from().name());
+                });
+                BatchUpdateCounts.require(updated[0]);
+                if (webhookOutbox != null) {
+                    List<WebhookEvent> events = new ArrayList<>();
+                    for (int i = 0; i < batch.size(); i++) {
+                        if (BatchUpdateCounts.applied(updated[0][i])) {
+                            events.add(WebhookEvent.of(batch.get(i).payment(), batch.get(i).to()));
+                        }
+                    }
+                    webhookOutbox.enqueue(events);
+                }
+                return updated;
+            });
+        } catch (RuntimeException e) {
+            logger.error("❌ Group commit of {} status updates failed: {}", batch.size(), e.getMessage(), e);
+            batch.forEach(update -> update.committed().completeExceptionally(e));
+            return;
+        }
+        batchesCommitted.incrementAndGet();
+        // One sub-batch of batch.size() statements
+        int[] rows = counts[0];
+        for (int i = 0; i < batch.size(); i++) {
+            batch.get(i).committed().complete(BatchUpdateCounts.applied(rows[i]) ? committedAt : null);
+        }
+    }
+    
+    // Completes with the updated_at written, or null if the payment had left its status
+    record PendingUpdate(Payment payment, PaymentStatus from, PaymentStatus to,
+                         CompletableFuture<LocalDateTime> committed) {
+    }
+}
@@ -0,0 +1,85 @@
+package com.simplestore.paymentservice.service;
+
+import com.simplestore.paymentservice.dto.PaymentResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * Remembers the outcome of each Idempotency-Key so a retried request gets the original response
+ * instead of charging twice. A retry arriving while the first attempt is still running waits for it.
+ *
+ * State is local to the node; in a cluster all requests for a card are routed to one owner, so the
+ * same key always lands on the same cache.
+ */
+@Component
+public class IdempotencyCache {
+    
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final long ttlMillis;
+    
+    public IdempotencyCache(@Value("${payment.idempotency.ttl-seconds:3600}") long ttlSeconds) {
+        this.ttlMillis = ttlSeconds * 1000;
+    }
+    
+    /**
+     * Run the action once per key and return its (possibly cached) result
+     */
+    public PaymentResponse execute(String key, Supplier<PaymentResponse> action) {
+        Entry fresh = new Entry(new CompletableFuture<>(), System.currentTimeMillis() + ttlMillis);
+        Entry existing = entries.putIfAbsent(key, fresh);
+        if (existing != null && !existing.isExpired()) {
+            return await(existing.result());
+        }
+        if (existing != null && !entries.replace(key, existing, fresh)) {
+            // Another request replaced the expired entry first; follow it
+            return execute(key, action);
+        }
+        
+        try {
+            PaymentResponse response = action.get();
+            fresh.result().complete(response);
+            return response;
+        } catch (RuntimeException e) {
+            // Nothing was recorded for this key, so let a retry run it again
+            entries.remove(key, fresh);
+            fresh.result().completeExceptionally(e);
+            throw e;
+        }
+    }
+    
+    public int size() {
+        return entries.size();
+    }
+    
+    @Scheduled(fixedDelayString = "${payment.idempotency.purge-interval-ms:60000}")
+    public void purgeExpired() {
+        entries.values().removeIf(entry -> entry.isExpired() && entry.result().isDone());
+    }
+    
+    private static PaymentResponse await(CompletableFuture<PaymentResponse> result) {
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the original request", e);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException runtime
+                ? runtime
+                : new IllegalStateException(e.getCause());
+        }
+    }
+    
+    private record Entry(CompletableFuture<PaymentResponse> result, long expiresAt) {
+        
+        boolean isExpired() {
+            return System.currentTimeMillis() > expiresAt;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.simplestore.paymentservice.service;
+
+import com.simplestore.paymentservice.dto.AuthorizationSummary;
+import com.simplestore.paymentservice.entity.Payment;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * In-memory view of open authorization holds, ordered by expiry, with running totals per currency.
+ *
+ * Lookups by payment are O(1) and finding expired holds only touches the head of the expiry order,
+ * so the auto-void job never scans the payments table. The database stays the source of truth: the
+ * index is rebuilt from AUTHORIZED payments at startup.
+ */
+@Component
+public class OpenAuthorizationIndex {
+    
+    private static final Comparator<Hold> BY_EXPIRY =
+        Comparator.comparing(Hold::expiresAt).thenComparing(Hold::paymentId);
+    
+    private final Map<Long, Hold> byPayment = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListSet<Hold> byExpiry = new ConcurrentSkipListSet<>(BY_EXPIRY);
+    private final Map<String, BigDecimal> heldByCurrency = new ConcurrentHashMap<>();
+    
+    /**
+     * Track an authorized payment; ignored if it is already tracked
+     */
+    public synchronized void add(Payment payment) {
+        Hold hold = new Hold(payment.getId(), payment.getAuthorizedAmount(), payment.getCurrency(),
+                             payment.getAuthorizationExpiresAt());
+        if (byPayment.putIfAbsent(hold.paymentId(), hold) == null) {
+            byExpiry.add(hold);
+            heldByCurrency.merge(hold.currency(), hold.amount(), BigDecimal::add);
+        }
+    }
+    
+    /**
+     * Stop tracking a payment whose hold was captured or released
+     */
+    public synchronized void remove(Long paymentId) {
+        Hold hold = byPayment.remove(paymentId);
+        if (hold != null) {
+            byExpiry.remove(hold);
+            heldByCurrency.computeIfPresent(hold.currency(), (currency, total) -> {
+                BigDecimal remaining = total.subtract(hold.amount());
+                return remaining.signum() == 0 ? null : remaining;
+            });
+        }
+    }
+    
+    public boolean contains(Long paymentId) {
+        return byPayment.containsKey(paymentId);
+    }
+    
+    public int size() {
+        return byPayment.size();
+    }
+    
+    /**
+     * Payments whose hold expired at or before the given time, earliest first
+     */
+    public List<Long> expiredAt(LocalDateTime now, int limit) {
+        List<Long> expired = new ArrayList<>();
+        for (Hold hold : byExpiry) {
+            if (hold.expiresAt().isAfter(now) || expired.size() >= limit) {
+                break;
+            }
+            expired.add(hold.paymentId());
+        }
+        return expired;
+    }
+    
+    public synchronized AuthorizationSummary summary() {
+        LocalDateTime nextExpiry = byExpiry.isEmpty() ? null : byExpiry.first().expiresAt();
+        return new AuthorizationSummary(byPayment.size(), new TreeMap<>(heldByCurrency), nextExpiry);
+    }
+    
+    record Hold(Long paymentId, BigDecimal amount, String currency, LocalDateTime expiresAt) {
+    }
+}
@@ -0,0 +1,146 @@
+package com.simplestore.paymentservice.service;
+
+import com.simplestore.paymentservice.config.ArchiveProperties;
+import com.simplestore.paymentservice.entity.ArchivedPayment;
+import com.simplestore.paymentservice.entity.Payment;
+import com.simplestore.paymentservice.entity.PaymentStatus;
+import com.simplestore.paymentservice.repository.ArchivedPaymentRepository;
+import com.simplestore.paymentservice.repository.PaymentRepository;
+import com.simplestore.paymentservice.search.PaymentSearchIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Moves terminal-state payments past the retention window from the hot payments table to payments_archive.
+ *
+ * Work is done in small chunks, each in its own short transaction, with a pause in between so the
+ * job never holds long locks or starves request traffic.
+ */
+@Service
+public class PaymentArchivalService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(PaymentArchivalService.class);
+    
+    // Payments in these states never change again and are safe to archive
+    static final Set<PaymentStatus> TERMINAL_STATUSES =
+        EnumSet.of(PaymentStatus.COMPLETED, PaymentStatus.FAILED, PaymentStatus.DECLINED, PaymentStatus.CANCELLED,
+                   PaymentStatus.VOIDED);
+    
+    @Autowired
+    private PaymentRepository paymentRepository;
+    
+    @Autowired
+    private ArchivedPaymentRepository archivedPaymentRepository;
+    
+    @Autowired
+    private ArchiveExportService archiveExportService;
+    
+    @Autowired
+    private ArchiveProperties properties;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @Autowired
+    private PaymentSearchIndex searchIndex;
+    
+    /**
+     * Nightly archival run
+     */
+    @Scheduled(cron = "${payment.archive.cron:0 30 3 * * *}")
+    public void scheduledArchive() {
+        if (properties.isEnabled()) {
+            archiveExpiredPayments();
+        }
+    }
+    
+    /**
+     * Archive every eligible payment, chunk by chunk, and export what was moved
+     */
+    public long archiveExpiredPayments() {
+        LocalDateTime startedAt = LocalDateTime.now();
+        LocalDateTime cutoff = getArchiveCutoff();
+        
+        int moved = archiveChunk(cutoff, startedAt);
+        long archived = moved;
+        // A full chunk means there may be more; a short one means we're done
+        while (moved == properties.getChunkSize() && pauseBetweenChunks()) {
+            moved = archiveChunk(cutoff, startedAt);
+            archived += moved;
+        }
+        
+        if (archived > 0) {
+            logger.info("📦 Archived {} payments created before {}", archived, cutoff);
+            export(startedAt, LocalDateTime.now());
+        }
+        return archived;
+    }
+    
+    /**
+     * Payments created before this instant may live in the archive; read paths only consult it for older ranges
+     */
+    public LocalDateTime getArchiveCutoff() {
+        return LocalDateTime.now().minusDays(properties.getRetentionDays());
+    }
+    
+    /**
+     * Copy one chunk to the archive and delete it from the hot table in a single transaction
+     */
+    int archiveChunk(LocalDateTime cutoff, LocalDateTime archivedAt) {
+        List<Long> moved = transactionTemplate.execute(status -> {
+            List<Long> ids = paymentRepository.findArchivableIds(
+                TERMINAL_STATUSES, cutoff, PageRequest.of(0, properties.getChunkSize()));
+            if (ids.isEmpty()) {
+                return ids;
+            }
+            List<Payment> payments = paymentRepository.findAllById(ids);
+            archivedPaymentRepository.saveAll(payments.stream()
+                .map(payment -> ArchivedPayment.from(payment, archivedAt))
+                .toList());
+            paymentRepository.deleteAllByIdInBatch(ids);
+            return ids;
+        });
+        if (moved == null) {
+            return 0;
+        }
+        // The search index covers the hot table only
+        searchIndex.removeAll(moved);
+        return moved.size();
+    }
+    
+    private boolean pauseBetweenChunks() {
+        try {
+            Thread.sleep(properties.getPauseBetweenChunksMs());
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.warn("⚠️ Archival interrupted, remaining payments will be moved on the next run");
+            return false;
+        }
+    }
+    
+    private void export(LocalDateTime from, LocalDateTime to) {
+        if (properties.getExportDir() == null || properties.getExportDir().isBlank()) {
+            return;
+        }
+        try {
+            Path dir = archiveExportService.exportArchivedBetween(from, to, Path.of(properties.getExportDir()));
+            logger.info("💾 Exported archived payments to {}", dir);
+        } catch (IOException e) {
+            // The archive table is the source of truth; a failed export can be redone later
+            logger.error("❌ Failed to export archived payments: {}", e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package com.simplestore.paymentservice.service;
+
+import com.simplestore.paymentservice.cluster.ClusterForwarder;
+import com.simplestore.paymentservice.cluster.ClusterMembership;
+import com.simplestore.paymentservice.cluster.ClusterProtocol;
+import com.simplestore.paymentservice.config.ClusterProperties;
+import com.simplestore.paymentservice.dto.PaymentRequest;
+import com.simplestore.paymentservice.dto.PaymentResponse;
+import com.simplestore.paymentservice.entity.PaymentStatus;
+import com.simplestore.paymentservice.entity.ScheduledAction;
+import com.simplestore.paymentservice.scheduling.PaymentScheduler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Entry point for new payments, authorizations and scheduled charges: applies idempotency and velocity
+ * limits, and in a cluster sends each payment and authorization to the node that owns its card so that
+ * state for one card lives on exactly one node.
+ */
+@Service
+public class PaymentCoordinator {
+    
+    private static final Logger logger = LoggerFactory.getLogger(PaymentCoordinator.class);
+    
+    public static final String VELOCITY_DECLINED = "Too many payments for this card";
+    
+    @Autowired
+    private PaymentService paymentService;
+    
+    @Autowired
+    private AuthorizationService authorizationService;
+    
+    @Autowired
+    private IdempotencyCache idempotencyCache;
+    
+    @Autowired
+    private VelocityLimiter velocityLimiter;
+    
+    @Autowired
+    private CardVault cardVault;
+    
+    // Present only when payment.cluster.enabled=true
+    @Autowired(required = false)
+    private ClusterMembership membership;
+    
+    @Autowired(required = false)
+    private ClusterForwarder forwarder;
+    
+    // Resolved on use: the scheduler asks this coordinator about velocity when a charge runs
+    @Autowired
+    private ObjectProvider<PaymentScheduler> scheduler;
+    
+    /**
+     * What a request asks for; both place money on the card, so both go through the same checks
+     */
+    public enum Operation {
+        CHARGE(ClusterProtocol.PROCESS_PATH, ""),
+        AUTHORIZE(ClusterProtocol.AUTHORIZE_PATH, "authorize:");
+        
+        private final String forwardPath;
+        
+        // Keeps an authorization and a charge sent with the same Idempotency-Key apart
+        private final String keyPrefix;
+        
+        Operation(String forwardPath, String keyPrefix) {
+            this.forwardPath = forwardPath;
+            this.keyPrefix = keyPrefix;
+        }
+        
+        public String getForwardPath() {
+            return forwardPath;
+        }
+    }
+    
+    /**
+     * Process a payment, forwarding it to its owner node when that is not this node
+     */
+    public PaymentResponse process(PaymentRequest request, String idempotencyKey) {
+        return route(Operation.CHARGE, request, idempotencyKey);
+    }
+    
+    /**
+     * Place a hold, forwarding it to its owner node when that is not this node; a retried authorization
+     * with the same Idempotency-Key returns the original hold instead of placing a second one
+     */
+    public PaymentResponse authorize(PaymentRequest request, String idempotencyKey) {
+        return route(Operation.AUTHORIZE, request, idempotencyKey);
+    }
+    
+    private PaymentResponse route(Operation operation, PaymentRequest request, String idempotencyKey) {
+        if (membership == null) {
+            return handleLocally(operation, request, idempotencyKey);
+        }
+        
+        String fingerprint = fingerprintOf(request);
+        // One retry: an unreachable owner is taken off the ring, so the second attempt goes to the next node.
+        // Only a failed connect is retried; once the owner may have the payment, another node must not charge it too
+        for (int attempt = 0; attempt < 2; attempt++) {
+            String owner = membership.ownerOf(fingerprint);
+            if (owner == null || owner.equals(membership.localNodeId())) {
+                return handleLocally(operation, request, idempotencyKey);
+            }
+            ClusterProperties.Node node = membership.node(owner);
+            try {
+                return forwarder.forward(node, operation.getForwardPath(), request, idempotencyKey);
+            } catch (ClusterForwarder.UnreachableException e) {
+                logger.warn("⚠️ Forwarding to cluster node {} failed: {}", owner, e.getMessage());
+                membership.markDown(owner);
+            } catch (ClusterForwarder.RejectedException e) {
+                logger.warn("⚠️ Cluster node {} refused the payment: {}", owner, e.getMessage());
+                String reason = e.getStatus() == 503 ? "Owner node is overloaded, retry later"
+                                                     : "Owner node rejected the payment (" + e.getStatus() + ")";
+                return PaymentResponse.failure(PaymentMapper.generateTransactionId(), reason);
+            } catch (IOException e) {
+                logger.error("❌ No answer from cluster node {} after forwarding: {}", owner, e.getMessage());
+                return outcomeUnknown(request);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return outcomeUnknown(request);
+            }
+        }
+        return PaymentResponse.failure(PaymentMapper.generateTransactionId(), "Owner node for this card is unavailable");
+    }
+    
+    // The owner may or may not have processed the payment, so it is reported as still processing, not failed
+    private static PaymentResponse outcomeUnknown(PaymentRequest request) {
+        return new PaymentResponse(null, PaymentStatus.PROCESSING, "Payment outcome unknown", request.getAmount(),
+                                   "Owner node did not answer; retry with the same Idempotency-Key to get the outcome");
+    }
+    
+    /**
+     * Process on this node; forwarded requests always end up here so they are never forwarded twice
+     */
+    public PaymentResponse processLocally(PaymentRequest request, String idempotencyKey) {
+        return handleLocally(Operation.CHARGE, request, idempotencyKey);
+    }
+    
+    /**
+     * Authorize on this node; forwarded authorizations always end up here
+     */
+    public PaymentResponse authorizeLocally(PaymentRequest request, String idempotencyKey) {
+        return handleLocally(Operation.AUTHORIZE, request, idempotencyKey);
+    }
+    
+    private PaymentResponse handleLocally(Operation operation, PaymentRequest request, String idempotencyKey) {
+        Function<PaymentRequest, PaymentResponse> action = operation == Operation.AUTHORIZE
+            ? authorizationService::authorize
+            : paymentService::processPayment;
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return executeChecked(request, action);
+        }
+        return idempotencyCache.execute(operation.keyPrefix + idempotencyKey, () -> executeChecked(request, action));
+    }
+    
+    private PaymentResponse executeChecked(PaymentRequest request, Function<PaymentRequest, PaymentResponse> action) {
+        if (!velocityLimiter.tryAcquire(fingerprintOf(request))) {
+            return new PaymentResponse(PaymentMapper.generateTransactionId(), PaymentStatus.DECLINED,
+                                       "Payment declined", request.getAmount(), VELOCITY_DECLINED);
+        }
+        return action.apply(request);
+    }
+    
+    /**
+     * Schedule a charge for later. A retry with the same Idempotency-Key gets the action already scheduled,
+     * even after a restart; otherwise the card must be within the velocity limit, which the charge counts
+     * against now and again when it runs.
+     *
+     * @throws IllegalArgumentException if the card is over the velocity limit or the request is invalid
+     */
+    public ScheduledAction scheduleCharge(PaymentRequest request, LocalDateTime executeAt, String idempotencyKey) {
+        PaymentScheduler paymentScheduler = scheduler.getObject();
+        String key = idempotencyKey == null || idempotencyKey.isBlank() ? null : idempotencyKey;
+        if (key != null) {
+            Optional<ScheduledAction> existing = paymentScheduler.findByIdempotencyKey(key);
+            if (existing.isPresent()) {
+                return existing.get();
+            }
+        }
+        String fingerprint = fingerprintOf(request);
+        if (!velocityLimiter.tryAcquire(fingerprint)) {
+            throw new IllegalArgumentException(VELOCITY_DECLINED);
+        }
+        return paymentScheduler.scheduleCharge(request, executeAt, key, fingerprint);
+    }
+    
+    /**
+     * Whether a scheduled charge for the card may run now; charges scheduled without a fingerprint always may
+     */
+    public boolean admitScheduledCharge(String cardFingerprint) {
+        return cardFingerprint == null || velocityLimiter.tryAcquire(cardFingerprint);
+    }
+    
+    // A token resolves to the same fingerprint as its card, so both ways of paying share limits and owner
+    private String fingerprintOf(PaymentRequest request) {
+        if (request.getCardToken() != null) {
+            return cardVault.resolve(request.getCardToken()).fingerprint();
+        }
+        return cardVault.fingerprint(request.getCardNumber());
+    }
+}
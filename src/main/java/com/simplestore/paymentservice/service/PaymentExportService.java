@@ -0,0 +1,88 @@
+package com.simplestore.paymentservice.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.simplestore.paymentservice.entity.Payment;
+import com.simplestore.paymentservice.repository.PaymentRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Streams payments to bulk read clients as NDJSON, Smile or CBOR without materializing the full result
+ */
+@Service
+public class PaymentExportService {
+    
+    private final PaymentRepository paymentRepository;
+    private final ObjectMapper jsonMapper;
+    private final ObjectMapper smileMapper;
+    private final ObjectMapper cborMapper;
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    @Autowired
+    public PaymentExportService(PaymentRepository paymentRepository, Jackson2ObjectMapperBuilder mapperBuilder) {
+        this.paymentRepository = paymentRepository;
+        this.jsonMapper = mapperBuilder.build();
+        this.smileMapper = mapperBuilder.factory(new SmileFactory()).build();
+        this.cborMapper = mapperBuilder.factory(new CBORFactory()).build();
+    }
+    
+    /**
+     * Write every payment to the stream in the given format
+     */
+    @Transactional(readOnly = true)
+    public long exportAll(ExportFormat format, OutputStream out) throws IOException {
+        try (Stream<Payment> payments = paymentRepository.streamAll()) {
+            return write(payments.peek(entityManager::detach), format, out);
+        }
+    }
+    
+    /**
+     * Write payments as a sequence of root-level values; NDJSON separates them with newlines
+     */
+    public long write(Stream<Payment> payments, ExportFormat format, OutputStream out) throws IOException {
+        long count = 0;
+        try (SequenceWriter writer = writerFor(format, out)) {
+            Iterator<Payment> iterator = payments.iterator();
+            while (iterator.hasNext()) {
+                writer.write(iterator.next());
+                count++;
+            }
+        }
+        return count;
+    }
+    
+    /**
+     * Mapper used to read back a given export format
+     */
+    public ObjectMapper mapperFor(ExportFormat format) {
+        switch (format) {
+            case SMILE:
+                return smileMapper;
+            case CBOR:
+                return cborMapper;
+            default:
+                return jsonMapper;
+        }
+    }
+    
+    private SequenceWriter writerFor(ExportFormat format, OutputStream out) throws IOException {
+        if (format == ExportFormat.NDJSON) {
+            return jsonMapper.writer().withRootValueSeparator("\n").writeValues(out);
+        }
+        return mapperFor(format).writer().writeValues(out);
+    }
+}
@@ -0,0 +1,76 @@
+package com.simplestore.paymentservice.service;
+
+import com.simplestore.paymentservice.dto.PaymentRequest;
+import com.simplestore.paymentservice.entity.Payment;
+import com.simplestore.paymentservice.entity.PaymentStatus;
+import com.simplestore.paymentservice.money.Money;
+
+import java.util.UUID;
+
+/**
+ * Business rules for turning a payment request into a stored payment, shared by the MVC and reactive stacks
+ */
+public final class PaymentMapper {
+
+    private PaymentMapper() {
+    }
+
+    /**
+     * Create payment entity from request
+     */
+    public static Payment fromRequest(PaymentRequest request) {
+        Payment payment = new Payment();
+        payment.setCardholderName(request.getCardholderName());
+        payment.setCardNumber(maskCardNumber(request.getCardNumber()));
+        payment.setExpiryDate(request.getExpiryDate());
+        payment.setCvv("***"); // Don't store actual CVV
+        payment.setAmount(request.getAmount());
+        payment.setCurrency(request.getCurrency() != null ? request.getCurrency() : Money.DEFAULT_CURRENCY.getCurrencyCode());
+        // Stored right before the gateway call, so it starts out in flight
+        payment.setStatus(PaymentStatus.PROCESSING);
+        payment.setTransactionId(generateTransactionId());
+        return payment;
+    }
+
+    /**
+     * Create payment entity from a request that pays with a vaulted card
+     */
+    public static Payment fromVaultedCard(PaymentRequest request, VaultedCard card) {
+        Payment payment = new Payment(card.cardholderName(), maskCardNumber(card.cardNumber()), card.expiryDate(),
+                                      "***", request.getAmount());
+        payment.setCurrency(request.getCurrency() != null ? request.getCurrency() : Money.DEFAULT_CURRENCY.getCurrencyCode());
+        payment.setStatus(PaymentStatus.PROCESSING);
+        payment.setTransactionId(generateTransactionId());
+        return payment;
+    }
+    
+    /**
+     * New in-flight payment charging the same card and amount as a declined or failed one
+     */
+    public static Payment retryOf(Payment original) {
+        Payment payment = new Payment(original.getCardholderName(), original.getCardNumber(),
+                                      original.getExpiryDate(), original.getCvv(), original.getAmount());
+        payment.setCurrency(original.getCurrency());
+        payment.setStatus(PaymentStatus.PROCESSING);
+        payment.setTransactionId(generateTransactionId());
+        return payment;
+    }
+
+    /**
+     * Generate unique transaction ID
+     */
+    public static String generateTransactionId() {
+        return "TXN-" + System.currentTimeMillis() + "-" +
+               UUID.randomUUID().toString().substring(0, 8).toUpperCase();
+    }
+
+    /**
+     * Mask card number for security (show only last 4 digits)
+     */
+    public static String maskCardNumber(String cardNumber) {
+        if (cardNumber == null || cardNumber.length() < 4) {
+            return cardNumber;
+        }
+        return "*".repeat(cardNumber.length() - 4) + cardNumber.substring(cardNumber.length() - 4);
+    }
+}
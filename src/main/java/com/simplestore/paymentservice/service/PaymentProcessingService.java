@@ -1,40 +1,230 @@
 package com.simplestore.paymentservice.service;
+import com.simplestore.paymentservice.config.GatewaySimulatorProperties;
+import com.simplestore.paymentservice.diagnostics.GatewayCallEvent;
 import com.simplestore.paymentservice.dto.PaymentResponse;
 import com.simplestore.paymentservice.entity.Payment;
 import com.simplestore.paymentservice.entity.PaymentStatus;
+import com.simplestore.paymentservice.money.Money;
+import com.simplestore.paymentservice.simulator.LatencyModel;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Currency;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.Random;
 
 @Service
 public class PaymentProcessingService {
     
-    private final Random random = new Random();
+    // Risk thresholds in base-currency cents
+    private static final long HIGH_AMOUNT_MINOR = 100_000L;
+    private static final long INSUFFICIENT_FUNDS_CHECK_MINOR = 50_000L;
+    
+    // Key prefix of remembered capture outcomes
+    private static final String CAPTURE_PREFIX = "CAP-";
+    
+    // Outcomes the simulated gateway remembers for status queries, oldest dropped first
+    private static final int REMEMBERED_OUTCOMES = 100_000;
+    
+    private final GatewaySimulatorProperties properties;
+    private final FxRateService fxRateService;
+    private final Random random;
+    private final LatencyModel latencyModel;
+    private final Map<String, PaymentResponse> outcomes = Collections.synchronizedMap(
+        new LinkedHashMap<>(16, 0.75f, false) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, PaymentResponse> eldest) {
+                return size() > REMEMBERED_OUTCOMES;
+            }
+        });
+    
+    public PaymentProcessingService() {
+        this(new GatewaySimulatorProperties());
+    }
+    
+    public PaymentProcessingService(GatewaySimulatorProperties properties) {
+        this(properties, new FxRateService());
+    }
+    
+    @Autowired
+    public PaymentProcessingService(GatewaySimulatorProperties properties, FxRateService fxRateService) {
+        this.properties = properties;
+        this.fxRateService = fxRateService;
+        this.random = properties.getSeed() != null ? new Random(properties.getSeed()) : new Random();
+        this.latencyModel = LatencyModel.from(properties.getLatency(), random);
+    }
     
     /**
      * Process payment through payment gateway (simulated)
      */
     public PaymentResponse processPayment(Payment payment) {
+        GatewayCallEvent event = new GatewayCallEvent();
+        event.begin();
+        PaymentResponse response;
         try {
             // Simulate processing delay
-            Thread.sleep(1000 + random.nextInt(2000));
-            
+            simulateLatency(nextLatencyMillis());
+            response = completePayment(payment);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            response = PaymentResponse.failure(payment.getTransactionId(), "Payment processing interrupted");
+        }
+        recordCall(event, "charge", payment.getTransactionId(), 1, response.getStatus());
+        return response;
+    }
+    
+    /**
+     * Simulated latency of the next gateway call, for callers that wait without blocking a thread
+     */
+    public long nextLatencyMillis() {
+        return latencyModel.nextLatencyMillis();
+    }
+    
+    /**
+     * Produce the gateway outcome for a payment once its latency has elapsed
+     */
+    public PaymentResponse completePayment(Payment payment) {
+        try {
             // Simulate payment gateway response
             boolean isSuccessful = simulatePaymentGateway(payment);
             
+            PaymentResponse response;
             if (isSuccessful) {
-                return PaymentResponse.success(payment.getTransactionId(), payment.getAmount());
+                response = PaymentResponse.success(payment.getTransactionId(), payment.getAmount());
+                response.setCurrency(payment.getCurrency());
             } else {
-                return PaymentResponse.failure(payment.getTransactionId(), "Payment declined by bank");
+                response = PaymentResponse.failure(payment.getTransactionId(), "Payment declined by bank");
             }
+            outcomes.put(payment.getTransactionId(), response);
+            return response;
             
+        } catch (Exception e) {
+            return PaymentResponse.failure(payment.getTransactionId(), "Payment processing failed: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Ask the gateway what happened to a payment whose outcome was never recorded;
+     * empty if the gateway never decided it (so it was not charged)
+     */
+    public Optional<PaymentResponse> queryPaymentOutcome(Payment payment) {
+        try {
+            simulateLatency(nextLatencyMillis());
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
-            return PaymentResponse.failure(payment.getTransactionId(), "Payment processing interrupted");
+            throw new IllegalStateException("Gateway status query interrupted", e);
+        }
+        return Optional.ofNullable(outcomes.get(payment.getTransactionId()));
+    }
+    
+    /**
+     * Place a hold for the payment amount without capturing it
+     */
+    public PaymentResponse authorizePayment(Payment payment) {
+        GatewayCallEvent event = new GatewayCallEvent();
+        event.begin();
+        PaymentResponse response = authorize(payment);
+        recordCall(event, "authorize", payment.getTransactionId(), 1, response.getStatus());
+        return response;
+    }
+    
+    private PaymentResponse authorize(Payment payment) {
+        try {
+            simulateLatency(nextLatencyMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return PaymentResponse.failure(payment.getTransactionId(), "Authorization interrupted");
+        }
+        
+        try {
+            PaymentResponse response;
+            if (simulatePaymentGateway(payment)) {
+                response = PaymentResponse.authorized(payment.getTransactionId(), payment.getAmount());
+                response.setCurrency(payment.getCurrency());
+            } else {
+                response = PaymentResponse.failure(payment.getTransactionId(), "Payment declined by bank");
+            }
+            outcomes.put(payment.getTransactionId(), response);
+            return response;
+            
         } catch (Exception e) {
-            return PaymentResponse.failure(payment.getTransactionId(), "Payment processing failed: " + e.getMessage());
+            return PaymentResponse.failure(payment.getTransactionId(), "Authorization failed: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Capture authorized payments, each for its current amount, in one gateway call;
+     * responses are in the order of the payments
+     */
+    public List<PaymentResponse> capturePayments(List<Payment> payments) {
+        GatewayCallEvent event = new GatewayCallEvent();
+        event.begin();
+        String failure = null;
+        try {
+            // One round trip for the whole batch
+            simulateLatency(nextLatencyMillis());
+            if (random.nextDouble() < properties.getNetworkErrorRate()) {
+                failure = "Capture failed: Network timeout";
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failure = "Capture interrupted";
+        }
+        
+        List<PaymentResponse> responses = new ArrayList<>(payments.size());
+        for (Payment payment : payments) {
+            if (failure != null) {
+                responses.add(PaymentResponse.failure(payment.getTransactionId(), failure));
+                continue;
+            }
+            // Capturing against a valid hold does not decline
+            PaymentResponse response = PaymentResponse.success(payment.getTransactionId(), payment.getAmount());
+            response.setCurrency(payment.getCurrency());
+            outcomes.put(CAPTURE_PREFIX + payment.getTransactionId(), response);
+            responses.add(response);
         }
+        recordCall(event, "capture", payments.isEmpty() ? null : payments.get(0).getTransactionId(), payments.size(),
+                   failure == null ? PaymentStatus.COMPLETED : PaymentStatus.FAILED);
+        return responses;
+    }
+    
+    /**
+     * Ask the gateway whether a capture that was never recorded went through; empty if it did not
+     */
+    public Optional<PaymentResponse> queryCaptureOutcome(Payment payment) {
+        try {
+            simulateLatency(nextLatencyMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Gateway status query interrupted", e);
+        }
+        return Optional.ofNullable(outcomes.get(CAPTURE_PREFIX + payment.getTransactionId()));
+    }
+    
+    /**
+     * Release an authorization hold
+     */
+    public PaymentResponse voidAuthorization(Payment payment) {
+        GatewayCallEvent event = new GatewayCallEvent();
+        event.begin();
+        PaymentResponse response;
+        try {
+            // Voids take about half as long as charges, like refunds
+            simulateLatency(latencyModel.nextLatencyMillis() / 2);
+            response = new PaymentResponse(payment.getTransactionId(), PaymentStatus.VOIDED, "Authorization voided",
+                                           payment.getAmount());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            response = PaymentResponse.failure(payment.getTransactionId(), "Void interrupted");
+        }
+        recordCall(event, "void", payment.getTransactionId(), 1, response.getStatus());
+        return response;
     }
     
     /**
@@ -43,10 +233,12 @@ public class PaymentProcessingService {
      */
     private boolean simulatePaymentGateway(Payment payment) {
         // Simulate various failure scenarios
+        long amountMinor = fxRateService.toBase(
+            Money.of(payment.getAmount(), Currency.getInstance(payment.getCurrency()))).getMinorUnits();
         
         // 1. High amount transactions have higher failure rate
-        if (payment.getAmount().compareTo(new BigDecimal("1000")) > 0) {
-            return random.nextDouble() > 0.3; // 30% failure rate for high amounts
+        if (amountMinor > HIGH_AMOUNT_MINOR) {
+            return random.nextDouble() >= properties.getHighAmountFailureRate();
         }
         
         // 2. Test card numbers (for demo purposes)
@@ -60,19 +252,19 @@ public class PaymentProcessingService {
         }
         
         // 3. Simulate network issues (rare)
-        if (random.nextDouble() < 0.05) {
+        if (random.nextDouble() < properties.getNetworkErrorRate()) {
             throw new RuntimeException("Network timeout");
         }
         
         // 4. Simulate bank declines (random)
-        if (random.nextDouble() < 0.15) {
-            return false; // 15% decline rate
+        if (random.nextDouble() < properties.getDeclineRate()) {
+            return false;
         }
         
         // 5. Simulate insufficient funds for certain amounts
-        if (payment.getAmount().compareTo(new BigDecimal("500")) > 0 && 
-            random.nextDouble() < 0.2) {
-            return false; // 20% chance of insufficient funds for amounts > $500
+        if (amountMinor > INSUFFICIENT_FUNDS_CHECK_MINOR && 
+            random.nextDouble() < properties.getInsufficientFundsRate()) {
+            return false; // Insufficient funds for amounts > $500
         }
         
         // Default: successful payment
@@ -84,11 +276,11 @@ public class PaymentProcessingService {
      */
     public PaymentResponse processRefund(Payment originalPayment, BigDecimal refundAmount) {
         try {
-            // Simulate refund processing delay
-            Thread.sleep(500 + random.nextInt(1000));
+            // Simulate refund processing delay (refunds take about half as long as charges)
+            simulateLatency(latencyModel.nextLatencyMillis() / 2);
             
             // Simulate refund success (higher success rate than payments)
-            boolean isSuccessful = random.nextDouble() > 0.05; // 95% success rate
+            boolean isSuccessful = random.nextDouble() >= properties.getRefundFailureRate();
             
             if (isSuccessful) {
                 return PaymentResponse.success(
@@ -111,6 +303,30 @@ public class PaymentProcessingService {
         }
     }
     
+    /**
+     * Finish a gateway call event; the fields are only filled in when a recording wants the event
+     */
+    private static void recordCall(GatewayCallEvent event, String operation, String transactionId, int payments,
+                                   PaymentStatus status) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.operation = operation;
+            event.transactionId = transactionId;
+            event.payments = payments;
+            event.status = status != null ? status.name() : null;
+            event.commit();
+        }
+    }
+    
+    /**
+     * Sleep for the simulated gateway latency; zero latency skips the sleep entirely
+     */
+    private void simulateLatency(long latencyMillis) throws InterruptedException {
+        if (latencyMillis > 0) {
+            Thread.sleep(latencyMillis);
+        }
+    }
+    
     /**
      * Validate payment method
      */
@@ -0,0 +1,201 @@
+package com.simplestore.paymentservice.service;
+
+import com.simplestore.paymentservice.admission.AdmissionFilter;
+import com.simplestore.paymentservice.config.RecoveryProperties;
+import com.simplestore.paymentservice.dto.PaymentResponse;
+import com.simplestore.paymentservice.entity.Payment;
+import com.simplestore.paymentservice.entity.PaymentStatus;
+import com.simplestore.paymentservice.repository.PaymentRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Finalizes payments left PROCESSING or CAPTURING by a crash during the gateway call.
+ *
+ * Payments that have not changed for longer than the stale threshold are read in (created_at, id) order in chunks, using the status/created_at index. For each
+ * one the gateway is asked for the outcome, with at most {@code parallelism} queries in flight and at
+ * most {@code maxPerSecond} per second, and the outcome is applied as a normal status transition, so a
+ * request thread that finishes late cannot overwrite it (or be overwritten). The sweeper pauses while
+ * live traffic is heavy.
+ */
+@Service
+public class PaymentRecoveryService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(PaymentRecoveryService.class);
+    
+    static final String ABANDONED_MESSAGE = "Abandoned in flight and never received by the gateway";
+    
+    // Statuses in which a payment waits on the gateway
+    static final List<PaymentStatus> IN_FLIGHT_STATUSES = List.of(PaymentStatus.PROCESSING, PaymentStatus.CAPTURING);
+    
+    private static final LocalDateTime BEGINNING = LocalDateTime.of(1970, 1, 1, 0, 0);
+    
+    @Autowired
+    private PaymentRepository paymentRepository;
+    
+    @Autowired
+    private PaymentProcessingService processingService;
+    
+    @Autowired
+    private PaymentStateMachine stateMachine;
+    
+    @Autowired
+    private AuthorizationService authorizationService;
+    
+    @Autowired
+    private OpenAuthorizationIndex openAuthorizations;
+    
+    @Autowired
+    private RecoveryProperties properties;
+    
+    // Absent on the reactive stack
+    @Autowired(required = false)
+    private AdmissionFilter admissionFilter;
+    
+    /**
+     * Periodic sweep
+     */
+    @Scheduled(fixedDelayString = "${payment.recovery.interval-ms:60000}",
+               initialDelayString = "${payment.recovery.initial-delay-ms:30000}")
+    public void scheduledRecovery() {
+        if (properties.isEnabled()) {
+            recoverStalePayments();
+        }
+    }
+    
+    /**
+     * Reconcile every payment that has been PROCESSING or CAPTURING for longer than the stale threshold
+     */
+    public RecoveryResult recoverStalePayments() {
+        LocalDateTime cutoff = LocalDateTime.now().minusSeconds(properties.getStaleAfterSeconds());
+        long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / properties.getMaxPerSecond());
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(properties.getParallelism(), runnable -> {
+            Thread thread = new Thread(runnable, "payment-recovery-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        
+        int scanned = 0;
+        int completed = 0;
+        int failed = 0;
+        int authorized = 0;
+        int unresolved = 0;
+        long nextSlot = System.nanoTime();
+        try {
+            for (PaymentStatus inFlight : IN_FLIGHT_STATUSES) {
+                LocalDateTime afterCreatedAt = BEGINNING;
+                Long afterId = 0L;
+                while (true) {
+                    List<Payment> chunk = paymentRepository.findStale(inFlight, cutoff,
+                        afterCreatedAt, afterId, PageRequest.of(0, properties.getChunkSize()));
+                    if (chunk.isEmpty()) {
+                        break;
+                    }
+                    Payment last = chunk.get(chunk.size() - 1);
+                    afterCreatedAt = last.getCreatedAt();
+                    afterId = last.getId();
+                    
+                    List<Future<PaymentStatus>> outcomes = new ArrayList<>(chunk.size());
+                    for (Payment payment : chunk) {
+                        yieldToLiveTraffic();
+                        // Pace submissions so the sweep never exceeds maxPerSecond
+                        long wait = nextSlot - System.nanoTime();
+                        if (wait > 0) {
+                            TimeUnit.NANOSECONDS.sleep(wait);
+                        }
+                        nextSlot = Math.max(nextSlot, System.nanoTime()) + intervalNanos;
+                        outcomes.add(executor.submit(() -> reconcile(payment)));
+                    }
+                    
+                    for (Future<PaymentStatus> outcome : outcomes) {
+                        PaymentStatus status = outcome.get();
+                        scanned++;
+                        if (status == PaymentStatus.COMPLETED) {
+                            completed++;
+                        } else if (status == PaymentStatus.AUTHORIZED) {
+                            authorized++;
+                        } else if (status != null) {
+                            failed++;
+                        } else {
+                            unresolved++;
+                        }
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.warn("⚠️ Payment recovery interrupted, remaining payments will be handled on the next run");
+        } catch (ExecutionException e) {
+            logger.error("❌ Payment recovery failed: {}", e.getCause().getMessage(), e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        
+        RecoveryResult result = new RecoveryResult(scanned, completed, failed, authorized, unresolved);
+        if (scanned > 0) {
+            logger.info("🔍 Recovered stale payments: {}", result);
+        }
+        return result;
+    }
+    
+    /**
+     * Look up one payment's outcome at the gateway and apply it; null if it stays unresolved
+     */
+    PaymentStatus reconcile(Payment payment) {
+        try {
+            if (payment.getStatus() == PaymentStatus.CAPTURING) {
+                return authorizationService.reconcileCapture(payment);
+            }
+            Optional<PaymentResponse> outcome = processingService.queryPaymentOutcome(payment);
+            PaymentStatus target;
+            if (outcome.isPresent()) {
+                target = outcome.get().getStatus();
+                payment.setErrorMessage(outcome.get().getErrorMessage());
+            } else {
+                // The gateway never decided it, so nothing was charged
+                target = PaymentStatus.FAILED;
+                payment.setErrorMessage(ABANDONED_MESSAGE);
+            }
+            if (stateMachine.transition(payment, target)) {
+                if (target == PaymentStatus.AUTHORIZED) {
+                    openAuthorizations.add(payment);
+                }
+                return target;
+            }
+            // The original request finished after all; its outcome stands
+            return null;
+        } catch (RuntimeException e) {
+            logger.warn("⚠️ Could not reconcile payment {}: {}", payment.getId(), e.getMessage());
+            return null;
+        }
+    }
+    
+    private void yieldToLiveTraffic() throws InterruptedException {
+        while (admissionFilter != null && admissionFilter.isBusy(properties.getYieldAboveLoad())) {
+            Thread.sleep(100);
+        }
+    }
+    
+    /**
+     * Counts from one sweep; authorized counts open holds (including captures that never reached the gateway),
+     * unresolved payments are retried on the next one
+     */
+    public record RecoveryResult(int scanned, int completed, int failed, int authorized, int unresolved) {
+    }
+}
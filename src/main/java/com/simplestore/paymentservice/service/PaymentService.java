@@ -1,20 +1,38 @@
 package com.simplestore.paymentservice.service;
 
+import com.simplestore.paymentservice.config.ReplicaRoutingDataSource;
+import com.simplestore.paymentservice.diagnostics.RepositoryCallEvent;
+import com.simplestore.paymentservice.diagnostics.ValidationEvent;
+import com.simplestore.paymentservice.dto.CurrencyTotal;
 import com.simplestore.paymentservice.dto.PaymentRequest;
 import com.simplestore.paymentservice.dto.PaymentResponse;
+import com.simplestore.paymentservice.dto.PaymentSearchCriteria;
+import com.simplestore.paymentservice.dto.PaymentSearchPage;
+import com.simplestore.paymentservice.dto.PaymentSummary;
 import com.simplestore.paymentservice.entity.Payment;
 import com.simplestore.paymentservice.entity.PaymentStatus;
+import com.simplestore.paymentservice.entity.ArchivedPayment;
+import com.simplestore.paymentservice.repository.ArchivedPaymentRepository;
+import com.simplestore.paymentservice.repository.PaymentProjectionRepository;
 import com.simplestore.paymentservice.repository.PaymentRepository;
+import com.simplestore.paymentservice.search.PaymentSearchIndex;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
-import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @Transactional
@@ -29,59 +47,231 @@ public class PaymentService {
     @Autowired
     private PaymentProcessingService processingService;
     
+    @Autowired
+    private ArchivedPaymentRepository archivedPaymentRepository;
+    
+    @Autowired
+    private PaymentArchivalService archivalService;
+    
+    @Autowired
+    private PaymentStateMachine stateMachine;
+    
+    @Autowired
+    private CardVault cardVault;
+    
+    // Present only when payment.group-commit.enabled=true
+    @Autowired(required = false)
+    private GroupCommitStatusWriter groupCommitWriter;
+    
+    @Autowired
+    private PaymentSearchIndex searchIndex;
+    
+    // Present only when a read replica is configured
+    @Autowired(required = false)
+    private RecentWriteTracker recentWrites;
+    
     /**
      * Process a payment request
+     *
+     * Runs without a surrounding transaction: the PROCESSING row is committed before the gateway call
+     * (so no transaction is held open while waiting on it) and the final status is committed separately
+     * as a conditional transition, either directly or through the group-commit writer.
      */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public PaymentResponse processPayment(PaymentRequest request) {
         try {
-            // Validate payment request
-            validationService.validatePaymentRequest(request);
-            
-            // Create payment entity
-            Payment payment = createPaymentFromRequest(request);
+            Payment payment = null;
+            ValidationEvent validation = new ValidationEvent();
+            validation.begin();
+            try {
+                if (request.getCardToken() != null) {
+                    // Vaulted card: validated when it was stored, and usually resolved from memory
+                    VaultedCard card = cardVault.resolve(request.getCardToken());
+                    validationService.validateTokenPayment(request);
+                    payment = PaymentMapper.fromVaultedCard(request, card);
+                } else {
+                    // Validate payment request
+                    validationService.validatePaymentRequest(request);
+                    
+                    // Create payment entity
+                    payment = PaymentMapper.fromRequest(request);
+                }
+            } finally {
+                validation.end();
+                if (validation.shouldCommit()) {
+                    validation.cardToken = request.getCardToken() != null;
+                    validation.valid = payment != null;
+                    validation.transactionId = payment != null ? payment.getTransactionId() : null;
+                    validation.commit();
+                }
+            }
             
             // Save payment to database
+            RepositoryCallEvent insert = new RepositoryCallEvent();
+            insert.begin();
             payment = paymentRepository.save(payment);
-            
-            // Process payment (simulate payment gateway)
-            PaymentResponse response = processingService.processPayment(payment);
-            
-            // Update payment status based on response
-            payment.setStatus(response.getStatus());
-            payment.setTransactionId(response.getTransactionId());
-            
-            if (response.getStatus() == PaymentStatus.FAILED) {
-                payment.setErrorMessage(response.getErrorMessage());
+            recordRepositoryCall(insert, "insert", payment);
+            if (recentWrites != null) {
+                recentWrites.record(payment);
             }
             
-            paymentRepository.save(payment);
-            
-            return response;
+            return executePayment(payment);
             
         } catch (Exception e) {
             // Log error and return failure response
-            String transactionId = generateTransactionId();
+            String transactionId = PaymentMapper.generateTransactionId();
             return PaymentResponse.failure(transactionId, e.getMessage());
         }
     }
     
     /**
-     * Get payment by ID
+     * Send a payment stored as PROCESSING to the gateway and record the outcome
      */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public PaymentResponse executePayment(Payment payment) {
+        // Process payment (simulate payment gateway)
+        PaymentResponse response = processingService.processPayment(payment);
+        
+        // Record the gateway outcome
+        payment.setTransactionId(response.getTransactionId());
+        
+        if (response.getStatus() == PaymentStatus.FAILED) {
+            payment.setErrorMessage(response.getErrorMessage());
+        }
+        
+        boolean applied;
+        RepositoryCallEvent update = new RepositoryCallEvent();
+        update.begin();
+        if (groupCommitWriter != null) {
+            // Blocks until the batch holding this update has committed
+            applied = groupCommitWriter.write(payment, response.getStatus());
+            recordRepositoryCall(update, "groupCommit", payment);
+        } else {
+            applied = stateMachine.transition(payment, response.getStatus());
+            recordRepositoryCall(update, "transition", payment);
+        }
+        
+        if (!applied) {
+            // Someone else (e.g. recovery) finalized the payment first; their outcome stands
+            Long id = payment.getId();
+            return ReplicaRoutingDataSource.onPrimary(() -> paymentRepository.findById(id))
+                .map(current -> new PaymentResponse(current.getTransactionId(), current.getStatus(),
+                                                    "Payment already finalized", current.getAmount()))
+                .orElse(response);
+        }
+        
+        return response;
+    }
+    
+    // The fields are only filled in when a recording wants the event
+    private static void recordRepositoryCall(RepositoryCallEvent event, String operation, Payment payment) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.operation = operation;
+            event.transactionId = payment.getTransactionId();
+            event.commit();
+        }
+    }
+    
+    /**
+     * Cancel a payment that has not been sent yet, or void a completed one
+     *
+     * @throws IllegalStateException if the payment's status does not allow it or it changed concurrently
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Optional<Payment> cancelPayment(Long id) {
+        // Read from the primary: the replica may still show a status the payment has already left
+        Optional<Payment> payment = ReplicaRoutingDataSource.onPrimary(() -> paymentRepository.findById(id));
+        payment.ifPresent(current -> {
+            if (!stateMachine.transition(current, PaymentStatus.CANCELLED)) {
+                throw new IllegalStateException("Payment " + id + " was changed concurrently");
+            }
+        });
+        return payment;
+    }
+    
+    /**
+     * Get payment by ID, falling back to the archive
+     */
+    @Transactional(readOnly = true)
     public Optional<Payment> getPaymentById(Long id) {
-        return paymentRepository.findById(id);
+        if (recentWrites != null && recentWrites.isRecent(id)) {
+            // Just written: the replica may not have it yet
+            return ReplicaRoutingDataSource.onPrimary(() -> findPaymentById(id));
+        }
+        return findPaymentById(id);
+    }
+    
+    private Optional<Payment> findPaymentById(Long id) {
+        Optional<Payment> payment = paymentRepository.findById(id);
+        if (payment.isPresent()) {
+            return payment;
+        }
+        return archivedPaymentRepository.findById(id).map(ArchivedPayment::toPayment);
     }
     
     /**
-     * Get payment by transaction ID
+     * Get payment by transaction ID, falling back to the archive
      */
+    @Transactional(readOnly = true)
     public Optional<Payment> getPaymentByTransactionId(String transactionId) {
-        return paymentRepository.findByTransactionId(transactionId);
+        if (recentWrites != null && recentWrites.isRecent(transactionId)) {
+            return ReplicaRoutingDataSource.onPrimary(() -> findPaymentByTransactionId(transactionId));
+        }
+        return findPaymentByTransactionId(transactionId);
+    }
+    
+    private Optional<Payment> findPaymentByTransactionId(String transactionId) {
+        Optional<Payment> payment = paymentRepository.findByTransactionId(transactionId);
+        if (payment.isPresent()) {
+            return payment;
+        }
+        return archivedPaymentRepository.findByTransactionId(transactionId).map(ArchivedPayment::toPayment);
+    }
+    
+    /**
+     * Get payments created in [from, to], oldest first.
+     * The archive is only read when the range reaches back past the retention cutoff.
+     */
+    @Transactional(readOnly = true)
+    public List<Payment> getPaymentsCreatedBetween(LocalDateTime from, LocalDateTime to) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("Range start must not be after range end");
+        }
+        List<Payment> payments = new ArrayList<>(paymentRepository.findByCreatedAtBetween(from, to));
+        if (from.isBefore(archivalService.getArchiveCutoff())) {
+            archivedPaymentRepository.findByCreatedAtBetween(from, to).stream()
+                .map(ArchivedPayment::toPayment)
+                .forEach(payments::add);
+        }
+        payments.sort(Comparator.comparing(Payment::getCreatedAt));
+        return payments;
+    }
+    
+    /**
+     * Search payments by cardholder name tokens/prefixes and card last four, with amount and date filters
+     */
+    @Transactional(readOnly = true)
+    public PaymentSearchPage searchPayments(PaymentSearchCriteria criteria, int page, int size) {
+        if (!searchIndex.isReady()) {
+            throw new IllegalStateException("Search index is still being built");
+        }
+        PaymentSearchIndex.Hits hits = searchIndex.search(criteria, page, size);
+        
+        // Load only the page, then restore the index order (newest first)
+        Map<Long, Payment> byId = paymentRepository.findAllById(hits.ids()).stream()
+            .collect(Collectors.toMap(Payment::getId, Function.identity()));
+        List<Payment> payments = hits.ids().stream()
+            .map(byId::get)
+            .filter(Objects::nonNull)
+            .toList();
+        return new PaymentSearchPage(payments, hits.total(), page, size);
     }
     
     /**
      * Get all payments
      */
+    @Transactional(readOnly = true)
     public List<Payment> getAllPayments() {
         return paymentRepository.findAll();
     }
@@ -89,6 +279,7 @@ public class PaymentService {
     /**
      * Get payments by status
      */
+    @Transactional(readOnly = true)
     public List<Payment> getPaymentsByStatus(PaymentStatus status) {
         return paymentRepository.findByStatus(status);
     }
@@ -96,6 +287,7 @@ public class PaymentService {
     /**
      * Get successful payments
      */
+    @Transactional(readOnly = true)
     public List<Payment> getSuccessfulPayments() {
         return paymentRepository.findSuccessfulPayments();
     }
@@ -103,6 +295,7 @@ public class PaymentService {
     /**
      * Get failed payments
      */
+    @Transactional(readOnly = true)
     public List<Payment> getFailedPayments() {
         return paymentRepository.findFailedPayments();
     }
@@ -110,55 +303,59 @@ public class PaymentService {
     /**
      * Get recent payments
      */
+    @Transactional(readOnly = true)
     public List<Payment> getRecentPayments() {
         return paymentRepository.findRecentPayments();
     }
     
     /**
-     * Get total amount by status
+     * Get payment summaries, optionally filtered by status (null for all) or newest first
      */
-    public BigDecimal getTotalAmountByStatus(PaymentStatus status) {
-        BigDecimal total = paymentRepository.getTotalAmountByStatus(status);
-        return total != null ? total : BigDecimal.ZERO;
+    @Transactional(readOnly = true)
+    public List<PaymentSummary> getPaymentSummaries(Collection<PaymentStatus> statuses, boolean newestFirst) {
+        if (statuses != null) {
+            return paymentRepository.findSummariesByStatusIn(statuses);
+        }
+        return newestFirst ? paymentRepository.findRecentSummaries() : paymentRepository.findAllSummaries();
     }
     
     /**
-     * Get payment count by status
+     * Get only the requested fields (comma separated) of payments, optionally filtered by status (null for all)
      */
-    public Long getPaymentCountByStatus(PaymentStatus status) {
-        return paymentRepository.getPaymentCountByStatus(status);
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getPaymentFields(String fields, Collection<PaymentStatus> statuses,
+                                                      boolean newestFirst) {
+        List<String> fieldList = Arrays.stream(fields.split(","))
+            .map(String::trim)
+            .filter(field -> !field.isEmpty())
+            .distinct()
+            .toList();
+        return paymentRepository.findFields(PaymentProjectionRepository.requireSelectable(fieldList), statuses,
+                                            newestFirst);
     }
     
     /**
-     * Create payment entity from request
+     * Get total amount by status
      */
-    private Payment createPaymentFromRequest(PaymentRequest request) {
-        Payment payment = new Payment();
-        payment.setCardholderName(request.getCardholderName());
-        payment.setCardNumber(maskCardNumber(request.getCardNumber()));
-        payment.setExpiryDate(request.getExpiryDate());
-        payment.setCvv("***"); // Don't store actual CVV
-        payment.setAmount(request.getAmount());
-        payment.setStatus(PaymentStatus.PENDING);
-        payment.setTransactionId(generateTransactionId());
-        return payment;
+    @Transactional(readOnly = true)
+    public BigDecimal getTotalAmountByStatus(PaymentStatus status) {
+        BigDecimal total = paymentRepository.getTotalAmountByStatus(status);
+        return total != null ? total : BigDecimal.ZERO;
     }
     
     /**
-     * Generate unique transaction ID
+     * Get count and total amount per currency by status
      */
-    private String generateTransactionId() {
-        return "TXN-" + System.currentTimeMillis() + "-" + 
-               UUID.randomUUID().toString().substring(0, 8).toUpperCase();
+    @Transactional(readOnly = true)
+    public List<CurrencyTotal> getTotalsByCurrency(PaymentStatus status) {
+        return paymentRepository.getTotalsByCurrency(status);
     }
     
     /**
-     * Mask card number for security (show only last 4 digits)
+     * Get payment count by status
      */
-    private String maskCardNumber(String cardNumber) {
-        if (cardNumber == null || cardNumber.length() < 4) {
-            return cardNumber;
-        }
-        return "*".repeat(cardNumber.length() - 4) + cardNumber.substring(cardNumber.length() - 4);
+    @Transactional(readOnly = true)
+    public Long getPaymentCountByStatus(PaymentStatus status) {
+        return paymentRepository.getPaymentCountByStatus(status);
     }
 }
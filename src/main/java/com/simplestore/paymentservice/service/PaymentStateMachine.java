@@ -0,0 +1,80 @@
+package com.simplestore.paymentservice.service;
+
+import com.simplestore.paymentservice.entity.Payment;
+import com.simplestore.paymentservice.entity.PaymentStatus;
+import com.simplestore.paymentservice.repository.PaymentRepository;
+import com.simplestore.paymentservice.webhook.WebhookOutbox;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+/**
+ * Applies payment status changes according to {@link PaymentStatus#canTransitionTo}.
+ *
+ * Each transition is a single conditional UPDATE ... WHERE id = ? AND status = ?, so no row is locked
+ * while a caller decides what to do: when two paths race for the same payment, exactly one UPDATE
+ * matches and the other sees 0 rows and learns it lost, instead of silently overwriting the winner.
+ * A successful transition also queues the webhook deliveries for it and, with a read replica, marks the
+ * payment as just written so lookups for it go to the primary.
+ */
+@Service
+public class PaymentStateMachine {
+    
+    private static final Logger logger = LoggerFactory.getLogger(PaymentStateMachine.class);
+    
+    @Autowired
+    private PaymentRepository paymentRepository;
+    
+    // Present unless payment.webhook.enabled=false
+    @Autowired(required = false)
+    private WebhookOutbox webhookOutbox;
+    
+    // Present only when a read replica is configured
+    @Autowired(required = false)
+    private RecentWriteTracker recentWrites;
+    
+    /**
+     * Move the payment from its current status to the target; false if it was changed concurrently.
+     * On success the payment object reflects the stored row.
+     */
+    @Transactional
+    public boolean transition(Payment payment, PaymentStatus to) {
+        PaymentStatus from = payment.getStatus();
+        requireAllowed(from, to);
+        
+        LocalDateTime now = LocalDateTime.now();
+        int updated = paymentRepository.transition(payment.getId(), from, to,
+                                                   payment.getTransactionId(), payment.getErrorMessage(), now);
+        if (updated == 0) {
+            logger.warn("⚠️ Payment {} left {} before it could move to {}", payment.getId(), from, to);
+            return false;
+        }
+        
+        payment.setStatus(to);
+        payment.setUpdatedAt(now);
+        if (payment.getVersion() != null) {
+            payment.setVersion(payment.getVersion() + 1);
+        }
+        if (webhookOutbox != null) {
+            // Same transaction as the UPDATE, so the event commits or rolls back with it
+            webhookOutbox.enqueue(payment);
+        }
+        if (recentWrites != null) {
+            recentWrites.record(payment);
+        }
+        return true;
+    }
+    
+    /**
+     * Reject transitions the table does not allow
+     */
+    public static void requireAllowed(PaymentStatus from, PaymentStatus to) {
+        if (from == null || !from.canTransitionTo(to)) {
+            throw new IllegalStateException("Payment cannot move from " + from + " to " + to);
+        }
+    }
+}
@@ -1,10 +1,18 @@
 package com.simplestore.paymentservice.service;
 
+import com.simplestore.paymentservice.config.PaymentLimitsProperties;
+import com.simplestore.paymentservice.dto.OrderItem;
 import com.simplestore.paymentservice.dto.PaymentRequest;
+import com.simplestore.paymentservice.money.Money;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.Currency;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.regex.Pattern;
 
 @Service
@@ -14,16 +22,55 @@ public class PaymentValidationService {
     private static final Pattern EXPIRY_PATTERN = Pattern.compile("^(0[1-9]|1[0-2])/([0-9]{2})$");
     private static final Pattern CVV_PATTERN = Pattern.compile("^[0-9]{3,4}$");
     
+    // Maximum amount per supported currency, in minor units
+    private final Map<String, Long> maxAmountMinor = new HashMap<>();
+    
+    public PaymentValidationService() {
+        this(new PaymentLimitsProperties());
+    }
+    
+    @Autowired
+    public PaymentValidationService(PaymentLimitsProperties limits) {
+        limits.getMaxAmount().forEach((code, max) ->
+            maxAmountMinor.put(code, Money.toMinorUnits(max, Currency.getInstance(code))));
+    }
+    
     /**
      * Validate payment request
      */
     public void validatePaymentRequest(PaymentRequest request) {
-        validateCardholderName(request.getCardholderName());
-        validateCardNumber(request.getCardNumber());
-        validateExpiryDate(request.getExpiryDate());
+        validateCard(request.getCardholderName(), request.getCardNumber(), request.getExpiryDate());
         validateCvv(request.getCvv());
-        validateAmount(request.getAmount());
-        validateOrderItems(request);
+        validateOrder(request);
+    }
+    
+    /**
+     * Validate a payment with a vaulted card: the card was validated when it was stored,
+     * so only a CVV the customer chose to enter and the order are checked
+     */
+    public void validateTokenPayment(PaymentRequest request) {
+        if (request.getCvv() != null) {
+            validateCvv(request.getCvv());
+        }
+        validateOrder(request);
+    }
+    
+    /**
+     * Validate the card itself: cardholder name, card number (Luhn) and expiry
+     */
+    public void validateCard(String cardholderName, String cardNumber, String expiryDate) {
+        validateCardholderName(cardholderName);
+        validateCardNumber(cardNumber);
+        validateExpiryDate(expiryDate);
+    }
+    
+    /**
+     * Validate currency, amount and order items
+     */
+    private void validateOrder(PaymentRequest request) {
+        Currency currency = validateCurrency(request.getCurrency());
+        long amountMinor = validateAmount(request.getAmount(), currency);
+        validateOrderItems(request, currency, amountMinor);
     }
     
     /**
@@ -107,32 +154,54 @@ public class PaymentValidationService {
     }
     
     /**
-     * Validate amount
+     * Validate currency is one we accept
      */
-    private void validateAmount(java.math.BigDecimal amount) {
+    private Currency validateCurrency(String currencyCode) {
+        if (currencyCode == null) {
+            return Money.DEFAULT_CURRENCY;
+        }
+        
+        if (!maxAmountMinor.containsKey(currencyCode)) {
+            throw new IllegalArgumentException("Currency " + currencyCode + " is not supported");
+        }
+        
+        return Currency.getInstance(currencyCode);
+    }
+    
+    /**
+     * Validate amount and return it in minor units
+     */
+    private long validateAmount(BigDecimal amount, Currency currency) {
         if (amount == null) {
             throw new IllegalArgumentException("Amount is required");
         }
         
-        if (amount.compareTo(java.math.BigDecimal.ZERO) <= 0) {
+        long amountMinor = toMinorUnits(amount, currency, "Amount");
+        
+        if (amountMinor <= 0) {
             throw new IllegalArgumentException("Amount must be greater than 0");
         }
         
-        if (amount.compareTo(new java.math.BigDecimal("999999.99")) > 0) {
-            throw new IllegalArgumentException("Amount cannot exceed $999,999.99");
+        long maxMinor = maxAmountMinor.get(currency.getCurrencyCode());
+        if (amountMinor > maxMinor) {
+            throw new IllegalArgumentException("Amount cannot exceed " +
+                Money.toDecimal(maxMinor, currency).toPlainString() + " " + currency.getCurrencyCode());
         }
+        
+        return amountMinor;
     }
     
     /**
      * Validate order items
      */
-    private void validateOrderItems(PaymentRequest request) {
+    private void validateOrderItems(PaymentRequest request, Currency currency, long amountMinor) {
         if (request.getOrderItems() == null || request.getOrderItems().isEmpty()) {
             throw new IllegalArgumentException("Order items are required");
         }
         
-        // Validate each order item
-        request.getOrderItems().forEach(item -> {
+        // Validate each order item and total them in minor units
+        long calculatedTotal = 0;
+        for (OrderItem item : request.getOrderItems()) {
             if (item.getProductName() == null || item.getProductName().trim().isEmpty()) {
                 throw new IllegalArgumentException("Product name is required for all items");
             }
@@ -141,21 +210,40 @@ public class PaymentValidationService {
                 throw new IllegalArgumentException("Quantity must be greater than 0 for all items");
             }
             
-            if (item.getPrice() == null || item.getPrice().compareTo(java.math.BigDecimal.ZERO) <= 0) {
+            if (item.getPrice() == null || item.getPrice().signum() <= 0) {
                 throw new IllegalArgumentException("Price must be greater than 0 for all items");
             }
-        });
+            
+            long priceMinor = toMinorUnits(item.getPrice(), currency, "Price");
+            try {
+                calculatedTotal = Math.addExact(calculatedTotal, Math.multiplyExact(priceMinor, item.getQuantity()));
+            } catch (ArithmeticException e) {
+                throw new IllegalArgumentException("Order items total is too large");
+            }
+        }
         
         // Validate total amount matches order items
-        java.math.BigDecimal calculatedTotal = request.getOrderItems().stream()
-            .map(item -> item.getPrice().multiply(new java.math.BigDecimal(item.getQuantity())))
-            .reduce(java.math.BigDecimal.ZERO, java.math.BigDecimal::add);
-        
-        if (calculatedTotal.compareTo(request.getAmount()) != 0) {
+        if (calculatedTotal != amountMinor) {
             throw new IllegalArgumentException("Total amount does not match order items total");
         }
     }
     
+    /**
+     * Exact conversion to minor units; more decimal places than the currency allows is a validation error
+     */
+    private long toMinorUnits(BigDecimal value, Currency currency, String field) {
+        try {
+            return Money.toMinorUnits(value, currency);
+        } catch (ArithmeticException e) {
+            int digits = Math.max(0, currency.getDefaultFractionDigits());
+            if (value.stripTrailingZeros().scale() > digits) {
+                throw new IllegalArgumentException(field + " must have at most " + digits + " decimal places for " +
+                    currency.getCurrencyCode());
+            }
+            throw new IllegalArgumentException(field + " is too large");
+        }
+    }
+    
     /**
      * Luhn algorithm implementation for card number validation
      */
@@ -0,0 +1,35 @@
+package com.simplestore.paymentservice.service;
+
+import com.simplestore.paymentservice.dto.PaymentResponse;
+import com.simplestore.paymentservice.entity.Payment;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+/**
+ * Non-blocking client for the (simulated) payment gateway.
+ *
+ * Uses the same latency model and outcome rules as {@link PaymentProcessingService}, but waits on a
+ * timer instead of sleeping, so no thread is held while the gateway "responds".
+ */
+@Component
+@Profile("reactive")
+public class ReactiveGatewayClient {
+    
+    @Autowired
+    private PaymentProcessingService processingService;
+    
+    /**
+     * Process payment through payment gateway (simulated)
+     */
+    public Mono<PaymentResponse> processPayment(Payment payment) {
+        long latencyMillis = processingService.nextLatencyMillis();
+        Mono<Payment> delayed = latencyMillis > 0
+            ? Mono.delay(Duration.ofMillis(latencyMillis)).thenReturn(payment)
+            : Mono.just(payment);
+        return delayed.map(processingService::completePayment);
+    }
+}
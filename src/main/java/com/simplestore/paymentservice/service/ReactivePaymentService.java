@@ -0,0 +1,128 @@
+package com.simplestore.paymentservice.service;
+
+import com.simplestore.paymentservice.dto.CurrencyTotal;
+import com.simplestore.paymentservice.dto.PaymentRequest;
+import com.simplestore.paymentservice.dto.PaymentResponse;
+import com.simplestore.paymentservice.entity.Payment;
+import com.simplestore.paymentservice.entity.PaymentStatus;
+import com.simplestore.paymentservice.repository.ReactivePaymentRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Reactive counterpart of {@link PaymentService}, sharing its validation and business rules
+ */
+@Service
+@Profile("reactive")
+public class ReactivePaymentService {
+    
+    @Autowired
+    private ReactivePaymentRepository paymentRepository;
+    
+    @Autowired
+    private PaymentValidationService validationService;
+    
+    @Autowired
+    private ReactiveGatewayClient gatewayClient;
+    
+    /**
+     * Process a payment request
+     */
+    public Mono<PaymentResponse> processPayment(PaymentRequest request) {
+        return Mono.fromCallable(() -> {
+                validationService.validatePaymentRequest(request);
+                return PaymentMapper.fromRequest(request);
+            })
+            .flatMap(paymentRepository::insert)
+            .flatMap(payment -> gatewayClient.processPayment(payment)
+                .flatMap(response -> {
+                    // Update payment status based on response
+                    payment.setStatus(response.getStatus());
+                    payment.setTransactionId(response.getTransactionId());
+                    
+                    if (response.getStatus() == PaymentStatus.FAILED) {
+                        payment.setErrorMessage(response.getErrorMessage());
+                    }
+                    
+                    return paymentRepository.updateOutcome(payment).thenReturn(response);
+                }))
+            .onErrorResume(e -> Mono.just(
+                PaymentResponse.failure(PaymentMapper.generateTransactionId(), e.getMessage())));
+    }
+    
+    /**
+     * Get payment by ID
+     */
+    public Mono<Payment> getPaymentById(Long id) {
+        return paymentRepository.findById(id);
+    }
+    
+    /**
+     * Get payment by transaction ID
+     */
+    public Mono<Payment> getPaymentByTransactionId(String transactionId) {
+        return paymentRepository.findByTransactionId(transactionId);
+    }
+    
+    /**
+     * Get all payments
+     */
+    public Flux<Payment> getAllPayments() {
+        return paymentRepository.findAll();
+    }
+    
+    /**
+     * Get payments by status
+     */
+    public Flux<Payment> getPaymentsByStatus(PaymentStatus status) {
+        return paymentRepository.findByStatus(status);
+    }
+    
+    /**
+     * Get successful payments
+     */
+    public Flux<Payment> getSuccessfulPayments() {
+        return paymentRepository.findByStatus(PaymentStatus.COMPLETED);
+    }
+    
+    /**
+     * Get failed payments
+     */
+    public Flux<Payment> getFailedPayments() {
+        return paymentRepository.findFailedPayments();
+    }
+    
+    /**
+     * Get recent payments
+     */
+    public Flux<Payment> getRecentPayments() {
+        return paymentRepository.findRecentPayments();
+    }
+    
+    /**
+     * Get total amount by status
+     */
+    public Mono<BigDecimal> getTotalAmountByStatus(PaymentStatus status) {
+        return paymentRepository.getTotalAmountByStatus(status).defaultIfEmpty(BigDecimal.ZERO);
+    }
+    
+    /**
+     * Get count and total amount per currency by status
+     */
+    public Mono<List<CurrencyTotal>> getTotalsByCurrency(PaymentStatus status) {
+        return paymentRepository.getTotalsByCurrency(status).collectList();
+    }
+    
+    /**
+     * Get payment count by status
+     */
+    public Mono<Long> getPaymentCountByStatus(PaymentStatus status) {
+        return paymentRepository.getPaymentCountByStatus(status).defaultIfEmpty(0L);
+    }
+}
@@ -0,0 +1,50 @@
+package com.simplestore.paymentservice.service;
+
+import com.simplestore.paymentservice.entity.Payment;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers payments written in the last few seconds so lookups for them skip a replica that may lag behind
+ */
+@Component
+@ConditionalOnProperty(prefix = "payment.datasource.replica", name = "url")
+public class RecentWriteTracker {
+    
+    // Purge expired entries once the map grows past this
+    private static final int PURGE_THRESHOLD = 10_000;
+    
+    private final long maxLagNanos;
+    private final Map<Object, Long> expiries = new ConcurrentHashMap<>();
+    
+    public RecentWriteTracker(@Value("${payment.datasource.replica.max-lag-ms:2000}") long maxLagMs) {
+        this.maxLagNanos = maxLagMs * 1_000_000L;
+    }
+    
+    /**
+     * Record that a payment was just written to the primary
+     */
+    public void record(Payment payment) {
+        long expiry = System.nanoTime() + maxLagNanos;
+        expiries.put(payment.getId(), expiry);
+        if (payment.getTransactionId() != null) {
+            expiries.put(payment.getTransactionId(), expiry);
+        }
+        if (expiries.size() > PURGE_THRESHOLD) {
+            long now = System.nanoTime();
+            expiries.values().removeIf(until -> until - now < 0);
+        }
+    }
+    
+    /**
+     * Whether the payment with this ID or transaction ID may not have reached the replica yet
+     */
+    public boolean isRecent(Object idOrTransactionId) {
+        Long expiry = expiries.get(idOrTransactionId);
+        return expiry != null && expiry - System.nanoTime() > 0;
+    }
+}
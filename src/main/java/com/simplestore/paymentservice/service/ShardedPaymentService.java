@@ -0,0 +1,251 @@
+package com.simplestore.paymentservice.service;
+
+import com.simplestore.paymentservice.config.GroupCommitProperties;
+import com.simplestore.paymentservice.config.RecoveryProperties;
+import com.simplestore.paymentservice.config.SchedulerProperties;
+import com.simplestore.paymentservice.config.WebhookProperties;
+import com.simplestore.paymentservice.dto.CurrencyTotal;
+import com.simplestore.paymentservice.dto.PaymentRequest;
+import com.simplestore.paymentservice.dto.PaymentResponse;
+import com.simplestore.paymentservice.dto.PaymentSearchCriteria;
+import com.simplestore.paymentservice.dto.PaymentSearchPage;
+import com.simplestore.paymentservice.dto.PaymentSummary;
+import com.simplestore.paymentservice.entity.Payment;
+import com.simplestore.paymentservice.entity.PaymentStatus;
+import com.simplestore.paymentservice.repository.ShardedPaymentRepository;
+import com.simplestore.paymentservice.search.PaymentSearchIndex;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * {@link PaymentService} backed by sharded storage, replacing it for the controller under the sharded profile.
+ *
+ * Each shard statement commits on its own, so no JPA transaction is opened. Payments, token
+ * payments, cancellation, search and listings all go through the shards. Group commit, webhooks,
+ * recovery and scheduled payments only know the single JPA table, so startup fails if any of them
+ * is enabled; archival and export still run on the JPA datasource and find nothing to do there.
+ */
+@Service
+@Primary
+@Profile("sharded")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class ShardedPaymentService extends PaymentService {
+    
+    @Autowired
+    private ShardedPaymentRepository shardedRepository;
+    
+    @Autowired
+    private PaymentValidationService validationService;
+    
+    @Autowired
+    private PaymentProcessingService processingService;
+    
+    @Autowired
+    private CardVault cardVault;
+    
+    @Autowired
+    private PaymentSearchIndex searchIndex;
+    
+    @Autowired
+    private GroupCommitProperties groupCommitProperties;
+    
+    @Autowired
+    private WebhookProperties webhookProperties;
+    
+    @Autowired
+    private RecoveryProperties recoveryProperties;
+    
+    @Autowired
+    private SchedulerProperties schedulerProperties;
+    
+    /**
+     * Refuse to start with features that would read and write the unsharded JPA table instead
+     */
+    @PostConstruct
+    public void checkSupportedFeatures() {
+        List<String> enabled = new ArrayList<>();
+        if (groupCommitProperties.isEnabled()) {
+            enabled.add("payment.group-commit.enabled");
+        }
+        if (webhookProperties.isEnabled()) {
+            enabled.add("payment.webhook.enabled");
+        }
+        if (recoveryProperties.isEnabled()) {
+            enabled.add("payment.recovery.enabled");
+        }
+        if (schedulerProperties.isEnabled()) {
+            enabled.add("payment.scheduler.enabled");
+        }
+        if (!enabled.isEmpty()) {
+            throw new IllegalStateException("Not supported on sharded storage, set to false: " + String.join(", ", enabled));
+        }
+    }
+    
+    /**
+     * Process a payment request
+     */
+    @Override
+    public PaymentResponse processPayment(PaymentRequest request) {
+        try {
+            Payment payment;
+            if (request.getCardToken() != null) {
+                VaultedCard card = cardVault.resolve(request.getCardToken());
+                validationService.validateTokenPayment(request);
+                payment = PaymentMapper.fromVaultedCard(request, card);
+            } else {
+                validationService.validatePaymentRequest(request);
+                payment = PaymentMapper.fromRequest(request);
+            }
+            
+            // Each insert commits on its own, so the payment can be indexed right away
+            payment = shardedRepository.insert(payment);
+            searchIndex.add(payment);
+            
+            PaymentResponse response = processingService.processPayment(payment);
+            
+            // Update payment status based on response
+            payment.setStatus(response.getStatus());
+            payment.setTransactionId(response.getTransactionId());
+            
+            if (response.getStatus() == PaymentStatus.FAILED) {
+                payment.setErrorMessage(response.getErrorMessage());
+            }
+            
+            if (!shardedRepository.updateOutcome(payment)) {
+                // Someone else finalized the payment first; their outcome stands
+                return shardedRepository.findById(payment.getId())
+                    .map(current -> new PaymentResponse(current.getTransactionId(), current.getStatus(),
+                                                        "Payment already finalized", current.getAmount()))
+                    .orElse(response);
+            }
+            
+            return response;
+            
+        } catch (Exception e) {
+            return PaymentResponse.failure(PaymentMapper.generateTransactionId(), e.getMessage());
+        }
+    }
+    
+    @Override
+    public Optional<Payment> cancelPayment(Long id) {
+        Optional<Payment> payment = shardedRepository.findById(id);
+        payment.ifPresent(current -> {
+            PaymentStateMachine.requireAllowed(current.getStatus(), PaymentStatus.CANCELLED);
+            LocalDateTime now = LocalDateTime.now();
+            if (!shardedRepository.transition(id, current.getStatus(), PaymentStatus.CANCELLED, now)) {
+                throw new IllegalStateException("Payment " + id + " was changed concurrently");
+            }
+            current.setStatus(PaymentStatus.CANCELLED);
+            current.setUpdatedAt(now);
+        });
+        return payment;
+    }
+    
+    @Override
+    public Optional<Payment> getPaymentById(Long id) {
+        return shardedRepository.findById(id);
+    }
+    
+    @Override
+    public Optional<Payment> getPaymentByTransactionId(String transactionId) {
+        return shardedRepository.findByTransactionId(transactionId);
+    }
+    
+    @Override
+    public List<Payment> getPaymentsCreatedBetween(LocalDateTime from, LocalDateTime to) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("Range start must not be after range end");
+        }
+        return shardedRepository.findByCreatedAtBetween(from, to);
+    }
+    
+    @Override
+    public PaymentSearchPage searchPayments(PaymentSearchCriteria criteria, int page, int size) {
+        if (!searchIndex.isReady()) {
+            throw new IllegalStateException("Search index is still being built");
+        }
+        PaymentSearchIndex.Hits hits = searchIndex.search(criteria, page, size);
+        
+        // Load only the page, then restore the index order (newest first)
+        Map<Long, Payment> byId = shardedRepository.findAllById(hits.ids()).stream()
+            .collect(Collectors.toMap(Payment::getId, Function.identity()));
+        List<Payment> payments = hits.ids().stream()
+            .map(byId::get)
+            .filter(Objects::nonNull)
+            .toList();
+        return new PaymentSearchPage(payments, hits.total(), page, size);
+    }
+    
+    @Override
+    public List<Payment> getAllPayments() {
+        return shardedRepository.findAll();
+    }
+    
+    @Override
+    public List<Payment> getPaymentsByStatus(PaymentStatus status) {
+        return shardedRepository.findByStatus(status);
+    }
+    
+    @Override
+    public List<Payment> getSuccessfulPayments() {
+        return shardedRepository.findByStatus(PaymentStatus.COMPLETED);
+    }
+    
+    @Override
+    public List<Payment> getFailedPayments() {
+        return shardedRepository.findFailedPayments();
+    }
+    
+    @Override
+    public List<Payment> getRecentPayments() {
+        return shardedRepository.findRecentPayments();
+    }
+    
+    @Override
+    public List<PaymentSummary> getPaymentSummaries(Collection<PaymentStatus> statuses, boolean newestFirst) {
+        return shardedRepository.findSummaries(statuses, newestFirst);
+    }
+    
+    @Override
+    public List<Map<String, Object>> getPaymentFields(String fields, Collection<PaymentStatus> statuses,
+                                                      boolean newestFirst) {
+        List<String> fieldList = Arrays.stream(fields.split(","))
+            .map(String::trim)
+            .filter(field -> !field.isEmpty())
+            .distinct()
+            .toList();
+        return shardedRepository.findFields(fieldList, statuses, newestFirst);
+    }
+    
+    @Override
+    public BigDecimal getTotalAmountByStatus(PaymentStatus status) {
+        return shardedRepository.getTotalAmountByStatus(status);
+    }
+    
+    @Override
+    public List<CurrencyTotal> getTotalsByCurrency(PaymentStatus status) {
+        return shardedRepository.getTotalsByCurrency(status);
+    }
+    
+    @Override
+    public Long getPaymentCountByStatus(PaymentStatus status) {
+        return shardedRepository.getPaymentCountByStatus(status);
+    }
+}
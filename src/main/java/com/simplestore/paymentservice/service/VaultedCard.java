@@ -0,0 +1,29 @@
+package com.simplestore.paymentservice.service;
+
+import java.time.YearMonth;
+
+/**
+ * A decrypted card from the vault, validated when it was stored
+ */
+public record VaultedCard(
+        String token,
+        String cardholderName,
+        String cardNumber,
+        String expiryDate,
+        String fingerprint,
+        YearMonth expiresAfter) {
+
+    public String lastFour() {
+        return cardNumber.substring(cardNumber.length() - 4);
+    }
+
+    public boolean isExpired(YearMonth now) {
+        return now.isAfter(expiresAfter);
+    }
+
+    // Keep the card number out of logs and exception messages
+    @Override
+    public String toString() {
+        return "VaultedCard[token=" + token + ", lastFour=" + lastFour() + ", expiryDate=" + expiryDate + "]";
+    }
+}
@@ -0,0 +1,51 @@
+package com.simplestore.paymentservice.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Caps payment attempts per card in a fixed time window (payment.velocity.*); 0 disables the limit.
+ *
+ * Counters are node-local; in a cluster each card is routed to a single owner, so the limit holds
+ * across the whole cluster.
+ */
+@Component
+public class VelocityLimiter {
+    
+    private final int maxPaymentsPerCard;
+    private final long windowMillis;
+    private final Map<String, Window> windows = new ConcurrentHashMap<>();
+    
+    public VelocityLimiter(@Value("${payment.velocity.max-payments-per-card:0}") int maxPaymentsPerCard,
+                           @Value("${payment.velocity.window-seconds:60}") long windowSeconds) {
+        this.maxPaymentsPerCard = maxPaymentsPerCard;
+        this.windowMillis = windowSeconds * 1000;
+    }
+    
+    /**
+     * Count an attempt for the card; false if it exceeds the limit
+     */
+    public boolean tryAcquire(String cardFingerprint) {
+        if (maxPaymentsPerCard <= 0) {
+            return true;
+        }
+        long windowStart = System.currentTimeMillis() / windowMillis * windowMillis;
+        Window window = windows.compute(cardFingerprint, (key, current) ->
+            current != null && current.start() == windowStart ? current : new Window(windowStart, new AtomicInteger()));
+        return window.count().incrementAndGet() <= maxPaymentsPerCard;
+    }
+    
+    @Scheduled(fixedDelayString = "${payment.velocity.purge-interval-ms:60000}")
+    public void purgeExpired() {
+        long currentWindow = System.currentTimeMillis() / windowMillis * windowMillis;
+        windows.values().removeIf(window -> window.start() < currentWindow);
+    }
+    
+    private record Window(long start, AtomicInteger count) {
+    }
+}
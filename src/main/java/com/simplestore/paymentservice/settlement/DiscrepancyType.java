@@ -0,0 +1,13 @@
+package com.simplestore.paymentservice.settlement;
+
+/**
+ * Ways a settlement line can disagree with our records
+ */
+public enum DiscrepancyType {
+    MISSING_PAYMENT,     // Settled by the gateway, unknown to us
+    STATUS_MISMATCH,     // Known, but our status differs from the settled one
+    AMOUNT_MISMATCH,
+    CURRENCY_MISMATCH,
+    MALFORMED_LINE,
+    MISSING_SETTLEMENT   // Completed by us on a day the file covers, not settled by the gateway
+}
@@ -0,0 +1,102 @@
+package com.simplestore.paymentservice.settlement;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads a UTF-8 text file line by line through a sliding memory-mapped window.
+ *
+ * Only one window of the file is mapped at a time, and the mapping lives in the page cache rather
+ * than the heap, so a multi-GB file is read in constant heap with no copy through a read buffer.
+ * A line cut by the end of a window is re-read from the start of the next window, so a line can
+ * be at most one window long. Line endings are \n or \r\n.
+ *
+ * Not thread safe.
+ */
+public final class MappedLineReader implements Closeable {
+
+    private final FileChannel channel;
+    private final long size;
+    private final int windowBytes;
+
+    private MappedByteBuffer window;
+    // File offset of window position 0
+    private long windowStart;
+    private byte[] line = new byte[256];
+
+    public MappedLineReader(Path file, int windowBytes) throws IOException {
+        if (windowBytes <= 0) {
+            throw new IllegalArgumentException("Window must be greater than 0 bytes");
+        }
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        this.size = channel.size();
+        this.windowBytes = windowBytes;
+        map(0);
+    }
+
+    /**
+     * Next line without its terminator, or null at the end of the file
+     */
+    public String nextLine() throws IOException {
+        while (true) {
+            int start = window.position();
+            int limit = window.limit();
+            for (int i = start; i < limit; i++) {
+                if (window.get(i) == '\n') {
+                    int end = i > start && window.get(i - 1) == '\r' ? i - 1 : i;
+                    window.position(i + 1);
+                    return decode(start, end);
+                }
+            }
+            if (windowStart + limit >= size) {
+                // Last line without a terminator
+                if (start == limit) {
+                    return null;
+                }
+                window.position(limit);
+                return decode(start, limit);
+            }
+            if (start == 0) {
+                throw new IOException("Line at byte " + windowStart + " is longer than the " + windowBytes + " byte window");
+            }
+            map(windowStart + start);
+        }
+    }
+
+    /**
+     * Bytes consumed so far
+     */
+    public long getPosition() {
+        return windowStart + window.position();
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    @Override
+    public void close() throws IOException {
+        // The mapping itself is released when the buffer is collected
+        window = null;
+        channel.close();
+    }
+
+    private void map(long offset) throws IOException {
+        windowStart = offset;
+        window = channel.map(FileChannel.MapMode.READ_ONLY, offset, Math.min(windowBytes, size - offset));
+    }
+
+    private String decode(int start, int end) {
+        int length = end - start;
+        if (line.length < length) {
+            line = new byte[Math.max(length, line.length * 2)];
+        }
+        window.get(start, line, 0, length);
+        return new String(line, 0, length, StandardCharsets.UTF_8);
+    }
+}
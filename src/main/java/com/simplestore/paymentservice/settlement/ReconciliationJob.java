@@ -0,0 +1,135 @@
+package com.simplestore.paymentservice.settlement;
+
+import com.simplestore.paymentservice.dto.ReconciliationProgress;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * One reconciliation run. The reconciler thread updates the counters while requests read them.
+ */
+public final class ReconciliationJob {
+
+    public enum Status {
+        QUEUED,
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+
+    private final long id;
+    private final Path file;
+    private final Path report;
+    private final long totalBytes;
+
+    private final AtomicLong bytesRead = new AtomicLong();
+    private final AtomicLong linesRead = new AtomicLong();
+    private final AtomicLong matched = new AtomicLong();
+    private final Map<DiscrepancyType, AtomicLong> discrepancies = new EnumMap<>(DiscrepancyType.class);
+
+    private volatile Status status = Status.QUEUED;
+    private volatile Instant startedAt;
+    private volatile Instant finishedAt;
+    private volatile String error;
+
+    ReconciliationJob(long id, Path file, Path report, long totalBytes) {
+        this.id = id;
+        this.file = file;
+        this.report = report;
+        this.totalBytes = totalBytes;
+        for (DiscrepancyType type : DiscrepancyType.values()) {
+            discrepancies.put(type, new AtomicLong());
+        }
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    public Path getReport() {
+        return report;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public boolean isFinished() {
+        return status == Status.COMPLETED || status == Status.FAILED;
+    }
+
+    public long getLinesRead() {
+        return linesRead.get();
+    }
+
+    public long getMatched() {
+        return matched.get();
+    }
+
+    public long getDiscrepancies(DiscrepancyType type) {
+        return discrepancies.get(type).get();
+    }
+
+    void started() {
+        startedAt = Instant.now();
+        status = Status.RUNNING;
+    }
+
+    void completed() {
+        finishedAt = Instant.now();
+        status = Status.COMPLETED;
+    }
+
+    void failed(String message) {
+        finishedAt = Instant.now();
+        error = message;
+        status = Status.FAILED;
+    }
+
+    void lineRead(long position) {
+        linesRead.incrementAndGet();
+        bytesRead.set(position);
+    }
+
+    void matched() {
+        matched.incrementAndGet();
+    }
+
+    void discrepancy(DiscrepancyType type) {
+        discrepancies.get(type).incrementAndGet();
+    }
+
+    public ReconciliationProgress toProgress() {
+        long lines = linesRead.get();
+        long bytes = bytesRead.get();
+        Instant start = startedAt;
+        Instant end = finishedAt != null ? finishedAt : Instant.now();
+        double seconds = start != null ? Duration.between(start, end).toMillis() / 1000.0 : 0;
+        Map<String, Long> counts = new LinkedHashMap<>();
+        discrepancies.forEach((type, count) -> counts.put(type.name(), count.get()));
+        return new ReconciliationProgress(
+            id,
+            file.getFileName().toString(),
+            status.name(),
+            totalBytes,
+            bytes,
+            totalBytes > 0 ? Math.min(100.0, bytes * 100.0 / totalBytes) : (isFinished() ? 100.0 : 0.0),
+            lines,
+            matched.get(),
+            counts,
+            seconds > 0 ? lines / seconds : 0,
+            start,
+            finishedAt,
+            report.getFileName().toString(),
+            error);
+    }
+}
@@ -0,0 +1,54 @@
+package com.simplestore.paymentservice.settlement;
+
+import java.math.BigDecimal;
+
+/**
+ * One line of a settlement file or ledger: transaction_id,status,amount,currency,settled_at.
+ *
+ * Gateways send exactly these columns with no quoting, since none of the values can contain a comma.
+ */
+public record SettlementRecord(
+        String transactionId,
+        String status,
+        BigDecimal amount,
+        String currency,
+        String settledAt) {
+
+    public static final String HEADER = "transaction_id,status,amount,currency,settled_at";
+
+    private static final int COLUMNS = 5;
+
+    /**
+     * Parse a line
+     *
+     * @throws IllegalArgumentException if the line does not have the five columns or the amount is not a number
+     */
+    public static SettlementRecord parse(String line) {
+        String[] fields = new String[COLUMNS];
+        int from = 0;
+        for (int column = 0; column < COLUMNS - 1; column++) {
+            int comma = line.indexOf(',', from);
+            if (comma < 0) {
+                throw new IllegalArgumentException("Expected " + COLUMNS + " columns");
+            }
+            fields[column] = line.substring(from, comma).trim();
+            from = comma + 1;
+        }
+        if (line.indexOf(',', from) >= 0) {
+            throw new IllegalArgumentException("Expected " + COLUMNS + " columns");
+        }
+        fields[COLUMNS - 1] = line.substring(from).trim();
+        if (fields[0].isEmpty()) {
+            throw new IllegalArgumentException("Transaction ID is empty");
+        }
+        try {
+            return new SettlementRecord(fields[0], fields[1], new BigDecimal(fields[2]), fields[3], fields[4]);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Amount '" + fields[2] + "' is not a number");
+        }
+    }
+
+    public String toCsv() {
+        return transactionId + "," + status + "," + amount.toPlainString() + "," + currency + "," + settledAt;
+    }
+}
@@ -0,0 +1,458 @@
+package com.simplestore.paymentservice.settlement;
+
+import com.simplestore.paymentservice.config.SettlementProperties;
+import com.simplestore.paymentservice.dto.LedgerExport;
+import com.simplestore.paymentservice.dto.ReconciliationProgress;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Reconciles gateway settlement files against our payments and exports our daily ledger in the same format.
+ *
+ * A settlement file is read through a memory-mapped window ({@link MappedLineReader}) and matched a
+ * chunk of lines at a time with one IN query per chunk (archived payments are only looked up for the
+ * IDs the live table does not have). Only the current chunk is held, and discrepancies go straight to
+ * the report file, so a 10M-line file takes the same heap as a small one.
+ *
+ * Payments we completed on the days the file covers but the gateway did not settle are found after
+ * the file is read: its transaction IDs are spilled to disk and sorted ({@link SortedSpill}), our
+ * completed payments of those days are read by keyset pages and sorted the same way, and the two
+ * sorted streams are walked side by side. Jobs run one at a time on their own thread; progress can
+ * be polled while they run.
+ */
+@Service
+public class SettlementService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(SettlementService.class);
+    
+    static final String LOOKUP_SQL = "SELECT transaction_id, status, amount, currency FROM %s WHERE transaction_id IN (%s)";
+    
+    static final String LEDGER_SQL =
+        "SELECT transaction_id, status, amount, currency, updated_at FROM payments " +
+        "WHERE status = 'COMPLETED' AND updated_at >= ? AND updated_at < ? " +
+        "UNION ALL " +
+        "SELECT transaction_id, status, amount, currency, updated_at FROM payments_archive " +
+        "WHERE status = 'COMPLETED' AND updated_at >= ? AND updated_at < ?";
+    
+    // Keyset pages by primary key, so a late page costs no more than the first one (no OFFSET)
+    static final String COMPLETED_PAGE_SQL =
+        "SELECT id, transaction_id FROM %s WHERE status = 'COMPLETED' AND transaction_id IS NOT NULL " +
+        "AND updated_at >= ? AND updated_at < ? AND id > ? ORDER BY id LIMIT ?";
+    
+    static final String REPORT_HEADER = "line,transaction_id,type,expected,actual";
+    
+    private static final int LEDGER_FETCH_SIZE = 1_000;
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final SettlementProperties properties;
+    private final Path directory;
+    private final ExecutorService reconciler;
+    
+    // By ID, oldest first, so the oldest finished job is the one forgotten
+    private final Map<Long, ReconciliationJob> jobs = new ConcurrentSkipListMap<>();
+    private final AtomicLong nextJobId = new AtomicLong();
+    
+    private final Counter matchedLines;
+    private final Map<DiscrepancyType, Counter> discrepancyCounters = new EnumMap<>(DiscrepancyType.class);
+    
+    public SettlementService(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                             SettlementProperties properties, ObjectProvider<MeterRegistry> meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.properties = properties;
+        this.directory = Path.of(properties.getDirectory()).toAbsolutePath().normalize();
+        this.reconciler = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "settlement-reconciler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        if (registry != null) {
+            matchedLines = registry.counter("payment.settlement.lines", "result", "matched");
+            for (DiscrepancyType type : DiscrepancyType.values()) {
+                discrepancyCounters.put(type, registry.counter("payment.settlement.discrepancies", "type", type.name()));
+            }
+        } else {
+            matchedLines = null;
+        }
+    }
+    
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        reconciler.shutdownNow();
+        reconciler.awaitTermination(5, TimeUnit.SECONDS);
+    }
+    
+    /**
+     * Queue a reconciliation of a settlement file from the settlement directory
+     *
+     * @throws IllegalArgumentException if the file is outside the settlement directory or does not exist
+     */
+    public ReconciliationProgress startReconciliation(String fileName) {
+        Path file = resolve(fileName);
+        if (!Files.isRegularFile(file)) {
+            throw new IllegalArgumentException("Settlement file '" + fileName + "' not found");
+        }
+        long size;
+        try {
+            size = Files.size(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read " + file, e);
+        }
+        long id = nextJobId.incrementAndGet();
+        String reportName = "discrepancies-" + id + "-" + stripExtension(file.getFileName().toString()) + ".csv";
+        ReconciliationJob job = new ReconciliationJob(id, file, directory.resolve(reportName), size);
+        jobs.put(id, job);
+        forgetOldJobs();
+        reconciler.execute(() -> reconcile(job));
+        
+        logger.info("🔵 Reconciliation {} queued for {} ({} bytes)", id, file.getFileName(), size);
+        return job.toProgress();
+    }
+    
+    public Optional<ReconciliationProgress> getProgress(long id) {
+        return Optional.ofNullable(jobs.get(id)).map(ReconciliationJob::toProgress);
+    }
+    
+    public List<ReconciliationProgress> getJobs() {
+        return jobs.values().stream().map(ReconciliationJob::toProgress).toList();
+    }
+    
+    /**
+     * Discrepancy report of a completed job; empty if the job does not exist
+     *
+     * @throws IllegalStateException if the job has not completed
+     */
+    public Optional<Path> getReport(long id) {
+        ReconciliationJob job = jobs.get(id);
+        if (job == null) {
+            return Optional.empty();
+        }
+        if (job.getStatus() != ReconciliationJob.Status.COMPLETED) {
+            throw new IllegalStateException("Reconciliation " + id + " is " + job.getStatus());
+        }
+        return Optional.of(job.getReport());
+    }
+    
+    /**
+     * Write the payments completed on a day to ledger-YYYY-MM-DD.csv in the settlement format,
+     * replacing any earlier export of that day
+     */
+    public LedgerExport exportLedger(LocalDate date) {
+        Path ledger = directory.resolve("ledger-" + date + ".csv");
+        Timestamp from = Timestamp.valueOf(date.atStartOfDay());
+        Timestamp to = Timestamp.valueOf(date.plusDays(1).atStartOfDay());
+        AtomicLong rows = new AtomicLong();
+        try {
+            Files.createDirectories(directory);
+            Path partial = Files.createTempFile(directory, "ledger-" + date + "-", ".partial");
+            try (BufferedWriter writer = Files.newBufferedWriter(partial, StandardCharsets.UTF_8)) {
+                write(writer, SettlementRecord.HEADER);
+                // Inside a transaction so PostgreSQL streams rows through a cursor instead of loading the day
+                transactionTemplate.executeWithoutResult(status -> jdbcTemplate.query(connection -> {
+                    PreparedStatement statement = connection.prepareStatement(LEDGER_SQL);
+                    statement.setFetchSize(LEDGER_FETCH_SIZE);
+                    statement.setTimestamp(1, from);
+                    statement.setTimestamp(2, to);
+                    statement.setTimestamp(3, from);
+                    statement.setTimestamp(4, to);
+                    return statement;
+                }, rs -> {
+                    SettlementRecord record = new SettlementRecord(
+                        rs.getString("transaction_id"),
+                        rs.getString("status"),
+                        rs.getBigDecimal("amount"),
+                        rs.getString("currency"),
+                        rs.getTimestamp("updated_at").toLocalDateTime().toString());
+                    write(writer, record.toCsv());
+                    rows.incrementAndGet();
+                }));
+            } catch (RuntimeException | IOException e) {
+                Files.deleteIfExists(partial);
+                throw e;
+            }
+            Files.move(partial, ledger, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write ledger for " + date, e);
+        }
+        
+        logger.info("💾 Ledger for {} exported to {} - {} payments", date, ledger.getFileName(), rows.get());
+        return new LedgerExport(date, ledger.getFileName().toString(), rows.get());
+    }
+    
+    private void reconcile(ReconciliationJob job) {
+        job.started();
+        logger.info("🔍 Reconciling {}", job.getFile().getFileName());
+        int chunkSize = properties.getChunkSize();
+        // Days the file settles, which are the days its missing payments are looked for on
+        SortedSet<LocalDate> days = new TreeSet<>();
+        try (MappedLineReader reader = new MappedLineReader(job.getFile(), properties.getWindowMb() * 1024 * 1024);
+             BufferedWriter report = Files.newBufferedWriter(job.getReport(), StandardCharsets.UTF_8);
+             SortedSpill settled = new SortedSpill(directory, "settled-" + job.getId() + "-",
+                                                   properties.getSpillRunSize())) {
+            write(report, REPORT_HEADER);
+            List<Line> chunk = new ArrayList<>(chunkSize);
+            long lineNumber = 0;
+            String text;
+            while ((text = reader.nextLine()) != null) {
+                lineNumber++;
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new IllegalStateException("Interrupted at line " + lineNumber);
+                }
+                if (text.isBlank() || (lineNumber == 1 && text.startsWith("transaction_id,"))) {
+                    continue;
+                }
+                job.lineRead(reader.getPosition());
+                try {
+                    SettlementRecord record = SettlementRecord.parse(text);
+                    chunk.add(new Line(lineNumber, record));
+                    settled.add(record.transactionId());
+                    LocalDate day = settledDay(record.settledAt());
+                    if (day != null) {
+                        days.add(day);
+                    }
+                } catch (IllegalArgumentException e) {
+                    report(job, report, lineNumber, "", DiscrepancyType.MALFORMED_LINE, e.getMessage(), "");
+                }
+                if (chunk.size() == chunkSize) {
+                    match(job, chunk, report);
+                    chunk.clear();
+                }
+            }
+            match(job, chunk, report);
+            findMissingSettlements(job, days, settled, report);
+            job.completed();
+            ReconciliationProgress progress = job.toProgress();
+            logger.info("✅ Reconciliation {} done - {} lines, {} matched, {} lines/s", job.getId(),
+                       progress.linesRead(), progress.matched(), Math.round(progress.linesPerSecond()));
+        } catch (IOException | RuntimeException e) {
+            job.failed(e.getMessage());
+            logger.error("❌ Reconciliation {} failed: {}", job.getId(), e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Look up a chunk of settlement lines and report every difference from our records
+     */
+    private void match(ReconciliationJob job, List<Line> chunk, Writer report) throws IOException {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        List<String> ids = chunk.stream().map(line -> line.record().transactionId()).distinct().toList();
+        Map<String, Ours> ours = lookup("payments", ids);
+        if (ours.size() < ids.size()) {
+            List<String> missing = ids.stream().filter(id -> !ours.containsKey(id)).toList();
+            ours.putAll(lookup("payments_archive", missing));
+        }
+        
+        for (Line line : chunk) {
+            SettlementRecord settled = line.record();
+            Ours payment = ours.get(settled.transactionId());
+            if (payment == null) {
+                report(job, report, line.number(), settled.transactionId(), DiscrepancyType.MISSING_PAYMENT, "", "");
+                continue;
+            }
+            boolean clean = true;
+            if (!payment.status().equalsIgnoreCase(settled.status())) {
+                report(job, report, line.number(), settled.transactionId(), DiscrepancyType.STATUS_MISMATCH,
+                       settled.status(), payment.status());
+                clean = false;
+            }
+            if (payment.amount().compareTo(settled.amount()) != 0) {
+                report(job, report, line.number(), settled.transactionId(), DiscrepancyType.AMOUNT_MISMATCH,
+                       settled.amount().toPlainString(), payment.amount().toPlainString());
+                clean = false;
+            }
+            if (!payment.currency().equalsIgnoreCase(settled.currency())) {
+                report(job, report, line.number(), settled.transactionId(), DiscrepancyType.CURRENCY_MISMATCH,
+                       settled.currency(), payment.currency());
+                clean = false;
+            }
+            if (clean) {
+                job.matched();
+                if (matchedLines != null) {
+                    matchedLines.increment();
+                }
+            }
+        }
+    }
+    
+    /**
+     * Report our payments completed on the given days whose transaction IDs the settlement file does not have
+     */
+    private void findMissingSettlements(ReconciliationJob job, SortedSet<LocalDate> days, SortedSpill settled,
+                                        Writer report) throws IOException {
+        if (days.isEmpty()) {
+            return;
+        }
+        try (SortedSpill completed = new SortedSpill(directory, "completed-" + job.getId() + "-",
+                                                     properties.getSpillRunSize())) {
+            for (String table : List.of("payments", "payments_archive")) {
+                for (LocalDate day : days) {
+                    scanCompleted(table, day, completed);
+                }
+            }
+            
+            SortedSpill.Cursor theirs = settled.sorted();
+            SortedSpill.Cursor ours = completed.sorted();
+            String settledId = theirs.next();
+            for (String id = ours.next(); id != null; id = ours.next()) {
+                while (settledId != null && settledId.compareTo(id) < 0) {
+                    settledId = theirs.next();
+                }
+                if (!id.equals(settledId)) {
+                    report(job, report, "", id, DiscrepancyType.MISSING_SETTLEMENT, "", "COMPLETED");
+                }
+            }
+        }
+    }
+    
+    private void scanCompleted(String table, LocalDate day, SortedSpill completed) throws IOException {
+        String sql = String.format(COMPLETED_PAGE_SQL, table);
+        Timestamp from = Timestamp.valueOf(day.atStartOfDay());
+        Timestamp to = Timestamp.valueOf(day.plusDays(1).atStartOfDay());
+        int pageSize = properties.getChunkSize();
+        long after = 0;
+        while (true) {
+            if (Thread.currentThread().isInterrupted()) {
+                throw new IllegalStateException("Interrupted while reading payments completed on " + day);
+            }
+            List<String> page = new ArrayList<>(pageSize);
+            AtomicLong last = new AtomicLong(after);
+            jdbcTemplate.query(sql, rs -> {
+                last.set(rs.getLong("id"));
+                page.add(rs.getString("transaction_id"));
+            }, from, to, after, pageSize);
+            for (String id : page) {
+                completed.add(id);
+            }
+            if (page.size() < pageSize) {
+                return;
+            }
+            after = last.get();
+        }
+    }
+    
+    private Map<String, Ours> lookup(String table, List<String> ids) {
+        if (ids.isEmpty()) {
+            return new HashMap<>();
+        }
+        String sql = String.format(LOOKUP_SQL, table, String.join(",", Collections.nCopies(ids.size(), "?")));
+        Map<String, Ours> found = new HashMap<>(ids.size() * 2);
+        jdbcTemplate.query(sql, rs -> {
+            found.put(rs.getString("transaction_id"),
+                      new Ours(rs.getString("status"), rs.getBigDecimal("amount"), rs.getString("currency")));
+        }, ids.toArray());
+        return found;
+    }
+    
+    private void report(ReconciliationJob job, Writer report, long lineNumber, String transactionId,
+                        DiscrepancyType type, String expected, String actual) throws IOException {
+        report(job, report, Long.toString(lineNumber), transactionId, type, expected, actual);
+    }
+    
+    private void report(ReconciliationJob job, Writer report, String line, String transactionId,
+                        DiscrepancyType type, String expected, String actual) throws IOException {
+        job.discrepancy(type);
+        Counter counter = discrepancyCounters.get(type);
+        if (counter != null) {
+            counter.increment();
+        }
+        // Parse errors quote the offending value, which may contain commas
+        report.write(line + "," + transactionId + "," + type + "," + expected.replace(',', ';') + ","
+                     + actual.replace(',', ';'));
+        report.write('\n');
+    }
+    
+    private Path resolve(String fileName) {
+        if (fileName == null || fileName.isBlank()) {
+            throw new IllegalArgumentException("Settlement file name is required");
+        }
+        Path file = directory.resolve(fileName).normalize();
+        if (!file.startsWith(directory) || file.equals(directory)) {
+            throw new IllegalArgumentException("Settlement file must be inside the settlement directory");
+        }
+        return file;
+    }
+    
+    private void forgetOldJobs() {
+        int excess = jobs.size() - properties.getRetainedJobs();
+        for (ReconciliationJob job : jobs.values()) {
+            if (excess <= 0) {
+                break;
+            }
+            if (job.isFinished()) {
+                jobs.remove(job.getId());
+                excess--;
+            }
+        }
+    }
+    
+    private static void write(Writer writer, String line) {
+        try {
+            writer.write(line);
+            writer.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    /**
+     * Day part of a settled_at value, or null if it does not start with an ISO date
+     */
+    private static LocalDate settledDay(String settledAt) {
+        try {
+            return LocalDate.parse(settledAt.length() > 10 ? settledAt.substring(0, 10) : settledAt);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+    
+    private static String stripExtension(String name) {
+        int dot = name.lastIndexOf('.');
+        return dot > 0 ? name.substring(0, dot) : name;
+    }
+    
+    private record Line(long number, SettlementRecord record) {
+    }
+    
+    private record Ours(String status, BigDecimal amount, String currency) {
+    }
+}
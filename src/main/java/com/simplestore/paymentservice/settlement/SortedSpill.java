@@ -0,0 +1,165 @@
+package com.simplestore.paymentservice.settlement;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Strings added in any order and read back sorted, with at most one run of them on the heap.
+ *
+ * Each full run is sorted and written to a temporary file; reading merges the runs, at most
+ * {@link #MERGE_WIDTH} files at a time, so the heap holds one run while adding and one line per open
+ * run while reading. Values must not contain line breaks. Not thread safe.
+ */
+public final class SortedSpill implements Closeable {
+
+    // Runs merged in one pass; more are merged in rounds so open files stay bounded
+    static final int MERGE_WIDTH = 64;
+
+    private final Path directory;
+    private final String prefix;
+    private final int runSize;
+
+    private final List<String> buffer = new ArrayList<>();
+    private final List<Path> runs = new ArrayList<>();
+    private final List<BufferedReader> readers = new ArrayList<>();
+    private long size;
+
+    public SortedSpill(Path directory, String prefix, int runSize) {
+        if (runSize <= 0) {
+            throw new IllegalArgumentException("Run size must be greater than 0");
+        }
+        this.directory = directory;
+        this.prefix = prefix;
+        this.runSize = runSize;
+    }
+
+    public void add(String value) throws IOException {
+        buffer.add(value);
+        size++;
+        if (buffer.size() == runSize) {
+            spill();
+        }
+    }
+
+    public long size() {
+        return size;
+    }
+
+    /**
+     * All added values in String order, duplicates included; call once, after the last add
+     */
+    public Cursor sorted() throws IOException {
+        if (runs.isEmpty()) {
+            Collections.sort(buffer);
+            List<String> values = List.copyOf(buffer);
+            buffer.clear();
+            return new Cursor() {
+                private int next;
+
+                @Override
+                public String next() {
+                    return next < values.size() ? values.get(next++) : null;
+                }
+            };
+        }
+        if (!buffer.isEmpty()) {
+            spill();
+        }
+        while (runs.size() > MERGE_WIDTH) {
+            List<Path> round = new ArrayList<>(runs.subList(0, MERGE_WIDTH));
+            runs.subList(0, MERGE_WIDTH).clear();
+            Path merged = Files.createTempFile(directory, prefix, ".run");
+            runs.add(merged);
+            try (BufferedWriter writer = Files.newBufferedWriter(merged, StandardCharsets.UTF_8)) {
+                Cursor cursor = merge(round);
+                for (String value = cursor.next(); value != null; value = cursor.next()) {
+                    writer.write(value);
+                    writer.write('\n');
+                }
+            }
+            closeReaders();
+            for (Path run : round) {
+                Files.deleteIfExists(run);
+            }
+        }
+        return merge(runs);
+    }
+
+    @Override
+    public void close() throws IOException {
+        closeReaders();
+        for (Path run : runs) {
+            Files.deleteIfExists(run);
+        }
+        runs.clear();
+        buffer.clear();
+    }
+
+    private void spill() throws IOException {
+        Collections.sort(buffer);
+        Files.createDirectories(directory);
+        Path run = Files.createTempFile(directory, prefix, ".run");
+        runs.add(run);
+        try (BufferedWriter writer = Files.newBufferedWriter(run, StandardCharsets.UTF_8)) {
+            for (String value : buffer) {
+                writer.write(value);
+                writer.write('\n');
+            }
+        }
+        buffer.clear();
+    }
+
+    private Cursor merge(List<Path> files) throws IOException {
+        PriorityQueue<Head> heads = new PriorityQueue<>(Comparator.comparing(Head::value));
+        for (Path file : files) {
+            BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8);
+            readers.add(reader);
+            String first = reader.readLine();
+            if (first != null) {
+                heads.add(new Head(first, reader));
+            }
+        }
+        return () -> {
+            Head head = heads.poll();
+            if (head == null) {
+                return null;
+            }
+            String following = head.reader().readLine();
+            if (following != null) {
+                heads.add(new Head(following, head.reader()));
+            }
+            return head.value();
+        };
+    }
+
+    private void closeReaders() throws IOException {
+        for (BufferedReader reader : readers) {
+            reader.close();
+        }
+        readers.clear();
+    }
+
+    /**
+     * Sorted values, one at a time
+     */
+    public interface Cursor {
+
+        /**
+         * Next value, or null after the last one
+         */
+        String next() throws IOException;
+    }
+
+    private record Head(String value, BufferedReader reader) {
+    }
+}
@@ -0,0 +1,88 @@
+package com.simplestore.paymentservice.simulator;
+
+import com.simplestore.paymentservice.config.GatewaySimulatorProperties;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Source of simulated gateway latencies
+ */
+public interface LatencyModel {
+
+    /**
+     * Next simulated latency in milliseconds
+     */
+    long nextLatencyMillis();
+
+    /**
+     * Build the latency model described by the given settings
+     */
+    static LatencyModel from(GatewaySimulatorProperties.Latency latency, Random random) {
+        switch (latency.getMode()) {
+            case ZERO:
+                return () -> 0L;
+            case FIXED:
+                long fixedMs = latency.getFixedMs();
+                return () -> fixedMs;
+            case UNIFORM:
+                return uniform(latency.getMinMs(), latency.getMaxMs(), random);
+            case LOGNORMAL:
+                return logNormal(latency.getMedianMs(), latency.getSigma(), random);
+            case BURSTY:
+                return bursty(uniform(latency.getMinMs(), latency.getMaxMs(), random),
+                        latency.getBurstProbability(), latency.getBurstMs(), random);
+            case REPLAY:
+                return replay(latency.getTraceFile());
+            default:
+                throw new IllegalArgumentException("Unsupported latency mode: " + latency.getMode());
+        }
+    }
+
+    static LatencyModel uniform(long minMs, long maxMs, Random random) {
+        if (maxMs < minMs) {
+            throw new IllegalArgumentException("Latency max must not be below min");
+        }
+        long span = maxMs - minMs;
+        return () -> span == 0 ? minMs : minMs + (long) (random.nextDouble() * span);
+    }
+
+    static LatencyModel logNormal(long medianMs, double sigma, Random random) {
+        double mu = Math.log(Math.max(1, medianMs));
+        return () -> Math.round(Math.exp(mu + sigma * random.nextGaussian()));
+    }
+
+    static LatencyModel bursty(LatencyModel base, double burstProbability, long burstMs, Random random) {
+        return () -> base.nextLatencyMillis() + (random.nextDouble() < burstProbability ? burstMs : 0L);
+    }
+
+    /**
+     * Play back a recorded trace (one latency in milliseconds per line, # for comments), wrapping around at the end
+     */
+    static LatencyModel replay(String traceFile) {
+        if (traceFile == null || traceFile.isBlank()) {
+            throw new IllegalArgumentException("Replay latency mode requires a trace file");
+        }
+        long[] trace;
+        try {
+            List<String> lines = Files.readAllLines(Path.of(traceFile));
+            trace = lines.stream()
+                .map(String::trim)
+                .filter(line -> !line.isEmpty() && !line.startsWith("#"))
+                .mapToLong(Long::parseLong)
+                .toArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read latency trace " + traceFile, e);
+        }
+        if (trace.length == 0) {
+            throw new IllegalArgumentException("Latency trace is empty: " + traceFile);
+        }
+        AtomicLong position = new AtomicLong();
+        return () -> trace[(int) (position.getAndIncrement() % trace.length)];
+    }
+}
@@ -0,0 +1,161 @@
+package com.simplestore.paymentservice.warmup;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.simplestore.paymentservice.config.WarmupProperties;
+import com.simplestore.paymentservice.dto.PaymentRequest;
+import com.simplestore.paymentservice.dto.PaymentResponse;
+import com.simplestore.paymentservice.entity.Payment;
+import com.simplestore.paymentservice.entity.PaymentStatus;
+import com.simplestore.paymentservice.repository.PaymentRepository;
+import com.simplestore.paymentservice.service.PaymentMapper;
+import com.simplestore.paymentservice.service.PaymentValidationService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the hot paths of a checkout against synthetic data before the service takes traffic.
+ *
+ * A fresh JVM interprets the first few thousand calls of every method, and Hibernate and Jackson build
+ * their per-type caches on first use, so without this the first checkouts after a deploy pay for all of
+ * it. The warm-up binds payment requests from JSON, validates them and writes the responses, then
+ * inserts, updates and looks up synthetic payments in transactions that are always rolled back.
+ *
+ * It runs inside the ApplicationReadyEvent, and Spring Boot only switches readiness to ACCEPTING_TRAFFIC
+ * once every ApplicationReadyEvent listener has returned, so /actuator/health/readiness stays
+ * OUT_OF_SERVICE until the warm-up is done (at most payment.warmup.max-seconds).
+ */
+@Component
+@ConditionalOnProperty(prefix = "payment.warmup", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class StartupWarmup {
+    
+    private static final Logger logger = LoggerFactory.getLogger(StartupWarmup.class);
+    
+    // Passes the Luhn check; every sixteenth request uses a card that fails it, to warm the rejection path
+    private static final String VALID_CARD = "4111111111111111";
+    private static final String INVALID_CARD = "4111111111111112";
+    private static final int INVALID_EVERY = 16;
+    
+    @Autowired
+    private PaymentValidationService validationService;
+    
+    @Autowired
+    private PaymentRepository paymentRepository;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Autowired
+    private WarmupProperties properties;
+    
+    @Autowired
+    private ApplicationAvailability availability;
+    
+    private volatile WarmupResult lastResult;
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        long started = System.nanoTime();
+        long deadline = started + TimeUnit.SECONDS.toNanos(properties.getMaxSeconds());
+        // REFUSING_TRAFFIC unless something published readiness before the ready event
+        ReadinessState readiness = availability.getReadinessState();
+        logger.info("🔵 Warming up before accepting traffic ({}) - {} requests, {} repository round trips",
+                   readiness, properties.getIterations(), properties.getQueryIterations());
+        
+        int requests = 0;
+        int roundTrips = 0;
+        try {
+            requests = bindAndValidate(deadline);
+            roundTrips = queryRepository(deadline);
+        } catch (RuntimeException | JsonProcessingException e) {
+            // A failed warm-up only costs latency; it must never keep the service from starting
+            logger.warn("⚠️ Warm-up stopped early: {}", e.getMessage());
+        }
+        
+        long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+        boolean complete = requests == properties.getIterations() && roundTrips == properties.getQueryIterations();
+        lastResult = new WarmupResult(requests, roundTrips, millis, complete, readiness);
+        if (complete) {
+            logger.info("✅ Warm-up done in {} ms", millis);
+        } else {
+            logger.warn("⚠️ Warm-up cut short after {} ms - {} requests, {} repository round trips",
+                       millis, requests, roundTrips);
+        }
+    }
+    
+    /**
+     * Outcome of the warm-up at startup; null until it has run
+     */
+    public WarmupResult getLastResult() {
+        return lastResult;
+    }
+    
+    private int bindAndValidate(long deadline) throws JsonProcessingException {
+        String expiry = String.format("12/%02d", (LocalDate.now().getYear() + 5) % 100);
+        int done = 0;
+        for (int i = 0; i < properties.getIterations() && System.nanoTime() < deadline; i++) {
+            String card = i % INVALID_EVERY == 0 ? INVALID_CARD : VALID_CARD;
+            String price = (1 + i % 500) + "." + String.format("%02d", i % 100);
+            String json = "{\"cardholderName\":\"Warm Up\",\"cardNumber\":\"" + card + "\",\"expiryDate\":\"" + expiry
+                + "\",\"cvv\":\"123\",\"amount\":" + price + ",\"currency\":\"USD\",\"orderItems\":"
+                + "[{\"productName\":\"Warm-up item\",\"quantity\":1,\"price\":" + price + "}]}";
+            PaymentRequest request = objectMapper.readValue(json, PaymentRequest.class);
+            PaymentResponse response;
+            try {
+                validationService.validatePaymentRequest(request);
+                response = PaymentResponse.success(PaymentMapper.generateTransactionId(), request.getAmount());
+            } catch (IllegalArgumentException e) {
+                response = PaymentResponse.failure(null, e.getMessage());
+            }
+            objectMapper.writeValueAsBytes(response);
+            done++;
+        }
+        return done;
+    }
+    
+    private int queryRepository(long deadline) {
+        TransactionTemplate rolledBack = new TransactionTemplate(transactionManager);
+        int done = 0;
+        for (int i = 0; i < properties.getQueryIterations() && System.nanoTime() < deadline; i++) {
+            BigDecimal amount = BigDecimal.valueOf(100 + i, 2);
+            rolledBack.executeWithoutResult(status -> {
+                Payment payment = new Payment("Warm Up", PaymentMapper.maskCardNumber(VALID_CARD), "12/99", "***", amount);
+                payment.setStatus(PaymentStatus.PROCESSING);
+                payment.setTransactionId(PaymentMapper.generateTransactionId());
+                payment = paymentRepository.saveAndFlush(payment);
+                paymentRepository.transition(payment.getId(), PaymentStatus.PROCESSING, PaymentStatus.COMPLETED,
+                                             payment.getTransactionId(), null, LocalDateTime.now());
+                paymentRepository.findByTransactionId(payment.getTransactionId());
+                paymentRepository.findById(payment.getId());
+                // Nothing of the synthetic payment may survive, including its search index entry
+                status.setRollbackOnly();
+            });
+            done++;
+        }
+        return done;
+    }
+    
+    /**
+     * How much of the warm-up ran, how long it held readiness, and the readiness state it ran under
+     */
+    public record WarmupResult(int requests, int repositoryRoundTrips, long millis, boolean complete,
+                               ReadinessState readiness) {
+    }
+}
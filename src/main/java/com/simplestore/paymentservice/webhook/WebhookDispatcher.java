@@ -0,0 +1,324 @@
+package com.simplestore.paymentservice.webhook;
+
+import com.simplestore.paymentservice.config.WebhookProperties;
+import com.simplestore.paymentservice.entity.WebhookEndpoint;
+import com.simplestore.paymentservice.repository.BatchUpdateCounts;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Sends queued webhook deliveries to their endpoints.
+ *
+ * One thread reads due deliveries per endpoint, claims them and sends them with the non-blocking
+ * HTTP client; no thread waits on an endpoint. Each endpoint has its own limit of requests in flight,
+ * so a slow merchant only delays itself. Answers are collected and recorded in batches. A failed
+ * delivery is retried with exponential backoff (with jitter) until payment.webhook.max-attempts.
+ *
+ * Claiming pushes next_attempt_at past the request timeout with a conditional update, so several
+ * nodes can run dispatchers over the same table, and a delivery whose node died mid-request is simply
+ * due again later. Delivery is therefore at least once: receivers deduplicate on the event id.
+ */
+@Service
+@ConditionalOnProperty(prefix = "payment.webhook", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class WebhookDispatcher {
+    
+    private static final Logger logger = LoggerFactory.getLogger(WebhookDispatcher.class);
+    
+    static final String DUE_SQL =
+        "SELECT id, payload, attempts FROM webhook_deliveries " +
+        "WHERE endpoint_id = ? AND status = 'PENDING' AND next_attempt_at <= ? ORDER BY next_attempt_at, id LIMIT ?";
+    
+    static final String CLAIM_SQL =
+        "UPDATE webhook_deliveries SET attempts = attempts + 1, next_attempt_at = ? " +
+        "WHERE id = ? AND status = 'PENDING' AND next_attempt_at <= ?";
+    
+    static final String DELIVERED_SQL =
+        "UPDATE webhook_deliveries SET status = 'DELIVERED', delivered_at = ?, last_error = NULL " +
+        "WHERE id = ? AND status = 'PENDING'";
+    
+    static final String RETRY_SQL =
+        "UPDATE webhook_deliveries SET next_attempt_at = ?, last_error = ? WHERE id = ? AND status = 'PENDING'";
+    
+    static final String GIVE_UP_SQL =
+        "UPDATE webhook_deliveries SET status = 'FAILED', last_error = ? WHERE id = ? AND status = 'PENDING'";
+    
+    private static final int MAX_ERROR_LENGTH = 255;
+    
+    private final WebhookOutbox outbox;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final WebhookProperties properties;
+    private final HttpClient httpClient;
+    
+    // Free request slots per endpoint; only the dispatcher thread takes them
+    private final Map<Long, Semaphore> permits = new ConcurrentHashMap<>();
+    private final Queue<Outcome> outcomes = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong delivered = new AtomicLong();
+    private final AtomicLong retried = new AtomicLong();
+    
+    private volatile boolean running;
+    private Thread dispatcherThread;
+    
+    public WebhookDispatcher(WebhookOutbox outbox, JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                             WebhookProperties properties) {
+        this.outbox = outbox;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.properties = properties;
+        this.httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofMillis(properties.getConnectTimeoutMs()))
+            .build();
+    }
+    
+    @PostConstruct
+    public void start() {
+        running = true;
+        dispatcherThread = new Thread(this::runDispatcher, "webhook-dispatcher");
+        dispatcherThread.setDaemon(true);
+        dispatcherThread.start();
+        logger.info("🔵 Webhook dispatcher started - {} requests per endpoint, batches of {}",
+                   properties.getMaxConcurrencyPerEndpoint(), properties.getBatchSize());
+    }
+    
+    /**
+     * Stop sending; requests still in flight are retried once their claim runs out
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        outbox.wake();
+        dispatcherThread.join();
+    }
+    
+    public int getInFlight() {
+        return inFlight.get();
+    }
+    
+    public long getDeliveredCount() {
+        return delivered.get();
+    }
+    
+    public long getRetryCount() {
+        return retried.get();
+    }
+    
+    private void runDispatcher() {
+        while (running) {
+            try {
+                boolean recorded = recordOutcomes();
+                boolean started = dispatchDue();
+                if (!recorded && !started) {
+                    outbox.awaitWork(properties.getPollIntervalMs());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (RuntimeException e) {
+                logger.error("❌ Webhook dispatch failed: {}", e.getMessage(), e);
+                try {
+                    Thread.sleep(properties.getPollIntervalMs());
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+        recordOutcomes();
+    }
+    
+    /**
+     * Claim and send what is due for every endpoint with a free request slot; true if anything was sent
+     */
+    boolean dispatchDue() {
+        List<WebhookEndpoint> endpoints = outbox.getEndpoints();
+        Set<Long> ids = endpoints.stream().map(WebhookEndpoint::getId).collect(Collectors.toSet());
+        permits.keySet().retainAll(ids);
+        
+        boolean started = false;
+        LocalDateTime now = LocalDateTime.now();
+        for (WebhookEndpoint endpoint : endpoints) {
+            Semaphore slots = permits.computeIfAbsent(endpoint.getId(), id -> new Semaphore(concurrencyOf(endpoint)));
+            int free = slots.availablePermits();
+            if (free == 0) {
+                continue;
+            }
+            int perRequest = endpoint.isBatch() ? properties.getBatchSize() : 1;
+            int limit = (int) Math.min(properties.getPollBatchSize(), (long) free * perRequest);
+            List<Due> due = jdbcTemplate.query(DUE_SQL,
+                (rs, rowNum) -> new Due(rs.getLong("id"), rs.getString("payload"), rs.getInt("attempts") + 1),
+                endpoint.getId(), Timestamp.valueOf(now), limit);
+            List<Due> claimed = claim(due, now);
+            
+            for (int from = 0; from < claimed.size(); from += perRequest) {
+                // Only this thread takes slots, so the ones counted above are still free
+                if (!slots.tryAcquire()) {
+                    break;
+                }
+                send(endpoint, slots, new ArrayList<>(claimed.subList(from, Math.min(from + perRequest, claimed.size()))));
+                started = true;
+            }
+        }
+        return started;
+    }
+    
+    private List<Due> claim(List<Due> due, LocalDateTime now) {
+        if (due.isEmpty()) {
+            return due;
+        }
+        Timestamp claimedUntil = Timestamp.valueOf(now.plusNanos(properties.getRequestTimeoutMs() * 2_000_000));
+        Timestamp cutoff = Timestamp.valueOf(now);
+        int[] rows = transactionTemplate.execute(status -> BatchUpdateCounts.require(jdbcTemplate.batchUpdate(CLAIM_SQL,
+            due.stream().map(delivery -> new Object[] {claimedUntil, delivery.id(), cutoff}).toList())));
+        List<Due> claimed = new ArrayList<>(due.size());
+        for (int i = 0; i < due.size(); i++) {
+            // Another node's dispatcher may have claimed it first
+            if (BatchUpdateCounts.applied(rows[i])) {
+                claimed.add(due.get(i));
+            }
+        }
+        return claimed;
+    }
+    
+    private void send(WebhookEndpoint endpoint, Semaphore slots, List<Due> deliveries) {
+        String body = endpoint.isBatch()
+            ? deliveries.stream().map(Due::payload).collect(Collectors.joining(",", "[", "]"))
+            : deliveries.get(0).payload();
+        long timestamp = Instant.now().getEpochSecond();
+        inFlight.incrementAndGet();
+        try {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(endpoint.getUrl()))
+                .timeout(Duration.ofMillis(properties.getRequestTimeoutMs()))
+                .header("Content-Type", "application/json")
+                .header(WebhookSigner.TIMESTAMP_HEADER, Long.toString(timestamp))
+                .header(WebhookSigner.SIGNATURE_HEADER, WebhookSigner.sign(endpoint.getSecret(), timestamp, body))
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+            httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .whenComplete((response, error) -> {
+                    String failure = null;
+                    if (error != null) {
+                        failure = describe(error);
+                    } else if (response.statusCode() / 100 != 2) {
+                        failure = "HTTP " + response.statusCode();
+                    }
+                    finish(slots, new Outcome(deliveries, failure));
+                });
+        } catch (RuntimeException e) {
+            finish(slots, new Outcome(deliveries, describe(e)));
+        }
+    }
+    
+    private void finish(Semaphore slots, Outcome outcome) {
+        outcomes.add(outcome);
+        inFlight.decrementAndGet();
+        slots.release();
+        outbox.wake();
+    }
+    
+    /**
+     * Store the answers received since the last call in one transaction; true if there were any
+     */
+    boolean recordOutcomes() {
+        List<Object[]> succeeded = new ArrayList<>();
+        List<Object[]> retries = new ArrayList<>();
+        List<Object[]> givenUp = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+        Timestamp nowTimestamp = Timestamp.valueOf(now);
+        
+        Outcome outcome;
+        while ((outcome = outcomes.poll()) != null) {
+            for (Due delivery : outcome.deliveries()) {
+                if (outcome.failure() == null) {
+                    succeeded.add(new Object[] {nowTimestamp, delivery.id()});
+                } else if (delivery.attempt() >= properties.getMaxAttempts()) {
+                    givenUp.add(new Object[] {outcome.failure(), delivery.id()});
+                } else {
+                    long delay = backoffMillis(delivery.attempt(), properties.getInitialBackoffMs(),
+                                               properties.getMaxBackoffMs());
+                    retries.add(new Object[] {Timestamp.valueOf(now.plusNanos(delay * 1_000_000)),
+                                              outcome.failure(), delivery.id()});
+                }
+            }
+        }
+        if (succeeded.isEmpty() && retries.isEmpty() && givenUp.isEmpty()) {
+            return false;
+        }
+        
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!succeeded.isEmpty()) {
+                jdbcTemplate.batchUpdate(DELIVERED_SQL, succeeded);
+            }
+            if (!retries.isEmpty()) {
+                jdbcTemplate.batchUpdate(RETRY_SQL, retries);
+            }
+            if (!givenUp.isEmpty()) {
+                jdbcTemplate.batchUpdate(GIVE_UP_SQL, givenUp);
+            }
+        });
+        delivered.addAndGet(succeeded.size());
+        retried.addAndGet(retries.size());
+        if (!givenUp.isEmpty()) {
+            logger.warn("⚠️ Gave up on {} webhook deliveries after {} attempts", givenUp.size(), properties.getMaxAttempts());
+        }
+        return true;
+    }
+    
+    private int concurrencyOf(WebhookEndpoint endpoint) {
+        return endpoint.getMaxConcurrency() != null ? endpoint.getMaxConcurrency() : properties.getMaxConcurrencyPerEndpoint();
+    }
+    
+    /**
+     * Delay before the next attempt: initial * 2^(attempt - 1), capped, of which the upper half is random
+     * so deliveries that failed together do not all retry together
+     */
+    static long backoffMillis(int attempt, long initialMillis, long maxMillis) {
+        long delay = initialMillis << Math.min(attempt - 1, 30);
+        if (delay <= 0 || delay > maxMillis) {
+            delay = maxMillis;
+        }
+        long half = delay / 2;
+        return half + ThreadLocalRandom.current().nextLong(delay - half + 1);
+    }
+    
+    private static String describe(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        String message = cause.getClass().getSimpleName() + (cause.getMessage() != null ? ": " + cause.getMessage() : "");
+        return message.length() > MAX_ERROR_LENGTH ? message.substring(0, MAX_ERROR_LENGTH) : message;
+    }
+    
+    // attempt is the number of the attempt being made, counting from 1
+    private record Due(long id, String payload, int attempt) {
+    }
+    
+    private record Outcome(List<Due> deliveries, String failure) {
+    }
+}
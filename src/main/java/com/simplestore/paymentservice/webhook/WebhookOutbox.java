@@ -0,0 +1,147 @@
+package com.simplestore.paymentservice.webhook;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.simplestore.paymentservice.config.ReplicaRoutingDataSource;
+import com.simplestore.paymentservice.dto.WebhookEvent;
+import com.simplestore.paymentservice.entity.Payment;
+import com.simplestore.paymentservice.entity.PaymentStatus;
+import com.simplestore.paymentservice.entity.WebhookEndpoint;
+import com.simplestore.paymentservice.repository.WebhookEndpointRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records webhook deliveries for payment status changes in the same transaction as the change, so an
+ * event is never lost when a node dies and never sent for a change that rolled back.
+ *
+ * Registered endpoints are cached in memory, so a status change costs nothing while none are
+ * registered and one batched INSERT otherwise. The cache is refreshed when endpoints change here and
+ * periodically for changes made on other nodes.
+ */
+@Component
+@ConditionalOnProperty(prefix = "payment.webhook", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class WebhookOutbox {
+    
+    static final String INSERT_SQL =
+        "INSERT INTO webhook_deliveries (endpoint_id, payment_id, event_type, payload, status, attempts, " +
+        "next_attempt_at, created_at) VALUES (?, ?, ?, ?, 'PENDING', 0, ?, ?)";
+    
+    // Statuses merchants are told about; PENDING, PROCESSING and CAPTURING are internal
+    static final Set<PaymentStatus> NOTIFIED_STATUSES = EnumSet.of(
+        PaymentStatus.COMPLETED, PaymentStatus.FAILED, PaymentStatus.DECLINED, PaymentStatus.CANCELLED,
+        PaymentStatus.AUTHORIZED, PaymentStatus.VOIDED);
+    
+    private final WebhookEndpointRepository endpointRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    
+    // Wakes the dispatcher when there is something new to send or an answer to record
+    private final Semaphore signal = new Semaphore(0);
+    private volatile List<WebhookEndpoint> endpoints = List.of();
+    
+    public WebhookOutbox(WebhookEndpointRepository endpointRepository, JdbcTemplate jdbcTemplate,
+                         ObjectMapper objectMapper) {
+        this.endpointRepository = endpointRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+    }
+    
+    @PostConstruct
+    public void start() {
+        reload();
+    }
+    
+    /**
+     * Re-read the registered endpoints from the primary, which has a registration the moment it commits
+     */
+    @Scheduled(fixedDelayString = "${payment.webhook.endpoint-refresh-ms:30000}")
+    public void reload() {
+        // findAll() runs read-only, which would otherwise send it to a replica that may lag behind
+        endpoints = List.copyOf(ReplicaRoutingDataSource.onPrimary(endpointRepository::findAll));
+    }
+    
+    public List<WebhookEndpoint> getEndpoints() {
+        return endpoints;
+    }
+    
+    /**
+     * Queue a delivery of the payment's current status to every endpoint; call inside the transaction that changed it
+     */
+    public void enqueue(Payment payment) {
+        enqueue(List.of(WebhookEvent.of(payment, payment.getStatus())));
+    }
+    
+    /**
+     * Queue deliveries of the events to every endpoint; call inside the transaction that made the changes
+     */
+    public void enqueue(Collection<WebhookEvent> events) {
+        List<WebhookEndpoint> current = endpoints;
+        if (current.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>();
+        for (WebhookEvent event : events) {
+            if (!NOTIFIED_STATUSES.contains(event.status())) {
+                continue;
+            }
+            String payload = serialize(event);
+            for (WebhookEndpoint endpoint : current) {
+                rows.add(new Object[] {endpoint.getId(), event.paymentId(), event.type(), payload, now, now});
+            }
+        }
+        if (rows.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+        
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // The dispatcher cannot see the rows before the commit
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    wake();
+                }
+            });
+        } else {
+            wake();
+        }
+    }
+    
+    void wake() {
+        signal.release();
+    }
+    
+    /**
+     * Wait until woken or the timeout passes
+     */
+    void awaitWork(long timeoutMillis) throws InterruptedException {
+        if (signal.tryAcquire(timeoutMillis, TimeUnit.MILLISECONDS)) {
+            signal.drainPermits();
+        }
+    }
+    
+    private String serialize(WebhookEvent event) {
+        try {
+            return objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize webhook event for payment " + event.paymentId(), e);
+        }
+    }
+}
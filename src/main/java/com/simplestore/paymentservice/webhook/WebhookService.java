@@ -0,0 +1,108 @@
+package com.simplestore.paymentservice.webhook;
+
+import com.simplestore.paymentservice.dto.WebhookEndpointRequest;
+import com.simplestore.paymentservice.dto.WebhookStats;
+import com.simplestore.paymentservice.entity.WebhookDelivery;
+import com.simplestore.paymentservice.entity.WebhookDeliveryStatus;
+import com.simplestore.paymentservice.entity.WebhookEndpoint;
+import com.simplestore.paymentservice.repository.WebhookDeliveryRepository;
+import com.simplestore.paymentservice.repository.WebhookEndpointRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.List;
+
+/**
+ * Registration of webhook endpoints and a view of their deliveries
+ */
+@Service
+@ConditionalOnProperty(prefix = "payment.webhook", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class WebhookService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(WebhookService.class);
+    
+    @Autowired
+    private WebhookEndpointRepository endpointRepository;
+    
+    @Autowired
+    private WebhookDeliveryRepository deliveryRepository;
+    
+    @Autowired
+    private WebhookOutbox outbox;
+    
+    @Autowired
+    private WebhookDispatcher dispatcher;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    /**
+     * Register an endpoint; it receives every status change from now on
+     *
+     * @throws IllegalArgumentException if the URL is not an absolute http(s) URL
+     */
+    public WebhookEndpoint register(WebhookEndpointRequest request) {
+        validateUrl(request.url());
+        WebhookEndpoint endpoint = endpointRepository.save(new WebhookEndpoint(
+            request.url(), request.secret(), Boolean.TRUE.equals(request.batch()), request.maxConcurrency()));
+        outbox.reload();
+        logger.info("💾 Webhook endpoint {} registered for {}", endpoint.getId(), endpoint.getUrl());
+        return endpoint;
+    }
+    
+    /**
+     * Remove an endpoint and give up its pending deliveries; false if it does not exist
+     */
+    public boolean remove(Long id) {
+        if (!endpointRepository.existsById(id)) {
+            return false;
+        }
+        Integer abandoned = transactionTemplate.execute(status -> {
+            int failed = deliveryRepository.failPending(id);
+            endpointRepository.deleteById(id);
+            return failed;
+        });
+        outbox.reload();
+        logger.info("📦 Webhook endpoint {} removed, {} pending deliveries dropped", id, abandoned);
+        return true;
+    }
+    
+    public List<WebhookEndpoint> getEndpoints() {
+        return endpointRepository.findAll();
+    }
+    
+    /**
+     * Deliveries of a payment's events, oldest first
+     */
+    public List<WebhookDelivery> getDeliveries(Long paymentId) {
+        return deliveryRepository.findByPaymentIdOrderById(paymentId);
+    }
+    
+    public WebhookStats getStats() {
+        return new WebhookStats(
+            deliveryRepository.countByStatus(WebhookDeliveryStatus.PENDING),
+            deliveryRepository.countByStatus(WebhookDeliveryStatus.DELIVERED),
+            deliveryRepository.countByStatus(WebhookDeliveryStatus.FAILED),
+            dispatcher.getInFlight(),
+            dispatcher.getDeliveredCount(),
+            dispatcher.getRetryCount());
+    }
+    
+    private static void validateUrl(String url) {
+        try {
+            URI uri = new URI(url);
+            if (!"http".equalsIgnoreCase(uri.getScheme()) && !"https".equalsIgnoreCase(uri.getScheme())
+                    || uri.getHost() == null) {
+                throw new IllegalArgumentException("Webhook URL must be an absolute http or https URL");
+            }
+        } catch (URISyntaxException e) {
+            throw new IllegalArgumentException("Webhook URL is malformed");
+        }
+    }
+}
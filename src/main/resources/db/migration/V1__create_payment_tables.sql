@@ -0,0 +1,38 @@
+-- Initial schema for the prod profile (dev keeps Hibernate create-drop).
+-- Portable between PostgreSQL and H2 (MODE=PostgreSQL) so tests run the same script.
+
+CREATE TABLE payments (
+    id              BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    cardholder_name VARCHAR(255)   NOT NULL,
+    card_number     VARCHAR(255)   NOT NULL,
+    expiry_date     VARCHAR(255)   NOT NULL,
+    cvv             VARCHAR(255)   NOT NULL,
+    amount          NUMERIC(10, 2) NOT NULL,
+    currency        VARCHAR(3)     NOT NULL,
+    status          VARCHAR(255)   NOT NULL,
+    transaction_id  VARCHAR(255)   UNIQUE,
+    created_at      TIMESTAMP(6)   NOT NULL,
+    updated_at      TIMESTAMP(6),
+    error_message   VARCHAR(255)
+);
+
+CREATE INDEX idx_payments_status_created_at ON payments (status, created_at);
+CREATE INDEX idx_payments_created_at ON payments (created_at);
+
+CREATE TABLE payments_archive (
+    id              BIGINT         PRIMARY KEY,
+    cardholder_name VARCHAR(255)   NOT NULL,
+    card_number     VARCHAR(255)   NOT NULL,
+    expiry_date     VARCHAR(255)   NOT NULL,
+    amount          NUMERIC(10, 2) NOT NULL,
+    currency        VARCHAR(3)     NOT NULL,
+    status          VARCHAR(255)   NOT NULL,
+    transaction_id  VARCHAR(255)   UNIQUE,
+    created_at      TIMESTAMP(6)   NOT NULL,
+    updated_at      TIMESTAMP(6),
+    error_message   VARCHAR(255),
+    archived_at     TIMESTAMP(6)   NOT NULL
+);
+
+CREATE INDEX idx_payments_archive_created_at ON payments_archive (created_at);
+CREATE INDEX idx_payments_archive_archived_at ON payments_archive (archived_at);
@@ -0,0 +1,3 @@
+-- Optimistic locking for payment status transitions (Payment.version)
+
+ALTER TABLE payments ADD COLUMN version BIGINT DEFAULT 0 NOT NULL;
@@ -0,0 +1,16 @@
+-- Delayed payment actions (ScheduledAction), loaded into the in-memory timing wheel as they come due
+
+CREATE TABLE scheduled_actions (
+    id                BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    payment_id        BIGINT       NOT NULL,
+    type              VARCHAR(255) NOT NULL,
+    status            VARCHAR(255) NOT NULL,
+    due_at            TIMESTAMP(6) NOT NULL,
+    created_at        TIMESTAMP(6) NOT NULL,
+    executed_at       TIMESTAMP(6),
+    result_payment_id BIGINT,
+    error_message     VARCHAR(255)
+);
+
+CREATE INDEX idx_scheduled_actions_status_due_at ON scheduled_actions (status, due_at);
+CREATE INDEX idx_scheduled_actions_payment_id ON scheduled_actions (payment_id);
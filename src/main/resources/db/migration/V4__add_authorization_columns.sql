@@ -0,0 +1,4 @@
+-- Authorization holds (Payment.authorizedAmount, Payment.authorizationExpiresAt)
+
+ALTER TABLE payments ADD COLUMN authorized_amount NUMERIC(10, 2);
+ALTER TABLE payments ADD COLUMN authorization_expires_at TIMESTAMP(6);
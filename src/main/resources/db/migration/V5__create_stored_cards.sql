@@ -0,0 +1,11 @@
+-- Card vault (StoredCard): card data is encrypted by the application, the CVV is never stored
+
+CREATE TABLE stored_cards (
+    token          VARCHAR(64)    NOT NULL PRIMARY KEY,
+    fingerprint    VARCHAR(64)    NOT NULL,
+    last_four      VARCHAR(4)     NOT NULL,
+    encrypted_data BYTEA          NOT NULL,
+    created_at     TIMESTAMP(6)   NOT NULL
+);
+
+CREATE UNIQUE INDEX idx_stored_cards_fingerprint ON stored_cards (fingerprint);
@@ -0,0 +1,27 @@
+-- Webhook endpoints and deliveries (WebhookEndpoint, WebhookDelivery); PENDING deliveries are the retry queue
+
+CREATE TABLE webhook_endpoints (
+    id              BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    url             VARCHAR(2048) NOT NULL,
+    secret          VARCHAR(255)  NOT NULL,
+    batch           BOOLEAN       NOT NULL,
+    max_concurrency INTEGER,
+    created_at      TIMESTAMP(6)  NOT NULL
+);
+
+CREATE TABLE webhook_deliveries (
+    id              BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    endpoint_id     BIGINT        NOT NULL,
+    payment_id      BIGINT        NOT NULL,
+    event_type      VARCHAR(255)  NOT NULL,
+    payload         VARCHAR(2000) NOT NULL,
+    status          VARCHAR(255)  NOT NULL,
+    attempts        INTEGER       NOT NULL,
+    next_attempt_at TIMESTAMP(6)  NOT NULL,
+    created_at      TIMESTAMP(6)  NOT NULL,
+    delivered_at    TIMESTAMP(6),
+    last_error      VARCHAR(255)
+);
+
+CREATE INDEX idx_webhook_deliveries_due ON webhook_deliveries (endpoint_id, status, next_attempt_at);
+CREATE INDEX idx_webhook_deliveries_payment_id ON webhook_deliveries (payment_id);
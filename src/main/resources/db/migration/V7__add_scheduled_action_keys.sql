@@ -0,0 +1,6 @@
+-- Idempotency-Key and card fingerprint of scheduled charges (ScheduledAction.idempotencyKey, cardFingerprint)
+
+ALTER TABLE scheduled_actions ADD COLUMN idempotency_key VARCHAR(255);
+ALTER TABLE scheduled_actions ADD COLUMN card_fingerprint VARCHAR(64);
+
+CREATE UNIQUE INDEX idx_scheduled_actions_idempotency_key ON scheduled_actions (idempotency_key);
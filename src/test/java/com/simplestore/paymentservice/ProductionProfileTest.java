@@ -0,0 +1,93 @@
+package com.simplestore.paymentservice;
+
+import com.simplestore.paymentservice.entity.ArchivedPayment;
+import com.simplestore.paymentservice.entity.Payment;
+import com.simplestore.paymentservice.entity.PaymentStatus;
+import com.simplestore.paymentservice.repository.ArchivedPaymentRepository;
+import com.simplestore.paymentservice.repository.PaymentRepository;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Boots the prod profile against embedded H2 in PostgreSQL mode: Flyway builds the schema and
+ * Hibernate validates the entities against it, as it would against PostgreSQL.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:prodprofile;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        // The prod profile refuses to start without a vault key
+        "payment.vault.encryption-key=MDEyMzQ1Njc4OWFiY2RlZjAxMjM0NTY3ODlhYmNkZWY="
+})
+@ActiveProfiles("prod")
+class ProductionProfileTest {
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private ArchivedPaymentRepository archivedPaymentRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private Payment payment(String transactionId) {
+        Payment payment = new Payment("Jane Doe", "************1111", "12/50", "***", new BigDecimal("12.34"));
+        payment.setStatus(PaymentStatus.COMPLETED);
+        payment.setTransactionId(transactionId);
+        return payment;
+    }
+
+    @Test
+    void flywayMigration_isApplied() {
+        Integer applied = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM \"flyway_schema_history\" WHERE \"version\" = '1' AND \"success\"", Integer.class);
+        assertEquals(1, applied);
+    }
+
+    @Test
+    void payments_roundTripThroughMigratedSchema() {
+        Payment saved = paymentRepository.save(payment("TXN-PROD-1"));
+
+        Payment loaded = paymentRepository.findByTransactionId("TXN-PROD-1").orElseThrow();
+        assertEquals(saved.getId(), loaded.getId());
+        assertEquals(PaymentStatus.COMPLETED, loaded.getStatus());
+        assertEquals(0, new BigDecimal("12.34").compareTo(loaded.getAmount()));
+    }
+
+    @Test
+    void archivedPayments_areBatchInserted() {
+        List<ArchivedPayment> archived = new ArrayList<>();
+        for (long id = 1; id <= 120; id++) {
+            Payment payment = payment("TXN-ARCHIVED-" + id);
+            payment.setId(id);
+            archived.add(ArchivedPayment.from(payment, LocalDateTime.now()));
+        }
+        archivedPaymentRepository.saveAll(archived);
+
+        assertEquals(120, archivedPaymentRepository.count());
+    }
+
+    @Test
+    void connectionPool_isSizedFromGatewayConcurrency() {
+        assertTrue(dataSource instanceof HikariDataSource);
+        // 200 payments in flight, 2000 ms at the gateway, 10 ms in the database: ~1 busy connection, floor of 4
+        assertEquals(4, ((HikariDataSource) dataSource).getMaximumPoolSize());
+    }
+}
@@ -0,0 +1,142 @@
+package com.simplestore.paymentservice;
+
+import com.simplestore.paymentservice.dto.OrderItem;
+import com.simplestore.paymentservice.dto.PaymentRequest;
+import com.simplestore.paymentservice.dto.PaymentResponse;
+import com.simplestore.paymentservice.entity.Payment;
+import com.simplestore.paymentservice.entity.PaymentStatus;
+import com.simplestore.paymentservice.repository.PaymentRepository;
+import com.simplestore.paymentservice.service.AuthorizationService;
+import com.simplestore.paymentservice.service.PaymentService;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Primary and replica are two separate embedded databases with no replication between them,
+ * so each assertion shows which one a query actually hit.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:routing-primary;DB_CLOSE_DELAY=-1",
+        "payment.datasource.replica.url=jdbc:h2:mem:routing-replica;DB_CLOSE_DELAY=-1",
+        "payment.datasource.replica.username=sa",
+        "payment.datasource.replica.max-lag-ms=60000",
+        "payment.gateway.simulator.latency.mode=ZERO",
+        "payment.gateway.simulator.network-error-rate=0",
+        "payment.gateway.simulator.decline-rate=0",
+        "payment.gateway.simulator.high-amount-failure-rate=0",
+        "payment.gateway.simulator.insufficient-funds-rate=0"
+})
+class ReplicaRoutingTest {
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private AuthorizationService authorizationService;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private DataSource primaryDataSource;
+
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private DataSource replicaDataSource;
+
+    @BeforeEach
+    void createReplicaSchema() {
+        // Hibernate only creates the schema on the primary
+        Flyway.configure().dataSource(replicaDataSource).load().migrate();
+    }
+
+    private long countByTransactionId(DataSource dataSource, String transactionId) {
+        return new JdbcTemplate(dataSource).queryForObject(
+                "SELECT COUNT(*) FROM payments WHERE transaction_id = ?", Long.class, transactionId);
+    }
+
+    private Payment payment(String transactionId) {
+        Payment payment = new Payment("Jane Doe", "************1111", "12/50", "***", new BigDecimal("12.34"));
+        payment.setStatus(PaymentStatus.COMPLETED);
+        payment.setTransactionId(transactionId);
+        return payment;
+    }
+
+    @Test
+    void readOnlyQueries_areServedByReplica() {
+        new JdbcTemplate(replicaDataSource).update(
+                "INSERT INTO payments (cardholder_name, card_number, expiry_date, cvv, amount, currency, status, " +
+                "transaction_id, created_at) VALUES ('Jane Doe', '************1111', '12/50', '***', 5.00, 'USD', " +
+                "'COMPLETED', 'TXN-REPLICA-ONLY', ?)", LocalDateTime.now());
+        paymentRepository.save(payment("TXN-PRIMARY-ONLY"));
+
+        List<String> transactionIds = paymentService.getPaymentsByStatus(PaymentStatus.COMPLETED).stream()
+                .map(Payment::getTransactionId)
+                .toList();
+
+        assertTrue(transactionIds.contains("TXN-REPLICA-ONLY"));
+        assertFalse(transactionIds.contains("TXN-PRIMARY-ONLY"));
+    }
+
+    @Test
+    void writes_goToPrimary() {
+        paymentRepository.save(payment("TXN-WRITE"));
+
+        assertEquals(1, countByTransactionId(primaryDataSource, "TXN-WRITE"));
+        assertEquals(0, countByTransactionId(replicaDataSource, "TXN-WRITE"));
+    }
+
+    @Test
+    void justProcessedPayment_isReadFromPrimary() {
+        PaymentResponse response = paymentService.processPayment(new PaymentRequest(
+                "Jane Doe", "4111111111111111", "12/50", "123", new BigDecimal("12.34"),
+                List.of(new OrderItem("Widget", 1, new BigDecimal("12.34")))));
+        assertEquals(PaymentStatus.COMPLETED, response.getStatus());
+        assertEquals(0, countByTransactionId(replicaDataSource, response.getTransactionId()));
+
+        assertTrue(paymentService.getPaymentByTransactionId(response.getTransactionId()).isPresent());
+    }
+
+    @Test
+    void justAuthorizedPayment_isReadFromPrimary() {
+        PaymentResponse response = authorizationService.authorize(new PaymentRequest(
+                "Jane Doe", "4111111111111111", "12/50", "123", new BigDecimal("12.34"),
+                List.of(new OrderItem("Widget", 1, new BigDecimal("12.34")))));
+        assertEquals(PaymentStatus.AUTHORIZED, response.getStatus());
+
+        assertTrue(paymentService.getPaymentByTransactionId(response.getTransactionId()).isPresent());
+    }
+
+    @Test
+    void justCancelledPayment_isReadFromPrimary() {
+        Payment pending = payment("TXN-CANCELLED");
+        pending.setStatus(PaymentStatus.PENDING);
+        Long id = paymentRepository.save(pending).getId();
+
+        paymentService.cancelPayment(id);
+
+        assertEquals(PaymentStatus.CANCELLED, paymentService.getPaymentById(id).orElseThrow().getStatus());
+    }
+
+    @Test
+    void untrackedPayment_isLookedUpOnReplica() {
+        paymentRepository.save(payment("TXN-UNTRACKED"));
+
+        assertTrue(paymentService.getPaymentByTransactionId("TXN-UNTRACKED").isEmpty());
+    }
+}
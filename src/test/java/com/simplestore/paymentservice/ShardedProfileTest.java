@@ -0,0 +1,116 @@
+package com.simplestore.paymentservice;
+
+import com.simplestore.paymentservice.config.WebhookProperties;
+import com.simplestore.paymentservice.dto.OrderItem;
+import com.simplestore.paymentservice.dto.PaymentRequest;
+import com.simplestore.paymentservice.dto.PaymentResponse;
+import com.simplestore.paymentservice.dto.PaymentSearchCriteria;
+import com.simplestore.paymentservice.dto.PaymentSearchPage;
+import com.simplestore.paymentservice.entity.Payment;
+import com.simplestore.paymentservice.entity.PaymentStatus;
+import com.simplestore.paymentservice.repository.PaymentRepository;
+import com.simplestore.paymentservice.search.PaymentSearchIndex;
+import com.simplestore.paymentservice.service.CardVault;
+import com.simplestore.paymentservice.service.PaymentService;
+import com.simplestore.paymentservice.service.ShardedPaymentService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Boots the sharded profile on four embedded shards and checks that payments never touch the JPA table
+ */
+@SpringBootTest(properties = {
+        "payment.sharding.shards[0].url=jdbc:h2:mem:sharded-profile-0;DB_CLOSE_DELAY=-1",
+        "payment.sharding.shards[1].url=jdbc:h2:mem:sharded-profile-1;DB_CLOSE_DELAY=-1",
+        "payment.sharding.shards[2].url=jdbc:h2:mem:sharded-profile-2;DB_CLOSE_DELAY=-1",
+        "payment.sharding.shards[3].url=jdbc:h2:mem:sharded-profile-3;DB_CLOSE_DELAY=-1",
+        "payment.warmup.enabled=false",
+        "payment.gateway.simulator.latency.mode=ZERO",
+        "payment.gateway.simulator.network-error-rate=0",
+        "payment.gateway.simulator.decline-rate=0",
+        "payment.gateway.simulator.high-amount-failure-rate=0",
+        "payment.gateway.simulator.insufficient-funds-rate=0"
+})
+@ActiveProfiles("sharded")
+class ShardedProfileTest {
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private CardVault cardVault;
+
+    @Autowired
+    private PaymentSearchIndex searchIndex;
+
+    @Autowired
+    private WebhookProperties webhookProperties;
+
+    private PaymentRequest request(String cardholderName) {
+        return new PaymentRequest(cardholderName, "4111111111111111", "12/50", "123", new BigDecimal("12.34"),
+                List.of(new OrderItem("Widget", 1, new BigDecimal("12.34"))));
+    }
+
+    @Test
+    void paymentsAreStoredOnShards_andCanBeCancelledAndFound() throws InterruptedException {
+        assertInstanceOf(ShardedPaymentService.class, paymentService);
+
+        PaymentResponse response = paymentService.processPayment(request("Sharded Searcher"));
+        assertEquals(PaymentStatus.COMPLETED, response.getStatus());
+        Payment payment = paymentService.getPaymentByTransactionId(response.getTransactionId()).orElseThrow();
+        assertEquals(0, paymentRepository.count());
+
+        assertEquals(PaymentStatus.CANCELLED, paymentService.cancelPayment(payment.getId()).orElseThrow().getStatus());
+        assertEquals(PaymentStatus.CANCELLED, paymentService.getPaymentById(payment.getId()).orElseThrow().getStatus());
+        assertThrows(IllegalStateException.class, () -> paymentService.cancelPayment(payment.getId()));
+
+        // The index is rebuilt from the shards in the background after startup
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!searchIndex.isReady() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        PaymentSearchCriteria criteria = new PaymentSearchCriteria("searcher", null, null, null, null, null, null);
+        PaymentSearchPage page = paymentService.searchPayments(criteria, 0, 10);
+        assertEquals(1, page.total());
+        assertEquals(payment.getId(), page.payments().get(0).getId());
+    }
+
+    @Test
+    void tokenPaymentsAreAccepted() {
+        String token = cardVault.tokenize("Token Holder", "4111111111111111", "12/50").token();
+        PaymentRequest request = new PaymentRequest();
+        request.setCardToken(token);
+        request.setAmount(new BigDecimal("5.00"));
+        request.setOrderItems(List.of(new OrderItem("Widget", 1, new BigDecimal("5.00"))));
+
+        PaymentResponse response = paymentService.processPayment(request);
+
+        assertEquals(PaymentStatus.COMPLETED, response.getStatus(), response.getErrorMessage());
+        assertTrue(paymentService.getPaymentByTransactionId(response.getTransactionId()).isPresent());
+    }
+
+    @Test
+    void featuresThatOnlyKnowTheJpaTable_failStartup() {
+        webhookProperties.setEnabled(true);
+        try {
+            IllegalStateException e = assertThrows(IllegalStateException.class,
+                    () -> ((ShardedPaymentService) paymentService).checkSupportedFeatures());
+            assertTrue(e.getMessage().contains("payment.webhook.enabled"), e.getMessage());
+        } finally {
+            webhookProperties.setEnabled(false);
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.simplestore.paymentservice.admission;
+
+import com.simplestore.paymentservice.config.AdmissionProperties;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long MS = 1_000_000L;
+
+    // Simulated service: serves CAPACITY requests at full speed, shares the processor beyond that
+    private static final int CAPACITY = 10;
+    private static final double WORK_MS = 20;
+    private static final long CLIENT_TIMEOUT_MS = 200;
+
+    @Test
+    void readsAreCappedAtTheirShareOfTheLimit() {
+        AdmissionProperties properties = new AdmissionProperties();
+        properties.setInitialLimit(10);
+        properties.setReadShare(0.5);
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(properties);
+
+        for (int i = 0; i < 5; i++) {
+            assertTrue(limiter.tryAcquire(AdaptiveConcurrencyLimiter.Priority.READ));
+        }
+        assertFalse(limiter.tryAcquire(AdaptiveConcurrencyLimiter.Priority.READ));
+        for (int i = 0; i < 5; i++) {
+            assertTrue(limiter.tryAcquire(AdaptiveConcurrencyLimiter.Priority.WRITE));
+        }
+        assertFalse(limiter.tryAcquire(AdaptiveConcurrencyLimiter.Priority.WRITE));
+
+        limiter.release();
+        assertTrue(limiter.tryAcquire(AdaptiveConcurrencyLimiter.Priority.WRITE));
+    }
+
+    @Test
+    void risingLatency_shrinksLimit_steadyLatency_growsIt() {
+        AdmissionProperties properties = new AdmissionProperties();
+        properties.setInitialLimit(20);
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(properties);
+
+        for (int i = 0; i < 200; i++) {
+            limiter.onSample(20 * MS, 20);
+        }
+        int grown = limiter.getLimit();
+        assertTrue(grown > 20, "limit should grow while latency is steady: " + grown);
+
+        for (int i = 0; i < 20; i++) {
+            limiter.onSample(200 * MS, grown);
+        }
+        assertTrue(limiter.getLimit() < grown, "limit should shrink when latency rises: " + limiter.getLimit());
+    }
+
+    @Test
+    void limitStaysWithinBounds() {
+        AdmissionProperties properties = new AdmissionProperties();
+        properties.setInitialLimit(5);
+        properties.setMinLimit(6);
+        properties.setMaxLimit(8);
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(properties);
+
+        for (int i = 0; i < 500; i++) {
+            limiter.onSample(10 * MS, 100);
+        }
+        assertEquals(8, limiter.getLimit());
+
+        for (int i = 0; i < 50; i++) {
+            limiter.onSample(10_000 * MS, 100);
+        }
+        assertEquals(6, limiter.getLimit());
+    }
+
+    @Test
+    void underThreeTimesCapacity_goodputHoldsWithLimiter_andCollapsesWithout() {
+        double unlimited = goodput(null, 3.0);
+        double limited = goodput(new AdaptiveConcurrencyLimiter(new AdmissionProperties()), 3.0);
+
+        assertTrue(unlimited < 0.1, "expected collapse without admission control, goodput " + unlimited);
+        assertTrue(limited > 0.7, "expected goodput to hold with admission control, goodput " + limited);
+    }
+
+    @Test
+    void belowCapacity_limiterDoesNotReject() {
+        double unlimited = goodput(null, 0.8);
+        double limited = goodput(new AdaptiveConcurrencyLimiter(new AdmissionProperties()), 0.8);
+
+        assertEquals(unlimited, limited, 0.01);
+    }
+
+    /**
+     * Discrete-time simulation in 1ms steps. Requests arrive at load x capacity; a request only counts
+     * towards goodput if it completes before its client gives up, but the server keeps working on it
+     * either way. Returns goodput over the second half of the run as a fraction of capacity.
+     */
+    private static double goodput(AdaptiveConcurrencyLimiter limiter, double load) {
+        double arrivalsPerMs = load * CAPACITY / WORK_MS;
+        long duration = 20_000;
+        Random random = new Random(1);
+        List<double[]> running = new ArrayList<>(); // {remaining work ms, start ms}
+        double arrivals = 0;
+        long good = 0;
+
+        for (long now = 0; now < duration; now++) {
+            arrivals += arrivalsPerMs;
+            while (arrivals >= 1) {
+                arrivals--;
+                if (limiter == null || limiter.tryAcquire(AdaptiveConcurrencyLimiter.Priority.WRITE)) {
+                    running.add(new double[] {WORK_MS * (0.5 + random.nextDouble()), now});
+                }
+            }
+
+            double share = Math.min(1.0, (double) CAPACITY / Math.max(1, running.size()));
+            Iterator<double[]> it = running.iterator();
+            while (it.hasNext()) {
+                double[] request = it.next();
+                request[0] -= share;
+                if (request[0] <= 0) {
+                    it.remove();
+                    long latency = now + 1 - (long) request[1];
+                    if (latency <= CLIENT_TIMEOUT_MS && now >= duration / 2) {
+                        good++;
+                    }
+                    if (limiter != null) {
+                        limiter.release(latency * MS);
+                    }
+                }
+            }
+        }
+        return good / (duration / 2.0) / (CAPACITY / WORK_MS);
+    }
+}
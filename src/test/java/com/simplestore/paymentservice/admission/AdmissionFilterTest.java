@@ -0,0 +1,81 @@
+package com.simplestore.paymentservice.admission;
+
+import com.simplestore.paymentservice.cluster.ClusterProtocol;
+import com.simplestore.paymentservice.config.AdmissionProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class AdmissionFilterTest {
+
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+    private AdmissionFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        AdmissionProperties properties = new AdmissionProperties();
+        properties.setInitialLimit(4);
+        filter = new AdmissionFilter(properties,
+                new StaticListableBeanFactory(Map.of("meterRegistry", registry)).getBeanProvider(MeterRegistry.class));
+    }
+
+    private MockHttpServletResponse send(String method, String path) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(new MockHttpServletRequest(method, path), response, chain);
+        if (response.getStatus() == 200) {
+            assertNotNull(chain.getRequest(), path + " should have reached the controller");
+        } else {
+            assertNull(chain.getRequest(), path + " should have been shed before the controller");
+        }
+        return response;
+    }
+
+    private void saturate() {
+        while (filter.getLimiter().tryAcquire(AdaptiveConcurrencyLimiter.Priority.WRITE)) {
+            // Hold every slot, as payments stuck on a slow gateway would
+        }
+    }
+
+    @Test
+    void saturatedOwner_shedsForwardedPayments() throws Exception {
+        saturate();
+
+        MockHttpServletResponse response = send("POST", ClusterProtocol.PROCESS_PATH);
+
+        assertEquals(503, response.getStatus());
+        assertNotNull(response.getHeader("Retry-After"));
+        assertEquals(1.0, registry.counter("payment.admission.rejected", "priority", "write").count());
+    }
+
+    @Test
+    void forwardedPayments_takeAWriteSlotAndGiveItBack() throws Exception {
+        // Reads are capped at half the limit; a forwarded payment may still use the rest
+        for (int i = 0; i < 2; i++) {
+            filter.getLimiter().tryAcquire(AdaptiveConcurrencyLimiter.Priority.READ);
+        }
+
+        assertEquals(200, send("POST", ClusterProtocol.PROCESS_PATH).getStatus());
+        assertEquals(503, send("GET", "/api/payments/recent").getStatus());
+        assertEquals(2, filter.getLimiter().getInFlight());
+    }
+
+    @Test
+    void healthAndOtherInternalPaths_areNeverShed() throws Exception {
+        saturate();
+
+        assertEquals(200, send("GET", "/api/payments/health").getStatus());
+        assertEquals(200, send("GET", ClusterProtocol.PING_PATH).getStatus());
+    }
+}
@@ -0,0 +1,85 @@
+package com.simplestore.paymentservice.benchmark;
+
+import com.simplestore.paymentservice.dto.OrderItem;
+import com.simplestore.paymentservice.dto.PaymentRequest;
+import com.simplestore.paymentservice.money.Money;
+import com.simplestore.paymentservice.service.PaymentValidationService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Order total validation for a 50-item order: BigDecimal arithmetic (previous implementation)
+ * versus long minor units. Run with "-prof gc" to compare allocation per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderTotalBenchmark {
+
+    private static final int ITEMS = 50;
+
+    private final PaymentValidationService validationService = new PaymentValidationService();
+
+    private PaymentRequest request;
+
+    @Setup
+    public void setUp() {
+        List<OrderItem> items = new ArrayList<>(ITEMS);
+        BigDecimal total = BigDecimal.ZERO;
+        for (int i = 0; i < ITEMS; i++) {
+            BigDecimal price = BigDecimal.valueOf(199 + i * 37L, 2);
+            int quantity = 1 + i % 4;
+            items.add(new OrderItem("Item " + i, quantity, price));
+            total = total.add(price.multiply(BigDecimal.valueOf(quantity)));
+        }
+        request = new PaymentRequest("Jane Doe", "4111111111111111", "12/50", "123", total, items);
+    }
+
+    @Benchmark
+    public boolean bigDecimalTotal() {
+        BigDecimal amount = request.getAmount();
+        if (amount.compareTo(new BigDecimal("999999.99")) > 0) {
+            return false;
+        }
+        BigDecimal calculatedTotal = request.getOrderItems().stream()
+            .map(item -> item.getPrice().multiply(new BigDecimal(item.getQuantity())))
+            .reduce(BigDecimal.ZERO, BigDecimal::add);
+        return calculatedTotal.compareTo(amount) == 0;
+    }
+
+    @Benchmark
+    public boolean minorUnitsTotal() {
+        long amount = Money.toMinorUnits(request.getAmount(), Money.DEFAULT_CURRENCY);
+        if (amount > 99_999_999L) {
+            return false;
+        }
+        long calculatedTotal = 0;
+        for (OrderItem item : request.getOrderItems()) {
+            long price = Money.toMinorUnits(item.getPrice(), Money.DEFAULT_CURRENCY);
+            calculatedTotal = Math.addExact(calculatedTotal, Math.multiplyExact(price, item.getQuantity()));
+        }
+        return calculatedTotal == amount;
+    }
+
+    @Benchmark
+    public PaymentRequest fullValidation() {
+        validationService.validatePaymentRequest(request);
+        return request;
+    }
+}
@@ -0,0 +1,84 @@
+package com.simplestore.paymentservice.benchmark;
+
+import com.simplestore.paymentservice.dto.PaymentSearchCriteria;
+import com.simplestore.paymentservice.entity.Payment;
+import com.simplestore.paymentservice.search.PaymentSearchIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Search latency over a synthetic dataset. The default is 1M payments; for the 10M target run with
+ * -Djmh.args="PaymentSearchBenchmark -p payments=10000000 -jvmArgs -Xmx8g".
+ * Targets: selective queries (full name, name + last four) under 1 ms, broad prefixes under 50 ms.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class PaymentSearchBenchmark {
+
+    private static final String[] FIRST_NAMES = {
+        "James", "Mary", "John", "Patricia", "Robert", "Jennifer", "Michael", "Linda", "William", "Elizabeth",
+        "David", "Barbara", "Richard", "Susan", "Joseph", "Jessica", "Thomas", "Sarah", "Charles", "Karen"
+    };
+
+    private static final String[] LAST_NAMES = {
+        "Smith", "Johnson", "Williams", "Brown", "Jones", "Garcia", "Miller", "Davis", "Rodriguez", "Martinez",
+        "Hernandez", "Lopez", "Gonzalez", "Wilson", "Anderson", "Thomas", "Taylor", "Moore", "Jackson", "Martin"
+    };
+
+    @Param({"1000000"})
+    public int payments;
+
+    private PaymentSearchIndex index;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        index = new PaymentSearchIndex();
+        Random random = new Random(42);
+        LocalDateTime start = LocalDateTime.of(2023, 1, 1, 0, 0);
+        for (int i = 1; i <= payments; i++) {
+            // Add a rare surname-like token so some queries are highly selective
+            String name = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " "
+                    + LAST_NAMES[random.nextInt(LAST_NAMES.length)] + "-" + Integer.toString(random.nextInt(50_000), 36);
+            Payment payment = new Payment(name, String.format("************%04d", random.nextInt(10_000)), "12/50",
+                    "***", BigDecimal.valueOf(100 + random.nextInt(100_000), 2));
+            payment.setId((long) i);
+            payment.setCreatedAt(start.plusSeconds(i * 30L));
+            index.add(payment);
+        }
+    }
+
+    @Benchmark
+    public PaymentSearchIndex.Hits fullName() {
+        return index.search(new PaymentSearchCriteria("mary smith", null, null, null, null, null, null), 0, 20);
+    }
+
+    @Benchmark
+    public PaymentSearchIndex.Hits nameAndLastFour() {
+        return index.search(new PaymentSearchCriteria("jo", "1234", null, null, null, null, null), 0, 20);
+    }
+
+    @Benchmark
+    public PaymentSearchIndex.Hits broadPrefixWithAmountFilter() {
+        return index.search(new PaymentSearchCriteria("j", null, "USD", new BigDecimal("500.00"), new BigDecimal("510.00"),
+                null, null), 0, 20);
+    }
+}
@@ -0,0 +1,91 @@
+package com.simplestore.paymentservice.benchmark;
+
+import com.simplestore.paymentservice.settlement.MappedLineReader;
+import com.simplestore.paymentservice.settlement.SettlementRecord;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Settlement lines read and parsed per second from a 1M-line file, through the memory-mapped reader
+ * the reconciliation uses versus a BufferedReader. Run with -prof gc to compare allocation per line.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SettlementReadBenchmark {
+
+    private static final int LINES = 1_000_000;
+
+    @Param({"1", "64"})
+    public int windowMb;
+
+    private Path file;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        file = Files.createTempFile("settlement-bench-", ".csv");
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write(SettlementRecord.HEADER);
+            writer.write('\n');
+            for (int i = 0; i < LINES; i++) {
+                writer.write("TXN-" + i + ",COMPLETED," + (i % 10_000) + ".99,USD,2024-03-01T10:00:00\n");
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LINES)
+    public long mapped() throws IOException {
+        long cents = 0;
+        try (MappedLineReader reader = new MappedLineReader(file, windowMb * 1024 * 1024)) {
+            reader.nextLine();
+            String line;
+            while ((line = reader.nextLine()) != null) {
+                cents += SettlementRecord.parse(line).amount().unscaledValue().longValue();
+            }
+        }
+        return cents;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LINES)
+    public long buffered() throws IOException {
+        long cents = 0;
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            reader.readLine();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                cents += SettlementRecord.parse(line).amount().unscaledValue().longValue();
+            }
+        }
+        return cents;
+    }
+}
@@ -0,0 +1,70 @@
+package com.simplestore.paymentservice.benchmark;
+
+import com.simplestore.paymentservice.config.ShardingProperties;
+import com.simplestore.paymentservice.entity.Payment;
+import com.simplestore.paymentservice.repository.ShardRouter;
+import com.simplestore.paymentservice.repository.ShardedPaymentRepository;
+import com.simplestore.paymentservice.service.PaymentMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Payment inserts from 16 threads as the number of file-backed H2 shards grows
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(16)
+@Fork(1)
+public class ShardedWriteBenchmark {
+
+    @Param({"1", "2", "4", "8"})
+    public int shardCount;
+
+    private ShardRouter router;
+    private ShardedPaymentRepository repository;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        Path dataDir = Files.createTempDirectory("sharded-write-bench");
+        ShardingProperties properties = new ShardingProperties();
+        properties.setPoolSize(16);
+        for (int i = 0; i < shardCount; i++) {
+            properties.getShards().add(new ShardingProperties.Shard("jdbc:h2:file:" + dataDir.resolve("shard-" + i)));
+        }
+        router = new ShardRouter(properties);
+        repository = new ShardedPaymentRepository(router);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        router.destroy();
+    }
+
+    @Benchmark
+    public Payment insert() {
+        Payment payment = new Payment("Jane Doe", "************1111", "12/50", "***", new BigDecimal("12.34"));
+        payment.setTransactionId(PaymentMapper.generateTransactionId());
+        return repository.insert(payment);
+    }
+}
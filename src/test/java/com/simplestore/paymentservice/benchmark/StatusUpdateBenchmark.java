@@ -0,0 +1,110 @@
+package com.simplestore.paymentservice.benchmark;
+
+import com.simplestore.paymentservice.config.GroupCommitProperties;
+import com.simplestore.paymentservice.entity.Payment;
+import com.simplestore.paymentservice.entity.PaymentStatus;
+import com.simplestore.paymentservice.service.GroupCommitStatusWriter;
+import com.zaxxer.hikari.HikariDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.LongStream;
+
+/**
+ * Final status updates from 16 concurrent payments: one UPDATE and commit per payment (the default)
+ * versus the group-commit writer. Uses a file-backed H2 database so commits have a real cost.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(16)
+@Fork(1)
+public class StatusUpdateBenchmark {
+
+    // Each update moves a fresh PROCESSING row, so no update degenerates into a no-op
+    private static final int ROWS = 200_000;
+
+    private HikariDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+    private GroupCommitStatusWriter writer;
+    private final AtomicLong nextId = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        Path dataDir = Files.createTempDirectory("status-update-bench");
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:h2:file:" + dataDir.resolve("payments"));
+        dataSource.setUsername("sa");
+        dataSource.setMaximumPoolSize(16);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        jdbcTemplate.execute("CREATE TABLE payments (id BIGINT PRIMARY KEY, status VARCHAR(20) NOT NULL, " +
+                "transaction_id VARCHAR(255), error_message VARCHAR(255), updated_at TIMESTAMP, " +
+                "version BIGINT DEFAULT 0 NOT NULL)");
+        jdbcTemplate.batchUpdate("INSERT INTO payments (id, status) VALUES (?, 'PROCESSING')",
+                LongStream.rangeClosed(1, ROWS).mapToObj(id -> new Object[] {id}).toList());
+
+        writer = new GroupCommitStatusWriter(jdbcTemplate, transactionTemplate, new GroupCommitProperties());
+        writer.start();
+    }
+
+    @Setup(Level.Iteration)
+    public void resetRows() {
+        jdbcTemplate.update("UPDATE payments SET status = 'PROCESSING'");
+        nextId.set(0);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        writer.stop();
+        jdbcTemplate.execute("SHUTDOWN");
+        dataSource.close();
+    }
+
+    private Payment processingPayment() {
+        Payment payment = new Payment();
+        payment.setId(nextId.getAndIncrement() % ROWS + 1);
+        payment.setStatus(PaymentStatus.PROCESSING);
+        payment.setTransactionId("TXN-BENCH");
+        return payment;
+    }
+
+    @Benchmark
+    public void perPaymentCommit() {
+        Payment payment = processingPayment();
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.update(
+                "UPDATE payments SET status = ?, transaction_id = ?, error_message = NULL, updated_at = ?, " +
+                "version = version + 1 WHERE id = ? AND status = ?",
+                PaymentStatus.COMPLETED.name(), payment.getTransactionId(),
+                Timestamp.valueOf(LocalDateTime.now()), payment.getId(), PaymentStatus.PROCESSING.name()));
+    }
+
+    @Benchmark
+    public void groupCommit() {
+        writer.write(processingPayment(), PaymentStatus.COMPLETED);
+    }
+}
@@ -0,0 +1,80 @@
+package com.simplestore.paymentservice.benchmark;
+
+import com.simplestore.paymentservice.scheduling.HierarchicalTimingWheel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scheduled actions per second through the timing wheel, with {@code pending} timers already waiting
+ * (default 1M; the scheduler's settings of 10 ms ticks, 512 buckets and 3 levels).
+ *
+ * scheduleAndCancel is the cost of arming an action and cancelling it; scheduleAndFire arms a batch
+ * due within the next second and advances time until all of it has fired, as the ticker thread does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class TimingWheelBenchmark {
+
+    private static final long TICK_MILLIS = 10;
+    private static final int BATCH = 10_000;
+    // Five minutes, the default horizon
+    private static final int HORIZON_MILLIS = 300_000;
+    // Background timers sit this far out, beyond anything the measured batches advance to
+    private static final long BACKGROUND_OFFSET_MILLIS = TimeUnit.DAYS.toMillis(10);
+
+    @Param({"1000000"})
+    public int pending;
+
+    private HierarchicalTimingWheel<Long> wheel;
+    private Random random;
+    private long now;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        now = 1_700_000_000_000L;
+        random = new Random(42);
+        wheel = new HierarchicalTimingWheel<>(TICK_MILLIS, 512, 3, now);
+        for (long i = 0; i < pending; i++) {
+            wheel.schedule(now + BACKGROUND_OFFSET_MILLIS + random.nextInt(HORIZON_MILLIS), i);
+        }
+    }
+
+    @Benchmark
+    public boolean scheduleAndCancel() {
+        HierarchicalTimingWheel.Timer<Long> timer = wheel.schedule(now + 1 + random.nextInt(HORIZON_MILLIS), 0L);
+        return wheel.cancel(timer);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void scheduleAndFire(Blackhole blackhole) {
+        for (long i = 0; i < BATCH; i++) {
+            wheel.schedule(now + 1 + random.nextInt(1000), i);
+        }
+        // Move forward in tick-sized steps, like the ticker
+        long end = now + 1000 + TICK_MILLIS;
+        while (now < end) {
+            now += TICK_MILLIS;
+            wheel.advanceTo(now, blackhole::consume);
+        }
+    }
+}
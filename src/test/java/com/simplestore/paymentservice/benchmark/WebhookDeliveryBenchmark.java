@@ -0,0 +1,152 @@
+package com.simplestore.paymentservice.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.simplestore.paymentservice.config.WebhookProperties;
+import com.simplestore.paymentservice.dto.WebhookEvent;
+import com.simplestore.paymentservice.entity.Payment;
+import com.simplestore.paymentservice.entity.PaymentStatus;
+import com.simplestore.paymentservice.entity.WebhookEndpoint;
+import com.simplestore.paymentservice.repository.WebhookEndpointRepository;
+import com.simplestore.paymentservice.webhook.WebhookDispatcher;
+import com.simplestore.paymentservice.webhook.WebhookOutbox;
+import com.sun.net.httpserver.HttpServer;
+import com.zaxxer.hikari.HikariDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Webhook deliveries per second to one endpoint that takes 5 ms to answer, one event per request
+ * versus batches, at several per-endpoint concurrency limits. Each invocation publishes 1,000 events
+ * in one transaction and waits until all of them are recorded as delivered.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WebhookDeliveryBenchmark {
+
+    private static final int EVENTS = 1_000;
+    private static final long RECEIVER_LATENCY_MS = 5;
+
+    @Param({"false", "true"})
+    public boolean batch;
+
+    @Param({"1", "8", "32"})
+    public int concurrency;
+
+    private HikariDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+    private HttpServer receiver;
+    private ExecutorService receiverThreads;
+    private WebhookOutbox outbox;
+    private WebhookDispatcher dispatcher;
+    private List<WebhookEvent> events;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        receiverThreads = Executors.newFixedThreadPool(64);
+        receiver = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        receiver.setExecutor(receiverThreads);
+        receiver.createContext("/hooks", exchange -> {
+            try (InputStream in = exchange.getRequestBody()) {
+                in.readAllBytes();
+                Thread.sleep(RECEIVER_LATENCY_MS);
+                exchange.sendResponseHeaders(204, -1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                exchange.close();
+            }
+        });
+        receiver.start();
+
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:h2:mem:webhook-bench;DB_CLOSE_DELAY=-1");
+        dataSource.setUsername("sa");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        jdbcTemplate.execute("CREATE TABLE webhook_deliveries (id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, " +
+                "endpoint_id BIGINT NOT NULL, payment_id BIGINT NOT NULL, event_type VARCHAR(255) NOT NULL, " +
+                "payload VARCHAR(2000) NOT NULL, status VARCHAR(255) NOT NULL, attempts INTEGER NOT NULL, " +
+                "next_attempt_at TIMESTAMP(6) NOT NULL, created_at TIMESTAMP(6) NOT NULL, delivered_at TIMESTAMP(6), " +
+                "last_error VARCHAR(255))");
+        jdbcTemplate.execute("CREATE INDEX idx_webhook_deliveries_due ON webhook_deliveries " +
+                "(endpoint_id, status, next_attempt_at)");
+
+        WebhookEndpoint endpoint = new WebhookEndpoint(
+                "http://localhost:" + receiver.getAddress().getPort() + "/hooks",
+                "whsec_benchmark_secret", batch, concurrency);
+        endpoint.setId(1L);
+        WebhookEndpointRepository endpoints = mock(WebhookEndpointRepository.class);
+        when(endpoints.findAll()).thenReturn(List.of(endpoint));
+
+        outbox = new WebhookOutbox(endpoints, jdbcTemplate, new ObjectMapper().registerModule(new JavaTimeModule()));
+        outbox.start();
+        dispatcher = new WebhookDispatcher(outbox, jdbcTemplate, transactionTemplate, new WebhookProperties());
+        dispatcher.start();
+
+        events = LongStream.rangeClosed(1, EVENTS).mapToObj(id -> {
+            Payment payment = new Payment("Jane Doe", "************1111", "12/30", "***", new BigDecimal("25.00"));
+            payment.setId(id);
+            payment.setCurrency("USD");
+            payment.setTransactionId("TXN-BENCH-" + id);
+            return WebhookEvent.of(payment, PaymentStatus.COMPLETED);
+        }).toList();
+    }
+
+    @TearDown(Level.Iteration)
+    public void clearDelivered() {
+        jdbcTemplate.update("DELETE FROM webhook_deliveries WHERE status = 'DELIVERED'");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        dispatcher.stop();
+        receiver.stop(0);
+        receiverThreads.shutdownNow();
+        jdbcTemplate.execute("SHUTDOWN");
+        dataSource.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EVENTS)
+    public void deliver() throws InterruptedException {
+        long target = dispatcher.getDeliveredCount() + EVENTS;
+        transactionTemplate.executeWithoutResult(status -> outbox.enqueue(events));
+        while (dispatcher.getDeliveredCount() < target) {
+            Thread.sleep(1);
+        }
+    }
+}
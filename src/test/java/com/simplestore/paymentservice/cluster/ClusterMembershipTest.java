@@ -0,0 +1,50 @@
+package com.simplestore.paymentservice.cluster;
+
+import com.simplestore.paymentservice.config.ClusterProperties;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ClusterMembershipTest {
+
+    private static ClusterProperties properties(String secret) {
+        ClusterProperties properties = new ClusterProperties();
+        properties.setEnabled(true);
+        properties.setNodeId("node-1");
+        properties.setSecret(secret);
+        properties.setNodes(List.of(
+                new ClusterProperties.Node("node-1", "http://localhost:8081"),
+                new ClusterProperties.Node("node-2", "http://localhost:8082")));
+        return properties;
+    }
+
+    @Test
+    void peers_needAConfiguredNodeIdAndTheSharedSecret() {
+        ClusterMembership membership = new ClusterMembership(properties("s3cret"));
+        membership.init();
+
+        assertTrue(membership.isPeer("node-2", "s3cret"));
+        assertFalse(membership.isPeer("node-2", "s3cret "));
+        assertFalse(membership.isPeer("node-2", "other"));
+        assertFalse(membership.isPeer("node-2", null));
+        assertFalse(membership.isPeer(null, "s3cret"));
+        assertFalse(membership.isPeer("node-9", "s3cret"));
+        // A request naming this node did not come from a peer
+        assertFalse(membership.isPeer("node-1", "s3cret"));
+    }
+
+    @Test
+    void missingSecret_failsStartup() {
+        for (String secret : new String[] {null, " "}) {
+            ClusterMembership membership = new ClusterMembership(properties(secret));
+
+            IllegalArgumentException e = assertThrows(IllegalArgumentException.class, membership::init);
+            assertEquals("payment.cluster.secret must be set when clustering is enabled", e.getMessage());
+        }
+    }
+}
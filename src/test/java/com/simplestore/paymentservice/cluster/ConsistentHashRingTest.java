@@ -0,0 +1,58 @@
+package com.simplestore.paymentservice.cluster;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConsistentHashRingTest {
+
+    private static final int KEYS = 30_000;
+
+    @Test
+    void keysSpreadEvenlyAcrossNodes() {
+        ConsistentHashRing ring = new ConsistentHashRing(List.of("node-1", "node-2", "node-3"), 128);
+
+        Map<String, Integer> counts = new HashMap<>();
+        for (int i = 0; i < KEYS; i++) {
+            counts.merge(ring.ownerOf("card-" + i), 1, Integer::sum);
+        }
+
+        assertEquals(3, counts.size());
+        for (int count : counts.values()) {
+            assertTrue(Math.abs(count - KEYS / 3) < KEYS / 3 * 0.2, "unbalanced ring: " + counts);
+        }
+    }
+
+    @Test
+    void removingNode_onlyMovesItsOwnKeys() {
+        ConsistentHashRing full = new ConsistentHashRing(List.of("node-1", "node-2", "node-3"), 128);
+        ConsistentHashRing reduced = new ConsistentHashRing(List.of("node-1", "node-3"), 128);
+
+        for (int i = 0; i < KEYS; i++) {
+            String key = "card-" + i;
+            String before = full.ownerOf(key);
+            if (!before.equals("node-2")) {
+                assertEquals(before, reduced.ownerOf(key));
+            }
+        }
+    }
+
+    @Test
+    void sameInput_sameOwner() {
+        ConsistentHashRing first = new ConsistentHashRing(List.of("a", "b"), 16);
+        ConsistentHashRing second = new ConsistentHashRing(List.of("b", "a"), 16);
+
+        assertEquals(first.ownerOf("TXN-1"), second.ownerOf("TXN-1"));
+    }
+
+    @Test
+    void emptyRing_hasNoOwner() {
+        assertNull(new ConsistentHashRing(List.of(), 16).ownerOf("anything"));
+    }
+}
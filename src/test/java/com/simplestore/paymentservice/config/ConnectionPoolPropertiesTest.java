@@ -0,0 +1,29 @@
+package com.simplestore.paymentservice.config;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ConnectionPoolPropertiesTest {
+
+    @Test
+    void poolSize_followsLittlesLawWithHeadroom() {
+        ConnectionPoolProperties properties = new ConnectionPoolProperties();
+        properties.setGatewayConcurrency(1000);
+        properties.setGatewayLatencyMs(490);
+        properties.setDbTimePerPaymentMs(10);
+
+        // 1000 * 10 / 500 = 20 busy connections, doubled
+        assertEquals(40, properties.poolSize());
+    }
+
+    @Test
+    void poolSize_isClampedToBounds() {
+        ConnectionPoolProperties properties = new ConnectionPoolProperties();
+        properties.setGatewayLatencyMs(0);
+        assertEquals(properties.getMaxSize(), properties.poolSize());
+
+        properties.setGatewayLatencyMs(60_000);
+        assertEquals(properties.getMinSize(), properties.poolSize());
+    }
+}
@@ -0,0 +1,34 @@
+package com.simplestore.paymentservice.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ConnectionPoolSizerTest {
+
+    @Test
+    void onlyThePrimaryPool_isSized() {
+        ConnectionPoolSizer sizer = new ConnectionPoolSizer();
+        sizer.setEnvironment(new MockEnvironment()
+            .withProperty("payment.datasource.pool.derive", "true")
+            .withProperty("payment.datasource.pool.gateway-concurrency", "1000")
+            .withProperty("payment.datasource.pool.gateway-latency-ms", "490")
+            .withProperty("payment.datasource.pool.db-time-per-payment-ms", "10"));
+
+        try (HikariDataSource primary = new HikariDataSource();
+             HikariDataSource replicaPrimary = new HikariDataSource();
+             HikariDataSource replica = new HikariDataSource()) {
+            replica.setMaximumPoolSize(7);
+
+            sizer.postProcessAfterInitialization(primary, "dataSource");
+            sizer.postProcessAfterInitialization(replicaPrimary, "primaryDataSource");
+            sizer.postProcessAfterInitialization(replica, "replicaDataSource");
+
+            assertEquals(40, primary.getMaximumPoolSize());
+            assertEquals(40, replicaPrimary.getMaximumPoolSize());
+            assertEquals(7, replica.getMaximumPoolSize());
+        }
+    }
+}
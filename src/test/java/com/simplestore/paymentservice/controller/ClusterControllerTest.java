@@ -0,0 +1,77 @@
+package com.simplestore.paymentservice.controller;
+
+import com.simplestore.paymentservice.cluster.ClusterMembership;
+import com.simplestore.paymentservice.dto.OrderItem;
+import com.simplestore.paymentservice.dto.PaymentRequest;
+import com.simplestore.paymentservice.dto.PaymentResponse;
+import com.simplestore.paymentservice.service.PaymentCoordinator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ClusterControllerTest {
+
+    @Mock
+    private PaymentCoordinator coordinator;
+
+    @Mock
+    private ClusterMembership membership;
+
+    private ClusterController controller;
+
+    @BeforeEach
+    void setUp() {
+        controller = new ClusterController();
+        ReflectionTestUtils.setField(controller, "coordinator", coordinator);
+        ReflectionTestUtils.setField(controller, "membership", membership);
+    }
+
+    private PaymentRequest buildRequest() {
+        return new PaymentRequest("Jane Doe", "4111111111111111", "12/50", "123", new BigDecimal("12.34"),
+                List.of(new OrderItem("Widget", 1, new BigDecimal("12.34"))));
+    }
+
+    @Test
+    void forwardedPaymentWithoutTheClusterSecret_isRefused() {
+        when(membership.isPeer("node-2", "guess")).thenReturn(false);
+
+        ResponseEntity<PaymentResponse> response = controller.processForwarded(buildRequest(), "node-2", "guess", "key-1");
+
+        assertEquals(403, response.getStatusCode().value());
+        verify(coordinator, never()).processLocally(any(), anyString());
+    }
+
+    @Test
+    void forwardedPaymentFromAPeer_isProcessedHere() {
+        PaymentResponse processed = PaymentResponse.success("TXN-1", new BigDecimal("12.34"));
+        PaymentRequest request = buildRequest();
+        when(membership.isPeer("node-2", "s3cret")).thenReturn(true);
+        when(coordinator.processLocally(request, "key-1")).thenReturn(processed);
+
+        ResponseEntity<PaymentResponse> response = controller.processForwarded(request, "node-2", "s3cret", "key-1");
+
+        assertEquals(200, response.getStatusCode().value());
+        assertSame(processed, response.getBody());
+    }
+
+    @Test
+    void pingWithoutTheClusterSecret_isRefused() {
+        assertEquals(403, controller.ping(null, null).getStatusCode().value());
+    }
+}
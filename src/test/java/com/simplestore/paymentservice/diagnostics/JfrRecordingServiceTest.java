@@ -0,0 +1,172 @@
+package com.simplestore.paymentservice.diagnostics;
+
+import com.simplestore.paymentservice.config.DiagnosticsProperties;
+import com.simplestore.paymentservice.dto.ProfileSummary;
+import com.simplestore.paymentservice.dto.RecordingInfo;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JfrRecordingServiceTest {
+
+    @TempDir
+    Path directory;
+
+    private JfrRecordingService service;
+
+    // Keeps allocations reachable long enough to be sampled
+    private final List<byte[]> retained = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        DiagnosticsProperties properties = new DiagnosticsProperties();
+        properties.setDirectory(directory.toString());
+        properties.setMaxDurationSeconds(60);
+        properties.setMaxRecordings(2);
+        service = new JfrRecordingService(properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.closeAll();
+    }
+
+    private static void emitGatewayCall(String transactionId, long sleepMillis) throws InterruptedException {
+        GatewayCallEvent event = new GatewayCallEvent();
+        event.begin();
+        Thread.sleep(sleepMillis);
+        event.transactionId = transactionId;
+        event.operation = "charge";
+        event.payments = 1;
+        event.status = "COMPLETED";
+        event.commit();
+    }
+
+    @Test
+    void summarizesPaymentEventsWithTransactionIds() throws Exception {
+        RecordingInfo started = service.start("profile", null);
+        assertEquals("RUNNING", started.state());
+
+        for (int i = 0; i < 20; i++) {
+            emitGatewayCall("TXN-" + i, 1);
+        }
+        emitGatewayCall("TXN-SLOW", 30);
+        RepositoryCallEvent insert = new RepositoryCallEvent();
+        insert.begin();
+        insert.operation = "insert";
+        insert.transactionId = "TXN-0";
+        insert.commit();
+
+        RecordingInfo stopped = service.stop(started.id()).orElseThrow();
+        assertEquals("STOPPED", stopped.state());
+        assertTrue(Files.size(service.getFile(started.id()).orElseThrow()) > 0);
+
+        ProfileSummary summary = service.summarize(started.id(), 5).orElseThrow();
+        ProfileSummary.PaymentEventStats gateway = summary.paymentEvents().stream()
+            .filter(stats -> stats.event().equals(GatewayCallEvent.NAME))
+            .findFirst()
+            .orElseThrow();
+        assertEquals(21, gateway.count());
+        assertEquals("TXN-SLOW", gateway.slowestTransactionIds().get(0));
+        assertTrue(gateway.maxMillis() >= 30);
+        assertTrue(gateway.p99Millis() <= gateway.maxMillis());
+        ProfileSummary.PaymentEventStats repository = summary.paymentEvents().stream()
+            .filter(stats -> stats.event().equals(RepositoryCallEvent.NAME))
+            .findFirst()
+            .orElseThrow();
+        assertEquals(1, repository.count());
+    }
+
+    @Test
+    void reportsAllocationSitesOutsideTheJdk() throws Exception {
+        RecordingInfo started = service.start("profile", null);
+        for (int i = 0; i < 200_000; i++) {
+            retained.add(new byte[1024]);
+            if (retained.size() > 1_000) {
+                retained.clear();
+            }
+        }
+
+        // Summarized while still running, from a snapshot
+        ProfileSummary summary = service.summarize(started.id(), 3).orElseThrow();
+        assertFalse(summary.allocationSites().isEmpty());
+        assertTrue(summary.allocationSites().size() <= 3);
+        assertTrue(summary.allocationSites().stream()
+            .anyMatch(site -> site.site().startsWith(JfrRecordingServiceTest.class.getName())));
+        assertEquals("RUNNING", service.getRecordings().get(0).state());
+    }
+
+    @Test
+    void allowsOneRunningRecording() {
+        RecordingInfo first = service.start("default", 30L);
+
+        assertThrows(IllegalStateException.class, () -> service.start("default", 30L));
+        assertThrows(IllegalStateException.class, () -> service.getFile(first.id()));
+
+        service.stop(first.id());
+        RecordingInfo second = service.start("default", 30L);
+        assertEquals(2, service.getRecordings().size());
+        assertEquals("RUNNING", second.state());
+    }
+
+    @Test
+    void dropsOldestRecordingBeyondTheLimit() {
+        RecordingInfo first = service.start("default", null);
+        service.stop(first.id());
+        RecordingInfo second = service.start("default", null);
+        service.stop(second.id());
+        Path firstFile = service.getFile(first.id()).orElseThrow();
+
+        service.start("default", null);
+
+        assertEquals(2, service.getRecordings().size());
+        assertTrue(service.summarize(first.id(), 5).isEmpty());
+        assertFalse(Files.exists(firstFile));
+    }
+
+    @Test
+    void rejectsUnknownSettingsAndDurations() {
+        assertThrows(IllegalArgumentException.class, () -> service.start("verbose", null));
+        assertThrows(IllegalArgumentException.class, () -> service.start("default", 0L));
+        assertThrows(IllegalArgumentException.class, () -> service.start("default", 3_600L));
+        assertTrue(service.getRecordings().isEmpty());
+    }
+
+    @Test
+    void deletesRecordingAndFile() {
+        RecordingInfo started = service.start("default", null);
+        service.stop(started.id());
+        Path file = service.getFile(started.id()).orElseThrow();
+
+        assertTrue(service.delete(started.id()));
+
+        assertFalse(Files.exists(file));
+        assertTrue(service.stop(started.id()).isEmpty());
+        assertFalse(service.delete(started.id()));
+    }
+
+    @Test
+    void percentilesStayWithinBucketPrecision() {
+        RecordingAnalyzer.EventDurations durations = new RecordingAnalyzer.EventDurations();
+        for (int i = 1; i <= 1_000; i++) {
+            durations.add(i * 1_000_000L, "TXN-" + i);
+        }
+
+        long p99 = durations.percentileNanos(0.99);
+        assertTrue(p99 >= 990_000_000L && p99 <= 990_000_000L * 1.05, "p99 " + p99);
+        assertEquals(1_000_000_000L, durations.percentileNanos(1.0));
+        assertEquals(List.of("TXN-1000", "TXN-999", "TXN-998", "TXN-997", "TXN-996"),
+                     durations.toStats("test").slowestTransactionIds());
+    }
+}
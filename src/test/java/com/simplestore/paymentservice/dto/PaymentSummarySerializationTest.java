@@ -0,0 +1,59 @@
+package com.simplestore.paymentservice.dto;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.simplestore.paymentservice.entity.Payment;
+import com.simplestore.paymentservice.entity.PaymentStatus;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares the wire size of a 10k-row listing page as full payments, summaries and selected fields
+ */
+class PaymentSummarySerializationTest {
+
+    private static final int ROWS = 10_000;
+
+    private final ObjectMapper objectMapper = JsonMapper.builder()
+            .findAndAddModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+
+    @Test
+    void summaryPage_isSmallerThanFullPage() throws Exception {
+        List<Payment> payments = new ArrayList<>(ROWS);
+        List<PaymentSummary> summaries = new ArrayList<>(ROWS);
+        List<Map<String, Object>> selected = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            Payment payment = new Payment("Jane Doe", "************1111", "12/50", "***",
+                    new BigDecimal("123.45"));
+            payment.setId((long) i);
+            payment.setTransactionId("TXN-1700000000000-" + String.format("%08X", i));
+            payment.setStatus(PaymentStatus.COMPLETED);
+            payments.add(payment);
+            summaries.add(new PaymentSummary(payment.getId(), payment.getTransactionId(), payment.getStatus(),
+                    payment.getAmount(), payment.getCurrency(), payment.getCreatedAt()));
+
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("id", payment.getId());
+            row.put("status", payment.getStatus());
+            row.put("amount", payment.getAmount());
+            selected.add(row);
+        }
+
+        int fullBytes = objectMapper.writeValueAsBytes(payments).length;
+        int summaryBytes = objectMapper.writeValueAsBytes(summaries).length;
+        int selectedBytes = objectMapper.writeValueAsBytes(selected).length;
+
+        assertTrue(summaryBytes < fullBytes * 0.6, "summary page should be well under the full page");
+        assertTrue(selectedBytes < summaryBytes, "selected fields should be smaller than the summary");
+    }
+}
@@ -0,0 +1,96 @@
+package com.simplestore.paymentservice.loadtest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Compares a load test result against the stored baseline and fails when p99 latency regresses.
+ *
+ * Configuration (system properties):
+ *   loadtest.result               result written by {@link LoadTestRunner}
+ *   loadtest.baseline             stored baseline (default src/test/resources/loadtest/baseline.properties)
+ *   loadtest.maxRegressionPercent allowed p99 increase over baseline before failing (default 20)
+ *   loadtest.updateBaseline       copy the result over the baseline instead of comparing (default false);
+ *                                 without it a missing baseline fails the check
+ */
+public class BaselineCheck {
+
+    static final String[] CHECKED_KEYS = {"write.p99", "read.p99"};
+
+    public static void main(String[] args) throws IOException {
+        Path resultPath = Path.of(System.getProperty("loadtest.result", "target/loadtest/result.properties"));
+        Path baselinePath = Path.of(System.getProperty("loadtest.baseline",
+                "src/test/resources/loadtest/baseline.properties"));
+        double maxRegressionPercent = Double.parseDouble(
+                System.getProperty("loadtest.maxRegressionPercent", "20"));
+
+        check(resultPath, baselinePath, maxRegressionPercent, Boolean.getBoolean("loadtest.updateBaseline"));
+    }
+
+    /**
+     * Store the result as the new baseline, or fail if there is no baseline or a checked percentile regressed
+     */
+    static void check(Path resultPath, Path baselinePath, double maxRegressionPercent, boolean updateBaseline)
+            throws IOException {
+        Properties result = load(resultPath);
+
+        if (updateBaseline) {
+            if (baselinePath.getParent() != null) {
+                Files.createDirectories(baselinePath.getParent());
+            }
+            try (OutputStream out = Files.newOutputStream(baselinePath)) {
+                result.store(out, "Payment service load test baseline (latencies in microseconds)");
+            }
+            System.out.println("Baseline updated: " + baselinePath.toAbsolutePath());
+            return;
+        }
+
+        if (!Files.exists(baselinePath)) {
+            // A missing baseline must not turn the regression gate into a silent pass
+            throw new IllegalStateException("No baseline at " + baselinePath
+                    + "; record one on the reference machine with -Dloadtest.updateBaseline=true");
+        }
+
+        List<String> regressions = compare(load(baselinePath), result, maxRegressionPercent);
+        if (!regressions.isEmpty()) {
+            throw new IllegalStateException("p99 latency regressed versus baseline:\n  "
+                    + String.join("\n  ", regressions));
+        }
+        System.out.println("p99 latency within " + maxRegressionPercent + "% of baseline");
+    }
+
+    /**
+     * Return a description of every checked percentile that exceeds the baseline by more than the allowance
+     */
+    static List<String> compare(Properties baseline, Properties result, double maxRegressionPercent) {
+        List<String> regressions = new ArrayList<>();
+        for (String key : CHECKED_KEYS) {
+            String baselineValue = baseline.getProperty(key);
+            String resultValue = result.getProperty(key);
+            if (baselineValue == null || resultValue == null) {
+                continue;
+            }
+            long expected = Long.parseLong(baselineValue);
+            long actual = Long.parseLong(resultValue);
+            if (expected > 0 && actual > expected * (1 + maxRegressionPercent / 100.0)) {
+                regressions.add(String.format("%s: %dus (baseline %dus, +%.1f%%)",
+                        key, actual, expected, (actual - expected) * 100.0 / expected));
+            }
+        }
+        return regressions;
+    }
+
+    private static Properties load(Path path) throws IOException {
+        Properties props = new Properties();
+        try (InputStream in = Files.newInputStream(path)) {
+            props.load(in);
+        }
+        return props;
+    }
+}
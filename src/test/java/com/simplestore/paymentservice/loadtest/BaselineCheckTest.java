@@ -0,0 +1,95 @@
+package com.simplestore.paymentservice.loadtest;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BaselineCheckTest {
+
+    private static Properties props(String... keysAndValues) {
+        Properties props = new Properties();
+        for (int i = 0; i < keysAndValues.length; i += 2) {
+            props.setProperty(keysAndValues[i], keysAndValues[i + 1]);
+        }
+        return props;
+    }
+
+    private static Path write(Path path, Properties props) throws IOException {
+        try (OutputStream out = Files.newOutputStream(path)) {
+            props.store(out, null);
+        }
+        return path;
+    }
+
+    @Test
+    void missingBaseline_failsTheCheckUnlessRecordingOne(@TempDir Path dir) throws IOException {
+        Path result = write(dir.resolve("result.properties"), props("write.p99", "100000"));
+        Path baseline = dir.resolve("loadtest/baseline.properties");
+
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+                () -> BaselineCheck.check(result, baseline, 20, false));
+        assertTrue(e.getMessage().startsWith("No baseline at "), e.getMessage());
+
+        BaselineCheck.check(result, baseline, 20, true);
+        assertTrue(Files.exists(baseline));
+        assertDoesNotThrow(() -> BaselineCheck.check(result, baseline, 20, false));
+
+        write(result, props("write.p99", "130000"));
+        assertThrows(IllegalStateException.class, () -> BaselineCheck.check(result, baseline, 20, false));
+    }
+
+    @Test
+    void increaseUpToTheAllowance_passes() {
+        Properties baseline = props("write.p99", "100000", "read.p99", "5000");
+
+        assertEquals(List.of(), BaselineCheck.compare(baseline,
+                props("write.p99", "120000", "read.p99", "4000"), 20));
+    }
+
+    @Test
+    void increaseOverTheAllowance_isReportedPerKey() {
+        Properties baseline = props("write.p99", "100000", "read.p99", "5000");
+
+        List<String> regressions = BaselineCheck.compare(baseline,
+                props("write.p99", "125000", "read.p99", "6001"), 20);
+
+        assertEquals(2, regressions.size());
+        assertTrue(regressions.get(0).startsWith("write.p99: 125000us (baseline 100000us, +25.0%)"),
+                regressions.get(0));
+        assertTrue(regressions.get(1).startsWith("read.p99: 6001us"), regressions.get(1));
+    }
+
+    @Test
+    void allowance_isConfigurable() {
+        Properties baseline = props("write.p99", "100000");
+        Properties result = props("write.p99", "105001");
+
+        assertEquals(1, BaselineCheck.compare(baseline, result, 5).size());
+        assertEquals(List.of(), BaselineCheck.compare(baseline, result, 10));
+    }
+
+    @Test
+    void missingKeysAndZeroBaselines_areSkipped() {
+        assertEquals(List.of(), BaselineCheck.compare(props("write.p99", "100000"),
+                props("read.p99", "999999"), 20));
+        assertEquals(List.of(), BaselineCheck.compare(props("write.p99", "0", "read.p99", "0"),
+                props("write.p99", "999999", "read.p99", "999999"), 20));
+    }
+
+    @Test
+    void uncheckedKeys_areIgnored() {
+        assertEquals(List.of(), BaselineCheck.compare(props("write.p50", "1000", "write.max", "1000"),
+                props("write.p50", "9000", "write.max", "9000"), 20));
+    }
+}
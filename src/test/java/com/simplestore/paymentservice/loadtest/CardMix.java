@@ -0,0 +1,92 @@
+package com.simplestore.paymentservice.loadtest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Weighted mix of test card numbers.
+ *
+ * Spec format is a comma separated list of suffix:weight pairs, e.g. "1111:70,0000:10,random:20".
+ * Suffixes 1111 and 0000 are recognized by the gateway simulator (always succeed / always fail);
+ * "random" produces a card that goes through the simulator's random outcome path.
+ */
+public class CardMix {
+
+    private static final String RANDOM_OUTCOME_CARD = "4532015112830366";
+
+    private final List<String> cards = new ArrayList<>();
+    private final List<Integer> cumulativeWeights = new ArrayList<>();
+    private final int totalWeight;
+
+    public CardMix(String spec) {
+        int total = 0;
+        for (String entry : spec.split(",")) {
+            String[] parts = entry.trim().split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid card mix entry: " + entry);
+            }
+            int weight = Integer.parseInt(parts[1].trim());
+            if (weight <= 0) {
+                continue;
+            }
+            total += weight;
+            cards.add(cardFor(parts[0].trim()));
+            cumulativeWeights.add(total);
+        }
+        if (total == 0) {
+            throw new IllegalArgumentException("Card mix has no positive weights: " + spec);
+        }
+        this.totalWeight = total;
+    }
+
+    /**
+     * Pick a card number according to the configured weights
+     */
+    public String next(Random random) {
+        int roll = random.nextInt(totalWeight);
+        for (int i = 0; i < cumulativeWeights.size(); i++) {
+            if (roll < cumulativeWeights.get(i)) {
+                return cards.get(i);
+            }
+        }
+        return cards.get(cards.size() - 1);
+    }
+
+    /**
+     * Build a Luhn-valid 16 digit card number ending with the given suffix
+     */
+    static String cardFor(String suffix) {
+        if ("random".equalsIgnoreCase(suffix)) {
+            return RANDOM_OUTCOME_CARD;
+        }
+        if (!suffix.matches("^[0-9]{1,8}$")) {
+            throw new IllegalArgumentException("Card suffix must be 1-8 digits: " + suffix);
+        }
+        String prefix = "4111111111111111".substring(0, 15 - suffix.length());
+        for (int digit = 0; digit <= 9; digit++) {
+            String candidate = prefix + digit + suffix;
+            if (isValidLuhn(candidate)) {
+                return candidate;
+            }
+        }
+        throw new IllegalStateException("No Luhn-valid card for suffix " + suffix);
+    }
+
+    private static boolean isValidLuhn(String cardNumber) {
+        int sum = 0;
+        boolean alternate = false;
+        for (int i = cardNumber.length() - 1; i >= 0; i--) {
+            int n = cardNumber.charAt(i) - '0';
+            if (alternate) {
+                n *= 2;
+                if (n > 9) {
+                    n -= 9;
+                }
+            }
+            sum += n;
+            alternate = !alternate;
+        }
+        return sum % 10 == 0;
+    }
+}
@@ -0,0 +1,90 @@
+package com.simplestore.paymentservice.loadtest;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CardMixTest {
+
+    private static final int DRAWS = 10_000;
+
+    private static boolean isValidLuhn(String cardNumber) {
+        int sum = 0;
+        for (int i = 0; i < cardNumber.length(); i++) {
+            int digit = cardNumber.charAt(cardNumber.length() - 1 - i) - '0';
+            if (i % 2 == 1) {
+                digit = digit * 2 > 9 ? digit * 2 - 9 : digit * 2;
+            }
+            sum += digit;
+        }
+        return sum % 10 == 0;
+    }
+
+    private static Map<String, Integer> draw(CardMix mix, long seed) {
+        Random random = new Random(seed);
+        Map<String, Integer> counts = new HashMap<>();
+        for (int i = 0; i < DRAWS; i++) {
+            counts.merge(mix.next(random), 1, Integer::sum);
+        }
+        return counts;
+    }
+
+    @Test
+    void cardFor_buildsLuhnValidCardsEndingWithTheSuffix() {
+        for (String suffix : new String[] {"1111", "0000", "7", "12345678"}) {
+            String card = CardMix.cardFor(suffix);
+
+            assertEquals(16, card.length(), card);
+            assertTrue(card.matches("[0-9]+"), card);
+            assertTrue(card.endsWith(suffix), card);
+            assertTrue(isValidLuhn(card), card);
+        }
+    }
+
+    @Test
+    void cardFor_mapsRandomToTheRandomOutcomeCard() {
+        assertEquals("4532015112830366", CardMix.cardFor("random"));
+        assertEquals("4532015112830366", CardMix.cardFor("RANDOM"));
+    }
+
+    @Test
+    void next_followsTheWeights() {
+        CardMix mix = new CardMix("1111:70, 0000:30");
+
+        Map<String, Integer> counts = draw(mix, 42L);
+
+        assertEquals(2, counts.size());
+        assertEquals(0.7, counts.get(CardMix.cardFor("1111")) / (double) DRAWS, 0.02);
+        assertEquals(0.3, counts.get(CardMix.cardFor("0000")) / (double) DRAWS, 0.02);
+    }
+
+    @Test
+    void next_isRepeatableForTheSameSeed() {
+        CardMix mix = new CardMix("1111:80,0000:10,random:10");
+
+        assertEquals(draw(mix, 7L), draw(mix, 7L));
+    }
+
+    @Test
+    void zeroWeights_areNeverDrawn() {
+        CardMix mix = new CardMix("1111:0,0000:1");
+
+        assertEquals(Map.of(CardMix.cardFor("0000"), DRAWS), draw(mix, 42L));
+    }
+
+    @Test
+    void invalidSpecs_areRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new CardMix("1111"));
+        assertThrows(IllegalArgumentException.class, () -> new CardMix("1111:50:50"));
+        assertThrows(IllegalArgumentException.class, () -> new CardMix("1111:ten"));
+        assertThrows(IllegalArgumentException.class, () -> new CardMix("abcd:10"));
+        assertThrows(IllegalArgumentException.class, () -> new CardMix("123456789:10"));
+        assertThrows(IllegalArgumentException.class, () -> new CardMix("1111:0,0000:0"));
+    }
+}
@@ -0,0 +1,73 @@
+package com.simplestore.paymentservice.loadtest;
+
+import java.util.Arrays;
+
+/**
+ * Collects latency samples in microseconds and reports percentiles.
+ *
+ * Each worker thread owns its own recorder; recorders are merged once the run is over,
+ * so recording never contends on a shared lock.
+ */
+public class LatencyRecorder {
+
+    private long[] samples = new long[1024];
+    private int count;
+    private boolean sorted;
+
+    /**
+     * Record a single latency sample
+     */
+    public void record(long latencyMicros) {
+        if (count == samples.length) {
+            samples = Arrays.copyOf(samples, samples.length * 2);
+        }
+        samples[count++] = Math.max(0, latencyMicros);
+        sorted = false;
+    }
+
+    /**
+     * Merge samples from another recorder into this one
+     */
+    public void merge(LatencyRecorder other) {
+        if (count + other.count > samples.length) {
+            samples = Arrays.copyOf(samples, Math.max(samples.length * 2, count + other.count));
+        }
+        System.arraycopy(other.samples, 0, samples, count, other.count);
+        count += other.count;
+        sorted = false;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Get the value at the given percentile (0-100), nearest-rank method
+     */
+    public long percentile(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        if (!sorted) {
+            Arrays.sort(samples, 0, count);
+            sorted = true;
+        }
+        int rank = (int) Math.ceil(percentile / 100.0 * count);
+        return samples[Math.min(count - 1, Math.max(0, rank - 1))];
+    }
+
+    public long max() {
+        return percentile(100.0);
+    }
+
+    public double mean() {
+        if (count == 0) {
+            return 0;
+        }
+        long sum = 0;
+        for (int i = 0; i < count; i++) {
+            sum += samples[i];
+        }
+        return (double) sum / count;
+    }
+}
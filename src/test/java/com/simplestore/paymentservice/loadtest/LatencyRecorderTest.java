@@ -0,0 +1,81 @@
+package com.simplestore.paymentservice.loadtest;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class LatencyRecorderTest {
+
+    private static LatencyRecorder recorderOf(long... samples) {
+        LatencyRecorder recorder = new LatencyRecorder();
+        for (long sample : samples) {
+            recorder.record(sample);
+        }
+        return recorder;
+    }
+
+    @Test
+    void emptyRecorder_reportsZero() {
+        LatencyRecorder recorder = new LatencyRecorder();
+
+        assertEquals(0, recorder.getCount());
+        assertEquals(0, recorder.percentile(99));
+        assertEquals(0, recorder.max());
+        assertEquals(0.0, recorder.mean());
+    }
+
+    @Test
+    void percentiles_useNearestRank() {
+        // 1..100 in reverse, so the recorder has to sort
+        LatencyRecorder recorder = new LatencyRecorder();
+        for (long i = 100; i >= 1; i--) {
+            recorder.record(i);
+        }
+
+        assertEquals(1, recorder.percentile(0));
+        assertEquals(1, recorder.percentile(1));
+        assertEquals(50, recorder.percentile(50));
+        assertEquals(90, recorder.percentile(90));
+        assertEquals(99, recorder.percentile(99));
+        assertEquals(100, recorder.percentile(99.1));
+        assertEquals(100, recorder.max());
+        assertEquals(50.5, recorder.mean());
+    }
+
+    @Test
+    void percentiles_roundTheRankUp() {
+        LatencyRecorder recorder = recorderOf(10, 20, 30);
+
+        // Rank ceil(0.5 * 3) = 2
+        assertEquals(20, recorder.percentile(50));
+        // Rank ceil(0.9 * 3) = 3
+        assertEquals(30, recorder.percentile(90));
+    }
+
+    @Test
+    void negativeSamples_areClampedToZero() {
+        LatencyRecorder recorder = recorderOf(-5, 7);
+
+        assertEquals(0, recorder.percentile(50));
+        assertEquals(7, recorder.max());
+    }
+
+    @Test
+    void merge_combinesSamplesBeyondTheInitialCapacity() {
+        LatencyRecorder first = new LatencyRecorder();
+        LatencyRecorder second = new LatencyRecorder();
+        for (int i = 1; i <= 1000; i++) {
+            first.record(i);
+            second.record(1000 + i);
+        }
+        // Sort the target before merging, so the merged samples have to be sorted again
+        assertEquals(1000, first.max());
+
+        first.merge(second);
+
+        assertEquals(2000, first.getCount());
+        assertEquals(1000, first.percentile(50));
+        assertEquals(2000, first.max());
+        assertEquals(1000, second.getCount());
+    }
+}
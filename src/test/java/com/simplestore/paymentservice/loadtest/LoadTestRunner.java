@@ -0,0 +1,295 @@
+package com.simplestore.paymentservice.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.simplestore.paymentservice.dto.OrderItem;
+import com.simplestore.paymentservice.dto.PaymentRequest;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-model load generator for the payment API.
+ *
+ * Requests are issued on a fixed schedule (loadtest.rate per second). Every request has an intended
+ * start time, and its corrected latency is measured from that time rather than from when a worker
+ * actually got around to sending it. When the service stalls, the queueing delay the stall would
+ * have caused for real clients is therefore counted instead of silently omitted (coordinated omission).
+ *
+ * Configuration (system properties):
+ *   loadtest.baseUrl          service base URL (default http://localhost:8080)
+ *   loadtest.concurrency      number of worker threads / connections (default 16)
+ *   loadtest.rate             target arrival rate, requests per second (default 50)
+ *   loadtest.durationSeconds  measured run length (default 30)
+ *   loadtest.warmupSeconds    unmeasured warm-up before the run (default 5)
+ *   loadtest.readRatio        fraction of requests hitting read endpoints (default 0.2)
+ *   loadtest.cardMix          weighted card suffixes, see {@link CardMix} (default 1111:80,0000:10,random:10)
+ *   loadtest.seed             seed for request mix selection (default 42)
+ *   loadtest.result           where to write the result properties (default target/loadtest/result.properties)
+ */
+public class LoadTestRunner {
+
+    static final String[] READ_PATHS = {
+        "/api/payments/recent",
+        "/api/payments/stats",
+        "/api/payments/status/COMPLETED"
+    };
+
+    private final String baseUrl;
+    private final int concurrency;
+    private final double rate;
+    private final Duration duration;
+    private final Duration warmup;
+    private final double readRatio;
+    private final CardMix cardMix;
+    private final long seed;
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    public LoadTestRunner(String baseUrl, int concurrency, double rate, Duration duration, Duration warmup,
+                          double readRatio, CardMix cardMix, long seed) {
+        if (concurrency <= 0 || rate <= 0) {
+            throw new IllegalArgumentException("Concurrency and rate must be greater than 0");
+        }
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.concurrency = concurrency;
+        this.rate = rate;
+        this.duration = duration;
+        this.warmup = warmup;
+        this.readRatio = readRatio;
+        this.cardMix = cardMix;
+        this.seed = seed;
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestRunner runner = new LoadTestRunner(
+                System.getProperty("loadtest.baseUrl", "http://localhost:8080"),
+                Integer.getInteger("loadtest.concurrency", 16),
+                Double.parseDouble(System.getProperty("loadtest.rate", "50")),
+                Duration.ofSeconds(Long.getLong("loadtest.durationSeconds", 30L)),
+                Duration.ofSeconds(Long.getLong("loadtest.warmupSeconds", 5L)),
+                Double.parseDouble(System.getProperty("loadtest.readRatio", "0.2")),
+                new CardMix(System.getProperty("loadtest.cardMix", "1111:80,0000:10,random:10")),
+                Long.getLong("loadtest.seed", 42L));
+
+        if (!runner.warmup.isZero()) {
+            System.out.println("Warming up for " + runner.warmup.getSeconds() + "s...");
+            runner.run(runner.warmup);
+        }
+
+        System.out.println("Running for " + runner.duration.getSeconds() + "s at " + runner.rate + " req/s...");
+        LoadTestResult result = runner.run(runner.duration);
+        System.out.println(result.summary());
+
+        Path resultPath = Path.of(System.getProperty("loadtest.result", "target/loadtest/result.properties"));
+        result.write(resultPath);
+        System.out.println("Result written to " + resultPath.toAbsolutePath());
+    }
+
+    /**
+     * Drive the service for the given duration and collect latencies
+     */
+    public LoadTestResult run(Duration runDuration) throws Exception {
+        long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / rate);
+        long totalRequests = Math.max(1, (long) (runDuration.toNanos() / intervalNanos));
+        long startNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(100);
+
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+        List<Future<WorkerStats>> futures = new ArrayList<>();
+        for (int w = 0; w < concurrency; w++) {
+            final int workerIndex = w;
+            futures.add(workers.submit(() -> runWorker(workerIndex, totalRequests, startNanos, intervalNanos)));
+        }
+
+        WorkerStats total = new WorkerStats();
+        for (Future<WorkerStats> future : futures) {
+            total.merge(future.get());
+        }
+        workers.shutdown();
+
+        long elapsedNanos = System.nanoTime() - startNanos;
+        return new LoadTestResult(rate, concurrency, elapsedNanos, total.writeLatency, total.readLatency,
+                total.uncorrectedLatency, total.errors);
+    }
+
+    /**
+     * Worker w owns requests w, w + concurrency, w + 2 * concurrency, ... of the global schedule
+     */
+    private WorkerStats runWorker(int workerIndex, long totalRequests, long startNanos, long intervalNanos) {
+        WorkerStats stats = new WorkerStats();
+        Random random = new Random(seed + workerIndex);
+
+        for (long i = workerIndex; i < totalRequests; i += concurrency) {
+            long intendedStart = startNanos + i * intervalNanos;
+            long now;
+            while ((now = System.nanoTime()) < intendedStart) {
+                LockSupport.parkNanos(intendedStart - now);
+            }
+
+            boolean read = random.nextDouble() < readRatio;
+            long actualStart = System.nanoTime();
+            boolean ok;
+            try {
+                ok = read ? sendRead(random) : sendPayment(random);
+            } catch (IOException e) {
+                ok = false;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            long end = System.nanoTime();
+
+            LatencyRecorder target = read ? stats.readLatency : stats.writeLatency;
+            target.record(TimeUnit.NANOSECONDS.toMicros(end - intendedStart));
+            stats.uncorrectedLatency.record(TimeUnit.NANOSECONDS.toMicros(end - actualStart));
+            if (!ok) {
+                stats.errors++;
+            }
+        }
+        return stats;
+    }
+
+    private boolean sendPayment(Random random) throws IOException, InterruptedException {
+        BigDecimal price = BigDecimal.valueOf(100 + random.nextInt(30_000), 2);
+        int quantity = 1 + random.nextInt(3);
+        PaymentRequest request = new PaymentRequest(
+                "Load Test",
+                cardMix.next(random),
+                "12/50",
+                "123",
+                price.multiply(BigDecimal.valueOf(quantity)),
+                List.of(new OrderItem("Load Test Item", quantity, price)));
+
+        HttpRequest httpRequest = HttpRequest.newBuilder(URI.create(baseUrl + "/api/payments/process"))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(request)))
+                .build();
+        HttpResponse<Void> response = httpClient.send(httpRequest, HttpResponse.BodyHandlers.discarding());
+        // Declines come back as 400 by design; only transport/server errors count as failures
+        return response.statusCode() < 500;
+    }
+
+    private boolean sendRead(Random random) throws IOException, InterruptedException {
+        String path = READ_PATHS[random.nextInt(READ_PATHS.length)];
+        HttpRequest httpRequest = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(30))
+                .GET()
+                .build();
+        HttpResponse<Void> response = httpClient.send(httpRequest, HttpResponse.BodyHandlers.discarding());
+        return response.statusCode() == 200;
+    }
+
+    private static class WorkerStats {
+        private final LatencyRecorder writeLatency = new LatencyRecorder();
+        private final LatencyRecorder readLatency = new LatencyRecorder();
+        private final LatencyRecorder uncorrectedLatency = new LatencyRecorder();
+        private long errors;
+
+        private void merge(WorkerStats other) {
+            writeLatency.merge(other.writeLatency);
+            readLatency.merge(other.readLatency);
+            uncorrectedLatency.merge(other.uncorrectedLatency);
+            errors += other.errors;
+        }
+    }
+
+    /**
+     * Outcome of a load test run
+     */
+    public static class LoadTestResult {
+        private final double targetRate;
+        private final int concurrency;
+        private final long elapsedNanos;
+        private final LatencyRecorder writeLatency;
+        private final LatencyRecorder readLatency;
+        private final LatencyRecorder uncorrectedLatency;
+        private final long errors;
+
+        LoadTestResult(double targetRate, int concurrency, long elapsedNanos, LatencyRecorder writeLatency,
+                       LatencyRecorder readLatency, LatencyRecorder uncorrectedLatency, long errors) {
+            this.targetRate = targetRate;
+            this.concurrency = concurrency;
+            this.elapsedNanos = elapsedNanos;
+            this.writeLatency = writeLatency;
+            this.readLatency = readLatency;
+            this.uncorrectedLatency = uncorrectedLatency;
+            this.errors = errors;
+        }
+
+        public double throughput() {
+            long completed = writeLatency.getCount() + readLatency.getCount();
+            return completed / (elapsedNanos / 1_000_000_000.0);
+        }
+
+        public Properties toProperties() {
+            Properties props = new Properties();
+            props.setProperty("targetRate", String.valueOf(targetRate));
+            props.setProperty("concurrency", String.valueOf(concurrency));
+            props.setProperty("throughput", String.format(Locale.ROOT, "%.2f", throughput()));
+            props.setProperty("errors", String.valueOf(errors));
+            putPercentiles(props, "write", writeLatency);
+            putPercentiles(props, "read", readLatency);
+            putPercentiles(props, "uncorrected", uncorrectedLatency);
+            return props;
+        }
+
+        public void write(Path path) throws IOException {
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            try (OutputStream out = Files.newOutputStream(path)) {
+                toProperties().store(out, "Payment service load test result (latencies in microseconds)");
+            }
+        }
+
+        public String summary() {
+            StringBuilder sb = new StringBuilder();
+            sb.append(String.format(Locale.ROOT, "Throughput: %.1f req/s (target %.1f), errors: %d%n",
+                    throughput(), targetRate, errors));
+            sb.append(String.format(Locale.ROOT, "%-12s %8s %10s %10s %10s %10s %10s%n",
+                    "", "count", "p50(ms)", "p90(ms)", "p99(ms)", "p99.9(ms)", "max(ms)"));
+            appendRow(sb, "write", writeLatency);
+            appendRow(sb, "read", readLatency);
+            appendRow(sb, "uncorrected", uncorrectedLatency);
+            return sb.toString();
+        }
+
+        private static void putPercentiles(Properties props, String prefix, LatencyRecorder recorder) {
+            props.setProperty(prefix + ".count", String.valueOf(recorder.getCount()));
+            props.setProperty(prefix + ".p50", String.valueOf(recorder.percentile(50)));
+            props.setProperty(prefix + ".p90", String.valueOf(recorder.percentile(90)));
+            props.setProperty(prefix + ".p99", String.valueOf(recorder.percentile(99)));
+            props.setProperty(prefix + ".p999", String.valueOf(recorder.percentile(99.9)));
+            props.setProperty(prefix + ".max", String.valueOf(recorder.max()));
+        }
+
+        private static void appendRow(StringBuilder sb, String label, LatencyRecorder recorder) {
+            sb.append(String.format(Locale.ROOT, "%-12s %8d %10.2f %10.2f %10.2f %10.2f %10.2f%n",
+                    label, recorder.getCount(),
+                    recorder.percentile(50) / 1000.0, recorder.percentile(90) / 1000.0,
+                    recorder.percentile(99) / 1000.0, recorder.percentile(99.9) / 1000.0,
+                    recorder.max() / 1000.0));
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.simplestore.paymentservice.loadtest;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Drives a stub service whose first response stalls, to check that latency is measured from the intended start
+ */
+class LoadTestRunnerTest {
+
+    private static final long STALL_MILLIS = 1000;
+
+    private final AtomicInteger requests = new AtomicInteger();
+    private HttpServer server;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/api/payments/process", exchange -> {
+            exchange.getRequestBody().readAllBytes();
+            if (requests.incrementAndGet() == 1) {
+                try {
+                    Thread.sleep(STALL_MILLIS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    void stalledResponse_chargesTheWaitToEveryRequestQueuedBehindIt() throws Exception {
+        // One connection at 50 req/s: 50 requests scheduled 20ms apart, the first one held for a second
+        LoadTestRunner runner = new LoadTestRunner("http://localhost:" + server.getAddress().getPort(), 1, 50,
+                Duration.ofSeconds(1), Duration.ZERO, 0.0, new CardMix("1111:100"), 42L);
+
+        Properties result = runner.run(Duration.ofSeconds(1)).toProperties();
+
+        assertEquals("50", result.getProperty("write.count"));
+        assertEquals("0", result.getProperty("errors"));
+        // The 49 requests due during the stall waited for it: corrected, half of them took 500ms or more
+        long correctedP50 = Long.parseLong(result.getProperty("write.p50"));
+        assertTrue(correctedP50 >= 400_000, "corrected p50 " + correctedP50 + "us");
+        // Timed from when they were actually sent, only the stalled request looks slow
+        long uncorrectedP90 = Long.parseLong(result.getProperty("uncorrected.p90"));
+        assertTrue(uncorrectedP90 < 400_000, "uncorrected p90 " + uncorrectedP90 + "us");
+        assertTrue(Long.parseLong(result.getProperty("uncorrected.max")) >= STALL_MILLIS * 1000);
+    }
+}
@@ -0,0 +1,224 @@
+package com.simplestore.paymentservice.loadtest;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the servlet and reactive stacks holding the same number of concurrent payments: memory per
+ * connection, threads and throughput.
+ *
+ * Each stack starts in a fresh JVM with a fixed gateway latency, and is driven by {@link LoadTestRunner}
+ * with one worker per connection at the rate that keeps every connection busy (Little's law:
+ * connections / gateway latency). RSS and the thread count are sampled before the run and while it runs,
+ * and the growth is divided by the number of connections. The servlet stack gets one Tomcat thread per
+ * connection, as thread-per-request needs to serve them all at once. RSS comes from /proc, so the memory
+ * columns are 0 outside Linux.
+ *
+ * Needs the reactive classes, so build with -Preactive (see the stacks profile).
+ *
+ * Configuration (system properties):
+ *   stacks.dir               working directory holding classpath.txt and results (default target/stacks)
+ *   stacks.classes           compiled application classes (default target/classes)
+ *   stacks.connections       concurrent connections, one payment in flight on each (default 1000)
+ *   stacks.gatewayLatencyMs  fixed simulated gateway latency (default 500)
+ *   stacks.durationSeconds   measured run length (default 30)
+ *   stacks.timeoutSeconds    give up on a launch after this long (default 120)
+ */
+public class StackBenchmark {
+
+    static final String MAIN_CLASS = "com.simplestore.paymentservice.PaymentServiceApplication";
+    static final String READINESS_PATH = "/actuator/health/readiness";
+    static final String REACTIVE_MARKER = "com/simplestore/paymentservice/controller/ReactivePaymentController.class";
+
+    // Sampling period for RSS and threads while the load runs
+    private static final long SAMPLE_MILLIS = 250;
+
+    private final Path dir;
+    private final String classpath;
+    private final int connections;
+    private final long gatewayLatencyMs;
+    private final Duration duration;
+    private final Duration timeout;
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofMillis(200))
+            .build();
+
+    public StackBenchmark(Path dir, String classpath, int connections, long gatewayLatencyMs, Duration duration,
+                          Duration timeout) {
+        if (connections <= 0 || gatewayLatencyMs <= 0) {
+            throw new IllegalArgumentException("Connections and gateway latency must be greater than 0");
+        }
+        this.dir = dir;
+        this.classpath = classpath;
+        this.connections = connections;
+        this.gatewayLatencyMs = gatewayLatencyMs;
+        this.duration = duration;
+        this.timeout = timeout;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Path dir = Path.of(System.getProperty("stacks.dir", "target/stacks"));
+        String classes = System.getProperty("stacks.classes", "target/classes");
+        if (!Files.exists(Path.of(classes, REACTIVE_MARKER))) {
+            throw new IllegalStateException("Reactive stack not compiled; run with -Preactive,stacks");
+        }
+        String dependencies = Files.readString(dir.resolve("classpath.txt")).trim();
+
+        StackBenchmark benchmark = new StackBenchmark(
+                dir,
+                classes + File.pathSeparator + dependencies,
+                Integer.getInteger("stacks.connections", 1000),
+                Long.getLong("stacks.gatewayLatencyMs", 500L),
+                Duration.ofSeconds(Long.getLong("stacks.durationSeconds", 30L)),
+                Duration.ofSeconds(Long.getLong("stacks.timeoutSeconds", 120L)));
+
+        Properties result = new Properties();
+        System.out.printf("%-9s %12s %12s %14s %9s %10s %10s %7s%n", "stack", "idle RSS MB", "peak RSS MB",
+                "KB/connection", "threads", "req/s", "p99(ms)", "errors");
+        for (String stack : List.of("servlet", "reactive")) {
+            Properties measured = benchmark.measure(stack.equals("reactive"));
+            for (String key : measured.stringPropertyNames()) {
+                result.setProperty(stack + "." + key, measured.getProperty(key));
+            }
+            System.out.printf(Locale.ROOT, "%-9s %12d %12d %14d %9s %10s %10.2f %7s%n", stack,
+                    Long.parseLong(measured.getProperty("idleRssKb")) / 1024,
+                    Long.parseLong(measured.getProperty("peakRssKb")) / 1024,
+                    Long.parseLong(measured.getProperty("rssPerConnectionKb")),
+                    measured.getProperty("peakThreads"), measured.getProperty("throughput"),
+                    Long.parseLong(measured.getProperty("write.p99")) / 1000.0, measured.getProperty("errors"));
+        }
+
+        try (OutputStream out = Files.newOutputStream(dir.resolve("result.properties"))) {
+            result.store(out, "Servlet versus reactive stack at " + benchmark.connections
+                    + " concurrent connections (memory in KB, latencies in microseconds)");
+        }
+    }
+
+    /**
+     * Idle and peak RSS and threads, RSS growth per connection and the load test result for one fresh launch
+     */
+    Properties measure(boolean reactive) throws Exception {
+        int port = freePort();
+        Process process = launch(reactive, port);
+        try {
+            awaitReady(process, port);
+            // Let startup work (index rebuild, JIT of the first requests) settle before the idle sample
+            Thread.sleep(2000);
+            long idleRssKb = StartupBenchmark.residentKb(process.pid());
+            long idleThreads = threads(process.pid());
+
+            double rate = connections * 1000.0 / gatewayLatencyMs;
+            LoadTestRunner runner = new LoadTestRunner("http://localhost:" + port, connections, rate, duration,
+                    Duration.ZERO, 0.0, new CardMix("1111:90,0000:10"), 42L);
+            CompletableFuture<LoadTestRunner.LoadTestResult> run = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return runner.run(duration);
+                } catch (Exception e) {
+                    throw new IllegalStateException("Load test failed", e);
+                }
+            });
+            long peakRssKb = idleRssKb;
+            long peakThreads = idleThreads;
+            while (!run.isDone()) {
+                peakRssKb = Math.max(peakRssKb, StartupBenchmark.residentKb(process.pid()));
+                peakThreads = Math.max(peakThreads, threads(process.pid()));
+                Thread.sleep(SAMPLE_MILLIS);
+            }
+
+            Properties result = run.join().toProperties();
+            result.setProperty("connections", Integer.toString(connections));
+            result.setProperty("idleRssKb", Long.toString(idleRssKb));
+            result.setProperty("peakRssKb", Long.toString(peakRssKb));
+            result.setProperty("rssPerConnectionKb", Long.toString((peakRssKb - idleRssKb) / connections));
+            result.setProperty("idleThreads", Long.toString(idleThreads));
+            result.setProperty("peakThreads", Long.toString(peakThreads));
+            return result;
+        } finally {
+            process.destroy();
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+            }
+        }
+    }
+
+    private Process launch(boolean reactive, int port) throws IOException {
+        Files.createDirectories(dir);
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.add("-cp");
+        command.add(classpath);
+        command.add(MAIN_CLASS);
+        command.add("--spring.profiles.active=benchmark" + (reactive ? ",reactive" : ""));
+        command.add("--server.port=" + port);
+        command.add("--server.tomcat.threads.max=" + connections);
+        command.add("--server.tomcat.max-connections=" + (connections * 2));
+        command.add("--payment.gateway.simulator.latency.mode=FIXED");
+        command.add("--payment.gateway.simulator.latency.fixed-ms=" + gatewayLatencyMs);
+        // Measure how each stack holds the connections, not how admission control sheds them
+        command.add("--payment.admission.enabled=false");
+        command.add("--payment.warmup.enabled=false");
+        return new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(dir.resolve((reactive ? "reactive" : "servlet") + ".log").toFile())
+                .start();
+    }
+
+    private void awaitReady(Process process, int port) throws InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + READINESS_PATH))
+                .timeout(Duration.ofSeconds(5))
+                .GET()
+                .build();
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException("Service exited during startup, see the logs in " + dir);
+            }
+            try {
+                if (httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return;
+                }
+            } catch (IOException e) {
+                // Not listening yet
+            }
+            Thread.sleep(10);
+        }
+        throw new IllegalStateException("Service not ready after " + timeout.toSeconds() + "s");
+    }
+
+    /**
+     * Live thread count from /proc; 0 where that is not available
+     */
+    static long threads(long pid) throws IOException {
+        Path status = Path.of("/proc", Long.toString(pid), "status");
+        if (!Files.exists(status)) {
+            return 0;
+        }
+        for (String line : Files.readAllLines(status)) {
+            if (line.startsWith("Threads:")) {
+                return Long.parseLong(line.replaceAll("\\D", ""));
+            }
+        }
+        return 0;
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
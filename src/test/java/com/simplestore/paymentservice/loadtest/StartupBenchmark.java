@@ -0,0 +1,209 @@
+package com.simplestore.paymentservice.loadtest;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures time to first served request and resident memory of the service, started as a plain JVM,
+ * with the Spring AOT-processed context, and with AOT plus an AppCDS archive.
+ *
+ * Expects the classes to have been AOT-processed for the lean profile (mvn -Pstartup does this). The CDS
+ * archive is recreated on every run, by a training run that exits right after the context has refreshed,
+ * because an archive dumped against other jars is silently ignored by the JVM.
+ *
+ * Configuration (system properties):
+ *   startup.dir        working directory holding classpath.txt, the CDS archive and results (default target/startup)
+ *   startup.classes    compiled application classes (default target/classes)
+ *   startup.runs       launches per variant; the median is reported (default 3)
+ *   startup.readyPath  first request that must succeed for the service to count as started (default /api/payments/recent)
+ *   startup.timeoutSeconds  give up on a launch after this long (default 120)
+ *   startup.maxMillis  fail when the AOT+CDS median startup exceeds this (default: no check)
+ */
+public class StartupBenchmark {
+
+    static final String MAIN_CLASS = "com.simplestore.paymentservice.PaymentServiceApplication";
+    static final String PROFILE = "lean";
+
+    private final Path dir;
+    private final String classpath;
+    private final int runs;
+    private final String readyPath;
+    private final Duration timeout;
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofMillis(200))
+            .build();
+
+    public StartupBenchmark(Path dir, String classpath, int runs, String readyPath, Duration timeout) {
+        if (runs <= 0) {
+            throw new IllegalArgumentException("Runs must be greater than 0");
+        }
+        this.dir = dir;
+        this.classpath = classpath;
+        this.runs = runs;
+        this.readyPath = readyPath;
+        this.timeout = timeout;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Path dir = Path.of(System.getProperty("startup.dir", "target/startup"));
+        String classes = System.getProperty("startup.classes", "target/classes");
+        String dependencies = Files.readString(dir.resolve("classpath.txt")).trim();
+
+        StartupBenchmark benchmark = new StartupBenchmark(
+                dir,
+                classes + File.pathSeparator + dependencies,
+                Integer.getInteger("startup.runs", 3),
+                System.getProperty("startup.readyPath", "/api/payments/recent"),
+                Duration.ofSeconds(Long.getLong("startup.timeoutSeconds", 120)));
+
+        Path archive = dir.resolve("app.jsa");
+        benchmark.train(archive);
+
+        Map<String, List<String>> variants = new LinkedHashMap<>();
+        variants.put("jit", List.of());
+        variants.put("aot", List.of("-Dspring.aot.enabled=true"));
+        variants.put("aot-cds", List.of("-Dspring.aot.enabled=true", "-XX:SharedArchiveFile=" + archive));
+
+        Properties result = new Properties();
+        System.out.printf("%-8s %12s %10s%n", "variant", "startup ms", "rss MB");
+        for (Map.Entry<String, List<String>> variant : variants.entrySet()) {
+            Sample sample = benchmark.measure(variant.getValue());
+            System.out.printf("%-8s %12d %10d%n", variant.getKey(), sample.startupMillis(), sample.rssKb() / 1024);
+            result.setProperty(variant.getKey() + ".startupMillis", Long.toString(sample.startupMillis()));
+            result.setProperty(variant.getKey() + ".rssKb", Long.toString(sample.rssKb()));
+        }
+
+        try (OutputStream out = Files.newOutputStream(dir.resolve("result.properties"))) {
+            result.store(out, "Payment service startup benchmark (median of " + benchmark.runs + " runs)");
+        }
+
+        String maxMillis = System.getProperty("startup.maxMillis");
+        long fastest = Long.parseLong(result.getProperty("aot-cds.startupMillis"));
+        if (maxMillis != null && fastest > Long.parseLong(maxMillis)) {
+            throw new IllegalStateException("AOT+CDS startup took " + fastest + "ms, budget is " + maxMillis + "ms");
+        }
+    }
+
+    /**
+     * Create the CDS archive from a run that loads every class the context needs and then exits
+     */
+    void train(Path archive) throws IOException, InterruptedException {
+        Files.deleteIfExists(archive);
+        Process process = launch(List.of(
+                "-XX:ArchiveClassesAtExit=" + archive,
+                "-Dspring.aot.enabled=true",
+                "-Dspring.context.exit=onRefresh"), freePort());
+        if (!process.waitFor(timeout.toSeconds(), TimeUnit.SECONDS) || !Files.exists(archive)) {
+            process.destroyForcibly();
+            throw new IllegalStateException("CDS training run did not produce " + archive);
+        }
+    }
+
+    /**
+     * Median startup time and RSS over the configured number of launches
+     */
+    Sample measure(List<String> jvmArgs) throws IOException, InterruptedException {
+        long[] startup = new long[runs];
+        long[] rss = new long[runs];
+        for (int i = 0; i < runs; i++) {
+            int port = freePort();
+            long start = System.nanoTime();
+            Process process = launch(jvmArgs, port);
+            try {
+                awaitReady(process, port);
+                startup[i] = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                rss[i] = residentKb(process.pid());
+            } finally {
+                process.destroy();
+                if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                    process.destroyForcibly();
+                }
+            }
+        }
+        return new Sample(median(startup), median(rss));
+    }
+
+    private Process launch(List<String> jvmArgs, int port) throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(jvmArgs);
+        command.add("-cp");
+        command.add(classpath);
+        command.add(MAIN_CLASS);
+        command.add("--spring.profiles.active=" + PROFILE);
+        command.add("--server.port=" + port);
+        return new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(dir.resolve("last-run.log").toFile())
+                .start();
+    }
+
+    private void awaitReady(Process process, int port) throws InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + readyPath))
+                .timeout(Duration.ofSeconds(5))
+                .GET()
+                .build();
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException("Service exited during startup, see " + dir.resolve("last-run.log"));
+            }
+            try {
+                if (httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return;
+                }
+            } catch (IOException e) {
+                // Not listening yet
+            }
+            Thread.sleep(10);
+        }
+        throw new IllegalStateException("Service not ready after " + timeout.toSeconds() + "s");
+    }
+
+    /**
+     * Resident set size in KB from /proc; 0 where that is not available
+     */
+    static long residentKb(long pid) throws IOException {
+        Path status = Path.of("/proc", Long.toString(pid), "status");
+        if (!Files.exists(status)) {
+            return 0;
+        }
+        for (String line : Files.readAllLines(status)) {
+            if (line.startsWith("VmRSS:")) {
+                return Long.parseLong(line.replaceAll("\\D", ""));
+            }
+        }
+        return 0;
+    }
+
+    static long median(long[] values) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    record Sample(long startupMillis, long rssKb) {
+    }
+}
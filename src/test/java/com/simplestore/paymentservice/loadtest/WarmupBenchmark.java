@@ -0,0 +1,182 @@
+package com.simplestore.paymentservice.loadtest;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures payment latency during the first minute after the service reports ready, with the startup
+ * warm-up switched off and on.
+ *
+ * Each variant starts a fresh JVM, waits for /actuator/health/readiness to turn UP (so the warm-up time
+ * shows up as time to ready), and then drives it with {@link LoadTestRunner} at a fixed rate, in
+ * consecutive windows so the cold start is not averaged away by the warm tail.
+ *
+ * Configuration (system properties):
+ *   warmup.dir            working directory holding classpath.txt and results (default target/warmup)
+ *   warmup.classes        compiled application classes (default target/classes)
+ *   warmup.rate           requests per second (default 50)
+ *   warmup.concurrency    worker threads (default 16)
+ *   warmup.windowSeconds  length of one measured window (default 10)
+ *   warmup.windows        windows per variant (default 6, one minute)
+ *   warmup.timeoutSeconds give up on a launch after this long (default 120)
+ */
+public class WarmupBenchmark {
+
+    static final String MAIN_CLASS = "com.simplestore.paymentservice.PaymentServiceApplication";
+    static final String PROFILE = "lean";
+    static final String READINESS_PATH = "/actuator/health/readiness";
+
+    private final Path dir;
+    private final String classpath;
+    private final double rate;
+    private final int concurrency;
+    private final Duration window;
+    private final int windows;
+    private final Duration timeout;
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofMillis(200))
+            .build();
+
+    public WarmupBenchmark(Path dir, String classpath, double rate, int concurrency, Duration window, int windows,
+                           Duration timeout) {
+        if (windows <= 0) {
+            throw new IllegalArgumentException("Windows must be greater than 0");
+        }
+        this.dir = dir;
+        this.classpath = classpath;
+        this.rate = rate;
+        this.concurrency = concurrency;
+        this.window = window;
+        this.windows = windows;
+        this.timeout = timeout;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Path dir = Path.of(System.getProperty("warmup.dir", "target/warmup"));
+        String classes = System.getProperty("warmup.classes", "target/classes");
+        String dependencies = Files.readString(dir.resolve("classpath.txt")).trim();
+
+        WarmupBenchmark benchmark = new WarmupBenchmark(
+                dir,
+                classes + File.pathSeparator + dependencies,
+                Double.parseDouble(System.getProperty("warmup.rate", "50")),
+                Integer.getInteger("warmup.concurrency", 16),
+                Duration.ofSeconds(Long.getLong("warmup.windowSeconds", 10L)),
+                Integer.getInteger("warmup.windows", 6),
+                Duration.ofSeconds(Long.getLong("warmup.timeoutSeconds", 120L)));
+
+        Properties result = new Properties();
+        System.out.printf("%-8s %10s %8s %10s %10s %10s%n", "warm-up", "ready ms", "window", "p50(ms)", "p99(ms)", "max(ms)");
+        for (boolean warmup : new boolean[] {false, true}) {
+            String variant = warmup ? "on" : "off";
+            Properties measured = benchmark.measure(warmup);
+            for (String key : measured.stringPropertyNames()) {
+                result.setProperty(variant + "." + key, measured.getProperty(key));
+            }
+        }
+
+        try (OutputStream out = Files.newOutputStream(dir.resolve("result.properties"))) {
+            result.store(out, "First-minute payment latency with and without the startup warm-up (microseconds)");
+        }
+    }
+
+    /**
+     * Time to ready and write latency percentiles per window for one fresh launch
+     */
+    Properties measure(boolean warmup) throws Exception {
+        int port = freePort();
+        long start = System.nanoTime();
+        Process process = launch(warmup, port);
+        try {
+            awaitReady(process, port);
+            long readyMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+            Properties result = new Properties();
+            result.setProperty("readyMillis", Long.toString(readyMillis));
+            LoadTestRunner runner = new LoadTestRunner("http://localhost:" + port, concurrency, rate, window,
+                    Duration.ZERO, 0.0, new CardMix("1111:90,0000:10"), 42L);
+            List<String> rows = new ArrayList<>();
+            for (int i = 1; i <= windows; i++) {
+                Properties windowResult = runner.run(window).toProperties();
+                for (String key : List.of("write.p50", "write.p99", "write.max", "errors")) {
+                    result.setProperty("window" + i + "." + key, windowResult.getProperty(key));
+                }
+                rows.add(String.format(Locale.ROOT, "%-8s %10s %8s %10.2f %10.2f %10.2f",
+                        warmup ? "on" : "off", i == 1 ? Long.toString(readyMillis) : "",
+                        (i - 1) * window.toSeconds() + "-" + i * window.toSeconds() + "s",
+                        millis(windowResult, "write.p50"), millis(windowResult, "write.p99"),
+                        millis(windowResult, "write.max")));
+            }
+            rows.forEach(System.out::println);
+            return result;
+        } finally {
+            process.destroy();
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+            }
+        }
+    }
+
+    private Process launch(boolean warmup, int port) throws IOException {
+        Files.createDirectories(dir);
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.add("-cp");
+        command.add(classpath);
+        command.add(MAIN_CLASS);
+        command.add("--spring.profiles.active=" + PROFILE);
+        command.add("--server.port=" + port);
+        command.add("--payment.warmup.enabled=" + warmup);
+        return new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(dir.resolve("warmup-" + (warmup ? "on" : "off") + ".log").toFile())
+                .start();
+    }
+
+    private void awaitReady(Process process, int port) throws InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + READINESS_PATH))
+                .timeout(Duration.ofSeconds(5))
+                .GET()
+                .build();
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException("Service exited during startup, see the logs in " + dir);
+            }
+            try {
+                // 503 (OUT_OF_SERVICE) while the warm-up runs
+                if (httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return;
+                }
+            } catch (IOException e) {
+                // Not listening yet
+            }
+            Thread.sleep(10);
+        }
+        throw new IllegalStateException("Service not ready after " + timeout.toSeconds() + "s");
+    }
+
+    private static double millis(Properties result, String key) {
+        return Long.parseLong(result.getProperty(key)) / 1000.0;
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.simplestore.paymentservice.money;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Currency;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class FxRateSnapshotTest {
+
+    private static final Currency USD = Currency.getInstance("USD");
+    private static final Currency EUR = Currency.getInstance("EUR");
+    private static final Currency JPY = Currency.getInstance("JPY");
+
+    private FxRateSnapshot buildSnapshot() {
+        Properties properties = new Properties();
+        properties.setProperty("base", "USD");
+        properties.setProperty("EUR", "1.08");
+        properties.setProperty("JPY", "0.0067");
+        return FxRateSnapshot.fromProperties(properties);
+    }
+
+    @Test
+    void toBase_convertsAndRoundsToBaseMinorUnits() {
+        FxRateSnapshot snapshot = buildSnapshot();
+        assertEquals(Money.ofMinor(1080L, USD), snapshot.toBase(Money.of(new BigDecimal("10.00"), EUR)));
+        // 1234 JPY * 0.0067 = 8.2678 USD -> 8.27
+        assertEquals(Money.ofMinor(827L, USD), snapshot.toBase(Money.of(new BigDecimal("1234"), JPY)));
+    }
+
+    @Test
+    void toBase_baseCurrencyIsReturnedAsIs() {
+        Money amount = Money.ofMinor(500L, USD);
+        assertSame(amount, buildSnapshot().toBase(amount));
+    }
+
+    @Test
+    void toBase_unknownCurrency_throws() {
+        Money pounds = Money.ofMinor(100L, Currency.getInstance("GBP"));
+        assertThrows(IllegalArgumentException.class, () -> buildSnapshot().toBase(pounds));
+    }
+
+    @Test
+    void fromProperties_withoutBase_throws() {
+        Properties properties = new Properties();
+        properties.setProperty("EUR", "1.08");
+        assertThrows(IllegalArgumentException.class, () -> FxRateSnapshot.fromProperties(properties));
+    }
+}
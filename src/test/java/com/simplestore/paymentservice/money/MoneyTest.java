@@ -0,0 +1,46 @@
+package com.simplestore.paymentservice.money;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Currency;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MoneyTest {
+
+    private static final Currency USD = Currency.getInstance("USD");
+    private static final Currency JPY = Currency.getInstance("JPY");
+
+    @Test
+    void of_convertsExactlyToMinorUnits() {
+        assertEquals(1234L, Money.of(new BigDecimal("12.34"), USD).getMinorUnits());
+        assertEquals(1230L, Money.of(new BigDecimal("12.3"), USD).getMinorUnits());
+        assertEquals(1200L, Money.of(new BigDecimal("12"), USD).getMinorUnits());
+        assertEquals(500L, Money.of(new BigDecimal("500"), JPY).getMinorUnits());
+    }
+
+    @Test
+    void of_rejectsExtraFractionDigits() {
+        assertThrows(ArithmeticException.class, () -> Money.of(new BigDecimal("12.345"), USD));
+        assertThrows(ArithmeticException.class, () -> Money.of(new BigDecimal("1.5"), JPY));
+    }
+
+    @Test
+    void toBigDecimal_roundTripsWithCurrencyScale() {
+        BigDecimal amount = Money.ofMinor(1234L, USD).toBigDecimal();
+        assertEquals(new BigDecimal("12.34"), amount);
+    }
+
+    @Test
+    void arithmetic_isExactAndCurrencyChecked() {
+        Money price = Money.of(new BigDecimal("19.99"), USD);
+        assertEquals(Money.ofMinor(5997L, USD), price.times(3));
+        assertEquals(Money.ofMinor(3998L, USD), price.plus(price));
+        assertTrue(price.times(2).isGreaterThan(price));
+        assertThrows(IllegalArgumentException.class, () -> price.plus(Money.ofMinor(1L, JPY)));
+        assertThrows(ArithmeticException.class, () -> Money.ofMinor(Long.MAX_VALUE, USD).times(2));
+    }
+}
@@ -0,0 +1,102 @@
+package com.simplestore.paymentservice.repository;
+
+import com.simplestore.paymentservice.entity.Payment;
+import com.simplestore.paymentservice.entity.PaymentStatus;
+import com.simplestore.paymentservice.service.PaymentService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Checks which columns and rows field selection returns, against the JPA schema
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:projection;DB_CLOSE_DELAY=-1",
+        "spring.jpa.show-sql=false",
+        "logging.level.org.hibernate.SQL=INFO",
+        "payment.archive.enabled=false",
+        "payment.warmup.enabled=false"
+})
+class PaymentProjectionRepositoryTest {
+
+    private static final LocalDateTime BASE_TIME = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @BeforeEach
+    void setUp() {
+        paymentRepository.deleteAll();
+        save("TXN-1", PaymentStatus.COMPLETED, "10.00", "USD", 0);
+        save("TXN-2", PaymentStatus.FAILED, "20.00", "EUR", 1);
+        save("TXN-3", PaymentStatus.COMPLETED, "3000", "JPY", 2);
+    }
+
+    private void save(String transactionId, PaymentStatus status, String amount, String currency, int dayOffset) {
+        Payment payment = new Payment("Jane Doe", "************1111", "12/50", "***", new BigDecimal(amount));
+        payment.setTransactionId(transactionId);
+        payment.setStatus(status);
+        payment.setCurrency(currency);
+        payment.setCreatedAt(BASE_TIME.plusDays(dayOffset));
+        paymentRepository.save(payment);
+    }
+
+    @Test
+    void findFields_returnsOnlyTheRequestedColumnsInOrder() {
+        List<Map<String, Object>> rows = paymentRepository.findFields(
+            List.of("transactionId", "amount", "currency"), null, true);
+
+        assertEquals(3, rows.size());
+        for (Map<String, Object> row : rows) {
+            assertEquals(List.of("transactionId", "amount", "currency"), List.copyOf(row.keySet()));
+        }
+        Map<String, Object> newest = rows.get(0);
+        assertEquals("TXN-3", newest.get("transactionId"));
+        assertEquals(0, new BigDecimal("3000").compareTo((BigDecimal) newest.get("amount")));
+        assertEquals("JPY", newest.get("currency"));
+    }
+
+    @Test
+    void findFields_filtersByStatusAndOrdersNewestFirst() {
+        List<Map<String, Object>> completed = paymentRepository.findFields(
+            List.of("transactionId", "status"), Set.of(PaymentStatus.COMPLETED), true);
+
+        assertEquals(List.of(
+            Map.of("transactionId", "TXN-3", "status", PaymentStatus.COMPLETED),
+            Map.of("transactionId", "TXN-1", "status", PaymentStatus.COMPLETED)), completed);
+
+        List<Map<String, Object>> failed = paymentRepository.findFields(
+            List.of("createdAt"), Set.of(PaymentStatus.FAILED), false);
+
+        assertEquals(List.of(Map.of("createdAt", BASE_TIME.plusDays(1))), failed);
+    }
+
+    @Test
+    void findFields_rejectsFieldsOutsideTheWhitelist() {
+        // The repository proxy translates the IllegalArgumentException
+        assertThrows(InvalidDataAccessApiUsageException.class,
+            () -> paymentRepository.findFields(List.of("id", "cvv"), null, false));
+        assertThrows(InvalidDataAccessApiUsageException.class,
+            () -> paymentRepository.findFields(List.of("id, p.cvv"), null, false));
+        assertThrows(InvalidDataAccessApiUsageException.class,
+            () -> paymentRepository.findFields(List.of(), null, false));
+
+        // ...so the service checks first, and the controller can answer 400
+        assertThrows(IllegalArgumentException.class, () -> paymentService.getPaymentFields("id,cvv", null, false));
+        assertThrows(IllegalArgumentException.class, () -> paymentService.getPaymentFields(" , ", null, false));
+    }
+}
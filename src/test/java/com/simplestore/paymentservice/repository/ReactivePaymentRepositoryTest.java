@@ -0,0 +1,118 @@
+package com.simplestore.paymentservice.repository;
+
+import com.simplestore.paymentservice.dto.CurrencyTotal;
+import com.simplestore.paymentservice.entity.Payment;
+import com.simplestore.paymentservice.entity.PaymentStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Runs the R2DBC repository against the schema JPA creates, on the credentials of the reactive profile
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:reactive-repository;DB_CLOSE_DELAY=-1",
+        "payment.reactive.r2dbc-url=r2dbc:pool:h2:mem:///reactive-repository?maxSize=4",
+        "payment.reactive.recent-limit=3",
+        "payment.warmup.enabled=false"
+})
+@ActiveProfiles("reactive")
+class ReactivePaymentRepositoryTest {
+
+    private static final LocalDateTime BASE_TIME = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+    @Autowired
+    private ReactivePaymentRepository repository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void clean() {
+        jdbcTemplate.update("DELETE FROM payments");
+    }
+
+    private Payment insert(String transactionId, String amount, String currency, int minuteOffset) {
+        Payment payment = new Payment("Jane Doe", "************1111", "12/50", "***", new BigDecimal(amount));
+        payment.setCurrency(currency);
+        payment.setStatus(PaymentStatus.PROCESSING);
+        payment.setTransactionId(transactionId);
+        payment.setCreatedAt(BASE_TIME.plusMinutes(minuteOffset));
+        return repository.insert(payment).block();
+    }
+
+    @Test
+    void insertedPayment_isReadBackWithEveryColumn() {
+        Payment inserted = insert("TXN-1", "12.34", "EUR", 0);
+
+        assertNotNull(inserted.getId());
+        Payment found = repository.findById(inserted.getId()).block();
+        assertEquals("TXN-1", found.getTransactionId());
+        assertEquals("Jane Doe", found.getCardholderName());
+        assertEquals("************1111", found.getCardNumber());
+        assertEquals(0, new BigDecimal("12.34").compareTo(found.getAmount()));
+        assertEquals("EUR", found.getCurrency());
+        assertEquals(PaymentStatus.PROCESSING, found.getStatus());
+        assertEquals(BASE_TIME, found.getCreatedAt());
+        assertNull(found.getErrorMessage());
+        assertEquals(inserted.getId(), repository.findByTransactionId("TXN-1").block().getId());
+    }
+
+    @Test
+    void updateOutcome_onlyAppliesToProcessingPayments() {
+        Payment payment = insert("TXN-1", "10.00", "USD", 0);
+
+        payment.setStatus(PaymentStatus.COMPLETED);
+        repository.updateOutcome(payment).block();
+        payment.setStatus(PaymentStatus.FAILED);
+        payment.setErrorMessage("Late failure");
+        repository.updateOutcome(payment).block();
+
+        Payment stored = repository.findById(payment.getId()).block();
+        assertEquals(PaymentStatus.COMPLETED, stored.getStatus());
+        assertNull(stored.getErrorMessage());
+        assertEquals(1L, repository.getPaymentCountByStatus(PaymentStatus.COMPLETED).block());
+    }
+
+    @Test
+    void recentPayments_areNewestFirstAndBounded() {
+        for (int i = 1; i <= 5; i++) {
+            insert("TXN-" + i, "1.00", "USD", i);
+        }
+
+        List<String> recent = repository.findRecentPayments().map(Payment::getTransactionId).collectList().block();
+
+        assertEquals(List.of("TXN-5", "TXN-4", "TXN-3"), recent);
+    }
+
+    @Test
+    void totals_areGroupedPerCurrency() {
+        for (Payment payment : List.of(insert("TXN-1", "10.00", "USD", 0), insert("TXN-2", "5.50", "USD", 1),
+                insert("TXN-3", "1000", "JPY", 2))) {
+            payment.setStatus(PaymentStatus.COMPLETED);
+            repository.updateOutcome(payment).block();
+        }
+
+        List<CurrencyTotal> totals = repository.getTotalsByCurrency(PaymentStatus.COMPLETED)
+            .sort((a, b) -> a.currency().compareTo(b.currency()))
+            .collectList().block();
+
+        assertEquals(2, totals.size());
+        assertEquals("JPY", totals.get(0).currency());
+        assertEquals(1L, totals.get(0).count());
+        assertEquals("USD", totals.get(1).currency());
+        assertEquals(2L, totals.get(1).count());
+        assertEquals(0, new BigDecimal("15.50").compareTo(totals.get(1).total()));
+    }
+}
@@ -0,0 +1,173 @@
+package com.simplestore.paymentservice.repository;
+
+import com.simplestore.paymentservice.config.ShardingProperties;
+import com.simplestore.paymentservice.dto.CurrencyTotal;
+import com.simplestore.paymentservice.dto.PaymentSummary;
+import com.simplestore.paymentservice.entity.Payment;
+import com.simplestore.paymentservice.entity.PaymentStatus;
+import com.simplestore.paymentservice.service.PaymentMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Three embedded H2 databases as shards
+ */
+class ShardedPaymentRepositoryTest {
+
+    private static final int SHARDS = 3;
+
+    private ShardRouter router;
+    private ShardedPaymentRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        ShardingProperties properties = new ShardingProperties();
+        String run = UUID.randomUUID().toString();
+        for (int i = 0; i < SHARDS; i++) {
+            properties.getShards().add(new ShardingProperties.Shard("jdbc:h2:mem:shard-" + i + "-" + run + ";DB_CLOSE_DELAY=-1"));
+        }
+        router = new ShardRouter(properties);
+        repository = new ShardedPaymentRepository(router);
+    }
+
+    @AfterEach
+    void tearDown() {
+        router.destroy();
+    }
+
+    private Payment payment(PaymentStatus status, String currency, String amount) {
+        Payment payment = new Payment("Jane Doe", "************1111", "12/50", "***", new BigDecimal(amount));
+        payment.setStatus(status);
+        payment.setCurrency(currency);
+        payment.setTransactionId(PaymentMapper.generateTransactionId());
+        return payment;
+    }
+
+    private long rowsOnShard(int shard, String transactionId) {
+        return router.shard(shard).queryForObject(
+                "SELECT COUNT(*) FROM payments WHERE transaction_id = ?", Long.class, transactionId);
+    }
+
+    @Test
+    void insert_storesPaymentOnlyOnItsShard_andIdRoutesBack() {
+        Payment payment = repository.insert(payment(PaymentStatus.PROCESSING, "USD", "10.00"));
+        int shard = router.shardForTransactionId(payment.getTransactionId());
+
+        assertEquals(shard, router.shardForId(payment.getId()));
+        for (int i = 0; i < SHARDS; i++) {
+            assertEquals(i == shard ? 1 : 0, rowsOnShard(i, payment.getTransactionId()));
+        }
+
+        payment.setStatus(PaymentStatus.COMPLETED);
+        assertTrue(repository.updateOutcome(payment));
+        assertEquals(PaymentStatus.COMPLETED, repository.findById(payment.getId()).orElseThrow().getStatus());
+
+        // Already final: a second outcome must not overwrite it
+        payment.setStatus(PaymentStatus.FAILED);
+        assertFalse(repository.updateOutcome(payment));
+        assertEquals(PaymentStatus.COMPLETED, repository.findById(payment.getId()).orElseThrow().getStatus());
+        assertEquals(payment.getId(), repository.findByTransactionId(payment.getTransactionId()).orElseThrow().getId());
+    }
+
+    @Test
+    void listingsAndStats_mergeAllShards() {
+        List<Payment> inserted = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            PaymentStatus status = i % 3 == 0 ? PaymentStatus.FAILED : PaymentStatus.COMPLETED;
+            inserted.add(repository.insert(payment(status, i % 2 == 0 ? "USD" : "EUR", "1.00")));
+        }
+        Set<Integer> usedShards = inserted.stream().map(p -> router.shardForId(p.getId())).collect(Collectors.toSet());
+        assertEquals(SHARDS, usedShards.size());
+
+        assertEquals(30, repository.findAll().size());
+        assertEquals(20L, repository.getPaymentCountByStatus(PaymentStatus.COMPLETED));
+        assertEquals(10, repository.findFailedPayments().size());
+        assertEquals(0, new BigDecimal("20.00").compareTo(repository.getTotalAmountByStatus(PaymentStatus.COMPLETED)));
+
+        List<CurrencyTotal> totals = repository.getTotalsByCurrency(PaymentStatus.COMPLETED);
+        assertEquals(2, totals.size());
+        assertEquals(20L, totals.stream().mapToLong(CurrencyTotal::count).sum());
+
+        List<Payment> recent = repository.findRecentPayments();
+        assertTrue(recent.stream().map(Payment::getCreatedAt).toList()
+                .equals(recent.stream().map(Payment::getCreatedAt).sorted(Comparator.reverseOrder()).toList()));
+    }
+
+    @Test
+    void findById_withUnknownShard_throws() {
+        assertThrows(IllegalArgumentException.class, () -> repository.findById(ShardRouter.globalId(SHARDS, 1)));
+    }
+
+    @Test
+    void transition_movesOnlyFromTheExpectedStatus() {
+        Payment payment = repository.insert(payment(PaymentStatus.COMPLETED, "USD", "10.00"));
+
+        assertTrue(repository.transition(payment.getId(), PaymentStatus.COMPLETED, PaymentStatus.CANCELLED,
+                                          LocalDateTime.now()));
+        assertFalse(repository.transition(payment.getId(), PaymentStatus.COMPLETED, PaymentStatus.CANCELLED,
+                                           LocalDateTime.now()));
+        assertEquals(PaymentStatus.CANCELLED, repository.findById(payment.getId()).orElseThrow().getStatus());
+    }
+
+    @Test
+    void findAllById_andForEach_coverEveryShard() {
+        List<Payment> inserted = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            inserted.add(repository.insert(payment(PaymentStatus.COMPLETED, "USD", "1.00")));
+        }
+        List<Long> wanted = List.of(inserted.get(0).getId(), inserted.get(5).getId(), inserted.get(11).getId());
+
+        Set<Long> found = repository.findAllById(wanted).stream().map(Payment::getId).collect(Collectors.toSet());
+        assertEquals(Set.copyOf(wanted), found);
+
+        List<Long> streamed = new ArrayList<>();
+        repository.forEach(payment -> streamed.add(payment.getId()));
+        assertEquals(inserted.stream().map(Payment::getId).collect(Collectors.toSet()), Set.copyOf(streamed));
+        assertEquals(12, streamed.size());
+    }
+
+    @Test
+    void summariesAndFields_readOnlyWhatWasAskedFor() {
+        for (int i = 0; i < 9; i++) {
+            Payment payment = payment(i % 3 == 0 ? PaymentStatus.FAILED : PaymentStatus.COMPLETED, "EUR", i + ".00");
+            payment.setCreatedAt(LocalDateTime.of(2024, 3, 1, 10, 0).plusMinutes(i));
+            repository.insert(payment);
+        }
+
+        List<PaymentSummary> summaries = repository.findSummaries(Set.of(PaymentStatus.FAILED), true);
+        assertEquals(List.of(new BigDecimal("6.00"), new BigDecimal("3.00"), new BigDecimal("0.00")),
+                summaries.stream().map(PaymentSummary::amount).toList());
+        assertEquals(9, repository.findSummaries(null, false).size());
+        assertTrue(repository.findSummaries(Set.of(), false).isEmpty());
+
+        // created_at is read to merge the shards newest first, but not returned
+        List<Map<String, Object>> rows = repository.findFields(List.of("amount", "status"), null, true);
+        assertEquals(9, rows.size());
+        assertEquals(List.of("amount", "status"), List.copyOf(rows.get(0).keySet()));
+        assertEquals(new BigDecimal("8.00"), rows.get(0).get("amount"));
+        assertEquals(PaymentStatus.COMPLETED, rows.get(0).get("status"));
+
+        Map<String, Object> row = repository.findFields(List.of("id", "createdAt"), Set.of(PaymentStatus.FAILED), false).get(0);
+        assertTrue(row.get("id") instanceof Long);
+        assertTrue(row.get("createdAt") instanceof LocalDateTime);
+
+        assertThrows(IllegalArgumentException.class, () -> repository.findFields(List.of("cvv"), null, false));
+        assertThrows(IllegalArgumentException.class, () -> repository.findFields(List.of(), null, false));
+    }
+}
@@ -0,0 +1,97 @@
+package com.simplestore.paymentservice.scheduling;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HierarchicalTimingWheelTest {
+
+    private static final long START = 1_000_000_003L;
+    private static final long TICK = 10;
+
+    @Test
+    void timersFireOnFirstTickAtOrAfterDeadline_acrossAllLevels() {
+        // 8 buckets and 4 levels: spans of 80 ms, 640 ms, 5.1 s and 41 s, so cascading gets exercised
+        HierarchicalTimingWheel<Long> wheel = new HierarchicalTimingWheel<>(TICK, 8, 4, START);
+        Random random = new Random(7);
+        Map<Long, Long> firedAt = new HashMap<>();
+        long now = START;
+
+        List<Long> deadlines = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            long deadline = now + 1 + random.nextInt(40_000);
+            deadlines.add(deadline);
+            wheel.schedule(deadline, deadline);
+        }
+        while (wheel.size() > 0) {
+            now += 1 + random.nextInt(25);
+            long at = now;
+            wheel.advanceTo(now, deadline -> firedAt.merge(deadline, at, Math::max));
+        }
+
+        for (long deadline : deadlines) {
+            long fired = firedAt.get(deadline);
+            assertTrue(fired >= deadline, "fired early: " + deadline + " at " + fired);
+            // At most one tick of rounding plus the step between advances
+            assertTrue(fired - deadline < TICK + 25, "fired late: " + deadline + " at " + fired);
+        }
+    }
+
+    @Test
+    void cancelledTimersNeverFire() {
+        HierarchicalTimingWheel<Integer> wheel = new HierarchicalTimingWheel<>(TICK, 16, 3, START);
+        List<HierarchicalTimingWheel.Timer<Integer>> timers = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            timers.add(wheel.schedule(START + 100 + i * 37L, i));
+        }
+        for (int i = 0; i < 1000; i += 2) {
+            assertTrue(wheel.cancel(timers.get(i)));
+        }
+        assertFalse(wheel.cancel(timers.get(0)));
+        assertEquals(500, wheel.size());
+
+        List<Integer> fired = new ArrayList<>();
+        wheel.advanceTo(START + 100_000, fired::add);
+
+        assertEquals(500, fired.size());
+        assertTrue(fired.stream().allMatch(i -> i % 2 == 1));
+        assertFalse(wheel.cancel(timers.get(1)));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void pastDeadlineIsNotScheduled_andHorizonIsEnforced() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(TICK, 8, 2, START);
+
+        assertNull(wheel.schedule(START - 1, "overdue"));
+        assertEquals(0, wheel.size());
+        assertEquals(630, wheel.getHorizonMillis());
+        assertThrows(IllegalArgumentException.class, () -> wheel.schedule(START + 1000, "too far"));
+    }
+
+    @Test
+    void deadlineLaterInTheCurrentTickFiresOnTheNextTick() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(TICK, 8, 2, START);
+
+        assertNull(wheel.schedule(START, "due now"));
+        assertNotNull(wheel.schedule(START + 2, "soon"));
+
+        List<String> fired = new ArrayList<>();
+        wheel.advanceTo(START + 2, fired::add);
+        assertTrue(fired.isEmpty());
+        wheel.advanceTo(START + 7, fired::add);
+        assertEquals(List.of("soon"), fired);
+        assertNull(wheel.schedule(START + 5, "passed while advancing"));
+    }
+}
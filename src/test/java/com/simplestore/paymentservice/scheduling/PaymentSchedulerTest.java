@@ -0,0 +1,203 @@
+package com.simplestore.paymentservice.scheduling;
+
+import com.simplestore.paymentservice.dto.OrderItem;
+import com.simplestore.paymentservice.dto.PaymentRequest;
+import com.simplestore.paymentservice.dto.PaymentResponse;
+import com.simplestore.paymentservice.entity.Payment;
+import com.simplestore.paymentservice.entity.PaymentStatus;
+import com.simplestore.paymentservice.entity.ScheduledAction;
+import com.simplestore.paymentservice.entity.ScheduledActionStatus;
+import com.simplestore.paymentservice.repository.PaymentRepository;
+import com.simplestore.paymentservice.repository.ScheduledActionRepository;
+import com.simplestore.paymentservice.service.PaymentCoordinator;
+import com.simplestore.paymentservice.service.PaymentProcessingService;
+import com.simplestore.paymentservice.service.PaymentService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:scheduler;DB_CLOSE_DELAY=-1",
+        "spring.jpa.show-sql=false",
+        "logging.level.org.hibernate.SQL=INFO",
+        "payment.archive.enabled=false",
+        "payment.recovery.enabled=false",
+        "payment.scheduler.horizon-seconds=60",
+        // Only charges scheduled through the coordinator count; each test that does uses its own card
+        "payment.velocity.max-payments-per-card=2",
+        "payment.velocity.window-seconds=86400"
+})
+class PaymentSchedulerTest {
+
+    @Autowired
+    private PaymentScheduler scheduler;
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private PaymentCoordinator coordinator;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private ScheduledActionRepository actionRepository;
+
+    @MockBean
+    private PaymentProcessingService gateway;
+
+    @BeforeEach
+    void setUp() {
+        when(gateway.processPayment(any())).thenAnswer(invocation -> {
+            Payment payment = invocation.getArgument(0);
+            return PaymentResponse.success(payment.getTransactionId(), payment.getAmount());
+        });
+    }
+
+    private PaymentRequest buildValidRequest() {
+        return buildValidRequest("4111111111111111");
+    }
+
+    private PaymentRequest buildValidRequest(String cardNumber) {
+        return new PaymentRequest(
+                "Jane Doe",
+                cardNumber,
+                "12/50",
+                "123",
+                new BigDecimal("12.34"),
+                List.of(new OrderItem("Widget", 1, new BigDecimal("12.34")))
+        );
+    }
+
+    private ScheduledAction awaitFinished(Long actionId) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (System.currentTimeMillis() < deadline) {
+            ScheduledAction action = actionRepository.findById(actionId).orElseThrow();
+            if (action.getStatus() != ScheduledActionStatus.SCHEDULED && action.getStatus() != ScheduledActionStatus.RUNNING) {
+                return action;
+            }
+            Thread.sleep(20);
+        }
+        throw new AssertionError("Action " + actionId + " did not finish");
+    }
+
+    @Test
+    void scheduledCharge_staysPendingUntilDue_thenCompletes() throws Exception {
+        LocalDateTime executeAt = LocalDateTime.now().plusNanos(500_000_000).truncatedTo(ChronoUnit.MILLIS);
+        ScheduledAction action = scheduler.scheduleCharge(buildValidRequest(), executeAt, null, null);
+
+        assertEquals(PaymentStatus.PENDING, paymentRepository.findById(action.getPaymentId()).orElseThrow().getStatus());
+
+        ScheduledAction finished = awaitFinished(action.getId());
+
+        assertEquals(ScheduledActionStatus.DONE, finished.getStatus());
+        assertFalse(finished.getExecutedAt().isBefore(executeAt));
+        assertEquals(PaymentStatus.COMPLETED, paymentRepository.findById(action.getPaymentId()).orElseThrow().getStatus());
+    }
+
+    @Test
+    void cancelledPayment_isNeverCharged() {
+        ScheduledAction action = scheduler.scheduleCharge(buildValidRequest(), LocalDateTime.now().plusSeconds(30), null, null);
+        int armedBefore = scheduler.getArmedCount();
+
+        paymentService.cancelPayment(action.getPaymentId());
+        assertEquals(1, scheduler.cancel(action.getPaymentId()));
+        assertEquals(armedBefore - 1, scheduler.getArmedCount());
+
+        // Even if a timer fired anyway (e.g. on another node), the claim fails
+        scheduler.execute(action.getId());
+        assertEquals(ScheduledActionStatus.CANCELLED, actionRepository.findById(action.getId()).orElseThrow().getStatus());
+        assertEquals(PaymentStatus.CANCELLED, paymentRepository.findById(action.getPaymentId()).orElseThrow().getStatus());
+    }
+
+    @Test
+    void retryOfDeclinedPayment_chargesANewPayment() throws Exception {
+        Payment declined = new Payment("Jane Doe", "************1111", "12/50", "***", new BigDecimal("99.00"));
+        declined.setStatus(PaymentStatus.DECLINED);
+        declined.setTransactionId("TXN-DECLINED-1");
+        declined = paymentRepository.save(declined);
+
+        ScheduledAction action = scheduler.scheduleRetry(declined.getId(), LocalDateTime.now()).orElseThrow();
+        ScheduledAction finished = awaitFinished(action.getId());
+
+        assertEquals(ScheduledActionStatus.DONE, finished.getStatus());
+        assertNotNull(finished.getResultPaymentId());
+        Payment retry = paymentRepository.findById(finished.getResultPaymentId()).orElseThrow();
+        assertEquals(PaymentStatus.COMPLETED, retry.getStatus());
+        assertEquals(0, new BigDecimal("99.00").compareTo(retry.getAmount()));
+        assertEquals(PaymentStatus.DECLINED, paymentRepository.findById(declined.getId()).orElseThrow().getStatus());
+    }
+
+    @Test
+    void retryOfCompletedPayment_isRejected() {
+        Payment completed = new Payment("Jane Doe", "************1111", "12/50", "***", new BigDecimal("5.00"));
+        completed.setStatus(PaymentStatus.COMPLETED);
+        Long id = paymentRepository.save(completed).getId();
+
+        assertThrows(IllegalStateException.class, () -> scheduler.scheduleRetry(id, LocalDateTime.now()));
+        assertTrue(scheduler.scheduleRetry(Long.MAX_VALUE, LocalDateTime.now()).isEmpty());
+    }
+
+    @Test
+    void actionsBeyondHorizon_stayInDatabaseUntilLoaded() {
+        int armedBefore = scheduler.getArmedCount();
+
+        ScheduledAction action = scheduler.scheduleCharge(buildValidRequest(), LocalDateTime.now().plusHours(1), null, null);
+
+        assertEquals(armedBefore, scheduler.getArmedCount());
+        assertEquals(ScheduledActionStatus.SCHEDULED, actionRepository.findById(action.getId()).orElseThrow().getStatus());
+        assertEquals(0, scheduler.loadUpcoming());
+        scheduler.cancel(action.getPaymentId());
+    }
+
+    @Test
+    void retriedScheduleRequest_schedulesOneCharge() {
+        LocalDateTime executeAt = LocalDateTime.now().plusHours(1);
+        ScheduledAction first = coordinator.scheduleCharge(buildValidRequest("4000056655665556"), executeAt, "sched-1");
+        ScheduledAction retry = coordinator.scheduleCharge(buildValidRequest("4000056655665556"), executeAt, "sched-1");
+
+        assertEquals(first.getId(), retry.getId());
+        assertEquals(first.getPaymentId(), retry.getPaymentId());
+        assertEquals(1, actionRepository.findByPaymentIdOrderByDueAt(first.getPaymentId()).size());
+        // The replay did not count against the card; a second charge is still allowed
+        ScheduledAction second = coordinator.scheduleCharge(buildValidRequest("4000056655665556"), executeAt, null);
+        assertTrue(second.getId() > first.getId());
+        scheduler.cancel(first.getPaymentId());
+        scheduler.cancel(second.getPaymentId());
+    }
+
+    @Test
+    void cardOverTheVelocityLimit_isRefusedWhenScheduledAndDeclinedWhenRun() throws Exception {
+        String card = "5555555555554444";
+        ScheduledAction later = coordinator.scheduleCharge(buildValidRequest(card), LocalDateTime.now().plusHours(1), null);
+        // Second attempt within the limit when scheduled, the third when it runs
+        ScheduledAction now = coordinator.scheduleCharge(buildValidRequest(card), LocalDateTime.now(), null);
+
+        ScheduledAction finished = awaitFinished(now.getId());
+
+        assertEquals(ScheduledActionStatus.DONE, finished.getStatus());
+        assertEquals(PaymentCoordinator.VELOCITY_DECLINED, finished.getErrorMessage());
+        Payment declined = paymentRepository.findById(now.getPaymentId()).orElseThrow();
+        assertEquals(PaymentStatus.DECLINED, declined.getStatus());
+        assertEquals(PaymentCoordinator.VELOCITY_DECLINED, declined.getErrorMessage());
+        assertThrows(IllegalArgumentException.class,
+                () -> coordinator.scheduleCharge(buildValidRequest(card), LocalDateTime.now().plusHours(1), null));
+        scheduler.cancel(later.getPaymentId());
+    }
+}
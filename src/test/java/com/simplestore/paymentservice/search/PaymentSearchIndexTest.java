@@ -0,0 +1,121 @@
+package com.simplestore.paymentservice.search;
+
+import com.simplestore.paymentservice.dto.PaymentSearchCriteria;
+import com.simplestore.paymentservice.entity.Payment;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PaymentSearchIndexTest {
+
+    private static final LocalDateTime BASE_TIME = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+    private PaymentSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new PaymentSearchIndex();
+        index.add(payment(1, "Jane Doe", "************1111", "10.00", 0));
+        index.add(payment(2, "Janet Smith", "************2222", "50.00", 1));
+        index.add(payment(3, "John Doe", "************1111", "99.99", 2));
+        index.add(payment(4, "José Álvarez", "************3333", "5.00", 3));
+    }
+
+    private Payment payment(long id, String name, String cardNumber, String amount, int dayOffset) {
+        Payment payment = new Payment(name, cardNumber, "12/50", "***", new BigDecimal(amount));
+        payment.setId(id);
+        payment.setCreatedAt(BASE_TIME.plusDays(dayOffset));
+        return payment;
+    }
+
+    private PaymentSearchCriteria byName(String name) {
+        return new PaymentSearchCriteria(name, null, null, null, null, null, null);
+    }
+
+    @Test
+    void nameSearch_matchesTokenPrefixes_newestFirst() {
+        assertEquals(List.of(2L, 1L), index.search(byName("jan"), 0, 10).ids());
+        assertEquals(List.of(3L, 1L), index.search(byName("DOE"), 0, 10).ids());
+        assertEquals(List.of(1L), index.search(byName("jane do"), 0, 10).ids());
+    }
+
+    @Test
+    void nameSearch_ignoresCaseAndAccents() {
+        assertEquals(List.of(4L), index.search(byName("jose alv"), 0, 10).ids());
+    }
+
+    @Test
+    void lastFourAndFilters_narrowResults() {
+        PaymentSearchCriteria lastFour = new PaymentSearchCriteria(null, "1111", null, null, null, null, null);
+        assertEquals(List.of(3L, 1L), index.search(lastFour, 0, 10).ids());
+
+        PaymentSearchCriteria cheap = new PaymentSearchCriteria(null, "1111", "USD", null, new BigDecimal("20.00"), null, null);
+        assertEquals(List.of(1L), index.search(cheap, 0, 10).ids());
+
+        PaymentSearchCriteria recent = new PaymentSearchCriteria("doe", null, null, null, null, BASE_TIME.plusDays(1), null);
+        assertEquals(List.of(3L), index.search(recent, 0, 10).ids());
+    }
+
+    @Test
+    void amountFilters_compareWithinOneCurrency() {
+        Payment yen = payment(5, "Jane Tanaka", "************1111", "1500", 4);
+        yen.setCurrency("JPY");
+        index.add(yen);
+
+        PaymentSearchCriteria usd = new PaymentSearchCriteria("jane", null, "USD", new BigDecimal("5"), null, null, null);
+        assertEquals(List.of(2L, 1L), index.search(usd, 0, 10).ids());
+
+        PaymentSearchCriteria jpy = new PaymentSearchCriteria("jane", null, "jpy", null, new BigDecimal("2000"), null, null);
+        assertEquals(List.of(5L), index.search(jpy, 0, 10).ids());
+
+        // Bounds finer than the currency are rounded inwards
+        PaymentSearchCriteria fine = new PaymentSearchCriteria(null, "1111", "USD", new BigDecimal("9.999"),
+                new BigDecimal("99.991"), null, null);
+        assertEquals(List.of(3L, 1L), index.search(fine, 0, 10).ids());
+
+        PaymentSearchCriteria noCurrency = new PaymentSearchCriteria("jane", null, null, BigDecimal.ONE, null, null, null);
+        assertThrows(IllegalArgumentException.class, () -> index.search(noCurrency, 0, 10));
+    }
+
+    @Test
+    void search_pagesAndCountsAllMatches() {
+        PaymentSearchIndex.Hits firstPage = index.search(byName("j"), 0, 2);
+        PaymentSearchIndex.Hits secondPage = index.search(byName("j"), 1, 2);
+
+        assertEquals(List.of(4L, 3L), firstPage.ids());
+        assertEquals(List.of(2L, 1L), secondPage.ids());
+        assertEquals(4, firstPage.total());
+    }
+
+    @Test
+    void removeAll_dropsPaymentsFromResults() {
+        index.removeAll(List.of(1L));
+
+        assertEquals(List.of(2L), index.search(byName("jan"), 0, 10).ids());
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    void search_withoutNameOrLastFour_isRejected() {
+        PaymentSearchCriteria amountOnly = new PaymentSearchCriteria(null, null, null, BigDecimal.ONE, null, null, null);
+        assertThrows(IllegalArgumentException.class, () -> index.search(amountOnly, 0, 10));
+    }
+
+    @Test
+    void postingList_staysSortedForOutOfOrderAdds() {
+        PostingList postings = new PostingList();
+        postings.add(5);
+        postings.add(2);
+        postings.add(9);
+        postings.add(5);
+
+        assertArrayEquals(new long[] {2, 5, 9}, postings.snapshot());
+    }
+}
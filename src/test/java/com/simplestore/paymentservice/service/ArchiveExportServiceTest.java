@@ -0,0 +1,71 @@
+package com.simplestore.paymentservice.service;
+
+import com.github.luben.zstd.ZstdInputStream;
+import com.simplestore.paymentservice.entity.ArchivedPayment;
+import com.simplestore.paymentservice.entity.Payment;
+import com.simplestore.paymentservice.entity.PaymentStatus;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ArchiveExportServiceTest {
+
+    private final ArchiveExportService exportService = new ArchiveExportService();
+
+    private ArchivedPayment archived(long id, String errorMessage) {
+        return archived(id, errorMessage, new BigDecimal("12.34"), "USD");
+    }
+
+    private ArchivedPayment archived(long id, String errorMessage, BigDecimal amount, String currency) {
+        Payment payment = new Payment("Jane Doe", "************1111", "12/50", "***", amount);
+        payment.setCurrency(currency);
+        payment.setId(id);
+        payment.setStatus(errorMessage == null ? PaymentStatus.COMPLETED : PaymentStatus.FAILED);
+        payment.setTransactionId("TXN-" + id);
+        payment.setErrorMessage(errorMessage);
+        return ArchivedPayment.from(payment, LocalDateTime.of(2024, 1, 1, 0, 0));
+    }
+
+    private DataInputStream column(Path dir, String name) throws IOException {
+        return new DataInputStream(new ZstdInputStream(Files.newInputStream(dir.resolve(name + ".zst"))));
+    }
+
+    @Test
+    void write_storesEachColumnInItsOwnFile(@TempDir Path tempDir) throws IOException {
+        long rows = exportService.write(Stream.of(archived(1, null), archived(2, "Card declined"),
+                archived(3, null, new BigDecimal("1234"), "JPY")), tempDir);
+
+        assertEquals(3, rows);
+        for (String name : ArchiveExportService.COLUMNS.keySet()) {
+            assertTrue(Files.exists(tempDir.resolve(name + ".zst")), name);
+        }
+        try (DataInputStream ids = column(tempDir, "id");
+             DataInputStream amounts = column(tempDir, "amount_minor");
+             DataInputStream archivedAt = column(tempDir, "archived_at");
+             DataInputStream errors = column(tempDir, "error_message")) {
+            assertEquals(1L, ids.readLong());
+            assertEquals(2L, ids.readLong());
+            assertEquals(1234L, amounts.readLong());
+            assertEquals(1234L, amounts.readLong());
+            // A yen has no minor unit
+            assertEquals(1234L, amounts.readLong());
+            assertEquals(LocalDateTime.of(2024, 1, 1, 0, 0).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli(),
+                    archivedAt.readLong());
+            assertFalse(errors.readBoolean());
+            assertTrue(errors.readBoolean());
+            assertEquals("Card declined", errors.readUTF());
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package com.simplestore.paymentservice.service;
+
+import com.simplestore.paymentservice.dto.AuthorizationSummary;
+import com.simplestore.paymentservice.dto.CaptureRequest;
+import com.simplestore.paymentservice.dto.CaptureResult;
+import com.simplestore.paymentservice.dto.OrderItem;
+import com.simplestore.paymentservice.dto.PaymentRequest;
+import com.simplestore.paymentservice.dto.PaymentResponse;
+import com.simplestore.paymentservice.entity.Payment;
+import com.simplestore.paymentservice.entity.PaymentStatus;
+import com.simplestore.paymentservice.repository.PaymentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:authorization;DB_CLOSE_DELAY=-1",
+        "spring.jpa.show-sql=false",
+        "logging.level.org.hibernate.SQL=INFO",
+        "payment.archive.enabled=false",
+        "payment.recovery.enabled=false"
+})
+class AuthorizationServiceTest {
+
+    @Autowired
+    private AuthorizationService authorizationService;
+
+    @Autowired
+    private OpenAuthorizationIndex openAuthorizations;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private CardVault cardVault;
+
+    @MockBean
+    private PaymentProcessingService gateway;
+
+    @BeforeEach
+    void setUp() {
+        when(gateway.authorizePayment(any())).thenAnswer(invocation -> {
+            Payment payment = invocation.getArgument(0);
+            return PaymentResponse.authorized(payment.getTransactionId(), payment.getAmount());
+        });
+        when(gateway.capturePayments(anyList())).thenAnswer(invocation -> {
+            List<Payment> payments = invocation.getArgument(0);
+            return payments.stream()
+                .map(payment -> PaymentResponse.success(payment.getTransactionId(), payment.getAmount()))
+                .toList();
+        });
+        when(gateway.voidAuthorization(any())).thenAnswer(invocation -> {
+            Payment payment = invocation.getArgument(0);
+            return new PaymentResponse(payment.getTransactionId(), PaymentStatus.VOIDED, "Authorization voided",
+                                       payment.getAmount());
+        });
+    }
+
+    private PaymentRequest request(String amount) {
+        return new PaymentRequest(
+                "Jane Doe",
+                "4111111111111111",
+                "12/50",
+                "123",
+                new BigDecimal(amount),
+                List.of(new OrderItem("Widget", 1, new BigDecimal(amount)))
+        );
+    }
+
+    private Long authorize(String amount) {
+        PaymentResponse response = authorizationService.authorize(request(amount));
+        assertEquals(PaymentStatus.AUTHORIZED, response.getStatus());
+        return paymentRepository.findByTransactionId(response.getTransactionId()).orElseThrow().getId();
+    }
+
+    @Test
+    void authorize_holdsAmountAndTracksIt() {
+        Long id = authorize("40.00");
+
+        Payment payment = paymentRepository.findById(id).orElseThrow();
+        assertEquals(PaymentStatus.AUTHORIZED, payment.getStatus());
+        assertEquals(0, new BigDecimal("40.00").compareTo(payment.getAuthorizedAmount()));
+        assertTrue(payment.getAuthorizationExpiresAt().isAfter(LocalDateTime.now().plusDays(6)));
+        assertTrue(openAuthorizations.contains(id));
+        AuthorizationSummary summary = authorizationService.getSummary();
+        assertTrue(summary.open() >= 1);
+        assertTrue(summary.heldByCurrency().get("USD").compareTo(new BigDecimal("40.00")) >= 0);
+
+        authorizationService.voidAuthorization(id);
+    }
+
+    @Test
+    void authorize_withVaultedCard_usesStoredCardWithoutSendingIt() {
+        String token = cardVault.tokenize("Jane Doe", "4111111111111111", "12/50").token();
+        PaymentRequest request = request("18.00");
+        request.setCardholderName(null);
+        request.setCardNumber(null);
+        request.setExpiryDate(null);
+        request.setCvv(null);
+        request.setCardToken(token);
+
+        PaymentResponse response = authorizationService.authorize(request);
+
+        assertEquals(PaymentStatus.AUTHORIZED, response.getStatus());
+        Payment payment = paymentRepository.findByTransactionId(response.getTransactionId()).orElseThrow();
+        assertEquals("Jane Doe", payment.getCardholderName());
+        assertEquals("************1111", payment.getCardNumber());
+        assertEquals("12/50", payment.getExpiryDate());
+
+        request.setCardToken("tok_unknown");
+        assertEquals(PaymentStatus.FAILED, authorizationService.authorize(request).getStatus());
+
+        authorizationService.voidAuthorization(payment.getId());
+    }
+
+    @Test
+    void captureBatch_capturesFullAndPartialInOneGatewayCall() {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            ids.add(authorize("25.00"));
+        }
+        List<CaptureRequest> requests = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i++) {
+            // Every other order shipped partially
+            requests.add(new CaptureRequest(ids.get(i), i % 2 == 0 ? null : new BigDecimal("10.00")));
+        }
+        requests.add(new CaptureRequest(Long.MAX_VALUE, null));
+
+        List<CaptureResult> results = authorizationService.captureAll(requests);
+
+        verify(gateway, times(1)).capturePayments(anyList());
+        assertEquals(101, results.size());
+        for (int i = 0; i < ids.size(); i++) {
+            CaptureResult result = results.get(i);
+            BigDecimal expected = new BigDecimal(i % 2 == 0 ? "25.00" : "10.00");
+            assertEquals(PaymentStatus.COMPLETED, result.status());
+            assertEquals(0, expected.compareTo(result.capturedAmount()));
+            Payment payment = paymentRepository.findById(ids.get(i)).orElseThrow();
+            assertEquals(PaymentStatus.COMPLETED, payment.getStatus());
+            assertEquals(0, expected.compareTo(payment.getAmount()));
+            assertEquals(0, new BigDecimal("25.00").compareTo(payment.getAuthorizedAmount()));
+            assertFalse(openAuthorizations.contains(ids.get(i)));
+        }
+        assertNull(results.get(100).status());
+        assertEquals(AuthorizationService.PAYMENT_NOT_FOUND, results.get(100).message());
+    }
+
+    @Test
+    void capture_overAuthorizedAmountOrAfterVoid_isRejected() {
+        Long id = authorize("20.00");
+
+        CaptureResult tooMuch = authorizationService.capture(id, new BigDecimal("20.01"));
+        assertEquals(PaymentStatus.AUTHORIZED, tooMuch.status());
+
+        authorizationService.voidAuthorization(id);
+        CaptureResult afterVoid = authorizationService.capture(id, null);
+
+        assertEquals(PaymentStatus.VOIDED, afterVoid.status());
+        assertEquals(PaymentStatus.VOIDED, paymentRepository.findById(id).orElseThrow().getStatus());
+        assertThrows(IllegalStateException.class, () -> authorizationService.voidAuthorization(id));
+    }
+
+    @Test
+    void failedCapture_leavesHoldOpen() {
+        when(gateway.capturePayments(anyList())).thenAnswer(invocation -> {
+            List<Payment> payments = invocation.getArgument(0);
+            return payments.stream()
+                .map(payment -> PaymentResponse.failure(payment.getTransactionId(), "Capture failed: Network timeout"))
+                .toList();
+        });
+        Long id = authorize("15.00");
+
+        CaptureResult result = authorizationService.capture(id, null);
+
+        assertEquals(PaymentStatus.AUTHORIZED, result.status());
+        Payment payment = paymentRepository.findById(id).orElseThrow();
+        assertEquals(PaymentStatus.AUTHORIZED, payment.getStatus());
+        assertEquals(0, new BigDecimal("15.00").compareTo(payment.getAmount()));
+        assertTrue(openAuthorizations.contains(id));
+
+        authorizationService.voidAuthorization(id);
+    }
+
+    @Test
+    void expiredAuthorizations_areVoidedAutomatically() {
+        Long expired = authorize("30.00");
+        Long current = authorize("30.00");
+        Payment payment = paymentRepository.findById(expired).orElseThrow();
+        // Re-track it as if it had been authorized long ago
+        openAuthorizations.remove(expired);
+        payment.setAuthorizationExpiresAt(LocalDateTime.now().minusMinutes(1));
+        openAuthorizations.add(payment);
+
+        assertEquals(1, authorizationService.voidExpiredAuthorizations());
+
+        assertEquals(PaymentStatus.VOIDED, paymentRepository.findById(expired).orElseThrow().getStatus());
+        assertEquals(PaymentStatus.AUTHORIZED, paymentRepository.findById(current).orElseThrow().getStatus());
+        assertFalse(openAuthorizations.contains(expired));
+        assertTrue(openAuthorizations.contains(current));
+
+        authorizationService.voidAuthorization(current);
+    }
+
+    @Test
+    void captureLeftInFlightByCrash_isReconciledFromGateway() {
+        Long id = authorize("12.00");
+        Payment payment = paymentRepository.findById(id).orElseThrow();
+        payment.setStatus(PaymentStatus.CAPTURING);
+        paymentRepository.save(payment);
+        openAuthorizations.remove(id);
+        when(gateway.queryCaptureOutcome(any())).thenReturn(Optional.empty());
+
+        assertEquals(PaymentStatus.AUTHORIZED,
+                     authorizationService.reconcileCapture(paymentRepository.findById(id).orElseThrow()));
+
+        assertEquals(PaymentStatus.AUTHORIZED, paymentRepository.findById(id).orElseThrow().getStatus());
+        assertTrue(openAuthorizations.contains(id));
+
+        authorizationService.voidAuthorization(id);
+    }
+}
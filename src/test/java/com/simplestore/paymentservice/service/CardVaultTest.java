@@ -0,0 +1,202 @@
+package com.simplestore.paymentservice.service;
+
+import com.simplestore.paymentservice.config.VaultProperties;
+import com.simplestore.paymentservice.entity.StoredCard;
+import com.simplestore.paymentservice.repository.StoredCardRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class CardVaultTest {
+
+    private static final byte[] KEY = "0123456789abcdef0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+    @Mock
+    private StoredCardRepository repository;
+
+    private final Map<String, StoredCard> table = new HashMap<>();
+
+    private final PaymentValidationService validationService = new PaymentValidationService();
+
+    @BeforeEach
+    void setUp() {
+        when(repository.save(any())).thenAnswer(invocation -> {
+            StoredCard card = invocation.getArgument(0);
+            table.put(card.getToken(), card);
+            return card;
+        });
+        when(repository.findById(anyString()))
+            .thenAnswer(invocation -> Optional.ofNullable(table.get(invocation.<String>getArgument(0))));
+        when(repository.findByFingerprint(anyString())).thenAnswer(invocation -> table.values().stream()
+            .filter(card -> card.getFingerprint().equals(invocation.getArgument(0)))
+            .findFirst());
+        when(repository.existsById(anyString()))
+            .thenAnswer(invocation -> table.containsKey(invocation.<String>getArgument(0)));
+    }
+
+    private CardVault vault(long ttlSeconds) {
+        VaultProperties properties = new VaultProperties();
+        properties.setEncryptionKey(Base64.getEncoder().encodeToString(KEY));
+        properties.setCacheTtlSeconds(ttlSeconds);
+        return new CardVault(repository, validationService, properties);
+    }
+
+    @Test
+    void tokenize_storesCardOnlyEncrypted_andResolvesIt() {
+        VaultedCard stored = vault(900).tokenize("Jane Doe", "4111111111111111", "12/50");
+
+        assertTrue(stored.token().startsWith(CardVault.TOKEN_PREFIX));
+        StoredCard row = table.get(stored.token());
+        assertEquals("1111", row.getLastFour());
+        String raw = new String(row.getEncryptedData(), StandardCharsets.ISO_8859_1);
+        assertFalse(raw.contains("4111111111111111"));
+        assertFalse(raw.contains("Jane Doe"));
+
+        // A fresh vault (another node, or after a restart) decrypts it from the table
+        VaultedCard resolved = vault(900).resolve(stored.token());
+        assertEquals("Jane Doe", resolved.cardholderName());
+        assertEquals("4111111111111111", resolved.cardNumber());
+        assertEquals("12/50", resolved.expiryDate());
+        assertEquals(vault(900).fingerprint("4111 1111 1111 1111"), resolved.fingerprint());
+        assertFalse(resolved.toString().contains("4111111111111111"));
+    }
+
+    @Test
+    void sameCard_keepsItsToken_andTakesTheNewExpiry() {
+        CardVault vault = vault(900);
+        VaultedCard first = vault.tokenize("Jane Doe", "4111111111111111", "12/49");
+        VaultedCard second = vault.tokenize("Jane Doe", "4111-1111-1111-1111", "12/50");
+        VaultedCard other = vault.tokenize("Jane Doe", "5555555555554444", "12/50");
+
+        assertEquals(first.token(), second.token());
+        assertNotEquals(first.token(), other.token());
+        assertEquals("12/50", vault.resolve(first.token()).expiryDate());
+        assertEquals(2, table.size());
+    }
+
+    @Test
+    void invalidCard_isNotStored() {
+        CardVault vault = vault(900);
+
+        assertThrows(IllegalArgumentException.class, () -> vault.tokenize("Jane Doe", "4111111111111112", "12/50"));
+        assertThrows(IllegalArgumentException.class, () -> vault.tokenize("Jane Doe", "4111111111111111", "01/20"));
+        assertTrue(table.isEmpty());
+    }
+
+    @Test
+    void resolve_isServedFromMemoryWithinTtl() {
+        String token = vault(900).tokenize("Jane Doe", "4111111111111111", "12/50").token();
+        CardVault vault = vault(900);
+
+        for (int i = 0; i < 5; i++) {
+            vault.resolve(token);
+        }
+
+        verify(repository, times(1)).findById(token);
+        assertEquals(4, vault.getCacheHits());
+        assertEquals(1, vault.getCacheMisses());
+    }
+
+    @Test
+    void resolve_withoutCache_readsEveryTime() {
+        CardVault vault = vault(0);
+        String token = vault.tokenize("Jane Doe", "4111111111111111", "12/50").token();
+
+        vault.resolve(token);
+        vault.resolve(token);
+
+        verify(repository, times(2)).findById(token);
+        assertEquals(0, vault.getCacheSize());
+    }
+
+    @Test
+    void unknownOrDeletedToken_isRejected() {
+        CardVault vault = vault(900);
+        String token = vault.tokenize("Jane Doe", "4111111111111111", "12/50").token();
+        when(repository.findById(token)).thenReturn(Optional.empty());
+        when(repository.existsById(token)).thenReturn(true);
+
+        assertTrue(vault.delete(token));
+        verify(repository).deleteById(token);
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> vault.resolve(token));
+        assertEquals(CardVault.UNKNOWN_TOKEN, e.getMessage());
+        assertFalse(vault.delete("tok_missing"));
+        verify(repository, never()).deleteById("tok_missing");
+    }
+
+    @Test
+    void cardThatExpiredSinceItWasStored_isRejected() {
+        CardCipher cipher = new CardCipher(new SecretKeySpec(KEY, "AES"));
+        String token = "tok_expired";
+        String fingerprint = new CardFingerprint(new SecretKeySpec(KEY, "AES")).of("4111111111111111");
+        table.put(token, new StoredCard(token, fingerprint, "1111",
+                                        cipher.encrypt(token, CardVault.encode("Jane Doe", "4111111111111111", "01/20"))));
+
+        CardVault vault = vault(900);
+
+        assertThrows(IllegalArgumentException.class, () -> vault.resolve(token));
+        assertTrue(vault.find(token).isPresent());
+    }
+
+    @Test
+    void cardDataMovedToAnotherToken_failsToDecrypt() {
+        CardVault vault = vault(900);
+        VaultedCard card = vault.tokenize("Jane Doe", "4111111111111111", "12/50");
+        table.put("tok_copy", new StoredCard("tok_copy", "other", "1111", table.get(card.token()).getEncryptedData()));
+
+        assertThrows(IllegalStateException.class, () -> vault(900).resolve("tok_copy"));
+    }
+
+    @Test
+    void fingerprintIsKeyedByTheVaultKey() throws Exception {
+        String fingerprint = vault(900).fingerprint("4111111111111111");
+        byte[] plainHash = MessageDigest.getInstance("SHA-256").digest("4111111111111111".getBytes(StandardCharsets.US_ASCII));
+
+        assertEquals(fingerprint, vault(900).fingerprint("4111-1111-1111-1111"));
+        assertNotEquals(HexFormat.of().formatHex(plainHash), fingerprint);
+        byte[] otherKey = KEY.clone();
+        otherKey[0] ^= 1;
+        assertNotEquals(fingerprint, new CardFingerprint(new SecretKeySpec(otherKey, "AES")).of("4111111111111111"));
+    }
+
+    @Test
+    void missingKey_failsStartupUnlessRandomKeysAreAllowed() {
+        VaultProperties properties = new VaultProperties();
+
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+                () -> new CardVault(repository, validationService, properties));
+        assertTrue(e.getMessage().contains("PAYMENT_VAULT_KEY"), e.getMessage());
+
+        properties.setAllowRandomKey(true);
+        CardVault vault = new CardVault(repository, validationService, properties);
+        assertTrue(vault.tokenize("Jane Doe", "4111111111111111", "12/50").token().startsWith(CardVault.TOKEN_PREFIX));
+    }
+}
@@ -0,0 +1,192 @@
+package com.simplestore.paymentservice.service;
+
+import com.simplestore.paymentservice.config.GroupCommitProperties;
+import com.simplestore.paymentservice.entity.Payment;
+import com.simplestore.paymentservice.entity.PaymentStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Path;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the group-commit writer against a file-backed H2 database so durability can be checked across a simulated crash
+ */
+class GroupCommitStatusWriterTest {
+
+    private static final int PAYMENTS = 32;
+
+    @TempDir
+    Path tempDir;
+
+    private String url;
+    private JdbcTemplate jdbcTemplate;
+    private GroupCommitStatusWriter writer;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        url = "jdbc:h2:file:" + tempDir.resolve("payments");
+        jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(url, "sa", ""));
+        jdbcTemplate.execute("CREATE TABLE payments (id BIGINT PRIMARY KEY, status VARCHAR(20) NOT NULL, " +
+                "transaction_id VARCHAR(255), error_message VARCHAR(255), updated_at TIMESTAMP, " +
+                "version BIGINT DEFAULT 0 NOT NULL)");
+        for (long id = 1; id <= PAYMENTS; id++) {
+            jdbcTemplate.update("INSERT INTO payments (id, status) VALUES (?, 'PROCESSING')", id);
+        }
+
+        GroupCommitProperties properties = new GroupCommitProperties();
+        properties.setMaxDelayMs(20);
+        writer = new GroupCommitStatusWriter(jdbcTemplate,
+                new TransactionTemplate(new DataSourceTransactionManager(jdbcTemplate.getDataSource())), properties);
+        writer.start();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        writer.stop();
+    }
+
+    private Payment processing(long id) {
+        Payment payment = new Payment();
+        payment.setId(id);
+        payment.setStatus(PaymentStatus.PROCESSING);
+        payment.setTransactionId("TXN-" + id);
+        return payment;
+    }
+
+    private String statusOf(JdbcTemplate template, long id) {
+        return template.queryForObject("SELECT status FROM payments WHERE id = ?", String.class, id);
+    }
+
+    @Test
+    void concurrentWrites_areCoalescedAndCommittedBeforeAcknowledged() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(PAYMENTS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<String>> results = new ArrayList<>();
+        try {
+            for (long id = 1; id <= PAYMENTS; id++) {
+                long paymentId = id;
+                results.add(executor.submit(() -> {
+                    start.await();
+                    assertTrue(writer.write(processing(paymentId), PaymentStatus.COMPLETED));
+                    // Read back on a different connection right after the acknowledgement
+                    return statusOf(jdbcTemplate, paymentId);
+                }));
+            }
+            start.countDown();
+            for (Future<String> result : results) {
+                assertEquals("COMPLETED", result.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertTrue(writer.getBatchesCommitted() < PAYMENTS,
+                "expected updates to share commits, got " + writer.getBatchesCommitted() + " batches");
+    }
+
+    @Test
+    void acknowledgedUpdates_surviveCrash() {
+        for (long id = 1; id <= PAYMENTS / 2; id++) {
+            writer.write(processing(id), PaymentStatus.COMPLETED);
+        }
+
+        // Kill the database without a clean close, then reopen it
+        jdbcTemplate.execute("SHUTDOWN IMMEDIATELY");
+        JdbcTemplate reopened = new JdbcTemplate(new DriverManagerDataSource(url, "sa", ""));
+
+        for (long id = 1; id <= PAYMENTS; id++) {
+            assertEquals(id <= PAYMENTS / 2 ? "COMPLETED" : "PROCESSING", statusOf(reopened, id));
+        }
+    }
+
+    @Test
+    void updateOfPaymentChangedMeanwhile_isNotApplied() {
+        jdbcTemplate.update("UPDATE payments SET status = 'FAILED' WHERE id = 1");
+        Payment stale = processing(1);
+        stale.setVersion(0L);
+        LocalDateTime readAt = stale.getUpdatedAt();
+
+        assertFalse(writer.write(stale, PaymentStatus.COMPLETED));
+        assertTrue(writer.write(processing(2), PaymentStatus.COMPLETED));
+        assertEquals("FAILED", statusOf(jdbcTemplate, 1));
+        assertEquals(PaymentStatus.PROCESSING, stale.getStatus());
+        assertEquals(0L, stale.getVersion());
+        assertEquals(readAt, stale.getUpdatedAt());
+    }
+
+    @Test
+    void appliedUpdate_leavesThePaymentMatchingTheCommittedRow() {
+        Payment payment = processing(1);
+        payment.setVersion(0L);
+
+        assertTrue(writer.write(payment, PaymentStatus.COMPLETED));
+
+        Map<String, Object> row = jdbcTemplate.queryForMap("SELECT version, updated_at FROM payments WHERE id = 1");
+        assertEquals(PaymentStatus.COMPLETED, payment.getStatus());
+        assertEquals(((Number) row.get("VERSION")).longValue(), payment.getVersion());
+        assertEquals(((Timestamp) row.get("UPDATED_AT")).toLocalDateTime(), payment.getUpdatedAt());
+    }
+
+    @Test
+    void batchWithoutUpdateCounts_isRolledBackAndNeverAcknowledged() throws Exception {
+        // Stands in for a driver that rewrites the batch and only reports SUCCESS_NO_INFO
+        JdbcTemplate noInfo = new JdbcTemplate(jdbcTemplate.getDataSource()) {
+            @Override
+            public <T> int[][] batchUpdate(String sql, Collection<T> batchArgs, int batchSize,
+                                           ParameterizedPreparedStatementSetter<T> pss) {
+                int[][] counts = super.batchUpdate(sql, batchArgs, batchSize, pss);
+                Arrays.fill(counts[0], Statement.SUCCESS_NO_INFO);
+                return counts;
+            }
+        };
+        GroupCommitStatusWriter noInfoWriter = new GroupCommitStatusWriter(noInfo,
+                new TransactionTemplate(new DataSourceTransactionManager(noInfo.getDataSource())),
+                new GroupCommitProperties());
+        noInfoWriter.start();
+        try {
+            assertThrows(IllegalStateException.class, () -> noInfoWriter.write(processing(1), PaymentStatus.COMPLETED));
+            assertEquals("PROCESSING", statusOf(jdbcTemplate, 1));
+        } finally {
+            noInfoWriter.stop();
+        }
+    }
+
+    @Test
+    void failedCommit_isNeverAcknowledged() {
+        jdbcTemplate.execute("DROP TABLE payments");
+
+        assertThrows(IllegalStateException.class, () -> writer.write(processing(1), PaymentStatus.COMPLETED));
+        assertEquals(0, writer.getBatchesCommitted());
+    }
+
+    @Test
+    void write_afterStop_isRejected() throws Exception {
+        writer.stop();
+
+        assertThrows(IllegalStateException.class, () -> writer.write(processing(1), PaymentStatus.COMPLETED));
+    }
+}
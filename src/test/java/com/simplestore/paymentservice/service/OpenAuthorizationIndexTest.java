@@ -0,0 +1,78 @@
+package com.simplestore.paymentservice.service;
+
+import com.simplestore.paymentservice.dto.AuthorizationSummary;
+import com.simplestore.paymentservice.entity.Payment;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OpenAuthorizationIndexTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+    private final OpenAuthorizationIndex index = new OpenAuthorizationIndex();
+
+    private Payment hold(long id, String amount, String currency, LocalDateTime expiresAt) {
+        Payment payment = new Payment("Jane Doe", "************1111", "12/50", "***", new BigDecimal(amount));
+        payment.setId(id);
+        payment.setCurrency(currency);
+        payment.setAuthorizedAmount(new BigDecimal(amount));
+        payment.setAuthorizationExpiresAt(expiresAt);
+        return payment;
+    }
+
+    @Test
+    void expiredAt_returnsEarliestExpiredHoldsUpToLimit() {
+        index.add(hold(1, "10.00", "USD", NOW.plusMinutes(5)));
+        index.add(hold(2, "10.00", "USD", NOW.minusMinutes(1)));
+        index.add(hold(3, "10.00", "USD", NOW.minusMinutes(10)));
+        index.add(hold(4, "10.00", "USD", NOW));
+
+        assertEquals(List.of(3L, 2L, 4L), index.expiredAt(NOW, 10));
+        assertEquals(List.of(3L, 2L), index.expiredAt(NOW, 2));
+        assertEquals(List.of(), index.expiredAt(NOW.minusHours(1), 10));
+    }
+
+    @Test
+    void totals_followAddsAndRemoves() {
+        index.add(hold(1, "10.00", "USD", NOW.plusDays(1)));
+        index.add(hold(2, "5.50", "USD", NOW.plusDays(2)));
+        index.add(hold(3, "7.00", "EUR", NOW.plusHours(1)));
+        // Tracking the same payment twice must not count its hold twice
+        index.add(hold(1, "10.00", "USD", NOW.plusDays(1)));
+
+        AuthorizationSummary summary = index.summary();
+        assertEquals(3, summary.open());
+        assertEquals(0, new BigDecimal("15.50").compareTo(summary.heldByCurrency().get("USD")));
+        assertEquals(0, new BigDecimal("7.00").compareTo(summary.heldByCurrency().get("EUR")));
+        assertEquals(NOW.plusHours(1), summary.nextExpiry());
+
+        index.remove(3L);
+        index.remove(3L);
+        index.remove(1L);
+
+        summary = index.summary();
+        assertEquals(1, summary.open());
+        assertFalse(summary.heldByCurrency().containsKey("EUR"));
+        assertEquals(0, new BigDecimal("5.50").compareTo(summary.heldByCurrency().get("USD")));
+        assertEquals(NOW.plusDays(2), summary.nextExpiry());
+        assertTrue(index.contains(2L));
+        assertFalse(index.contains(1L));
+    }
+
+    @Test
+    void emptyIndex_hasNoNextExpiry() {
+        AuthorizationSummary summary = index.summary();
+
+        assertEquals(0, summary.open());
+        assertTrue(summary.heldByCurrency().isEmpty());
+        assertNull(summary.nextExpiry());
+    }
+}
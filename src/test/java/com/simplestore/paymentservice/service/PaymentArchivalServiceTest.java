@@ -0,0 +1,107 @@
+package com.simplestore.paymentservice.service;
+
+import com.simplestore.paymentservice.config.ArchiveProperties;
+import com.simplestore.paymentservice.entity.ArchivedPayment;
+import com.simplestore.paymentservice.entity.Payment;
+import com.simplestore.paymentservice.entity.PaymentStatus;
+import com.simplestore.paymentservice.repository.ArchivedPaymentRepository;
+import com.simplestore.paymentservice.repository.PaymentRepository;
+import com.simplestore.paymentservice.search.PaymentSearchIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class PaymentArchivalServiceTest {
+
+    @Mock
+    private PaymentRepository paymentRepository;
+
+    @Mock
+    private ArchivedPaymentRepository archivedPaymentRepository;
+
+    @Mock
+    private ArchiveExportService archiveExportService;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private PaymentSearchIndex searchIndex;
+
+    @Spy
+    private ArchiveProperties properties = new ArchiveProperties();
+
+    @InjectMocks
+    private PaymentArchivalService archivalService;
+
+    @Captor
+    private ArgumentCaptor<List<ArchivedPayment>> archivedCaptor;
+
+    @BeforeEach
+    void setUp() {
+        properties.setChunkSize(2);
+        properties.setPauseBetweenChunksMs(0);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    private Payment payment(long id) {
+        Payment payment = new Payment("Jane Doe", "************1111", "12/50", "***", new BigDecimal("12.34"));
+        payment.setId(id);
+        payment.setStatus(PaymentStatus.COMPLETED);
+        payment.setTransactionId("TXN-" + id);
+        return payment;
+    }
+
+    @Test
+    void archiveExpiredPayments_movesChunksUntilShortChunk() {
+        when(paymentRepository.findArchivableIds(anyCollection(), any(), any()))
+                .thenReturn(List.of(1L, 2L))
+                .thenReturn(List.of(3L));
+        when(paymentRepository.findAllById(List.of(1L, 2L))).thenReturn(List.of(payment(1), payment(2)));
+        when(paymentRepository.findAllById(List.of(3L))).thenReturn(List.of(payment(3)));
+
+        long archived = archivalService.archiveExpiredPayments();
+
+        assertEquals(3, archived);
+        verify(archivedPaymentRepository, times(2)).saveAll(archivedCaptor.capture());
+        assertEquals(List.of(1L, 2L), archivedCaptor.getAllValues().get(0).stream().map(ArchivedPayment::getId).toList());
+        assertEquals("TXN-3", archivedCaptor.getAllValues().get(1).get(0).getTransactionId());
+        verify(paymentRepository).deleteAllByIdInBatch(List.of(1L, 2L));
+        verify(paymentRepository).deleteAllByIdInBatch(List.of(3L));
+        verify(searchIndex).removeAll(List.of(1L, 2L));
+        verify(searchIndex).removeAll(List.of(3L));
+    }
+
+    @Test
+    void archiveExpiredPayments_onlyConsidersTerminalStatuses() throws Exception {
+        when(paymentRepository.findArchivableIds(anyCollection(), any(), any())).thenReturn(List.of());
+
+        assertEquals(0, archivalService.archiveExpiredPayments());
+
+        verify(paymentRepository).findArchivableIds(eq(PaymentArchivalService.TERMINAL_STATUSES), any(), any());
+        verify(paymentRepository, never()).deleteAllByIdInBatch(any());
+        verify(archiveExportService, never()).exportArchivedBetween(any(), any(), any());
+    }
+}
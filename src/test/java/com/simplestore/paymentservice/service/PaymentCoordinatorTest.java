@@ -0,0 +1,235 @@
+package com.simplestore.paymentservice.service;
+
+import com.simplestore.paymentservice.cluster.ClusterForwarder;
+import com.simplestore.paymentservice.cluster.ClusterMembership;
+import com.simplestore.paymentservice.cluster.ClusterProtocol;
+import com.simplestore.paymentservice.config.ClusterProperties;
+import com.simplestore.paymentservice.dto.OrderItem;
+import com.simplestore.paymentservice.dto.PaymentRequest;
+import com.simplestore.paymentservice.dto.PaymentResponse;
+import com.simplestore.paymentservice.entity.PaymentStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.spec.SecretKeySpec;
+import java.math.BigDecimal;
+import java.net.ConnectException;
+import java.net.http.HttpTimeoutException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class PaymentCoordinatorTest {
+
+    @Mock
+    private PaymentService paymentService;
+
+    @Mock
+    private AuthorizationService authorizationService;
+
+    @Mock
+    private ClusterMembership membership;
+
+    @Mock
+    private ClusterForwarder forwarder;
+
+    @Mock
+    private CardVault cardVault;
+
+    private PaymentCoordinator coordinator;
+
+    @BeforeEach
+    void setUp() {
+        coordinator = new PaymentCoordinator();
+        ReflectionTestUtils.setField(coordinator, "paymentService", paymentService);
+        ReflectionTestUtils.setField(coordinator, "authorizationService", authorizationService);
+        ReflectionTestUtils.setField(coordinator, "idempotencyCache", new IdempotencyCache(3600));
+        ReflectionTestUtils.setField(coordinator, "velocityLimiter", new VelocityLimiter(2, 60));
+        ReflectionTestUtils.setField(coordinator, "cardVault", cardVault);
+        CardFingerprint fingerprints = new CardFingerprint(new SecretKeySpec(new byte[32], "AES"));
+        lenient().when(cardVault.fingerprint(any()))
+                .thenAnswer(invocation -> fingerprints.of(invocation.<String>getArgument(0)));
+    }
+
+    private PaymentRequest buildRequest(String cardNumber) {
+        return new PaymentRequest(
+                "Jane Doe",
+                cardNumber,
+                "12/50",
+                "123",
+                new BigDecimal("12.34"),
+                List.of(new OrderItem("Widget", 1, new BigDecimal("12.34")))
+        );
+    }
+
+    private void enableCluster() {
+        ReflectionTestUtils.setField(coordinator, "membership", membership);
+        ReflectionTestUtils.setField(coordinator, "forwarder", forwarder);
+        when(membership.localNodeId()).thenReturn("node-1");
+    }
+
+    @Test
+    void sameIdempotencyKey_processesOnceAndReplaysResponse() {
+        PaymentResponse original = PaymentResponse.success("TXN-1", new BigDecimal("12.34"));
+        when(paymentService.processPayment(any())).thenReturn(original);
+
+        PaymentResponse first = coordinator.process(buildRequest("4111111111111111"), "key-1");
+        PaymentResponse retry = coordinator.process(buildRequest("4111111111111111"), "key-1");
+
+        assertSame(first, retry);
+        verify(paymentService, times(1)).processPayment(any());
+    }
+
+    @Test
+    void overVelocityLimit_isDeclinedWithoutProcessing() {
+        when(paymentService.processPayment(any())).thenReturn(PaymentResponse.success("TXN-1", BigDecimal.ONE));
+
+        coordinator.process(buildRequest("4111111111111111"), null);
+        coordinator.process(buildRequest("4111111111111111"), null);
+        PaymentResponse third = coordinator.process(buildRequest("4111 1111 1111 1111"), null);
+
+        assertEquals(PaymentStatus.DECLINED, third.getStatus());
+        verify(paymentService, times(2)).processPayment(any());
+    }
+
+    @Test
+    void cardOwnedByOtherNode_isForwarded() throws Exception {
+        enableCluster();
+        ClusterProperties.Node node2 = new ClusterProperties.Node("node-2", "http://localhost:8082");
+        PaymentResponse remote = PaymentResponse.success("TXN-REMOTE", BigDecimal.ONE);
+        when(membership.ownerOf(anyString())).thenReturn("node-2");
+        when(membership.node("node-2")).thenReturn(node2);
+        when(forwarder.forward(eq(node2), eq(ClusterProtocol.PROCESS_PATH), any(), eq("key-1"))).thenReturn(remote);
+
+        PaymentResponse response = coordinator.process(buildRequest("4111111111111111"), "key-1");
+
+        assertSame(remote, response);
+        verify(paymentService, never()).processPayment(any());
+    }
+
+    @Test
+    void unreachableOwner_isMarkedDownAndPaymentMovesToNextOwner() throws Exception {
+        enableCluster();
+        ClusterProperties.Node node2 = new ClusterProperties.Node("node-2", "http://localhost:8082");
+        when(membership.ownerOf(anyString())).thenReturn("node-2", "node-1");
+        when(membership.node("node-2")).thenReturn(node2);
+        when(forwarder.forward(eq(node2), eq(ClusterProtocol.PROCESS_PATH), any(), any()))
+                .thenThrow(new ClusterForwarder.UnreachableException("connection refused", new ConnectException()));
+        when(paymentService.processPayment(any())).thenReturn(PaymentResponse.success("TXN-LOCAL", BigDecimal.ONE));
+
+        PaymentResponse response = coordinator.process(buildRequest("4111111111111111"), null);
+
+        assertEquals("TXN-LOCAL", response.getTransactionId());
+        verify(membership).markDown("node-2");
+    }
+
+    @Test
+    void ownerThatMayHaveReceivedThePayment_isNotFailedOver() throws Exception {
+        enableCluster();
+        ClusterProperties.Node node2 = new ClusterProperties.Node("node-2", "http://localhost:8082");
+        when(membership.ownerOf(anyString())).thenReturn("node-2");
+        when(membership.node("node-2")).thenReturn(node2);
+        when(forwarder.forward(eq(node2), eq(ClusterProtocol.PROCESS_PATH), any(), any()))
+                .thenThrow(new HttpTimeoutException("request timed out"));
+
+        PaymentResponse response = coordinator.process(buildRequest("4111111111111111"), "key-1");
+
+        assertEquals(PaymentStatus.PROCESSING, response.getStatus());
+        assertEquals("Payment outcome unknown", response.getMessage());
+        verify(forwarder, times(1)).forward(any(), any(), any(), any());
+        verify(membership, never()).markDown(anyString());
+        verify(paymentService, never()).processPayment(any());
+    }
+
+    @Test
+    void ownerThatRefusesThePayment_isNotMarkedDown() throws Exception {
+        enableCluster();
+        ClusterProperties.Node node2 = new ClusterProperties.Node("node-2", "http://localhost:8082");
+        when(membership.ownerOf(anyString())).thenReturn("node-2");
+        when(membership.node("node-2")).thenReturn(node2);
+        when(forwarder.forward(eq(node2), eq(ClusterProtocol.PROCESS_PATH), any(), any()))
+                .thenThrow(new ClusterForwarder.RejectedException(503, "Node node-2 answered 503"))
+                .thenThrow(new ClusterForwarder.RejectedException(400, "Node node-2 answered 400"));
+
+        PaymentResponse overloaded = coordinator.process(buildRequest("4111111111111111"), null);
+        PaymentResponse invalid = coordinator.process(buildRequest("4111111111111111"), null);
+
+        assertEquals(PaymentStatus.FAILED, overloaded.getStatus());
+        assertEquals("Owner node is overloaded, retry later", overloaded.getErrorMessage());
+        assertEquals(PaymentStatus.FAILED, invalid.getStatus());
+        assertEquals("Owner node rejected the payment (400)", invalid.getErrorMessage());
+        verify(membership, never()).markDown(anyString());
+        verify(paymentService, never()).processPayment(any());
+    }
+
+    @Test
+    void retriedAuthorization_placesOneHold() {
+        PaymentResponse hold = new PaymentResponse("TXN-1", PaymentStatus.AUTHORIZED, "Payment authorized",
+                                                   new BigDecimal("12.34"));
+        when(authorizationService.authorize(any())).thenReturn(hold);
+
+        PaymentResponse first = coordinator.authorize(buildRequest("4111111111111111"), "key-1");
+        PaymentResponse retry = coordinator.authorize(buildRequest("4111111111111111"), "key-1");
+
+        assertSame(first, retry);
+        verify(authorizationService, times(1)).authorize(any());
+        verify(paymentService, never()).processPayment(any());
+    }
+
+    @Test
+    void authorizationAndChargeWithTheSameKey_areKeptApart() {
+        when(authorizationService.authorize(any())).thenReturn(
+                new PaymentResponse("TXN-1", PaymentStatus.AUTHORIZED, "Payment authorized", BigDecimal.ONE));
+        when(paymentService.processPayment(any())).thenReturn(PaymentResponse.success("TXN-2", BigDecimal.ONE));
+
+        PaymentResponse authorized = coordinator.authorize(buildRequest("4111111111111111"), "key-1");
+        PaymentResponse charged = coordinator.process(buildRequest("4111111111111111"), "key-1");
+
+        assertEquals(PaymentStatus.AUTHORIZED, authorized.getStatus());
+        assertEquals(PaymentStatus.COMPLETED, charged.getStatus());
+    }
+
+    @Test
+    void authorizations_countTowardsTheVelocityLimit() {
+        when(authorizationService.authorize(any())).thenReturn(
+                new PaymentResponse("TXN-1", PaymentStatus.AUTHORIZED, "Payment authorized", BigDecimal.ONE));
+        when(paymentService.processPayment(any())).thenReturn(PaymentResponse.success("TXN-2", BigDecimal.ONE));
+
+        coordinator.authorize(buildRequest("4111111111111111"), null);
+        coordinator.process(buildRequest("4111111111111111"), null);
+        PaymentResponse third = coordinator.authorize(buildRequest("4111111111111111"), null);
+
+        assertEquals(PaymentStatus.DECLINED, third.getStatus());
+        verify(authorizationService, times(1)).authorize(any());
+    }
+
+    @Test
+    void authorizationForCardOwnedByOtherNode_isForwardedToItsAuthorizePath() throws Exception {
+        enableCluster();
+        ClusterProperties.Node node2 = new ClusterProperties.Node("node-2", "http://localhost:8082");
+        PaymentResponse remote = new PaymentResponse("TXN-REMOTE", PaymentStatus.AUTHORIZED, "Payment authorized",
+                                                     BigDecimal.ONE);
+        when(membership.ownerOf(anyString())).thenReturn("node-2");
+        when(membership.node("node-2")).thenReturn(node2);
+        when(forwarder.forward(eq(node2), eq(ClusterProtocol.AUTHORIZE_PATH), any(), eq("key-1"))).thenReturn(remote);
+
+        PaymentResponse response = coordinator.authorize(buildRequest("4111111111111111"), "key-1");
+
+        assertSame(remote, response);
+        verify(authorizationService, never()).authorize(any());
+    }
+}
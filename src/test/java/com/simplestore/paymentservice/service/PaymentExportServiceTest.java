@@ -0,0 +1,100 @@
+package com.simplestore.paymentservice.service;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.luben.zstd.ZstdInputStream;
+import com.simplestore.paymentservice.entity.Payment;
+import com.simplestore.paymentservice.entity.PaymentStatus;
+import com.simplestore.paymentservice.repository.PaymentRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Round-trips a 10k-payment export in every format and encoding and compares payload sizes
+ */
+class PaymentExportServiceTest {
+
+    private static final int ROWS = 10_000;
+
+    private final PaymentExportService exportService = new PaymentExportService(
+            mock(PaymentRepository.class),
+            new Jackson2ObjectMapperBuilder().findModulesViaServiceLoader(true));
+
+    private final List<Payment> payments = buildPayments();
+
+    private static List<Payment> buildPayments() {
+        List<Payment> payments = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            Payment payment = new Payment("Jane Doe", "************1111", "12/50", "***",
+                    BigDecimal.valueOf(1000 + i, 2));
+            payment.setId((long) i);
+            payment.setTransactionId("TXN-1700000000000-" + String.format("%08X", i));
+            payment.setStatus(i % 10 == 0 ? PaymentStatus.FAILED : PaymentStatus.COMPLETED);
+            payments.add(payment);
+        }
+        return payments;
+    }
+
+    @Test
+    void export_roundTripsInEveryFormatAndEncoding() throws IOException {
+        int ndjsonBytes = roundTrip(ExportFormat.NDJSON, ExportEncoding.IDENTITY);
+        for (ExportFormat format : ExportFormat.values()) {
+            int identityBytes = roundTrip(format, ExportEncoding.IDENTITY);
+            if (format != ExportFormat.NDJSON) {
+                assertTrue(identityBytes < ndjsonBytes, format + " should be smaller than NDJSON");
+            }
+            for (ExportEncoding encoding : ExportEncoding.values()) {
+                if (encoding != ExportEncoding.IDENTITY) {
+                    assertTrue(roundTrip(format, encoding) < identityBytes,
+                            format + " with " + encoding + " should be smaller than uncompressed");
+                }
+            }
+        }
+    }
+
+    // Writes the export, checks every payment reads back in order, and returns the payload size
+    private int roundTrip(ExportFormat format, ExportEncoding encoding) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try (OutputStream out = encoding.wrap(buffer)) {
+            exportService.write(payments.stream(), format, out);
+        }
+        byte[] payload = buffer.toByteArray();
+
+        List<String> transactionIds = new ArrayList<>(ROWS);
+        ObjectMapper mapper = exportService.mapperFor(format);
+        try (InputStream in = unwrap(encoding, new ByteArrayInputStream(payload));
+             MappingIterator<Payment> iterator = mapper.readerFor(Payment.class).readValues(in)) {
+            while (iterator.hasNext()) {
+                transactionIds.add(iterator.next().getTransactionId());
+            }
+        }
+        assertEquals(payments.stream().map(Payment::getTransactionId).toList(), transactionIds,
+                format + " with " + encoding + " should round-trip every payment");
+        return payload.length;
+    }
+
+    private static InputStream unwrap(ExportEncoding encoding, InputStream in) throws IOException {
+        switch (encoding) {
+            case GZIP:
+                return new GZIPInputStream(in);
+            case ZSTD:
+                return new ZstdInputStream(in);
+            default:
+                return in;
+        }
+    }
+}
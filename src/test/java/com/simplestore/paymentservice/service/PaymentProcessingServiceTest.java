@@ -1,5 +1,6 @@
 package com.simplestore.paymentservice.service;
 
+import com.simplestore.paymentservice.config.GatewaySimulatorProperties;
 import com.simplestore.paymentservice.entity.Payment;
 import com.simplestore.paymentservice.entity.PaymentStatus;
 import org.junit.jupiter.api.Test;
@@ -10,7 +11,14 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 
 class PaymentProcessingServiceTest {
 
-    private final PaymentProcessingService processingService = new PaymentProcessingService();
+    private final PaymentProcessingService processingService = new PaymentProcessingService(zeroLatencyProperties(42L));
+
+    private static GatewaySimulatorProperties zeroLatencyProperties(Long seed) {
+        GatewaySimulatorProperties properties = new GatewaySimulatorProperties();
+        properties.getLatency().setMode(GatewaySimulatorProperties.LatencyMode.ZERO);
+        properties.setSeed(seed);
+        return properties;
+    }
 
     private Payment buildPayment(String cardNumber, BigDecimal amount) {
         Payment payment = new Payment();
@@ -36,4 +44,30 @@ class PaymentProcessingServiceTest {
         var response = processingService.processPayment(payment);
         assertEquals(PaymentStatus.FAILED, response.getStatus());
     }
+
+    @Test
+    void processPayment_sameSeedGivesSameOutcomes() {
+        PaymentProcessingService first = new PaymentProcessingService(zeroLatencyProperties(7L));
+        PaymentProcessingService second = new PaymentProcessingService(zeroLatencyProperties(7L));
+
+        for (int i = 0; i < 50; i++) {
+            Payment payment = buildPayment("4532015112830366", new BigDecimal("600.00"));
+            assertEquals(first.processPayment(payment).getStatus(), second.processPayment(payment).getStatus());
+        }
+    }
+
+    @Test
+    void processPayment_zeroFailureRatesAlwaysSucceed() {
+        GatewaySimulatorProperties properties = zeroLatencyProperties(null);
+        properties.setNetworkErrorRate(0);
+        properties.setDeclineRate(0);
+        properties.setHighAmountFailureRate(0);
+        properties.setInsufficientFundsRate(0);
+        PaymentProcessingService service = new PaymentProcessingService(properties);
+
+        for (int i = 0; i < 50; i++) {
+            Payment payment = buildPayment("4532015112830366", new BigDecimal("5000.00"));
+            assertEquals(PaymentStatus.COMPLETED, service.processPayment(payment).getStatus());
+        }
+    }
 }
@@ -0,0 +1,145 @@
+package com.simplestore.paymentservice.service;
+
+import com.simplestore.paymentservice.dto.OrderItem;
+import com.simplestore.paymentservice.dto.PaymentRequest;
+import com.simplestore.paymentservice.dto.PaymentResponse;
+import com.simplestore.paymentservice.entity.Payment;
+import com.simplestore.paymentservice.entity.PaymentStatus;
+import com.simplestore.paymentservice.repository.PaymentRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+/**
+ * Kills payments mid-flight (request threads stuck inside the gateway call) and checks that the sweeper
+ * finalizes them from the gateway's records and that the original threads cannot overwrite the result
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:recovery;DB_CLOSE_DELAY=-1",
+        "spring.jpa.show-sql=false",
+        "logging.level.org.hibernate.SQL=INFO",
+        "payment.archive.enabled=false",
+        "payment.recovery.enabled=false",
+        "payment.recovery.stale-after-seconds=0",
+        "payment.recovery.chunk-size=7",
+        "payment.recovery.max-per-second=1000"
+})
+class PaymentRecoveryServiceTest {
+
+    private static final int PAYMENTS = 40;
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private PaymentRecoveryService recoveryService;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @MockBean
+    private PaymentProcessingService gateway;
+
+    private PaymentRequest buildValidRequest() {
+        return new PaymentRequest(
+                "Jane Doe",
+                "4111111111111111",
+                "12/50",
+                "123",
+                new BigDecimal("12.34"),
+                List.of(new OrderItem("Widget", 1, new BigDecimal("12.34")))
+        );
+    }
+
+    @Test
+    void paymentsAbandonedMidFlight_areFinalizedFromGatewayRecords_andLateWritersLose() throws Exception {
+        // What the gateway decided before the "crash", by transaction ID; absent = never received
+        Map<String, PaymentResponse> decided = new ConcurrentHashMap<>();
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch allInFlight = new CountDownLatch(PAYMENTS);
+        CountDownLatch resume = new CountDownLatch(1);
+
+        when(gateway.processPayment(any())).thenAnswer(invocation -> {
+            Payment payment = invocation.getArgument(0);
+            int n = calls.getAndIncrement();
+            if (n % 4 == 0) {
+                decided.put(payment.getTransactionId(), PaymentResponse.success(payment.getTransactionId(), payment.getAmount()));
+            } else if (n % 4 == 2) {
+                decided.put(payment.getTransactionId(), PaymentResponse.failure(payment.getTransactionId(), "Payment declined by bank"));
+            }
+            allInFlight.countDown();
+            // The process "dies" here; the thread only wakes up after recovery has run
+            resume.await();
+            return PaymentResponse.success(payment.getTransactionId(), payment.getAmount());
+        });
+        when(gateway.queryPaymentOutcome(any())).thenAnswer(invocation -> {
+            Payment payment = invocation.getArgument(0);
+            return Optional.ofNullable(decided.get(payment.getTransactionId()));
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(PAYMENTS);
+        List<Future<PaymentResponse>> requests = new ArrayList<>();
+        try {
+            for (int i = 0; i < PAYMENTS; i++) {
+                requests.add(executor.submit(() -> paymentService.processPayment(buildValidRequest())));
+            }
+            assertTrue(allInFlight.await(30, TimeUnit.SECONDS));
+            assertEquals(PAYMENTS, paymentRepository.findByStatus(PaymentStatus.PROCESSING).size());
+
+            PaymentRecoveryService.RecoveryResult result = recoveryService.recoverStalePayments();
+
+            assertEquals(PAYMENTS, result.scanned());
+            assertEquals(PAYMENTS / 4, result.completed());
+            assertEquals(PAYMENTS - PAYMENTS / 4, result.failed());
+            assertEquals(0, result.unresolved());
+            List<Payment> recovered = paymentRepository.findAll();
+            for (Payment payment : recovered) {
+                PaymentResponse outcome = decided.get(payment.getTransactionId());
+                if (outcome != null) {
+                    assertEquals(outcome.getStatus(), payment.getStatus());
+                } else {
+                    assertEquals(PaymentStatus.FAILED, payment.getStatus());
+                    assertEquals(PaymentRecoveryService.ABANDONED_MESSAGE, payment.getErrorMessage());
+                }
+            }
+
+            // The stuck threads now return "success" for everything; none of them may overwrite recovery
+            resume.countDown();
+            for (Future<PaymentResponse> request : requests) {
+                PaymentResponse response = request.get(30, TimeUnit.SECONDS);
+                Payment stored = paymentRepository.findByTransactionId(response.getTransactionId()).orElseThrow();
+                assertEquals(stored.getStatus(), response.getStatus());
+            }
+            for (Payment before : recovered) {
+                Payment after = paymentRepository.findById(before.getId()).orElseThrow();
+                assertEquals(before.getStatus(), after.getStatus());
+                assertEquals(before.getVersion(), after.getVersion());
+            }
+
+            // Nothing is left to recover
+            assertEquals(0, recoveryService.recoverStalePayments().scanned());
+        } finally {
+            resume.countDown();
+            executor.shutdownNow();
+        }
+    }
+}
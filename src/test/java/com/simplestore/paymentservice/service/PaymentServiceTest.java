@@ -17,9 +17,11 @@ import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -37,6 +39,9 @@ class PaymentServiceTest {
     @Mock
     private PaymentProcessingService processingService;
 
+    @Mock
+    private PaymentStateMachine stateMachine;
+
     @InjectMocks
     private PaymentService paymentService;
 
@@ -64,19 +69,34 @@ class PaymentServiceTest {
     }
 
     @Test
-    void processPayment_successPath_savesAndReturnsCompleted() {
+    void processPayment_successPath_storesProcessingThenTransitionsToCompleted() {
         PaymentResponse successResponse = PaymentResponse.success("TXN-123", new BigDecimal("12.34"));
         when(processingService.processPayment(any())).thenReturn(successResponse);
+        when(stateMachine.transition(any(), eq(PaymentStatus.COMPLETED))).thenReturn(true);
 
         PaymentRequest request = buildValidRequest();
         PaymentResponse response = paymentService.processPayment(request);
 
         assertEquals(PaymentStatus.COMPLETED, response.getStatus());
 
-        verify(paymentRepository, times(2)).save(paymentCaptor.capture());
-        Payment saved = paymentCaptor.getAllValues().get(1); // second save contains status/transaction update
-        // Ensure transaction id set and status updated
-        assertEquals(PaymentStatus.COMPLETED, saved.getStatus());
-        assertEquals("TXN-123", saved.getTransactionId());
+        // Inserted once, in flight; the outcome is a conditional transition, not a second save
+        verify(paymentRepository, times(1)).save(paymentCaptor.capture());
+        verify(stateMachine).transition(paymentCaptor.getValue(), PaymentStatus.COMPLETED);
+        assertEquals("TXN-123", paymentCaptor.getValue().getTransactionId());
+    }
+
+    @Test
+    void processPayment_lostTransition_returnsStoredOutcome() {
+        when(processingService.processPayment(any()))
+                .thenReturn(PaymentResponse.success("TXN-123", new BigDecimal("12.34")));
+        when(stateMachine.transition(any(), eq(PaymentStatus.COMPLETED))).thenReturn(false);
+        Payment stored = new Payment();
+        stored.setStatus(PaymentStatus.FAILED);
+        stored.setTransactionId("TXN-123");
+        when(paymentRepository.findById(any())).thenReturn(Optional.of(stored));
+
+        PaymentResponse response = paymentService.processPayment(buildValidRequest());
+
+        assertEquals(PaymentStatus.FAILED, response.getStatus());
     }
 }
@@ -0,0 +1,135 @@
+package com.simplestore.paymentservice.service;
+
+import com.simplestore.paymentservice.entity.Payment;
+import com.simplestore.paymentservice.entity.PaymentStatus;
+import com.simplestore.paymentservice.repository.PaymentRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Races status transitions from many threads against a real database
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:statemachine;DB_CLOSE_DELAY=-1",
+        "spring.jpa.show-sql=false",
+        "logging.level.org.hibernate.SQL=INFO",
+        "payment.archive.enabled=false"
+})
+class PaymentStateMachineTest {
+
+    private static final int PAYMENTS = 50;
+    private static final int THREADS_PER_PAYMENT = 8;
+
+    @Autowired
+    private PaymentStateMachine stateMachine;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    private Payment processingPayment() {
+        Payment payment = new Payment("Jane Doe", "************1111", "12/50", "***", new BigDecimal("12.34"));
+        payment.setStatus(PaymentStatus.PROCESSING);
+        payment.setTransactionId(PaymentMapper.generateTransactionId());
+        return paymentRepository.save(payment);
+    }
+
+    @Test
+    void racingTransitions_exactlyOneWinsPerPayment_andItsOutcomeIsStored() throws Exception {
+        List<Payment> payments = new ArrayList<>();
+        for (int i = 0; i < PAYMENTS; i++) {
+            payments.add(processingPayment());
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(32);
+        CountDownLatch start = new CountDownLatch(1);
+        List<List<Future<PaymentStatus>>> results = new ArrayList<>();
+        try {
+            for (Payment payment : payments) {
+                List<Future<PaymentStatus>> attempts = new ArrayList<>();
+                for (int t = 0; t < THREADS_PER_PAYMENT; t++) {
+                    // Half the threads report success, half failure, each with its own copy as read earlier
+                    PaymentStatus target = t % 2 == 0 ? PaymentStatus.COMPLETED : PaymentStatus.FAILED;
+                    Payment copy = paymentRepository.findById(payment.getId()).orElseThrow();
+                    attempts.add(executor.submit(() -> {
+                        start.await();
+                        return stateMachine.transition(copy, target) ? target : null;
+                    }));
+                }
+                results.add(attempts);
+            }
+            start.countDown();
+
+            for (int i = 0; i < PAYMENTS; i++) {
+                List<PaymentStatus> winners = new ArrayList<>();
+                for (Future<PaymentStatus> attempt : results.get(i)) {
+                    PaymentStatus won = attempt.get();
+                    if (won != null) {
+                        winners.add(won);
+                    }
+                }
+                assertEquals(1, winners.size(), "exactly one transition must win");
+
+                Payment stored = paymentRepository.findById(payments.get(i).getId()).orElseThrow();
+                assertEquals(winners.get(0), stored.getStatus());
+                assertEquals(payments.get(i).getVersion() + 1, stored.getVersion());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void staleEntitySave_afterTransition_isRejected() {
+        Payment payment = processingPayment();
+        Payment stale = paymentRepository.findById(payment.getId()).orElseThrow();
+
+        assertTrue(stateMachine.transition(payment, PaymentStatus.COMPLETED));
+
+        stale.setErrorMessage("overwritten");
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> paymentRepository.save(stale));
+        assertEquals(PaymentStatus.COMPLETED, paymentRepository.findById(payment.getId()).orElseThrow().getStatus());
+    }
+
+    @Test
+    void transitionNotInTable_isRefused() {
+        Payment payment = processingPayment();
+
+        assertThrows(IllegalStateException.class, () -> stateMachine.transition(payment, PaymentStatus.CANCELLED));
+        assertTrue(stateMachine.transition(payment, PaymentStatus.DECLINED));
+        assertThrows(IllegalStateException.class, () -> stateMachine.transition(payment, PaymentStatus.COMPLETED));
+    }
+
+    @Test
+    void transitionTable_matchesLifecycle() {
+        assertTrue(PaymentStatus.PENDING.canTransitionTo(PaymentStatus.PROCESSING));
+        assertTrue(PaymentStatus.PENDING.canTransitionTo(PaymentStatus.CANCELLED));
+        assertTrue(PaymentStatus.PROCESSING.canTransitionTo(PaymentStatus.COMPLETED));
+        assertTrue(PaymentStatus.COMPLETED.canTransitionTo(PaymentStatus.CANCELLED));
+        assertTrue(PaymentStatus.PROCESSING.canTransitionTo(PaymentStatus.AUTHORIZED));
+        assertTrue(PaymentStatus.AUTHORIZED.canTransitionTo(PaymentStatus.CAPTURING));
+        assertTrue(PaymentStatus.AUTHORIZED.canTransitionTo(PaymentStatus.VOIDED));
+        assertTrue(PaymentStatus.CAPTURING.canTransitionTo(PaymentStatus.COMPLETED));
+        assertTrue(PaymentStatus.CAPTURING.canTransitionTo(PaymentStatus.AUTHORIZED));
+        assertFalse(PaymentStatus.PENDING.canTransitionTo(PaymentStatus.COMPLETED));
+        assertFalse(PaymentStatus.FAILED.canTransitionTo(PaymentStatus.PROCESSING));
+        assertFalse(PaymentStatus.CANCELLED.canTransitionTo(PaymentStatus.COMPLETED));
+        assertFalse(PaymentStatus.AUTHORIZED.canTransitionTo(PaymentStatus.COMPLETED));
+        assertFalse(PaymentStatus.CAPTURING.canTransitionTo(PaymentStatus.VOIDED));
+        assertFalse(PaymentStatus.VOIDED.canTransitionTo(PaymentStatus.CAPTURING));
+    }
+}
@@ -51,4 +51,58 @@ class PaymentValidationServiceTest {
         request.setAmount(new BigDecimal("10.00"));
         assertThrows(IllegalArgumentException.class, () -> validationService.validatePaymentRequest(request));
     }
+
+    @Test
+    void validatePaymentRequest_tooManyDecimalPlaces_throws() {
+        PaymentRequest request = buildValidRequest();
+        request.setAmount(new BigDecimal("12.345"));
+        request.setOrderItems(List.of(new OrderItem("Widget", 1, new BigDecimal("12.345"))));
+        assertThrows(IllegalArgumentException.class, () -> validationService.validatePaymentRequest(request));
+    }
+
+    @Test
+    void validatePaymentRequest_multiItemTotalMatches_doesNotThrow() {
+        PaymentRequest request = buildValidRequest();
+        request.setAmount(new BigDecimal("35.97"));
+        request.setOrderItems(List.of(
+                new OrderItem("Widget", 2, new BigDecimal("12.34")),
+                new OrderItem("Gadget", 1, new BigDecimal("11.29"))));
+        assertDoesNotThrow(() -> validationService.validatePaymentRequest(request));
+    }
+
+    @Test
+    void validatePaymentRequest_unsupportedCurrency_throws() {
+        PaymentRequest request = buildValidRequest();
+        request.setCurrency("XYZ");
+        assertThrows(IllegalArgumentException.class, () -> validationService.validatePaymentRequest(request));
+    }
+
+    @Test
+    void validatePaymentRequest_zeroDecimalCurrency_rejectsFractionalAmount() {
+        PaymentRequest request = buildValidRequest();
+        request.setCurrency("JPY");
+        assertThrows(IllegalArgumentException.class, () -> validationService.validatePaymentRequest(request));
+
+        request.setAmount(new BigDecimal("1500"));
+        request.setOrderItems(List.of(new OrderItem("Widget", 3, new BigDecimal("500"))));
+        assertDoesNotThrow(() -> validationService.validatePaymentRequest(request));
+    }
+
+    @Test
+    void validateTokenPayment_checksOrderButNotCardFields() {
+        PaymentRequest request = buildValidRequest();
+        request.setCardholderName(null);
+        request.setCardNumber(null);
+        request.setExpiryDate(null);
+        request.setCvv(null);
+        request.setCardToken("tok_abc");
+        assertDoesNotThrow(() -> validationService.validateTokenPayment(request));
+
+        request.setCvv("12");
+        assertThrows(IllegalArgumentException.class, () -> validationService.validateTokenPayment(request));
+
+        request.setCvv(null);
+        request.setAmount(new BigDecimal("10.00"));
+        assertThrows(IllegalArgumentException.class, () -> validationService.validateTokenPayment(request));
+    }
 }
@@ -0,0 +1,84 @@
+package com.simplestore.paymentservice.service;
+
+import com.simplestore.paymentservice.dto.OrderItem;
+import com.simplestore.paymentservice.dto.PaymentRequest;
+import com.simplestore.paymentservice.dto.PaymentResponse;
+import com.simplestore.paymentservice.entity.Payment;
+import com.simplestore.paymentservice.entity.PaymentStatus;
+import com.simplestore.paymentservice.repository.ReactivePaymentRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ReactivePaymentServiceTest {
+
+    @Mock
+    private ReactivePaymentRepository paymentRepository;
+
+    @Mock
+    private PaymentValidationService validationService;
+
+    @Mock
+    private ReactiveGatewayClient gatewayClient;
+
+    @InjectMocks
+    private ReactivePaymentService paymentService;
+
+    @Captor
+    private ArgumentCaptor<Payment> paymentCaptor;
+
+    private PaymentRequest buildValidRequest() {
+        return new PaymentRequest(
+                "Jane Doe",
+                "4111111111111111",
+                "12/50",
+                "123",
+                new BigDecimal("12.34"),
+                List.of(new OrderItem("Widget", 1, new BigDecimal("12.34")))
+        );
+    }
+
+    @Test
+    void processPayment_successPath_insertsThenUpdatesOutcome() {
+        when(paymentRepository.insert(any())).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        when(paymentRepository.updateOutcome(any())).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        when(gatewayClient.processPayment(any()))
+                .thenReturn(Mono.just(PaymentResponse.success("TXN-123", new BigDecimal("12.34"))));
+
+        PaymentResponse response = paymentService.processPayment(buildValidRequest()).block();
+
+        assertEquals(PaymentStatus.COMPLETED, response.getStatus());
+        verify(paymentRepository).updateOutcome(paymentCaptor.capture());
+        assertEquals(PaymentStatus.COMPLETED, paymentCaptor.getValue().getStatus());
+        assertEquals("TXN-123", paymentCaptor.getValue().getTransactionId());
+        assertEquals("************1111", paymentCaptor.getValue().getCardNumber());
+    }
+
+    @Test
+    void processPayment_validationFailure_returnsFailureWithoutStoring() {
+        doThrow(new IllegalArgumentException("Invalid card number"))
+                .when(validationService).validatePaymentRequest(any());
+
+        PaymentResponse response = paymentService.processPayment(buildValidRequest()).block();
+
+        assertEquals(PaymentStatus.FAILED, response.getStatus());
+        assertEquals("Invalid card number", response.getErrorMessage());
+        verify(paymentRepository, never()).insert(any());
+    }
+}
@@ -0,0 +1,83 @@
+package com.simplestore.paymentservice.settlement;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MappedLineReaderTest {
+
+    @TempDir
+    Path directory;
+
+    private Path write(String content) throws IOException {
+        return Files.writeString(directory.resolve("lines.csv"), content, StandardCharsets.UTF_8);
+    }
+
+    private static List<String> readAll(Path file, int windowBytes) throws IOException {
+        List<String> lines = new ArrayList<>();
+        try (MappedLineReader reader = new MappedLineReader(file, windowBytes)) {
+            String line;
+            while ((line = reader.nextLine()) != null) {
+                lines.add(line);
+            }
+            assertEquals(reader.getSize(), reader.getPosition());
+        }
+        return lines;
+    }
+
+    @Test
+    void readsLinesAcrossWindowBoundaries() throws IOException {
+        List<String> expected = IntStream.range(0, 1_000)
+            .mapToObj(i -> "TXN-" + i + ",COMPLETED," + i + ".00,USD,2024-01-01T00:00")
+            .toList();
+        Path file = write(expected.stream().collect(Collectors.joining("\n", "", "\n")));
+
+        // Windows of a few lines, and one not aligned to anything
+        assertEquals(expected, readAll(file, 64));
+        assertEquals(expected, readAll(file, 97));
+        assertEquals(expected, readAll(file, 1 << 20));
+    }
+
+    @Test
+    void handlesCrLfAndMissingFinalNewline() throws IOException {
+        Path file = write("first\r\nsecond\r\n\r\nlast");
+
+        assertEquals(List.of("first", "second", "", "last"), readAll(file, 8));
+    }
+
+    @Test
+    void decodesMultiByteCharacters() throws IOException {
+        Path file = write("Zoë,€12\nJosé\n");
+
+        assertEquals(List.of("Zoë,€12", "José"), readAll(file, 16));
+    }
+
+    @Test
+    void readsNothingFromAnEmptyFile() throws IOException {
+        try (MappedLineReader reader = new MappedLineReader(write(""), 16)) {
+            assertNull(reader.nextLine());
+        }
+    }
+
+    @Test
+    void rejectsLineLongerThanTheWindow() throws IOException {
+        Path file = write("short\n" + "x".repeat(100) + "\n");
+
+        try (MappedLineReader reader = new MappedLineReader(file, 32)) {
+            assertEquals("short", reader.nextLine());
+            assertThrows(IOException.class, reader::nextLine);
+        }
+    }
+}
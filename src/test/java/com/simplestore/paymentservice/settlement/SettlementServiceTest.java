@@ -0,0 +1,228 @@
+package com.simplestore.paymentservice.settlement;
+
+import com.simplestore.paymentservice.config.SettlementProperties;
+import com.simplestore.paymentservice.dto.LedgerExport;
+import com.simplestore.paymentservice.dto.ReconciliationProgress;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SettlementServiceTest {
+
+    private static final LocalDateTime DAY = LocalDateTime.of(2024, 3, 1, 10, 0);
+
+    @TempDir
+    Path directory;
+
+    private DriverManagerDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private SimpleMeterRegistry registry;
+    private SettlementService service;
+
+    // While set, the reconciler blocks in its first lookup until the latch is released
+    private volatile CountDownLatch lookupGate;
+    private final CountDownLatch lookupStarted = new CountDownLatch(1);
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        dataSource = new DriverManagerDataSource("jdbc:h2:mem:settlement;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        for (String table : List.of("payments", "payments_archive")) {
+            jdbcTemplate.execute("CREATE TABLE " + table + " (id BIGINT PRIMARY KEY, amount NUMERIC(10, 2) NOT NULL, " +
+                    "currency VARCHAR(3) NOT NULL, status VARCHAR(255) NOT NULL, transaction_id VARCHAR(255) UNIQUE, " +
+                    "updated_at TIMESTAMP(6))");
+        }
+        registry = new SimpleMeterRegistry();
+        ObjectProvider<MeterRegistry> meterRegistry = mock(ObjectProvider.class);
+        when(meterRegistry.getIfAvailable()).thenReturn(registry);
+
+        SettlementProperties properties = new SettlementProperties();
+        properties.setDirectory(directory.toString());
+        properties.setChunkSize(3);
+        properties.setWindowMb(1);
+        // Small enough that the settled and completed IDs spill to disk
+        properties.setSpillRunSize(2);
+        JdbcTemplate gatedTemplate = new JdbcTemplate(dataSource) {
+            @Override
+            public void query(String sql, RowCallbackHandler handler, Object... args) {
+                CountDownLatch gate = lookupGate;
+                if (gate != null) {
+                    lookupStarted.countDown();
+                    try {
+                        gate.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                super.query(sql, handler, args);
+            }
+        };
+        service = new SettlementService(gatedTemplate,
+                new TransactionTemplate(new DataSourceTransactionManager(dataSource)), properties, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        service.stop();
+        jdbcTemplate.execute("DROP ALL OBJECTS");
+    }
+
+    private void insert(String table, long id, String transactionId, String status, String amount, LocalDateTime updatedAt) {
+        jdbcTemplate.update("INSERT INTO " + table + " (id, amount, currency, status, transaction_id, updated_at) " +
+                "VALUES (?, ?, 'USD', ?, ?, ?)", id, new BigDecimal(amount), status, transactionId,
+                Timestamp.valueOf(updatedAt));
+    }
+
+    private ReconciliationProgress awaitFinished(long id) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (System.currentTimeMillis() < deadline) {
+            ReconciliationProgress progress = service.getProgress(id).orElseThrow();
+            if (progress.status().equals("COMPLETED") || progress.status().equals("FAILED")) {
+                return progress;
+            }
+            Thread.sleep(10);
+        }
+        throw new AssertionError("Reconciliation " + id + " did not finish");
+    }
+
+    @Test
+    void reportsEachKindOfDiscrepancy() throws Exception {
+        insert("payments", 1, "TXN-1", "COMPLETED", "10.00", DAY);
+        insert("payments", 2, "TXN-2", "FAILED", "20.00", DAY);
+        insert("payments", 3, "TXN-3", "COMPLETED", "30.00", DAY);
+        insert("payments", 4, "TXN-4", "COMPLETED", "40.00", DAY);
+        insert("payments_archive", 5, "TXN-5", "COMPLETED", "50.00", DAY.minusYears(1));
+        // Completed on a day the file covers but not settled, one live and one archived
+        insert("payments", 6, "TXN-6", "COMPLETED", "60.00", DAY.plusHours(5));
+        insert("payments_archive", 7, "TXN-7", "COMPLETED", "70.00", DAY.minusYears(1).plusHours(1));
+        // Not settled either, but on a day the file does not cover, or not completed
+        insert("payments", 8, "TXN-8", "COMPLETED", "80.00", DAY.plusDays(1));
+        insert("payments", 9, "TXN-9", "PENDING", "90.00", DAY);
+        Files.writeString(directory.resolve("gateway.csv"), String.join("\n",
+                SettlementRecord.HEADER,
+                "TXN-1,COMPLETED,10.00,USD,2024-03-01T10:00",
+                "TXN-2,COMPLETED,20.00,USD,2024-03-01T10:00",
+                "TXN-3,COMPLETED,31.50,USD,2024-03-01T10:00",
+                "TXN-4,COMPLETED,40,EUR,2024-03-01T10:00",
+                "not,a,settlement,line",
+                "TXN-5,COMPLETED,50.00,USD,2023-03-01T10:00",
+                "TXN-UNKNOWN,COMPLETED,1.00,USD,2024-03-01T10:00") + "\n");
+
+        long id = service.startReconciliation("gateway.csv").id();
+        ReconciliationProgress progress = awaitFinished(id);
+
+        assertEquals("COMPLETED", progress.status());
+        assertEquals(7, progress.linesRead());
+        assertEquals(2, progress.matched());
+        assertEquals(100.0, progress.percentComplete());
+        assertEquals(1L, progress.discrepancies().get("STATUS_MISMATCH"));
+        assertEquals(1L, progress.discrepancies().get("AMOUNT_MISMATCH"));
+        assertEquals(1L, progress.discrepancies().get("CURRENCY_MISMATCH"));
+        assertEquals(1L, progress.discrepancies().get("MALFORMED_LINE"));
+        assertEquals(1L, progress.discrepancies().get("MISSING_PAYMENT"));
+        assertEquals(2L, progress.discrepancies().get("MISSING_SETTLEMENT"));
+        assertEquals(2.0, registry.counter("payment.settlement.lines", "result", "matched").count());
+        assertEquals(1.0, registry.counter("payment.settlement.discrepancies", "type", "MISSING_PAYMENT").count());
+
+        List<String> report = Files.readAllLines(service.getReport(id).orElseThrow());
+        assertEquals(SettlementService.REPORT_HEADER, report.get(0));
+        assertTrue(report.contains("3,TXN-2,STATUS_MISMATCH,COMPLETED,FAILED"), report.toString());
+        assertTrue(report.contains("4,TXN-3,AMOUNT_MISMATCH,31.50,30.00"), report.toString());
+        assertTrue(report.contains("5,TXN-4,CURRENCY_MISMATCH,EUR,USD"), report.toString());
+        assertTrue(report.contains("8,TXN-UNKNOWN,MISSING_PAYMENT,,"), report.toString());
+        assertTrue(report.contains(",TXN-6,MISSING_SETTLEMENT,,COMPLETED"), report.toString());
+        assertTrue(report.contains(",TXN-7,MISSING_SETTLEMENT,,COMPLETED"), report.toString());
+        assertEquals(8, report.size());
+        // The spilled runs are gone
+        try (var files = Files.list(directory)) {
+            assertTrue(files.noneMatch(file -> file.toString().endsWith(".run")));
+        }
+    }
+
+    @Test
+    void exportedLedgerReconcilesCleanly() throws Exception {
+        for (int i = 1; i <= 10; i++) {
+            insert("payments", i, "TXN-" + i, "COMPLETED", i + ".25", DAY.plusMinutes(i));
+        }
+        insert("payments", 11, "TXN-PENDING", "PENDING", "1.00", DAY);
+        insert("payments", 12, "TXN-NEXT-DAY", "COMPLETED", "1.00", DAY.plusDays(1));
+        insert("payments_archive", 13, "TXN-ARCHIVED", "COMPLETED", "1.00", DAY);
+
+        LedgerExport export = service.exportLedger(LocalDate.of(2024, 3, 1));
+
+        assertEquals(11, export.rows());
+        assertEquals("ledger-2024-03-01.csv", export.file());
+        long id = service.startReconciliation(export.file()).id();
+        ReconciliationProgress progress = awaitFinished(id);
+        assertEquals(11, progress.linesRead());
+        assertEquals(11, progress.matched());
+        assertTrue(progress.discrepancies().values().stream().allMatch(count -> count == 0));
+    }
+
+    @Test
+    void rejectsFilesOutsideTheSettlementDirectory() throws IOException {
+        Files.writeString(directory.resolveSibling("outside.csv"), SettlementRecord.HEADER);
+
+        assertThrows(IllegalArgumentException.class, () -> service.startReconciliation("../outside.csv"));
+        assertThrows(IllegalArgumentException.class, () -> service.startReconciliation("missing.csv"));
+        assertThrows(IllegalArgumentException.class, () -> service.startReconciliation(" "));
+        assertTrue(service.getJobs().isEmpty());
+    }
+
+    @Test
+    void reportIsOnlyAvailableOnceCompleted() throws Exception {
+        List<String> lines = new ArrayList<>();
+        lines.add(SettlementRecord.HEADER);
+        for (int i = 0; i < 10; i++) {
+            lines.add("TXN-" + i + ",COMPLETED,1.00,USD,2024-03-01T10:00");
+        }
+        Files.write(directory.resolve("small.csv"), lines);
+        CountDownLatch gate = new CountDownLatch(1);
+        lookupGate = gate;
+
+        long first = service.startReconciliation("small.csv").id();
+        assertTrue(lookupStarted.await(10, TimeUnit.SECONDS));
+        long second = service.startReconciliation("small.csv").id();
+
+        // The first job holds the reconciler thread, so the second is still waiting
+        assertEquals("RUNNING", service.getProgress(first).orElseThrow().status());
+        assertEquals("QUEUED", service.getProgress(second).orElseThrow().status());
+        assertThrows(IllegalStateException.class, () -> service.getReport(first));
+        assertThrows(IllegalStateException.class, () -> service.getReport(second));
+
+        lookupGate = null;
+        gate.countDown();
+        assertEquals("COMPLETED", awaitFinished(first).status());
+        assertEquals(10, awaitFinished(second).discrepancies().get("MISSING_PAYMENT"));
+        assertTrue(service.getReport(second).isPresent());
+        assertTrue(service.getReport(999).isEmpty());
+    }
+}
@@ -0,0 +1,73 @@
+package com.simplestore.paymentservice.settlement;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SortedSpillTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void valuesThatFitOneRunAreSortedWithoutTouchingDisk() throws IOException {
+        try (SortedSpill spill = new SortedSpill(directory, "test-", 10)) {
+            for (String value : List.of("TXN-3", "TXN-1", "TXN-2", "TXN-1")) {
+                spill.add(value);
+            }
+
+            assertEquals(List.of("TXN-1", "TXN-1", "TXN-2", "TXN-3"), drain(spill.sorted()));
+            assertEquals(4, spill.size());
+            assertEquals(0, runFiles());
+        }
+    }
+
+    @Test
+    void moreRunsThanOneMergeTakesAreMergedInRounds() throws IOException {
+        List<String> values = new ArrayList<>();
+        for (int i = 0; i < SortedSpill.MERGE_WIDTH * 6 + 1; i++) {
+            values.add("TXN-" + i);
+        }
+        Collections.shuffle(values, new Random(42));
+
+        try (SortedSpill spill = new SortedSpill(directory, "test-", 2)) {
+            for (String value : values) {
+                spill.add(value);
+            }
+            assertTrue(runFiles() > SortedSpill.MERGE_WIDTH);
+
+            List<String> sorted = drain(spill.sorted());
+
+            Collections.sort(values);
+            assertEquals(values, sorted);
+            assertTrue(runFiles() <= SortedSpill.MERGE_WIDTH);
+        }
+        assertEquals(0, runFiles());
+    }
+
+    private static List<String> drain(SortedSpill.Cursor cursor) throws IOException {
+        List<String> values = new ArrayList<>();
+        for (String value = cursor.next(); value != null; value = cursor.next()) {
+            values.add(value);
+        }
+        assertNull(cursor.next());
+        return values;
+    }
+
+    private long runFiles() throws IOException {
+        try (var files = Files.list(directory)) {
+            return files.filter(file -> file.toString().endsWith(".run")).count();
+        }
+    }
+}
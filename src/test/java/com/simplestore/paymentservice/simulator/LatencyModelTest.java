@@ -0,0 +1,73 @@
+package com.simplestore.paymentservice.simulator;
+
+import com.simplestore.paymentservice.config.GatewaySimulatorProperties;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LatencyModelTest {
+
+    private GatewaySimulatorProperties.Latency latency(GatewaySimulatorProperties.LatencyMode mode) {
+        GatewaySimulatorProperties.Latency latency = new GatewaySimulatorProperties().getLatency();
+        latency.setMode(mode);
+        return latency;
+    }
+
+    @Test
+    void zeroMode_alwaysReturnsZero() {
+        LatencyModel model = LatencyModel.from(latency(GatewaySimulatorProperties.LatencyMode.ZERO), new Random());
+        assertEquals(0L, model.nextLatencyMillis());
+    }
+
+    @Test
+    void uniformMode_staysWithinBounds() {
+        GatewaySimulatorProperties.Latency latency = latency(GatewaySimulatorProperties.LatencyMode.UNIFORM);
+        latency.setMinMs(10);
+        latency.setMaxMs(20);
+        LatencyModel model = LatencyModel.from(latency, new Random(1));
+
+        for (int i = 0; i < 1000; i++) {
+            long value = model.nextLatencyMillis();
+            assertTrue(value >= 10 && value <= 20, "latency out of range: " + value);
+        }
+    }
+
+    @Test
+    void sameSeed_producesSameSequence() {
+        GatewaySimulatorProperties.Latency latency = latency(GatewaySimulatorProperties.LatencyMode.LOGNORMAL);
+        LatencyModel first = LatencyModel.from(latency, new Random(99));
+        LatencyModel second = LatencyModel.from(latency, new Random(99));
+
+        for (int i = 0; i < 100; i++) {
+            assertEquals(first.nextLatencyMillis(), second.nextLatencyMillis());
+        }
+    }
+
+    @Test
+    void replayMode_playsTraceInOrderAndWraps(@TempDir Path tempDir) throws IOException {
+        Path trace = tempDir.resolve("gateway.trace");
+        Files.writeString(trace, "# recorded latencies\n5\n10\n\n15\n");
+        GatewaySimulatorProperties.Latency latency = latency(GatewaySimulatorProperties.LatencyMode.REPLAY);
+        latency.setTraceFile(trace.toString());
+        LatencyModel model = LatencyModel.from(latency, new Random());
+
+        assertEquals(5L, model.nextLatencyMillis());
+        assertEquals(10L, model.nextLatencyMillis());
+        assertEquals(15L, model.nextLatencyMillis());
+        assertEquals(5L, model.nextLatencyMillis());
+    }
+
+    @Test
+    void replayMode_withoutTraceFile_throws() {
+        GatewaySimulatorProperties.Latency latency = latency(GatewaySimulatorProperties.LatencyMode.REPLAY);
+        assertThrows(IllegalArgumentException.class, () -> LatencyModel.from(latency, new Random()));
+    }
+}
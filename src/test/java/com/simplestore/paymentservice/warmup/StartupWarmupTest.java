@@ -0,0 +1,104 @@
+package com.simplestore.paymentservice.warmup;
+
+import com.simplestore.paymentservice.repository.PaymentRepository;
+import com.simplestore.paymentservice.search.PaymentSearchIndex;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.event.EventListener;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:warmup;DB_CLOSE_DELAY=-1",
+        "spring.jpa.show-sql=false",
+        "logging.level.org.hibernate.SQL=INFO",
+        "payment.archive.enabled=false",
+        "payment.recovery.enabled=false",
+        "payment.warmup.iterations=500",
+        "payment.warmup.query-iterations=20"
+})
+class StartupWarmupTest {
+
+    @Autowired
+    private StartupWarmup warmup;
+
+    @Autowired
+    private ApplicationAvailability availability;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private PaymentSearchIndex searchIndex;
+
+    @Autowired
+    private ReadinessRecorder readinessRecorder;
+
+    /**
+     * Records every readiness change together with whether the warm-up had finished by then
+     */
+    static class ReadinessRecorder {
+
+        record Change(ReadinessState state, boolean warmupDone) {
+        }
+
+        final List<Change> changes = new CopyOnWriteArrayList<>();
+
+        @Autowired
+        private StartupWarmup warmup;
+
+        @EventListener
+        void onChange(AvailabilityChangeEvent<ReadinessState> event) {
+            changes.add(new Change(event.getState(), warmup.getLastResult() != null));
+        }
+    }
+
+    @TestConfiguration
+    static class RecorderConfig {
+
+        @Bean
+        ReadinessRecorder readinessRecorder() {
+            return new ReadinessRecorder();
+        }
+    }
+
+    @Test
+    void runsBeforeTheServiceAcceptsTraffic() {
+        StartupWarmup.WarmupResult result = warmup.getLastResult();
+
+        assertNotNull(result);
+        assertTrue(result.complete(), result.toString());
+        assertEquals(500, result.requests());
+        assertEquals(20, result.repositoryRoundTrips());
+        assertEquals(ReadinessState.ACCEPTING_TRAFFIC, availability.getReadinessState());
+    }
+
+    @Test
+    void readinessRefusesTrafficUntilTheWarmUpIsDone() {
+        // Seen from inside the warm-up
+        assertEquals(ReadinessState.REFUSING_TRAFFIC, warmup.getLastResult().readiness());
+
+        // And from outside: the only switch to ACCEPTING_TRAFFIC came after the warm-up had finished
+        List<ReadinessRecorder.Change> accepting = readinessRecorder.changes.stream()
+            .filter(change -> change.state() == ReadinessState.ACCEPTING_TRAFFIC)
+            .toList();
+        assertEquals(List.of(new ReadinessRecorder.Change(ReadinessState.ACCEPTING_TRAFFIC, true)), accepting);
+    }
+
+    @Test
+    void leavesNoSyntheticPaymentsBehind() {
+        assertEquals(0, paymentRepository.count());
+        assertEquals(0, searchIndex.size());
+    }
+}
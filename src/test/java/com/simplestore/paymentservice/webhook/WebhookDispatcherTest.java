@@ -0,0 +1,263 @@
+package com.simplestore.paymentservice.webhook;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.simplestore.paymentservice.dto.WebhookEndpointRequest;
+import com.simplestore.paymentservice.dto.WebhookEvent;
+import com.simplestore.paymentservice.entity.Payment;
+import com.simplestore.paymentservice.entity.PaymentStatus;
+import com.simplestore.paymentservice.entity.WebhookDelivery;
+import com.simplestore.paymentservice.entity.WebhookDeliveryStatus;
+import com.simplestore.paymentservice.entity.WebhookEndpoint;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:webhook;DB_CLOSE_DELAY=-1",
+        "spring.jpa.show-sql=false",
+        "logging.level.org.hibernate.SQL=INFO",
+        "payment.archive.enabled=false",
+        "payment.recovery.enabled=false",
+        "payment.webhook.poll-interval-ms=20",
+        "payment.webhook.initial-backoff-ms=50",
+        "payment.webhook.max-backoff-ms=200",
+        "payment.webhook.max-attempts=3"
+})
+class WebhookDispatcherTest {
+
+    private static final String SECRET = "whsec_0123456789abcdef";
+
+    // Shared by all tests, so deliveries left over from one test never match another's payments
+    private static final AtomicLong nextPaymentId = new AtomicLong(1);
+
+    @Autowired
+    private WebhookService webhookService;
+
+    @Autowired
+    private WebhookOutbox outbox;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private HttpServer receiver;
+    private final Queue<Received> received = new ConcurrentLinkedQueue<>();
+    // Requests answered 500 before the receiver starts accepting
+    private final AtomicInteger failuresLeft = new AtomicInteger();
+    private final AtomicInteger concurrent = new AtomicInteger();
+    private final AtomicInteger maxConcurrent = new AtomicInteger();
+    private volatile long delayMillis;
+
+    @BeforeEach
+    void startReceiver() throws IOException {
+        receiver = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        receiver.setExecutor(Executors.newFixedThreadPool(32));
+        receiver.createContext("/hooks", exchange -> {
+            int now = concurrent.incrementAndGet();
+            maxConcurrent.accumulateAndGet(now, Math::max);
+            try (InputStream in = exchange.getRequestBody()) {
+                String body = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+                if (delayMillis > 0) {
+                    Thread.sleep(delayMillis);
+                }
+                received.add(new Received(body,
+                        exchange.getRequestHeaders().getFirst(WebhookSigner.TIMESTAMP_HEADER),
+                        exchange.getRequestHeaders().getFirst(WebhookSigner.SIGNATURE_HEADER)));
+                int status = failuresLeft.getAndDecrement() > 0 ? 500 : 200;
+                exchange.sendResponseHeaders(status, -1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                concurrent.decrementAndGet();
+                exchange.close();
+            }
+        });
+        receiver.start();
+    }
+
+    @AfterEach
+    void stopReceiver() {
+        webhookService.getEndpoints().forEach(endpoint -> webhookService.remove(endpoint.getId()));
+        receiver.stop(0);
+    }
+
+    private WebhookEndpoint register(boolean batch, Integer maxConcurrency) {
+        String url = "http://localhost:" + receiver.getAddress().getPort() + "/hooks";
+        return webhookService.register(new WebhookEndpointRequest(url, SECRET, batch, maxConcurrency));
+    }
+
+    private List<Long> publish(int count, PaymentStatus status) {
+        List<Payment> payments = IntStream.range(0, count).mapToObj(i -> {
+            Payment payment = new Payment("Jane Doe", "************1111", "12/30", "***", new BigDecimal("25.00"));
+            payment.setId(nextPaymentId.getAndIncrement());
+            payment.setTransactionId("TXN-HOOK-" + payment.getId());
+            return payment;
+        }).toList();
+        transactionTemplate.executeWithoutResult(tx ->
+                outbox.enqueue(payments.stream().map(payment -> WebhookEvent.of(payment, status)).toList()));
+        return payments.stream().map(Payment::getId).toList();
+    }
+
+    private WebhookDelivery deliveryOf(Long paymentId) {
+        List<WebhookDelivery> deliveries = webhookService.getDeliveries(paymentId);
+        assertEquals(1, deliveries.size());
+        return deliveries.get(0);
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new AssertionError("Condition not met within 10s");
+            }
+            Thread.sleep(10);
+        }
+    }
+
+    @Test
+    void deliversSignedEventOnce() throws Exception {
+        register(false, null);
+        Long paymentId = publish(1, PaymentStatus.COMPLETED).get(0);
+
+        awaitTrue(() -> deliveryOf(paymentId).getStatus() == WebhookDeliveryStatus.DELIVERED);
+
+        assertEquals(1, received.size());
+        Received request = received.peek();
+        assertTrue(WebhookSigner.verify(SECRET, Long.parseLong(request.timestamp()), request.body(), request.signature()));
+        JsonNode event = objectMapper.readTree(request.body());
+        assertEquals("payment.completed", event.get("type").asText());
+        assertEquals(paymentId.longValue(), event.get("paymentId").asLong());
+        assertTrue(event.get("id").asText().startsWith("evt_"));
+        assertEquals(1, deliveryOf(paymentId).getAttempts());
+    }
+
+    @Test
+    void internalStatusesAreNotPublished() {
+        register(false, null);
+        Long paymentId = publish(1, PaymentStatus.PROCESSING).get(0);
+
+        assertTrue(webhookService.getDeliveries(paymentId).isEmpty());
+    }
+
+    @Test
+    void retriesAfterServerErrors() throws Exception {
+        failuresLeft.set(2);
+        register(false, null);
+        Long paymentId = publish(1, PaymentStatus.DECLINED).get(0);
+
+        awaitTrue(() -> deliveryOf(paymentId).getStatus() == WebhookDeliveryStatus.DELIVERED);
+
+        assertEquals(3, received.size());
+        assertEquals(3, deliveryOf(paymentId).getAttempts());
+        // Every attempt carries the same event, so the receiver can deduplicate
+        assertEquals(1, received.stream().map(Received::body).distinct().count());
+    }
+
+    @Test
+    void givesUpAfterMaxAttempts() throws Exception {
+        failuresLeft.set(Integer.MAX_VALUE);
+        register(false, null);
+        Long paymentId = publish(1, PaymentStatus.FAILED).get(0);
+
+        awaitTrue(() -> deliveryOf(paymentId).getStatus() == WebhookDeliveryStatus.FAILED);
+
+        WebhookDelivery delivery = deliveryOf(paymentId);
+        assertEquals(3, delivery.getAttempts());
+        assertEquals("HTTP 500", delivery.getLastError());
+        assertEquals(3, received.size());
+    }
+
+    @Test
+    void limitsRequestsInFlightPerEndpoint() throws Exception {
+        delayMillis = 50;
+        register(false, 2);
+        List<Long> paymentIds = publish(20, PaymentStatus.COMPLETED);
+
+        awaitTrue(() -> paymentIds.stream()
+                .allMatch(id -> deliveryOf(id).getStatus() == WebhookDeliveryStatus.DELIVERED));
+
+        assertEquals(20, received.size());
+        assertEquals(2, maxConcurrent.get());
+    }
+
+    @Test
+    void batchEndpointReceivesArrays() throws Exception {
+        register(true, null);
+        List<Long> paymentIds = publish(30, PaymentStatus.AUTHORIZED);
+
+        awaitTrue(() -> paymentIds.stream()
+                .allMatch(id -> deliveryOf(id).getStatus() == WebhookDeliveryStatus.DELIVERED));
+
+        // Committed together, so one poll sees all of them and they fit in one batch
+        assertEquals(1, received.size());
+        Received request = received.peek();
+        assertTrue(WebhookSigner.verify(SECRET, Long.parseLong(request.timestamp()), request.body(), request.signature()));
+        JsonNode events = objectMapper.readTree(request.body());
+        assertTrue(events.isArray());
+        assertEquals(30, events.size());
+    }
+
+    @Test
+    void removingEndpointDropsPendingDeliveries() throws Exception {
+        failuresLeft.set(Integer.MAX_VALUE);
+        WebhookEndpoint endpoint = register(false, null);
+        Long paymentId = publish(1, PaymentStatus.CANCELLED).get(0);
+        awaitTrue(() -> !received.isEmpty());
+
+        assertTrue(webhookService.remove(endpoint.getId()));
+
+        WebhookDelivery delivery = deliveryOf(paymentId);
+        assertEquals(WebhookDeliveryStatus.FAILED, delivery.getStatus());
+        assertEquals("Endpoint removed", delivery.getLastError());
+        assertFalse(webhookService.remove(endpoint.getId()));
+    }
+
+    @Test
+    void rejectsNonHttpUrls() {
+        assertThrows(IllegalArgumentException.class, () -> webhookService.register(
+                new WebhookEndpointRequest("ftp://example.com/hooks", SECRET, false, null)));
+        assertThrows(IllegalArgumentException.class, () -> webhookService.register(
+                new WebhookEndpointRequest("/hooks", SECRET, false, null)));
+    }
+
+    @Test
+    void backoffDoublesUpToTheCapWithJitter() {
+        for (int i = 0; i < 100; i++) {
+            long first = WebhookDispatcher.backoffMillis(1, 1000, 3_600_000);
+            assertTrue(first >= 500 && first <= 1000, "first retry " + first);
+            long fourth = WebhookDispatcher.backoffMillis(4, 1000, 3_600_000);
+            assertTrue(fourth >= 4000 && fourth <= 8000, "fourth retry " + fourth);
+            long late = WebhookDispatcher.backoffMillis(40, 1000, 3_600_000);
+            assertTrue(late >= 1_800_000 && late <= 3_600_000, "capped retry " + late);
+        }
+    }
+
+    private record Received(String body, String timestamp, String signature) {
+    }
+}